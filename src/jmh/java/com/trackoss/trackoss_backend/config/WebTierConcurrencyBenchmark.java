@@ -0,0 +1,168 @@
+package com.trackoss.trackoss_backend.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of concurrent slow clients against the two execution models, as average time until the whole
+ * burst is served.
+ *
+ * Each request reads its body from the client, runs one indexed query on a pooled connection and writes
+ * the response back; the client transfers take 10 to 30 ms each, modelled as blocking sleeps like a
+ * socket read or write. PLATFORM is the current thread-per-request model: Tomcat's default 200 worker
+ * threads in front of the 10 connection Hikari pool. VIRTUAL is the virtual-threads profile: one virtual
+ * thread per request and a {@link BulkheadDataSource} with one permit per pooled connection. The bulkhead
+ * queue is unbounded here, so every request is served and both models do the same work.
+ *
+ * connection says when the request hands its connection back. RELEASED closes it after the query, as the
+ * exports do since they read the route in a transaction of their own; HELD keeps it until the response is
+ * written, as the exports did before (and any request does with open-in-view). With HELD the ten
+ * connections, not the threads, limit both models to about ten clients at a time.
+ *
+ * This isolates the thread model in one JVM. To load test a deployed instance, point an HTTP load generator
+ * at it, once with and once without SPRING_PROFILES_ACTIVE=virtual-threads.
+ *
+ * Runs against in-memory H2 by default (./gradlew jmh -Pjmh.includes=WebTierConcurrency), or a scratch
+ * PostgreSQL database with -Pjmh.jdbcUrl=...; the benchmark recreates the routes table there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WebTierConcurrencyBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int POOL_SIZE = 10;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String threadModel;
+
+    @Param({"200", "2000", "10000"})
+    private int clients;
+
+    @Param({"RELEASED", "HELD"})
+    private String connection;
+
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService executor;
+    private long[] transferMillis;
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("benchmark.jdbcUrl", "jdbc:h2:mem:web-tier;DB_CLOSE_DELAY=-1"));
+        config.setUsername(System.getProperty("benchmark.jdbcUser", "sa"));
+        config.setPassword(System.getProperty("benchmark.jdbcPassword", ""));
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(Duration.ofMinutes(1).toMillis());
+        pool = new HikariDataSource(config);
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS routes");
+            statement.execute("CREATE TABLE routes (id INTEGER PRIMARY KEY, difficulty INTEGER)");
+            statement.execute("CREATE INDEX idx_routes_difficulty ON routes (difficulty)");
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO routes VALUES (?, ?)")) {
+                for (int i = 0; i < 10_000; i++) {
+                    insert.setInt(1, i);
+                    insert.setInt(2, i % 5 + 1);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+
+        if ("VIRTUAL".equals(threadModel)) {
+            dataSource = new BulkheadDataSource(pool, POOL_SIZE, Integer.MAX_VALUE, Duration.ofMinutes(1));
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            dataSource = pool;
+            executor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        }
+
+        // Same client speeds for both models
+        Random random = new Random(42);
+        transferMillis = new long[clients * 2];
+        for (int i = 0; i < transferMillis.length; i++) {
+            transferMillis[i] = 10 + random.nextInt(21);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Benchmark
+    public long burst() throws InterruptedException, ExecutionException {
+        List<Future<Long>> requests = new ArrayList<>(clients);
+        for (int client = 0; client < clients; client++) {
+            int id = client;
+            requests.add(executor.submit(() -> handle(id)));
+        }
+        long routes = 0;
+        for (Future<Long> request : requests) {
+            routes += request.get();
+        }
+        return routes;
+    }
+
+    private long handle(int client) throws InterruptedException, SQLException {
+        Thread.sleep(transferMillis[client * 2]); // reading the request from the client
+        long count;
+        Connection held = dataSource.getConnection();
+        try {
+            count = countRoutes(held, client % 5 + 1);
+            if ("HELD".equals(connection)) {
+                Thread.sleep(transferMillis[client * 2 + 1]); // writing the response with the connection open
+                return count;
+            }
+        } finally {
+            held.close();
+        }
+        Thread.sleep(transferMillis[client * 2 + 1]); // writing the response to the client
+        return count;
+    }
+
+    private static long countRoutes(Connection connection, int difficulty) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT COUNT(*) FROM routes WHERE difficulty = ?")) {
+            query.setInt(1, difficulty);
+            try (ResultSet result = query.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+}
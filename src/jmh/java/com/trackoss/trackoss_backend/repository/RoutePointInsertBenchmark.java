@@ -0,0 +1,178 @@
+package com.trackoss.trackoss_backend.repository;
+
+import com.trackoss.trackoss_backend.entity.TimeOrderedUuid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput for one 50k point route, reported as points per second.
+ *
+ * rowByRowRandomIds replays the statements of the old cascade path: random UUIDs, and for each point
+ * the existence SELECT issued by merge followed by a single-row INSERT. The batched variants use the
+ * statement and batch size of {@link RoutePointBatchWriter}, once with random and once with time ordered ids.
+ *
+ * Runs against in-memory H2 by default (./gradlew jmh -Pjmh.includes=RoutePointInsert). Index locality
+ * only shows once route_points outgrows the buffer cache, so for that measure against PostgreSQL
+ * (-Pjmh.jdbcUrl=...) with a few million preloadedRows. The benchmark drops and recreates routes and
+ * route_points; only point it at a scratch database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RoutePointInsertBenchmark {
+
+    private static final int POINTS = 50_000;
+
+    private static final String SELECT_SQL = "SELECT id FROM route_points WHERE id = ?";
+
+    @Param({"0"})
+    private int preloadedRows;
+
+    private Connection connection;
+    private UUID routeId;
+
+    @Setup(Level.Trial)
+    public void createSchema() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbcUrl", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1"),
+                System.getProperty("benchmark.jdbcUser", "sa"),
+                System.getProperty("benchmark.jdbcPassword", ""));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS route_points");
+            statement.execute("DROP TABLE IF EXISTS routes");
+            statement.execute("CREATE TABLE routes (id UUID PRIMARY KEY, name VARCHAR(255))");
+            // Same columns as the Hibernate generated table
+            statement.execute("CREATE TABLE route_points (id UUID PRIMARY KEY, "
+                    + "route_id UUID NOT NULL REFERENCES routes (id), sequence_order INTEGER NOT NULL, "
+                    + "latitude DOUBLE PRECISION NOT NULL, longitude DOUBLE PRECISION NOT NULL, "
+                    + "elevation DOUBLE PRECISION, timestamp TIMESTAMP, point_type VARCHAR(255), "
+                    + "name VARCHAR(255), description TEXT)");
+        }
+        connection.setAutoCommit(false);
+
+        UUID preloadRoute = insertRoute();
+        for (int offset = 0; offset < preloadedRows; offset += POINTS) {
+            insertBatched(preloadRoute, Math.min(POINTS, preloadedRows - offset), TimeOrderedUuid::next);
+        }
+        connection.commit();
+    }
+
+    @Setup(Level.Invocation)
+    public void createRoute() throws SQLException {
+        routeId = insertRoute();
+        connection.commit();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteRoute() throws SQLException {
+        try (PreparedStatement points = connection.prepareStatement("DELETE FROM route_points WHERE route_id = ?");
+             PreparedStatement route = connection.prepareStatement("DELETE FROM routes WHERE id = ?")) {
+            points.setObject(1, routeId);
+            points.executeUpdate();
+            route.setObject(1, routeId);
+            route.executeUpdate();
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void rowByRowRandomIds() throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_SQL);
+             PreparedStatement insert = connection.prepareStatement(RoutePointBatchWriter.INSERT_SQL)) {
+            for (int i = 0; i < POINTS; i++) {
+                UUID id = UUID.randomUUID();
+                select.setObject(1, id);
+                try (ResultSet ignored = select.executeQuery()) {
+                    // merge only needs to know the row is missing
+                }
+                bindPoint(insert, id, routeId, i);
+                insert.executeUpdate();
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void batchedRandomIds() throws SQLException {
+        insertBatched(routeId, POINTS, UUID::randomUUID);
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void batchedTimeOrderedIds() throws SQLException {
+        insertBatched(routeId, POINTS, TimeOrderedUuid::next);
+        connection.commit();
+    }
+
+    private UUID insertRoute() throws SQLException {
+        UUID id = UUID.randomUUID();
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO routes (id, name) VALUES (?, ?)")) {
+            statement.setObject(1, id);
+            statement.setString(2, "Benchmark Route");
+            statement.executeUpdate();
+        }
+        return id;
+    }
+
+    private void insertBatched(UUID route, int count, Supplier<UUID> ids) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(RoutePointBatchWriter.INSERT_SQL)) {
+            for (int i = 0; i < count; i++) {
+                bindPoint(insert, ids.get(), route, i);
+                insert.addBatch();
+                if ((i + 1) % RoutePointBatchWriter.BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void bindPoint(PreparedStatement statement, UUID id, UUID route, int sequence) throws SQLException {
+        statement.setObject(1, id);
+        statement.setObject(2, route);
+        statement.setInt(3, sequence);
+        statement.setDouble(4, 47.0 + sequence * 0.00001);
+        statement.setDouble(5, 8.0 + sequence * 0.00001);
+        statement.setObject(6, 400.0 + (sequence % 100), Types.DOUBLE);
+        statement.setTimestamp(7, Timestamp.valueOf(LocalDateTime.of(2024, 8, 8, 12, 0).plusSeconds(sequence)));
+        statement.setString(8, "TRACK_POINT");
+        statement.setString(9, null);
+        statement.setString(10, null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.trackoss.trackoss_backend.security;
+
+import com.trackoss.trackoss_backend.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification on the authentication filter path, as average time per request.
+ *
+ * legacyValidateThenParse replays what the filter did before the verifier was cached: validateToken and
+ * getUsernameFromToken each decoded the base64 secret, built a key and a JwtParser and verified the
+ * token, so every request paid for two of each. validateToken and parseOnce are the current provider
+ * calls, and filter runs the whole JwtAuthenticationFilter with an in-memory user lookup so the database
+ * is not measured; with stateless=true it builds the principal from the token claims and skips that lookup.
+ *
+ * Run with ./gradlew jmh -Pjmh.includes=JwtAuthentication
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    private String secret;
+    private String token;
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+
+    @Setup(Level.Trial)
+    public void createToken() {
+        secret = Encoders.BASE64.encode(Jwts.SIG.HS256.key().build().getEncoded());
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3_600_000);
+        User rider = User.builder().id(1L).username("rider").password("unused").role(User.Role.USER).build();
+        UserDetails user = new UserPrincipal(rider);
+        token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        UserDetailsService userDetailsService = username -> user;
+        filter = new JwtAuthenticationFilter(tokenProvider,
+                new TokenPrincipalResolver(userDetailsService, stateless, Duration.ZERO));
+    }
+
+    @Benchmark
+    public String legacyValidateThenParse() {
+        SecretKey validationKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        Jwts.parser().verifyWith(validationKey).build().parseSignedClaims(token);
+
+        SecretKey parsingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return Jwts.parser().verifyWith(parsingKey).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String parseOnce() {
+        return tokenProvider.parseToken(token).map(Claims::getSubject).orElseThrow();
+    }
+
+    @Benchmark
+    public Authentication filter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/routes");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
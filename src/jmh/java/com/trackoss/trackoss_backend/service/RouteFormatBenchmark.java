@@ -0,0 +1,105 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPX and GeoJSON import and export of one synthetic track, as average time per route.
+ *
+ * gpxImport is the jpx document import behind GpxService.importFromGpx, gpxImportStreaming the pull
+ * parser the upload endpoint uses. gpxExport and geoJsonExport build the whole document in memory, the
+ * write variants stream it the way the export endpoints do, into a sink that discards the bytes.
+ * Run with -prof gc to see allocation per operation next to the time.
+ *
+ * Run with ./gradlew jmh -Pjmh.includes=RouteFormat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RouteFormatBenchmark {
+
+    @Param({"100", "10000", "100000", "500000"})
+    private int points;
+
+    private final TrackStorageService trackStorageService = new TrackStorageService();
+    private final GpxService gpxService = new GpxService(trackStorageService);
+    private final GeoJsonService geoJsonService =
+            new GeoJsonService(new ObjectMapper(), trackStorageService, RouteMeters.none());
+
+    private Route route;
+    private byte[] gpx;
+    private String geoJson;
+
+    @Setup(Level.Trial)
+    public void createTrack() throws IOException {
+        route = SyntheticTracks.route(points, Route.RouteType.HIKING);
+        gpx = gpxService.exportToGpx(route);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        geoJsonService.writeGeoJson(route, List.of(), route.getRoutePoints().iterator(), null, out);
+        geoJson = out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public RouteCreateRequest gpxImport() throws IOException {
+        return gpxService.importFromGpx(gpx, null);
+    }
+
+    @Benchmark
+    public int gpxImportStreaming() throws IOException {
+        int[] count = new int[1];
+        gpxService.readGpx(new ByteArrayInputStream(gpx), (RoutePoint point) -> count[0]++);
+        return count[0];
+    }
+
+    @Benchmark
+    public byte[] gpxExport() throws IOException {
+        return gpxService.exportToGpx(route);
+    }
+
+    @Benchmark
+    public int gpxWrite() throws IOException {
+        return gpxService.writeGpx(route, List.of(), route.getRoutePoints().iterator(), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public RouteCreateRequest geoJsonImport() throws IOException {
+        return geoJsonService.importFromGeoJson(geoJson, null);
+    }
+
+    @Benchmark
+    public String geoJsonExport() throws IOException {
+        return geoJsonService.exportToGeoJson(route);
+    }
+
+    @Benchmark
+    public int geoJsonWrite() throws IOException {
+        return geoJsonService.writeGeoJson(route, List.of(), route.getRoutePoints().iterator(), null,
+                OutputStream.nullOutputStream());
+    }
+}
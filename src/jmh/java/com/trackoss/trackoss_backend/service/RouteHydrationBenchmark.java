@@ -0,0 +1,143 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.trackoss.trackoss_backend.entity.Route;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling 1000 Route entities from row values through their setters, as average time per 1000 routes.
+ *
+ * legacySetters replays what setMetadata and setDifficulty used to do on every call: a new ObjectMapper,
+ * a parse of the metadata and a rewrite of it for the difficulty (without the console output, which only
+ * added to it). setters is the same with the plain setters routes have now. writePathSync adds the
+ * RouteMetadataSync call that RouteService now makes only when a route is created or changed.
+ *
+ * Run with ./gradlew jmh -Pjmh.includes=RouteHydration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteHydrationBenchmark {
+
+    private static final int ROUTES = 1000;
+
+    private static final String[] SURFACES = {"asphalt", "gravel", "dirt", "trail"};
+
+    private final RouteMetadataSync routeMetadataSync = new RouteMetadataSync(new ObjectMapper());
+
+    private final List<Row> rows = new ArrayList<>(ROUTES);
+
+    private record Row(UUID id, String name, LocalDateTime createdAt, Double totalDistance, Integer difficulty,
+                       String metadata) {
+    }
+
+    @Setup(Level.Trial)
+    public void createRows() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 6, 1, 8, 0);
+        for (int i = 0; i < ROUTES; i++) {
+            int difficulty = i % 5 + 1;
+            rows.add(new Row(UUID.nameUUIDFromBytes(("route-" + i).getBytes()), "Route " + i,
+                    createdAt.plusMinutes(i), 1000.0 + i * 37.0, difficulty,
+                    "{\"surface\":\"" + SURFACES[i % SURFACES.length] + "\",\"difficulty\":" + difficulty +
+                    ",\"traffic\":\"low\"}"));
+        }
+    }
+
+    @Benchmark
+    public List<Route> setters() {
+        List<Route> routes = new ArrayList<>(ROUTES);
+        for (Row row : rows) {
+            Route route = fill(row);
+            route.setMetadata(row.metadata());
+            route.setDifficulty(row.difficulty());
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    @Benchmark
+    public List<Route> legacySetters() {
+        List<Route> routes = new ArrayList<>(ROUTES);
+        for (Row row : rows) {
+            Route route = fill(row);
+            legacySetMetadata(route, row.metadata());
+            legacySetDifficulty(route, row.difficulty());
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    @Benchmark
+    public List<Route> writePathSync() {
+        List<Route> routes = new ArrayList<>(ROUTES);
+        for (Row row : rows) {
+            Route route = fill(row);
+            routeMetadataSync.apply(route, row.metadata(), row.difficulty());
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    private static Route fill(Row row) {
+        Route route = new Route();
+        route.setId(row.id());
+        route.setName(row.name());
+        route.setCreatedAt(row.createdAt());
+        route.setUpdatedAt(row.createdAt());
+        route.setTotalDistance(row.totalDistance());
+        route.setRouteType(Route.RouteType.CYCLING);
+        route.setIsPublic(true);
+        return route;
+    }
+
+    // The removed Route.setMetadata body
+    private static void legacySetMetadata(Route route, String metadata) {
+        route.setMetadata(metadata);
+        if (metadata != null && !metadata.isEmpty()) {
+            try {
+                JsonNode metadataJson = new ObjectMapper().readTree(metadata);
+                if (metadataJson.has("difficulty")) {
+                    route.setDifficulty(metadataJson.get("difficulty").asInt());
+                }
+            } catch (Exception e) {
+                // ignored, as before
+            }
+        }
+    }
+
+    // The removed Route.setDifficulty body
+    private static void legacySetDifficulty(Route route, Integer difficulty) {
+        route.setDifficulty(difficulty);
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode metadataJson = route.getMetadata() != null && !route.getMetadata().isEmpty()
+                    ? (ObjectNode) mapper.readTree(route.getMetadata())
+                    : mapper.createObjectNode();
+            metadataJson.put("difficulty", difficulty);
+            route.setMetadata(mapper.writeValueAsString(metadataJson));
+        } catch (Exception e) {
+            // ignored, as before
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.entity.Route;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the full RouteResponse of GET /api/routes/{id} from a loaded route, as average time per route.
+ *
+ * With ROWS storage the points are already entities, with PACKED storage they are decoded from track_data
+ * first. convertAndSerialize adds the Jackson serialization of the response, which is what a cache miss
+ * costs beyond the database reads.
+ *
+ * Run with ./gradlew jmh -Pjmh.includes=RouteResponse
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RouteResponseBenchmark {
+
+    @Param({"100", "10000", "100000", "500000"})
+    private int points;
+
+    @Param({"ROWS", "PACKED"})
+    private Route.StorageMode storageMode;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private TrackStorageService trackStorageService;
+    private Route route;
+
+    @Setup(Level.Trial)
+    public void createRoute() {
+        trackStorageService = new TrackStorageService();
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", storageMode);
+
+        route = SyntheticTracks.route(points, Route.RouteType.CYCLING);
+        trackStorageService.storePoints(route);
+    }
+
+    @Benchmark
+    public RouteResponse convertToResponse() {
+        return RouteService.convertToResponse(trackStorageService, route, route.getRoutePoints());
+    }
+
+    @Benchmark
+    public void convertAndSerialize() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(),
+                RouteService.convertToResponse(trackStorageService, route, route.getRoutePoints()));
+    }
+}
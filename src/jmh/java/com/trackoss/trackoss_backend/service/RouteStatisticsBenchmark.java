@@ -0,0 +1,123 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.entity.RouteStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route statistics over one track, as average time per route.
+ *
+ * legacyTwoPass is the loop calculateMissingStatistics ran before the metrics pipeline: one walk over
+ * the RoutePoint list for distance and a second one for elevation gain, with the Haversine formula
+ * converting both latitudes to radians and taking both cosines again for every segment. The pipeline
+ * variants run all built-in metrics (distance, elevation, grade histogram, moving time, bounding box and
+ * duration) in one pass, once over the entity list and once over the packed arrays the import and storage
+ * paths already hold; distanceAndElevationPacked shows the cost of the shared per-point work alone.
+ * kernelPacked runs the metrics of the original single-pass kernel (distance, elevation gain, loss and
+ * range, steepest grade, moving time, plus the bounding box) without smoothing and profile, so it stays
+ * comparable with the allocation-free loop that replaced legacyTwoPass.
+ * calculateRouteStatistics is the service entry point used on route updates, pipeline plus route fields.
+ *
+ * Run with ./gradlew jmh -Pjmh.includes=RouteStatistics
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteStatisticsBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "500000"})
+    private int points;
+
+    private final RouteStatisticsService routeStatisticsService = new RouteStatisticsService();
+
+    private final RouteMetricsPipeline pipeline = new RouteMetricsPipeline(RouteMetrics.defaults());
+
+    private final RouteMetricsPipeline distanceAndElevation =
+            new RouteMetricsPipeline(List.of(RouteMetrics.DISTANCE, RouteMetrics.ELEVATION));
+
+    private final RouteMetricsPipeline kernel = new RouteMetricsPipeline(List.of(RouteMetrics.DISTANCE,
+            RouteMetrics.ELEVATION, RouteMetrics.GRADE, RouteMetrics.MOVING_TIME, RouteMetrics.BOUNDING_BOX));
+
+    private Route route;
+    private List<RoutePoint> routePoints;
+    private PackedTrack packed;
+
+    @Setup(Level.Trial)
+    public void createTrack() {
+        route = SyntheticTracks.route(points, Route.RouteType.HIKING);
+        routePoints = route.getRoutePoints();
+        packed = PackedTrack.of(routePoints);
+    }
+
+    @Benchmark
+    public void legacyTwoPass(Blackhole blackhole) {
+        double totalDistance = 0.0;
+        for (int i = 1; i < routePoints.size(); i++) {
+            RoutePoint prev = routePoints.get(i - 1);
+            RoutePoint curr = routePoints.get(i);
+            totalDistance += routeStatisticsService.calculateDistance(
+                    prev.getLatitude(), prev.getLongitude(),
+                    curr.getLatitude(), curr.getLongitude());
+        }
+
+        double totalElevationGain = 0.0;
+        for (int i = 1; i < routePoints.size(); i++) {
+            RoutePoint prev = routePoints.get(i - 1);
+            RoutePoint curr = routePoints.get(i);
+            if (prev.getElevation() != null && curr.getElevation() != null) {
+                double elevationDiff = curr.getElevation() - prev.getElevation();
+                if (elevationDiff > 0) {
+                    totalElevationGain += elevationDiff;
+                }
+            }
+        }
+
+        blackhole.consume(totalDistance);
+        blackhole.consume(totalElevationGain);
+    }
+
+    @Benchmark
+    public RouteStats pipelineRoutePoints() {
+        return pipeline.run(route, routePoints, new RouteStats());
+    }
+
+    @Benchmark
+    public RouteStats pipelinePacked() {
+        return pipeline.run(route, packed, new RouteStats());
+    }
+
+    @Benchmark
+    public RouteStats distanceAndElevationPacked() {
+        return distanceAndElevation.run(route, packed, new RouteStats());
+    }
+
+    @Benchmark
+    public RouteStats kernelPacked() {
+        return kernel.run(route, packed, new RouteStats());
+    }
+
+    @Benchmark
+    public Route calculateRouteStatistics() {
+        routeStatisticsService.calculateRouteStatistics(route);
+        return route;
+    }
+}
@@ -0,0 +1,65 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Reproducible GPS tracks for the benchmarks: a random walk with one fix per second, drifting north-east
+ * at roughly walking pace, with elevation noise of about a metre per point. The same size always yields
+ * the same track, so results of different runs and branches stay comparable.
+ */
+final class SyntheticTracks {
+
+    private SyntheticTracks() {
+    }
+
+    /**
+     * A route of the given type whose track points are attached as rows, as after a create request
+     */
+    static Route route(int points, Route.RouteType routeType) {
+        Route route = new Route();
+        route.setId(UUID.nameUUIDFromBytes(("synthetic-" + points).getBytes()));
+        route.setName("Synthetic " + points);
+        route.setDescription("Random walk with " + points + " points");
+        route.setRouteType(routeType);
+        route.setIsPublic(true);
+        route.setCreatedAt(LocalDateTime.of(2024, 6, 1, 8, 0));
+        route.setUpdatedAt(route.getCreatedAt());
+        route.setStorageMode(Route.StorageMode.ROWS);
+        route.getRoutePoints().addAll(points(route, points));
+        route.setPointCount(points);
+        return route;
+    }
+
+    static List<RoutePoint> points(Route route, int points) {
+        Random random = new Random(42);
+        List<RoutePoint> routePoints = new ArrayList<>(points);
+        double latitude = 47.0;
+        double longitude = 8.0;
+        double elevation = 500.0;
+        LocalDateTime timestamp = LocalDateTime.of(2024, 6, 1, 8, 0);
+        for (int i = 0; i < points; i++) {
+            latitude += (random.nextDouble() - 0.4) * 0.0002;
+            longitude += (random.nextDouble() - 0.5) * 0.0003;
+            elevation += random.nextGaussian();
+            timestamp = timestamp.plusSeconds(1);
+
+            RoutePoint point = new RoutePoint();
+            point.setLatitude(latitude);
+            point.setLongitude(longitude);
+            point.setElevation(elevation);
+            point.setTimestamp(timestamp);
+            point.setSequenceOrder(i);
+            point.setPointType(RoutePoint.PointType.TRACK_POINT);
+            point.setRoute(route);
+            routePoints.add(point);
+        }
+        return routePoints;
+    }
+}
@@ -0,0 +1,164 @@
+package com.trackoss.trackoss_backend.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource that lets at most maxConcurrent callers hold a connection at a time. With virtual threads
+ * thousands of requests can reach the database at once; the ones beyond the pool size wait here in arrival
+ * order instead of all polling the connection pool. Once maxWaiting callers are queued, or a caller has
+ * waited acquireTimeout, it is turned away with a {@link DatabaseBusyException}, which requests answer with 503
+ * and a Retry-After of retryAfter.
+ *
+ * A permit is held from getConnection until the connection is closed, i.e. handed back to the pool.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final Duration acquireTimeout;
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public BulkheadDataSource(DataSource target, int maxConcurrent, int maxWaiting, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * How long rejected callers are told to wait before retrying
+     */
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    // Estimate, as Semaphore.getQueueLength
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.availablePermits() == 0 && permits.getQueueLength() >= maxWaiting) {
+            throw new DatabaseBusyException(maxWaiting + " callers are already waiting for a database connection",
+                    retryAfter);
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new DatabaseBusyException("No database connection within " + acquireTimeout.toMillis() + " ms",
+                        retryAfter);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(BulkheadDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (released.compareAndSet(false, true)) {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    permits.release();
+                                }
+                                return null;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    /**
+     * The DatabaseBusyException anywhere in the cause chain of an exception. Spring wraps it on the way up,
+     * e.g. in a CannotCreateTransactionException, so handlers have to look for it there.
+     */
+    public static Optional<DatabaseBusyException> findDatabaseBusy(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabaseBusyException busy) {
+                return Optional.of(busy);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The bulkhead is full. Answered with 503 by DatabaseBusyHandler, or by the status below where nothing
+     * handles it first.
+     */
+    @ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Database busy, please retry")
+    public static class DatabaseBusyException extends SQLTransientConnectionException {
+
+        private final Duration retryAfter;
+
+        public DatabaseBusyException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        /**
+         * Value of the Retry-After header for the rejected request, in whole seconds
+         */
+        public String getRetryAfterHeader() {
+            return Long.toString(Math.max(1, retryAfter.toSeconds()));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.trackoss.trackoss_backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP Basic credential of the metrics scraper for /actuator/prometheus, kept apart from app users
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "app.metrics.scrape")
+public class MetricsScrapeProperties {
+
+    private String username = "prometheus";
+
+    // Empty refuses every scrape
+    private String password = "";
+
+}
@@ -0,0 +1,30 @@
+package com.trackoss.trackoss_backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the PostGIS objects Hibernate does not manage: the geography column on routes and its GiST index.
+ * Runs once all singletons (including the EntityManagerFactory and its schema update) exist,
+ * before the web server starts accepting requests.
+ */
+@Component
+@ConditionalOnProperty(name = "app.spatial.postgis-enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgisSchemaInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS postgis");
+        jdbcTemplate.execute("ALTER TABLE routes ADD COLUMN IF NOT EXISTS geog geography(Geometry, 4326)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_routes_geog ON routes USING GIST (geog)");
+        log.info("PostGIS route geometry column and GiST index are in place");
+    }
+}
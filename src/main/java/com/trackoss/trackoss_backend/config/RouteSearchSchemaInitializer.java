@@ -0,0 +1,34 @@
+package com.trackoss.trackoss_backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the PostgreSQL search objects Hibernate does not manage: a generated tsvector over route name
+ * (weight A) and description (weight B) with a GIN index, and pg_trgm GIN indexes on both columns for
+ * partial words and typos. The 'simple' configuration does not stem, so names in any language match as written.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.full-text-enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class RouteSearchSchemaInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        jdbcTemplate.execute("ALTER TABLE routes ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+                "setweight(to_tsvector('simple', coalesce(name, '')), 'A') || " +
+                "setweight(to_tsvector('simple', coalesce(description, '')), 'B')) STORED");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_routes_search_vector ON routes USING GIN (search_vector)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_routes_name_trgm ON routes USING GIN (name gin_trgm_ops)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_routes_description_trgm ON routes USING GIN (description gin_trgm_ops)");
+        log.info("Route search column and GIN indexes are in place");
+    }
+}
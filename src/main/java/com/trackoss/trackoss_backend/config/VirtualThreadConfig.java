@@ -0,0 +1,54 @@
+package com.trackoss.trackoss_backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Virtual thread mode, enabled by spring.threads.virtual.enabled (see the virtual-threads profile).
+ *
+ * Tomcat, async requests such as the streamed exports, and the application task executor then run each
+ * task on its own virtual thread, so slow uploads and downloads no longer occupy one of a fixed number of
+ * platform threads. The connection pool keeps its size, so the DataSource is wrapped in a
+ * {@link BulkheadDataSource} with one permit per pooled connection (app.db.bulkhead.max-concurrent).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "app.db.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor databaseBulkhead(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int maxConcurrent = environment.getProperty("app.db.bulkhead.max-concurrent", Integer.class, poolSize);
+        int maxWaiting = environment.getProperty("app.db.bulkhead.max-waiting", Integer.class, 1000);
+        Duration acquireTimeout = environment.getProperty("app.db.bulkhead.acquire-timeout", Duration.class,
+                Duration.ofSeconds(20));
+        Duration retryAfter = environment.getProperty("app.db.bulkhead.retry-after", Duration.class,
+                Duration.ofSeconds(1));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    log.info("Database bulkhead on {}: {} concurrent, {} waiting, {} ms timeout",
+                            beanName, maxConcurrent, maxWaiting, acquireTimeout.toMillis());
+                    BulkheadDataSource bulkhead = new BulkheadDataSource(dataSource, maxConcurrent, maxWaiting,
+                            acquireTimeout);
+                    bulkhead.setRetryAfter(retryAfter);
+                    return bulkhead;
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -54,6 +54,7 @@ public class AuthController {
             
             return ResponseEntity.ok(new AuthResponse(jwt, user));
         } catch (Exception e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
             return ResponseEntity.badRequest().body("Error: Invalid username or password!");
         }
     }
@@ -93,6 +94,7 @@ public class AuthController {
             
             return ResponseEntity.ok(new AuthResponse(jwt, user));
         } catch (Exception e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
@@ -110,6 +112,12 @@ public class AuthController {
 
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         User user = userPrincipal.getUser();
+        if (userPrincipal.isFromToken()) {
+            // Principals built from token claims only carry id, username and role
+            return userService.findByUsername(user.getUsername())
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.badRequest().body("Error: User not found!"));
+        }
         return ResponseEntity.ok(user);
     }
 }
@@ -0,0 +1,39 @@
+package com.trackoss.trackoss_backend.controller;
+
+import com.trackoss.trackoss_backend.config.BulkheadDataSource;
+import com.trackoss.trackoss_backend.config.BulkheadDataSource.DatabaseBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers requests turned away by the database bulkhead with 503 and Retry-After, wherever in the cause
+ * chain the {@link DatabaseBusyException} ends up.
+ *
+ * Handlers that catch broad exceptions to pick a status (404 for a missing route, 500 for a failed import)
+ * call {@link #rethrowIfDatabaseBusy} first, so a full bulkhead is not reported as one of those.
+ */
+@RestControllerAdvice
+@Slf4j
+public class DatabaseBusyHandler {
+
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<Void> databaseBusy(DatabaseBusyException e) {
+        log.warn("Rejected request, database busy: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, e.getRetryAfterHeader())
+                .build();
+    }
+
+    /**
+     * Rethrow the exception if the bulkhead caused it, for {@link #databaseBusy} to answer
+     */
+    static void rethrowIfDatabaseBusy(Exception e) {
+        if (BulkheadDataSource.findDatabaseBusy(e).isPresent()) {
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+        }
+    }
+}
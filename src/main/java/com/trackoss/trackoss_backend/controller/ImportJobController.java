@@ -0,0 +1,48 @@
+package com.trackoss.trackoss_backend.controller;
+
+import com.trackoss.trackoss_backend.dto.ImportJobResponse;
+import com.trackoss.trackoss_backend.service.ImportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/import-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Import Jobs", description = "Progress of background route imports")
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+
+    @GetMapping("/{id}")
+    @Operation(
+        summary = "Get import job progress",
+        description = "Returns the overall status and the per-file results of a batch import. " +
+                     "Finished jobs are kept for a limited time only."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job found",
+                    content = @Content(schema = @Schema(implementation = ImportJobResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired job, or submitted by another user")
+    })
+    public ResponseEntity<ImportJobResponse> getJob(
+            @Parameter(description = "Import job ID", required = true) @PathVariable UUID id,
+            Authentication authentication) {
+        return importJobService.getJob(id, authentication)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,12 +1,23 @@
 package com.trackoss.trackoss_backend.controller;
 
+import com.trackoss.trackoss_backend.dto.ElevationProfileResponse;
+import com.trackoss.trackoss_backend.dto.ImportJobResponse;
 import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RouteCursor;
+import com.trackoss.trackoss_backend.dto.RoutePatchRequest;
+import com.trackoss.trackoss_backend.dto.RoutePointsPatchRequest;
 import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSliceResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.security.UserPrincipal;
 import com.trackoss.trackoss_backend.service.GeoJsonService;
-import com.trackoss.trackoss_backend.service.GpxService;
+import com.trackoss.trackoss_backend.service.ImportJobService;
+import com.trackoss.trackoss_backend.service.RouteImportService;
+import com.trackoss.trackoss_backend.service.RoutePointEditService;
 import com.trackoss.trackoss_backend.service.RouteService;
+import com.trackoss.trackoss_backend.service.TrackSimplificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,18 +31,27 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.core.Authentication;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -42,8 +62,15 @@ import java.util.UUID;
 public class RouteController {
     
     private final RouteService routeService;
-    private final GpxService gpxService;
     private final GeoJsonService geoJsonService;
+    private final RouteImportService routeImportService;
+    private final ImportJobService importJobService;
+    private final RoutePointEditService routePointEditService;
+    
+    // Clients may keep responses but have to revalidate them, which is cheap with the ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
+    private static final int MAX_SLICE_SIZE = 100;
     
     @PostMapping
     @Operation(
@@ -71,14 +98,16 @@ public class RouteController {
     @GetMapping
     @Operation(
         summary = "Get all routes with pagination and filtering",
-        description = "Retrieves a paginated list of cycling routes with optional search and filtering capabilities."
+        description = "Retrieves a paginated list of cycling route summaries with optional search and filtering capabilities. " +
+                     "A search returns the best matches first and can be combined with the filters and publicOnly. " +
+                     "Points are not included; fetch a single route to get them."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Routes retrieved successfully",
                     content = @Content(schema = @Schema(implementation = Page.class))),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Page<RouteResponse>> getAllRoutes(
+    public ResponseEntity<Page<RouteSummaryResponse>> getAllRoutes(
             @Parameter(description = "Pagination parameters") @PageableDefault(size = 20) Pageable pageable,
             @Parameter(description = "Search term for route name or description") @RequestParam(required = false) String search,
             @Parameter(description = "Filter by user ID") @RequestParam(required = false) String userId,
@@ -89,16 +118,28 @@ public class RouteController {
             @Parameter(description = "Filter by maximum distance in meters") @RequestParam(required = false) Double maxDistance,
             @Parameter(description = "Filter by surface type") @RequestParam(required = false) String surfaceType) {
         
-        Page<RouteResponse> routes;
+        Page<RouteSummaryResponse> routes;
         
         // Check if any advanced filters are applied
         boolean hasAdvancedFilters = difficulty != null || routeType != null || 
                                     minDistance != null || maxDistance != null || 
                                     surfaceType != null;
         
-        if (hasAdvancedFilters) {
+        Boolean isPublicParam = publicOnly ? true : null;
+        if (search != null && !search.trim().isEmpty()) {
+            // Ranked search, narrowed by any of the filters
+            routes = routeService.searchRoutes(
+                search.trim(),
+                difficulty,
+                routeType,
+                minDistance,
+                maxDistance,
+                surfaceType,
+                isPublicParam,
+                pageable
+            );
+        } else if (hasAdvancedFilters) {
             // Use the combined filters method
-            Boolean isPublicParam = publicOnly ? true : null;
             routes = routeService.getRoutesWithFilters(
                 difficulty, 
                 routeType, 
@@ -108,8 +149,6 @@ public class RouteController {
                 isPublicParam, 
                 pageable
             );
-        } else if (search != null && !search.trim().isEmpty()) {
-            routes = routeService.searchRoutes(search.trim(), pageable);
         } else if (publicOnly) {
             routes = routeService.getPublicRoutes(pageable);
         } else if (userId != null && !userId.trim().isEmpty()) {
@@ -121,6 +160,55 @@ public class RouteController {
         return ResponseEntity.ok(routes);
     }
 
+    @GetMapping(params = "cursor")
+    @Operation(
+        summary = "Get routes newest first by cursor",
+        description = "Keyset alternative to the paged listing for infinite scroll. Pass an empty cursor for the " +
+                     "first slice and the returned nextCursor for each following one. Routes are never counted " +
+                     "or skipped with an offset, so every slice costs the same. Search is not available in this mode."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Routes retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = RouteSliceResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or size, or a search term was given")
+    })
+    public ResponseEntity<RouteSliceResponse> getRoutesByCursor(
+            @Parameter(description = "nextCursor of the previous slice, empty for the first slice", required = true)
+            @RequestParam String cursor,
+            @Parameter(description = "Routes per slice (1-" + MAX_SLICE_SIZE + ")") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Not supported with a cursor") @RequestParam(required = false) String search,
+            @Parameter(description = "Filter by user ID") @RequestParam(required = false) String userId,
+            @Parameter(description = "Show only public routes") @RequestParam(required = false, defaultValue = "false") boolean publicOnly,
+            @Parameter(description = "Filter by difficulty level (1-5)") @RequestParam(required = false) Integer difficulty,
+            @Parameter(description = "Filter by route type") @RequestParam(required = false) Route.RouteType routeType,
+            @Parameter(description = "Filter by minimum distance in meters") @RequestParam(required = false) Double minDistance,
+            @Parameter(description = "Filter by maximum distance in meters") @RequestParam(required = false) Double maxDistance,
+            @Parameter(description = "Filter by surface type") @RequestParam(required = false) String surfaceType) {
+
+        Optional<RouteCursor> position = parseCursor(cursor);
+        if (position.isEmpty() || size < 1 || size > MAX_SLICE_SIZE
+                || (search != null && !search.trim().isEmpty())) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean hasAdvancedFilters = difficulty != null || routeType != null ||
+                                    minDistance != null || maxDistance != null ||
+                                    surfaceType != null;
+
+        RouteSliceResponse routes;
+        if (hasAdvancedFilters) {
+            routes = routeService.getRoutesWithFiltersAfter(difficulty, routeType, minDistance, maxDistance,
+                    surfaceType, publicOnly ? true : null, position.get(), size);
+        } else if (publicOnly) {
+            routes = routeService.getPublicRoutesAfter(position.get(), size);
+        } else if (userId != null && !userId.trim().isEmpty()) {
+            routes = routeService.getUserRoutesAfter(userId.trim(), position.get(), size);
+        } else {
+            routes = routeService.getAllRoutesAfter(position.get(), size);
+        }
+        return ResponseEntity.ok(routes);
+    }
+
     @GetMapping("/public")
     @Operation(
         summary = "Get all public routes",
@@ -131,12 +219,34 @@ public class RouteController {
                     content = @Content(schema = @Schema(implementation = Page.class))),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Page<RouteResponse>> getPublicRoutes(
+    public ResponseEntity<Page<RouteSummaryResponse>> getPublicRoutes(
             @Parameter(description = "Pagination parameters") @PageableDefault(size = 20) Pageable pageable) {
-        Page<RouteResponse> routes = routeService.getPublicRoutes(pageable);
+        Page<RouteSummaryResponse> routes = routeService.getPublicRoutes(pageable);
         return ResponseEntity.ok(routes);
     }
 
+    @GetMapping(value = "/public", params = "cursor")
+    @Operation(
+        summary = "Get public routes newest first by cursor",
+        description = "Keyset alternative to the paged public listing, see GET /api/routes with a cursor."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Public routes retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = RouteSliceResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or size")
+    })
+    public ResponseEntity<RouteSliceResponse> getPublicRoutesByCursor(
+            @Parameter(description = "nextCursor of the previous slice, empty for the first slice", required = true)
+            @RequestParam String cursor,
+            @Parameter(description = "Routes per slice (1-" + MAX_SLICE_SIZE + ")") @RequestParam(defaultValue = "20") int size) {
+
+        Optional<RouteCursor> position = parseCursor(cursor);
+        if (position.isEmpty() || size < 1 || size > MAX_SLICE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(routeService.getPublicRoutesAfter(position.get(), size));
+    }
+
     @GetMapping("/nearby")
     @Operation(
         summary = "Find routes nearby a location",
@@ -148,7 +258,7 @@ public class RouteController {
         @ApiResponse(responseCode = "400", description = "Invalid coordinates or radius"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Page<RouteResponse>> findNearbyRoutes(
+    public ResponseEntity<Page<RouteSummaryResponse>> findNearbyRoutes(
             @Parameter(description = "Latitude coordinate", required = true, example = "47.6062")
             @RequestParam Double latitude,
             @Parameter(description = "Longitude coordinate", required = true, example = "-122.3321")
@@ -162,23 +272,74 @@ public class RouteController {
             return ResponseEntity.badRequest().build();
         }
 
-        Page<RouteResponse> routes = routeService.findNearbyRoutes(latitude, longitude, radiusKm, pageable);
+        Page<RouteSummaryResponse> routes = routeService.findNearbyRoutes(latitude, longitude, radiusKm, pageable);
         return ResponseEntity.ok(routes);
     }
 
     @GetMapping("/{id}")
     @Operation(
         summary = "Get route by ID",
-        description = "Retrieves a specific cycling route by its unique identifier."
+        description = "Retrieves a specific cycling route by its unique identifier. Pass tolerance (meters) or " +
+                     "zoom (map zoom level) to receive a simplified track for overview maps; statistics always " +
+                     "describe the full track. Supports If-None-Match and If-Modified-Since."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Route found",
                     content = @Content(schema = @Schema(implementation = RouteResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Route unchanged since the given ETag or date"),
+        @ApiResponse(responseCode = "400", description = "Invalid tolerance or zoom"),
         @ApiResponse(responseCode = "404", description = "Route not found")
     })
     public ResponseEntity<RouteResponse> getRoute(
-            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id) {
-        return routeService.getRoute(id)
+            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id,
+            @Parameter(description = "Maximum deviation of the simplified track in meters", example = "10")
+            @RequestParam(required = false) Double tolerance,
+            @Parameter(description = "Map zoom level (0-24) to simplify for, one pixel of deviation", example = "12")
+            @RequestParam(required = false) Integer zoom,
+            @Parameter(hidden = true) @RequestHeader HttpHeaders requestHeaders) {
+
+        if (!isValidSimplification(tolerance, zoom)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Answer revalidations from the updated_at column alone, before any points are read
+        String representation = representation("json", null, tolerance, zoom, false);
+        Optional<LocalDateTime> updatedAt = routeService.getLastModified(id)
+                .filter(version -> isNotModified(requestHeaders, id, version, representation));
+        if (updatedAt.isPresent()) {
+            return versioned(ResponseEntity.status(HttpStatus.NOT_MODIFIED), id, updatedAt.get(), representation).build();
+        }
+
+        Optional<RouteResponse> route = tolerance == null && zoom == null
+                ? routeService.getRoute(id)
+                : routeService.getRoute(id, tolerance, zoom);
+        return route
+                .map(response -> versioned(ResponseEntity.ok(), id, response.getUpdatedAt(), representation).body(response))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/{id}/profile")
+    @Operation(
+        summary = "Get the elevation profile of a route",
+        description = "Returns cumulative distance and elevation as two arrays of at most samples entries, " +
+                     "downsampled with largest-triangle-three-buckets so climbs and dips are kept. The profile " +
+                     "is precomputed when points are written; more samples than it holds return all of them."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Profile found",
+                    content = @Content(schema = @Schema(implementation = ElevationProfileResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid number of samples"),
+        @ApiResponse(responseCode = "404", description = "Route not found")
+    })
+    public ResponseEntity<ElevationProfileResponse> getElevationProfile(
+            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id,
+            @Parameter(description = "Maximum number of samples (at least 2)", example = "300")
+            @RequestParam(required = false, defaultValue = "300") int samples) {
+
+        if (samples < 2) {
+            return ResponseEntity.badRequest().build();
+        }
+        return routeService.getElevationProfile(id, samples)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -204,6 +365,59 @@ public class RouteController {
             RouteResponse response = routeService.updateRoute(id, request);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PatchMapping("/{id}")
+    @Operation(
+        summary = "Update route details without its points",
+        description = "Updates only the fields present in the request. Route points and the distance and " +
+                     "elevation statistics are left as they are; a new route type only recalculates the estimated duration."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Route updated successfully",
+                    content = @Content(schema = @Schema(implementation = RouteSummaryResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "404", description = "Route not found")
+    })
+    public ResponseEntity<RouteSummaryResponse> patchRoute(
+            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id,
+            @Parameter(description = "Fields to change", required = true) @Valid @RequestBody RoutePatchRequest request) {
+
+        try {
+            return ResponseEntity.ok(routeService.patchRoute(id, request));
+        } catch (RuntimeException e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PatchMapping("/{id}/points")
+    @Operation(
+        summary = "Insert, remove or move route points",
+        description = "Replaces ranges of points, addressed by their current sequence numbers. Routes stored as " +
+                     "rows only have the edited rows rewritten, packed routes have their track rewritten whole. " +
+                     "All statistics and simplification levels are measured again over the whole edited track."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Points updated successfully",
+                    content = @Content(schema = @Schema(implementation = RouteSummaryResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid, overlapping or out of range edits"),
+        @ApiResponse(responseCode = "404", description = "Route not found")
+    })
+    public ResponseEntity<RouteSummaryResponse> patchRoutePoints(
+            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id,
+            @Parameter(description = "Range edits to apply", required = true) @Valid @RequestBody RoutePointsPatchRequest request) {
+
+        try {
+            return ResponseEntity.ok(routePointEditService.applyEdits(id, request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected point edits for route {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
             return ResponseEntity.notFound().build();
         }
     }
@@ -225,6 +439,7 @@ public class RouteController {
             routeService.deleteRoute(id);
             return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
             return ResponseEntity.notFound().build();
         }
     }
@@ -235,34 +450,36 @@ public class RouteController {
     @Operation(
         summary = "Export route as GPX file",
         description = "Exports a cycling route as a GPX file for use with navigation apps like OsmAnd, Komoot, " +
-                     "Garmin devices, Wahoo computers, and fitness platforms like Strava."
+                     "Garmin devices, Wahoo computers, and fitness platforms like Strava. " +
+                     "The document is streamed, so memory use does not grow with track length. " +
+                     "Supports If-None-Match and If-Modified-Since."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "GPX file generated successfully",
                     content = @Content(mediaType = "application/xml")),
+        @ApiResponse(responseCode = "304", description = "Route unchanged since the given ETag or date"),
         @ApiResponse(responseCode = "404", description = "Route not found"),
         @ApiResponse(responseCode = "500", description = "Error generating GPX file")
     })
-    public ResponseEntity<byte[]> exportToGpx(
-            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id) {
-        return routeService.getRouteEntityForExport(id)
-                .map(route -> {
-                    try {
-                        byte[] gpxData = gpxService.exportToGpx(route);
-
-                        HttpHeaders headers = new HttpHeaders();
-                        headers.setContentType(MediaType.APPLICATION_XML);
-                        headers.setContentDispositionFormData("attachment",
-                                sanitizeFilename(route.getName()) + ".gpx");
-
-                        return ResponseEntity.ok()
-                                .headers(headers)
-                                .body(gpxData);
-
-                    } catch (IOException e) {
-                        log.error("Error exporting route to GPX", e);
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<byte[]>build();
+    public ResponseEntity<StreamingResponseBody> exportToGpx(
+            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id,
+            @Parameter(hidden = true) @RequestHeader HttpHeaders requestHeaders) {
+        return routeService.getRouteSummary(id)
+                .map(summary -> {
+                    if (isNotModified(requestHeaders, id, summary.getUpdatedAt(), "gpx")) {
+                        return versioned(ResponseEntity.status(HttpStatus.NOT_MODIFIED), id, summary.getUpdatedAt(), "gpx")
+                                .<StreamingResponseBody>build();
                     }
+
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(MediaType.APPLICATION_XML);
+                    headers.setContentDispositionFormData("attachment",
+                            sanitizeFilename(summary.getName()) + ".gpx");
+
+                    StreamingResponseBody body = outputStream -> routeService.writeGpx(id, outputStream);
+                    return versioned(ResponseEntity.ok(), id, summary.getUpdatedAt(), "gpx")
+                            .headers(headers)
+                            .body(body);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -271,34 +488,67 @@ public class RouteController {
     @Operation(
         summary = "Export route as GeoJSON",
         description = "Exports a cycling route as GeoJSON for web mapping integration with Leaflet, Mapbox, " +
-                     "OpenLayers, and custom cycling applications."
+                     "OpenLayers, and custom cycling applications. The document is streamed; use precision " +
+                     "to limit coordinate decimals (5 is about 1 m) and tolerance or zoom to simplify the track. " +
+                     "Supports If-None-Match and If-Modified-Since."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "GeoJSON generated successfully",
                     content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "304", description = "Route unchanged since the given ETag or date"),
+        @ApiResponse(responseCode = "400", description = "Invalid precision, tolerance or zoom"),
         @ApiResponse(responseCode = "404", description = "Route not found"),
         @ApiResponse(responseCode = "500", description = "Error generating GeoJSON")
     })
-    public ResponseEntity<String> exportToGeoJson(
-            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id) {
-        return routeService.getRouteEntityForExport(id)
-                .map(route -> {
-                    try {
-                        String geoJsonData = geoJsonService.exportToGeoJson(route);
-
-                        HttpHeaders headers = new HttpHeaders();
-                        headers.setContentType(MediaType.APPLICATION_JSON);
-                        headers.setContentDispositionFormData("attachment",
-                                sanitizeFilename(route.getName()) + ".geojson");
-
-                        return ResponseEntity.ok()
-                                .headers(headers)
-                                .body(geoJsonData);
-
-                    } catch (IOException e) {
-                        log.error("Error exporting route to GeoJSON", e);
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<String>build();
+    public ResponseEntity<StreamingResponseBody> exportToGeoJson(
+            @Parameter(description = "Route unique identifier", required = true) @PathVariable UUID id,
+            @Parameter(description = "Decimal places for coordinates (0-10), full precision if omitted", example = "5")
+            @RequestParam(required = false) Integer precision,
+            @Parameter(description = "Return the previous map-based output instead of the streaming writer")
+            @RequestParam(required = false, defaultValue = "false") boolean compat,
+            @Parameter(description = "Maximum deviation of the simplified track in meters", example = "10")
+            @RequestParam(required = false) Double tolerance,
+            @Parameter(description = "Map zoom level (0-24) to simplify for, one pixel of deviation", example = "12")
+            @RequestParam(required = false) Integer zoom,
+            @Parameter(hidden = true) @RequestHeader HttpHeaders requestHeaders) {
+
+        if (precision != null && (precision < 0 || precision > GeoJsonService.MAX_PRECISION)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!isValidSimplification(tolerance, zoom) || (compat && (tolerance != null || zoom != null))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String representation = representation("geojson", precision, tolerance, zoom, compat);
+        if (compat) {
+            // The legacy writer needs the loaded route anyway, so only the transfer is saved
+            return routeService.getRouteEntityForExport(id)
+                    .map(route -> {
+                        if (isNotModified(requestHeaders, id, route.getUpdatedAt(), representation)) {
+                            return versioned(ResponseEntity.status(HttpStatus.NOT_MODIFIED), id, route.getUpdatedAt(),
+                                    representation).<StreamingResponseBody>build();
+                        }
+                        StreamingResponseBody body = outputStream ->
+                                outputStream.write(geoJsonService.exportToGeoJson(route).getBytes(StandardCharsets.UTF_8));
+                        return versioned(ResponseEntity.ok(), id, route.getUpdatedAt(), representation)
+                                .headers(geoJsonHeaders(route.getName()))
+                                .body(body);
+                    })
+                    .orElse(ResponseEntity.notFound().build());
+        }
+
+        return routeService.getRouteSummary(id)
+                .map(summary -> {
+                    if (isNotModified(requestHeaders, id, summary.getUpdatedAt(), representation)) {
+                        return versioned(ResponseEntity.status(HttpStatus.NOT_MODIFIED), id, summary.getUpdatedAt(),
+                                representation).<StreamingResponseBody>build();
                     }
+                    StreamingResponseBody body = tolerance == null && zoom == null
+                            ? outputStream -> routeService.writeGeoJson(id, precision, outputStream)
+                            : outputStream -> routeService.writeGeoJson(id, precision, tolerance, zoom, outputStream);
+                    return versioned(ResponseEntity.ok(), id, summary.getUpdatedAt(), representation)
+                            .headers(geoJsonHeaders(summary.getName()))
+                            .body(body);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -309,26 +559,27 @@ public class RouteController {
     @Operation(
         summary = "Import route from GPX file",
         description = "Imports a cycling route from a GPX file. Supports GPX files from Garmin, Wahoo, " +
-                     "Strava, Komoot, and other cycling platforms."
+                     "Strava, Komoot, and other cycling platforms. The file is parsed as a stream, so large " +
+                     "multi-day tracks can be imported; the response is the route summary without points."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Route imported successfully",
-                    content = @Content(schema = @Schema(implementation = RouteResponse.class))),
+                    content = @Content(schema = @Schema(implementation = RouteSummaryResponse.class))),
         @ApiResponse(responseCode = "400", description = "Invalid GPX file or empty file"),
         @ApiResponse(responseCode = "500", description = "Error processing GPX file")
     })
-    public ResponseEntity<RouteResponse> importFromGpx(
+    public ResponseEntity<RouteSummaryResponse> importFromGpx(
             @Parameter(description = "GPX file to import", required = true) @RequestParam("file") MultipartFile file,
-            @Parameter(description = "Optional custom name for the route") @RequestParam(required = false) String routeName) {
+            @Parameter(description = "Optional custom name for the route") @RequestParam(required = false) String routeName,
+            Authentication authentication) {
         
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        try {
-            byte[] gpxData = file.getBytes();
-            RouteCreateRequest request = gpxService.importFromGpx(gpxData, routeName);
-            RouteResponse response = routeService.createRoute(request);
+        try (InputStream inputStream = file.getInputStream()) {
+            RouteSummaryResponse response = routeImportService.importGpx(
+                    inputStream, routeName, UserPrincipal.userIdOf(authentication));
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
@@ -336,11 +587,50 @@ public class RouteController {
             log.error("Error importing GPX file", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
             log.error("Error processing GPX import", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    @PostMapping(value = "/import/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+        summary = "Import many route files in the background",
+        description = "Accepts any number of GPX and GeoJSON files, or ZIP archives containing them, and " +
+                     "imports them asynchronously. Returns a job whose progress can be polled at " +
+                     "/api/import-jobs/{id}; each file is imported as its own route."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import job accepted",
+                    content = @Content(schema = @Schema(implementation = ImportJobResponse.class))),
+        @ApiResponse(responseCode = "400", description = "No files, too many files or a file over the size limit"),
+        @ApiResponse(responseCode = "500", description = "Error staging the uploaded files")
+    })
+    public ResponseEntity<ImportJobResponse> importBatch(
+            @Parameter(description = "GPX, GeoJSON or ZIP files to import", required = true)
+            @RequestParam("files") List<MultipartFile> files,
+            Authentication authentication) {
+        
+        if (files.stream().allMatch(MultipartFile::isEmpty)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            ImportJobResponse job = importJobService.submit(files, authentication);
+            
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/import-jobs/" + job.getId()))
+                    .body(job);
+            
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected batch import: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Error staging batch import", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     @PostMapping("/import/geojson")
     @Operation(
         summary = "Import route from GeoJSON file",
@@ -355,7 +645,8 @@ public class RouteController {
     })
     public ResponseEntity<RouteResponse> importFromGeoJson(
             @Parameter(description = "GeoJSON file to import", required = true) @RequestParam("file") MultipartFile file,
-            @Parameter(description = "Optional custom name for the route") @RequestParam(required = false) String routeName) {
+            @Parameter(description = "Optional custom name for the route") @RequestParam(required = false) String routeName,
+            Authentication authentication) {
         
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
@@ -364,7 +655,7 @@ public class RouteController {
         try {
             String geoJsonData = new String(file.getBytes());
             RouteCreateRequest request = geoJsonService.importFromGeoJson(geoJsonData, routeName);
-            RouteResponse response = routeService.createRoute(request);
+            RouteResponse response = routeService.createRoute(request, authentication);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
@@ -372,6 +663,7 @@ public class RouteController {
             log.error("Error importing GeoJSON file", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
             log.error("Error processing GeoJSON import", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -391,11 +683,12 @@ public class RouteController {
     })
     public ResponseEntity<RouteResponse> importFromGeoJsonRaw(
             @Parameter(description = "Raw GeoJSON data as string", required = true) @RequestBody String geoJsonData,
-            @Parameter(description = "Optional custom name for the route") @RequestParam(required = false) String routeName) {
+            @Parameter(description = "Optional custom name for the route") @RequestParam(required = false) String routeName,
+            Authentication authentication) {
 
         try {
             RouteCreateRequest request = geoJsonService.importFromGeoJson(geoJsonData, routeName);
-            RouteResponse response = routeService.createRoute(request);
+            RouteResponse response = routeService.createRoute(request, authentication);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
@@ -403,6 +696,7 @@ public class RouteController {
             log.error("Error importing GeoJSON data", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
+            DatabaseBusyHandler.rethrowIfDatabaseBusy(e);
             log.error("Error processing GeoJSON import", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -410,6 +704,93 @@ public class RouteController {
     
     // Helper methods
     
+    private Optional<RouteCursor> parseCursor(String cursor) {
+        try {
+            return Optional.of(RouteCursor.decode(cursor));
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected route cursor {}", cursor);
+            return Optional.empty();
+        }
+    }
+
+    private boolean isValidSimplification(Double tolerance, Integer zoom) {
+        if (tolerance != null && zoom != null) {
+            return false; // one or the other
+        }
+        return (tolerance == null || tolerance >= 0)
+                && (zoom == null || (zoom >= 0 && zoom <= TrackSimplificationService.MAX_ZOOM));
+    }
+
+    /**
+     * Strong ETag for one representation of one version of a route. Versions are told apart by updatedAt,
+     * representations by the parameters that change the body.
+     */
+    static String routeEtag(UUID id, LocalDateTime updatedAt, String representation) {
+        Instant instant = lastModified(updatedAt);
+        long version = instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+        return "\"" + id + "-" + Long.toHexString(version) + "-" + representation + "\"";
+    }
+
+    // The format plus every parameter that changes the body
+    private static String representation(String format, Integer precision, Double tolerance, Integer zoom, boolean compat) {
+        StringBuilder name = new StringBuilder(format);
+        if (precision != null) {
+            name.append("-p").append(precision);
+        }
+        if (tolerance != null) {
+            name.append("-t").append(tolerance);
+        }
+        if (zoom != null) {
+            name.append("-z").append(zoom);
+        }
+        if (compat) {
+            name.append("-compat");
+        }
+        return name.toString();
+    }
+
+    private static Instant lastModified(LocalDateTime updatedAt) {
+        // Hibernate writes updatedAt in the JVM time zone
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * Whether the client's copy is current: If-None-Match when sent, otherwise If-Modified-Since
+     */
+    private boolean isNotModified(HttpHeaders requestHeaders, UUID id, LocalDateTime updatedAt, String representation) {
+        if (updatedAt == null) {
+            return false;
+        }
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            String etag = routeEtag(id, updatedAt, representation);
+            // If-None-Match uses the weak comparison
+            return ifNoneMatch.stream()
+                    .anyMatch(tag -> tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        // HTTP dates have whole seconds
+        return ifModifiedSince >= 0 && lastModified(updatedAt).getEpochSecond() * 1000 <= ifModifiedSince;
+    }
+
+    private static ResponseEntity.BodyBuilder versioned(ResponseEntity.BodyBuilder builder, UUID id,
+                                                        LocalDateTime updatedAt, String representation) {
+        if (updatedAt == null) {
+            return builder;
+        }
+        return builder
+                .eTag(routeEtag(id, updatedAt, representation))
+                .lastModified(lastModified(updatedAt))
+                .cacheControl(REVALIDATE);
+    }
+
+    private HttpHeaders geoJsonHeaders(String routeName) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentDispositionFormData("attachment", sanitizeFilename(routeName) + ".geojson");
+        return headers;
+    }
+    
     private String sanitizeFilename(String filename) {
         if (filename == null) {
             return "route";
@@ -428,6 +809,7 @@ public class RouteController {
         route.setUserId(response.getUserId());
         route.setTotalDistance(response.getTotalDistance());
         route.setTotalElevationGain(response.getTotalElevationGain());
+        route.setSmoothedElevationGain(response.getSmoothedElevationGain());
         route.setEstimatedDuration(response.getEstimatedDuration());
         route.setRouteType(response.getRouteType());
         route.setIsPublic(response.getIsPublic());
@@ -0,0 +1,30 @@
+package com.trackoss.trackoss_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Downsampled elevation profile of a route for charts")
+public class ElevationProfileResponse {
+
+    @Schema(description = "Route identifier", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID routeId;
+
+    @Schema(description = "Total distance of the route in meters", example = "50000.0")
+    private Double totalDistance;
+
+    @Schema(description = "Number of samples returned", example = "300")
+    private int samples;
+
+    @Schema(description = "Cumulative distance of each sample in meters, ascending", example = "[0.0, 162.4, 331.9]")
+    private double[] distances;
+
+    @Schema(description = "Elevation of each sample in meters", example = "[412.3, 418.0, 425.6]")
+    private double[] elevations;
+}
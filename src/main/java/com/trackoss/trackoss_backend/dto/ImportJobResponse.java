@@ -0,0 +1,73 @@
+package com.trackoss.trackoss_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of an asynchronous bulk import")
+public class ImportJobResponse {
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    public enum FileStatus {
+        PENDING, RUNNING, SUCCEEDED, FAILED
+    }
+
+    @Schema(description = "Import job identifier", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID id;
+
+    @Schema(description = "Overall job status; FAILED only when no file could be imported", example = "RUNNING")
+    private JobStatus status;
+
+    @Schema(description = "When the job was accepted", example = "2024-01-15T10:30:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "When the last file finished, null while the job is running", example = "2024-01-15T10:31:12")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Number of files in the job", example = "120")
+    private int totalFiles;
+
+    @Schema(description = "Number of files already processed", example = "42")
+    private int processedFiles;
+
+    @Schema(description = "Number of files imported successfully", example = "40")
+    private int succeededFiles;
+
+    @Schema(description = "Number of files that could not be imported", example = "2")
+    private int failedFiles;
+
+    @Schema(description = "Per-file status in submission order")
+    private List<FileResult> files;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Import status of a single file")
+    public static class FileResult {
+
+        @Schema(description = "Original file name, prefixed with the archive name for ZIP entries",
+                example = "export.zip/rides/morning-loop.gpx")
+        private String fileName;
+
+        @Schema(description = "File status", example = "SUCCEEDED")
+        private FileStatus status;
+
+        @Schema(description = "ID of the created route when the import succeeded",
+                example = "123e4567-e89b-12d3-a456-426614174000")
+        private UUID routeId;
+
+        @Schema(description = "Reason the import failed", example = "GPX file contains no valid track points")
+        private String error;
+    }
+}
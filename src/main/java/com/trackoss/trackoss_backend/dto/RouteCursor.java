@@ -0,0 +1,54 @@
+package com.trackoss.trackoss_backend.dto;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a newest-first route listing: the creation time and id of the last route a client has seen.
+ * Clients only see it as an opaque token, the URL-safe Base64 of the creation time in epoch microseconds
+ * followed by the id.
+ */
+public record RouteCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final int TOKEN_BYTES = Long.BYTES * 3;
+
+    // Sorts after every stored route, so the first slice runs the same query as every later one
+    public static final RouteCursor FIRST = new RouteCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    public static RouteCursor after(RouteSummaryResponse summary) {
+        return new RouteCursor(summary.getCreatedAt(), summary.getId());
+    }
+
+    /**
+     * Cursor of a token from {@link #encode()}, or {@link #FIRST} for an empty one
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static RouteCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        byte[] bytes = Base64.getUrlDecoder().decode(token.trim());
+        if (bytes.length != TOKEN_BYTES) {
+            throw new IllegalArgumentException("Invalid route cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC)
+                .plus(buffer.getLong(), ChronoUnit.MICROS);
+        return new RouteCursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+
+    public String encode() {
+        // Microseconds are what the timestamp column keeps, so the cursor matches the stored value exactly
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), createdAt);
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(micros)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+}
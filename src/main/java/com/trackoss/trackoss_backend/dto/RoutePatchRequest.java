@@ -0,0 +1,34 @@
+package com.trackoss.trackoss_backend.dto;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+@Schema(description = "Partial route update; fields left out keep their current value and points are never touched")
+public class RoutePatchRequest {
+
+    @Size(min = 1, max = 255, message = "Route name must be between 1 and 255 characters")
+    @Schema(description = "Name of the cycling route", example = "Lake Washington Loop")
+    private String name;
+
+    @Size(max = 2000, message = "Description must not exceed 2000 characters")
+    @Schema(description = "Detailed description of the route",
+            example = "Scenic 50km loop around Lake Washington with bike lanes and beautiful views")
+    private String description;
+
+    @Schema(description = "Type of cycling route", example = "CYCLING",
+            allowableValues = {"CYCLING", "MOUNTAIN_BIKING", "ROAD_CYCLING", "GRAVEL", "E_BIKE"})
+    private Route.RouteType routeType;
+
+    @Schema(description = "Whether the route is publicly visible", example = "true")
+    private Boolean isPublic;
+
+    @Schema(description = "Difficulty level (1-5)", example = "3")
+    private Integer difficulty;
+
+    @Schema(description = "Additional metadata as JSON string",
+            example = "{\"surface\": \"asphalt\", \"difficulty\": 3, \"traffic\": \"low\"}")
+    private String metadata;
+}
@@ -0,0 +1,42 @@
+package com.trackoss.trackoss_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "Point edits applied to a stored route, each replacing a range of sequence positions")
+public class RoutePointsPatchRequest {
+
+    @NotEmpty(message = "At least one edit is required")
+    @Valid
+    @Schema(description = "Edits addressed by the route's current sequence numbers; ranges must not overlap",
+            required = true)
+    private List<RangeEdit> edits;
+
+    @Data
+    @Schema(description = "Replace the points in [fromSequence, toSequence) with the given points. " +
+            "fromSequence == toSequence inserts, an empty point list deletes, and the same number of points moves them.")
+    public static class RangeEdit {
+
+        @NotNull(message = "fromSequence is required")
+        @Min(value = 0, message = "fromSequence must not be negative")
+        @Schema(description = "First sequence position to replace", example = "120", required = true)
+        private Integer fromSequence;
+
+        @NotNull(message = "toSequence is required")
+        @Min(value = 0, message = "toSequence must not be negative")
+        @Schema(description = "Sequence position after the last one to replace", example = "125", required = true)
+        private Integer toSequence;
+
+        @Valid
+        @Schema(description = "Points taking the place of the range, in order")
+        private List<RouteCreateRequest.RoutePointRequest> points = new ArrayList<>();
+    }
+}
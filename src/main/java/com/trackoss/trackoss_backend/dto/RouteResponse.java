@@ -37,6 +37,9 @@ public class RouteResponse {
     @Schema(description = "Total elevation gain in meters", example = "1200.0")
     private Double totalElevationGain;
 
+    @Schema(description = "Elevation gain in meters without GPS and barometer jitter", example = "950.0")
+    private Double smoothedElevationGain;
+
     @Schema(description = "Estimated duration in seconds", example = "10800")
     private Long estimatedDuration;
 
@@ -58,6 +61,10 @@ public class RouteResponse {
 
     @Schema(description = "Total number of points in the route", example = "150")
     private Integer pointCount;
+
+    @Schema(description = "Tolerance in meters the returned points were simplified with, null for the full track",
+            example = "10.0")
+    private Double simplificationTolerance;
     
     @Data
     @Schema(description = "Individual point on the cycling route")
@@ -0,0 +1,28 @@
+package com.trackoss.trackoss_backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One slice of a newest-first route listing, without a total count")
+public class RouteSliceResponse {
+
+    @Schema(description = "Route summaries, newest first")
+    private List<RouteSummaryResponse> content;
+
+    @Schema(description = "Number of summaries requested per slice", example = "20")
+    private int size;
+
+    @Schema(description = "Whether more routes follow this slice")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque token for the cursor parameter of the next request, null on the last slice",
+            example = "AAYV4y9oHgBnBhw2m6tDB6F4a2Jj0W9L")
+    private String nextCursor;
+}
@@ -0,0 +1,65 @@
+package com.trackoss.trackoss_backend.dto;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Route list entry without points. Built directly by the JPQL projections in RouteRepository,
+ * so the constructor argument order must match {@code RouteRepository.SUMMARY_SELECT}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Route summary returned by list endpoints, without route points")
+public class RouteSummaryResponse {
+
+    @Schema(description = "Unique route identifier", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID id;
+
+    @Schema(description = "Name of the cycling route", example = "Lake Washington Loop")
+    private String name;
+
+    @Schema(description = "Detailed description of the route",
+            example = "Scenic 50km loop around Lake Washington with bike lanes and beautiful views")
+    private String description;
+
+    @Schema(description = "Route creation timestamp", example = "2024-01-15T10:30:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Route last update timestamp", example = "2024-01-15T14:45:00")
+    private LocalDateTime updatedAt;
+
+    @Schema(description = "ID of the user who created the route", example = "user123")
+    private String userId;
+
+    @Schema(description = "Total distance in meters", example = "50000.0")
+    private Double totalDistance;
+
+    @Schema(description = "Total elevation gain in meters", example = "1200.0")
+    private Double totalElevationGain;
+
+    @Schema(description = "Estimated duration in seconds", example = "10800")
+    private Long estimatedDuration;
+
+    @Schema(description = "Type of cycling route", example = "CYCLING")
+    private Route.RouteType routeType;
+
+    @Schema(description = "Whether the route is publicly visible", example = "true")
+    private Boolean isPublic;
+
+    @Schema(description = "Difficulty level (1-5)", example = "3")
+    private Integer difficulty;
+
+    @Schema(description = "Additional metadata as JSON string",
+            example = "{\"surface\": \"asphalt\", \"difficulty\": 3, \"traffic\": \"low\"}")
+    private String metadata;
+
+    @Schema(description = "Total number of points in the route", example = "150")
+    private Integer pointCount;
+}
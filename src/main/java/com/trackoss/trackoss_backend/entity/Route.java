@@ -1,5 +1,6 @@
 package com.trackoss.trackoss_backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -11,13 +12,25 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
-@Table(name = "routes")
+@Table(name = "routes", indexes = {
+    @Index(name = "idx_routes_bbox", columnList = "min_latitude, max_latitude, min_longitude, max_longitude"),
+    // Keyset pagination of the newest-first listings (all, public, per user)
+    @Index(name = "idx_routes_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_routes_public_created_at_id", columnList = "is_public, created_at, id"),
+    @Index(name = "idx_routes_user_created_at_id", columnList = "user_id, created_at, id"),
+    // One per filter predicate of the combined route filter; is_public uses idx_routes_public_created_at_id
+    @Index(name = "idx_routes_difficulty", columnList = "difficulty"),
+    @Index(name = "idx_routes_route_type", columnList = "route_type"),
+    @Index(name = "idx_routes_total_distance", columnList = "total_distance"),
+    @Index(name = "idx_routes_surface", columnList = "surface")
+})
 @Data
-@EqualsAndHashCode(exclude = {"routePoints"})
-@ToString(exclude = {"routePoints"})
+@EqualsAndHashCode(exclude = {"routePoints", "trackData", "trackLevels", "stats"})
+@ToString(exclude = {"routePoints", "trackData", "trackLevels", "stats"})
 public class Route {
     
     @Id
@@ -44,11 +57,30 @@ public class Route {
     private Double totalDistance; // in meters
     
     @Column(name = "total_elevation_gain")
-    private Double totalElevationGain; // in meters
+    private Double totalElevationGain; // in meters, sum of every rise between consecutive points
+    
+    @Column(name = "smoothed_elevation_gain")
+    private Double smoothedElevationGain; // in meters, without sensor jitter, see ElevationSmoother
     
     @Column(name = "estimated_duration")
     private Long estimatedDuration; // in seconds
     
+    @Column(name = "point_count")
+    private Integer pointCount; // denormalized so list queries never touch route_points
+    
+    // Bounding box of all points, used for spatial pre-filtering
+    @Column(name = "min_latitude")
+    private Double minLatitude;
+    
+    @Column(name = "max_latitude")
+    private Double maxLatitude;
+    
+    @Column(name = "min_longitude")
+    private Double minLongitude;
+    
+    @Column(name = "max_longitude")
+    private Double maxLongitude;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "route_type")
     private RouteType routeType = RouteType.CYCLING;
@@ -62,6 +94,24 @@ public class Route {
     @Column(name = "difficulty")
     private Integer difficulty;
     
+    @Column(name = "surface")
+    private String surface; // "surface" of the metadata, normalized by normalizeSurface, see RouteMetadataSync
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_mode")
+    private StorageMode storageMode = StorageMode.ROWS;
+    
+    @Column(name = "track_data", columnDefinition = "bytea")
+    private byte[] trackData; // packed track points when storageMode is PACKED, see TrackCodec
+    
+    @Column(name = "track_levels", columnDefinition = "bytea")
+    private byte[] trackLevels; // precomputed simplification levels, see TrackLevels
+    
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    @JoinColumn(name = "stats_id")
+    @JsonIgnore
+    private RouteStats stats; // full track statistics, see RouteStatisticsService
+    
     @OneToMany(mappedBy = "route", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @OrderBy("sequenceOrder ASC")
     @JsonManagedReference
@@ -79,6 +129,11 @@ public class Route {
         OTHER
     }
     
+    public enum StorageMode {
+        ROWS,    // Every point is a route_points row
+        PACKED   // Track points live in trackData, only named points stay as rows
+    }
+    
     // Helper methods
     public void addRoutePoint(RoutePoint point) {
         routePoints.add(point);
@@ -90,55 +145,14 @@ public class Route {
         point.setRoute(null);
     }
     
-    // Custom setter for metadata to ensure difficulty synchronization
-    public void setMetadata(String metadata) {
-        this.metadata = metadata;
-        
-        // Extract difficulty from metadata if present
-        if (metadata != null && !metadata.isEmpty()) {
-            try {
-                com.fasterxml.jackson.databind.JsonNode metadataJson = new com.fasterxml.jackson.databind.ObjectMapper().readTree(metadata);
-                if (metadataJson.has("difficulty")) {
-                    this.difficulty = metadataJson.get("difficulty").asInt();
-                    System.out.println("Extracted difficulty from metadata: " + this.difficulty);
-                    System.out.println("Route difficulty field set to: " + this.difficulty);
-                }
-            } catch (Exception e) {
-                // Log error but continue
-                System.err.println("Failed to extract difficulty from metadata: " + e.getMessage());
-            }
-        }
-    }
-    
-    // Custom setter for difficulty to ensure metadata synchronization
-    public void setDifficulty(Integer difficulty) {
-
-        System.out.println("setDifficulty called with value: " + difficulty);
-        this.difficulty = difficulty;
-
-        
-        // Update difficulty in metadata if metadata exists
-        if (this.metadata != null && !this.metadata.isEmpty()) {
-            try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                com.fasterxml.jackson.databind.JsonNode metadataJson = mapper.readTree(this.metadata);
-                ((com.fasterxml.jackson.databind.node.ObjectNode) metadataJson).put("difficulty", difficulty);
-                this.metadata = mapper.writeValueAsString(metadataJson);
-            } catch (Exception e) {
-                // Log error but continue
-                System.err.println("Failed to update difficulty in metadata: " + e.getMessage());
-            }
-        } else {
-            // Create new metadata with difficulty
-            try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                com.fasterxml.jackson.databind.node.ObjectNode metadataJson = mapper.createObjectNode();
-                metadataJson.put("difficulty", difficulty);
-                this.metadata = mapper.writeValueAsString(metadataJson);
-            } catch (Exception e) {
-                // Log error but continue
-                System.err.println("Failed to create metadata with difficulty: " + e.getMessage());
-            }
+    /**
+     * Lower case, trimmed form of a surface value, or null for a blank one. Stored surfaces and
+     * surface filters both go through it, so the filter is a plain equality on the indexed column.
+     */
+    public static String normalizeSurface(String surface) {
+        if (surface == null || surface.isBlank()) {
+            return null;
         }
+        return surface.trim().toLowerCase(Locale.ROOT);
     }
 }
\ No newline at end of file
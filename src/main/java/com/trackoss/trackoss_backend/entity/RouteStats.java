@@ -0,0 +1,83 @@
+package com.trackoss.trackoss_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Statistics of a route's track, written by the metrics pipeline whenever its points change.
+ * Metrics without a column of their own go into the metrics map, so adding one needs no migration.
+ */
+@Entity
+@Table(name = "route_stats")
+@Data
+@ToString(exclude = "elevationProfile")
+public class RouteStats {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "point_count")
+    private Integer pointCount;
+
+    @Column(name = "distance")
+    private Double distance; // in meters
+
+    @Column(name = "elevation_gain")
+    private Double elevationGain; // in meters, sum of every rise between consecutive points
+
+    @Column(name = "elevation_loss")
+    private Double elevationLoss; // in meters
+
+    @Column(name = "smoothed_elevation_gain")
+    private Double smoothedElevationGain; // in meters, without sensor jitter
+
+    @Column(name = "smoothed_elevation_loss")
+    private Double smoothedElevationLoss; // in meters, without sensor jitter
+
+    @Column(name = "min_elevation")
+    private Double minElevation;
+
+    @Column(name = "max_elevation")
+    private Double maxElevation;
+
+    @Column(name = "max_grade")
+    private Double maxGrade; // in percent
+
+    @Column(name = "moving_time")
+    private Long movingTime; // in seconds
+
+    @Column(name = "estimated_duration")
+    private Long estimatedDuration; // in seconds
+
+    @Column(name = "min_latitude")
+    private Double minLatitude;
+
+    @Column(name = "max_latitude")
+    private Double maxLatitude;
+
+    @Column(name = "min_longitude")
+    private Double minLongitude;
+
+    @Column(name = "max_longitude")
+    private Double maxLongitude;
+
+    @Column(name = "elevation_profile", columnDefinition = "bytea")
+    private byte[] elevationProfile; // downsampled distance and elevation series, see ElevationProfile
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "metric_values")
+    private Map<String, Object> metrics = new LinkedHashMap<>();
+
+    @UpdateTimestamp
+    @Column(name = "calculated_at")
+    private LocalDateTime calculatedAt;
+}
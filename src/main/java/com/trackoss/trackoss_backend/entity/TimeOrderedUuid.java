@@ -0,0 +1,34 @@
+package com.trackoss.trackoss_backend.entity;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUID version 7 generator (RFC 9562): 48 bits of Unix epoch milliseconds, a 12 bit counter and
+ * 62 random bits. Ids created one after another sort in creation order, so inserts append to the
+ * right edge of a B-tree primary key instead of splitting pages all over it like random UUIDs.
+ *
+ * The counter keeps ids monotonic within a millisecond and across small clock steps backwards.
+ * The random part is not cryptographically strong; use {@link UUID#randomUUID()} for ids that must be unguessable.
+ */
+public final class TimeOrderedUuid {
+
+    private static final int COUNTER_BITS = 12;
+
+    // Last issued (milliseconds << COUNTER_BITS | counter)
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        // A counter overflow carries into the millisecond part, which only runs slightly ahead of the clock
+        long state = LAST.updateAndGet(last -> now > last ? now : last + 1);
+
+        long mostSignificant = (state >>> COUNTER_BITS) << 16 | 0x7000L | (state & 0xFFFL);
+        long leastSignificant = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,96 @@
+package com.trackoss.trackoss_backend.repository;
+
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes route_points rows with JDBC batch statements, bypassing the persistence context.
+ *
+ * Saving points through the route's cascade costs a SELECT (merge of an assigned id) and an INSERT
+ * per point, and every point stays managed until the transaction ends. Points written here are
+ * never attached to the route's collection; callers keep their own list if they need the points.
+ * Runs in the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RoutePointBatchWriter {
+
+    static final int BATCH_SIZE = 1000;
+
+    static final String INSERT_SQL = "INSERT INTO route_points "
+            + "(id, route_id, sequence_order, latitude, longitude, elevation, timestamp, point_type, name, description) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Insert the points as rows of the given route. Points must already have an id and sequence order.
+     */
+    public int insert(UUID routeId, List<RoutePoint> points) {
+        if (points.isEmpty()) {
+            return 0;
+        }
+        // The route row has to reach the database before point rows can reference it
+        entityManager.flush();
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, points, BATCH_SIZE, (statement, point) -> {
+            statement.setObject(1, point.getId());
+            statement.setObject(2, routeId);
+            statement.setInt(3, point.getSequenceOrder());
+            statement.setDouble(4, point.getLatitude());
+            statement.setDouble(5, point.getLongitude());
+            statement.setObject(6, point.getElevation(), Types.DOUBLE);
+            statement.setTimestamp(7, point.getTimestamp() != null ? Timestamp.valueOf(point.getTimestamp()) : null);
+            statement.setString(8, point.getPointType() != null
+                    ? point.getPointType().name() : RoutePoint.PointType.TRACK_POINT.name());
+            statement.setString(9, point.getName());
+            statement.setString(10, point.getDescription());
+        });
+        return points.size();
+    }
+
+    /**
+     * Delete all rows of the route with a single statement. Only safe while the route's point
+     * collection is not loaded, otherwise orphan removal would try to delete the rows again.
+     */
+    public int deleteByRouteId(UUID routeId) {
+        entityManager.flush();
+        return jdbcTemplate.update("DELETE FROM route_points WHERE route_id = ?", routeId);
+    }
+
+    /**
+     * Delete the rows in the sequence range [fromSequence, toSequence). Same caveat as {@link #deleteByRouteId(UUID)}.
+     */
+    public int deleteSequenceRange(UUID routeId, int fromSequence, int toSequence) {
+        entityManager.flush();
+        return jdbcTemplate.update(
+                "DELETE FROM route_points WHERE route_id = ? AND sequence_order >= ? AND sequence_order < ?",
+                routeId, fromSequence, toSequence);
+    }
+
+    /**
+     * Move every row at or after fromSequence by offset positions, making room for inserted points
+     * or closing the gap left by removed ones.
+     */
+    public int shiftSequences(UUID routeId, int fromSequence, int offset) {
+        if (offset == 0) {
+            return 0;
+        }
+        entityManager.flush();
+        return jdbcTemplate.update(
+                "UPDATE route_points SET sequence_order = sequence_order + ? WHERE route_id = ? AND sequence_order >= ?",
+                offset, routeId, fromSequence);
+    }
+}
@@ -1,13 +1,17 @@
 package com.trackoss.trackoss_backend.repository;
 
 import com.trackoss.trackoss_backend.entity.RoutePoint;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface RoutePointRepository extends JpaRepository<RoutePoint, UUID> {
@@ -15,6 +19,14 @@ public interface RoutePointRepository extends JpaRepository<RoutePoint, UUID> {
     // Find points by route ID ordered by sequence
     List<RoutePoint> findByRouteIdOrderBySequenceOrderAsc(UUID routeId);
     
+    // Stream points in sequence order through a forward-only cursor; must be consumed inside a transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT rp FROM RoutePoint rp WHERE rp.route.id = :routeId ORDER BY rp.sequenceOrder ASC")
+    Stream<RoutePoint> streamByRouteId(@Param("routeId") UUID routeId);
+    
     // Find waypoints for a route
     List<RoutePoint> findByRouteIdAndPointTypeOrderBySequenceOrderAsc(UUID routeId, RoutePoint.PointType pointType);
     
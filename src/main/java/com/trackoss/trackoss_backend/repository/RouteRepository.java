@@ -1,17 +1,33 @@
 package com.trackoss.trackoss_backend.repository;
 
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface RouteRepository extends JpaRepository<Route, UUID> {
+public interface RouteRepository extends JpaRepository<Route, UUID>, RouteRepositoryCustom {
+    
+    // Summary projection for list endpoints, never touches route_points or track_data
+    String SUMMARY_SELECT = "SELECT new com.trackoss.trackoss_backend.dto.RouteSummaryResponse(" +
+            "r.id, r.name, r.description, r.createdAt, r.updatedAt, r.userId, r.totalDistance, " +
+            "r.totalElevationGain, r.estimatedDuration, r.routeType, r.isPublic, r.difficulty, " +
+            "r.metadata, r.pointCount) FROM Route r ";
+    
+    // Keyset pagination, newest first: seeks past the last (createdAt, id) on the composite indexes instead of
+    // counting and skipping rows. Pass a PageRequest of page 0; Slice reads one extra row instead of a COUNT
+    String AFTER_CURSOR = "(r.createdAt, r.id) < (:createdAt, :id) ";
+    String NEWEST_FIRST = "ORDER BY r.createdAt DESC, r.id DESC";
     
     // Find routes by user ID
     Page<Route> findByUserId(String userId, Pageable pageable);
@@ -32,6 +48,21 @@ public interface RouteRepository extends JpaRepository<Route, UUID> {
     // Count routes by user
     long countByUserId(String userId);
     
+    // Find routes whose points are not stored in the given mode (legacy rows have no mode)
+    List<Route> findByStorageModeIsNullOrStorageModeNot(Route.StorageMode storageMode, Pageable pageable);
+    
+    // Find routes created before bounding boxes, point counts, simplification levels, statistics, smoothed gain or
+    // elevation profiles were stored, in id order for batching
+    @Query("SELECT r FROM Route r LEFT JOIN r.stats s WHERE (r.minLatitude IS NULL OR r.pointCount IS NULL " +
+           "OR r.trackLevels IS NULL OR s IS NULL OR s.elevationProfile IS NULL OR r.smoothedElevationGain IS NULL) " +
+           "AND r.id > :afterId ORDER BY r.id ASC")
+    List<Route> findMissingDerivedData(@Param("afterId") UUID afterId, Pageable pageable);
+    
+    // Routes whose metadata names a surface the surface column does not hold yet, in id order for batching
+    @Query("SELECT r FROM Route r WHERE r.surface IS NULL AND r.metadata LIKE '%\"surface\"%' " +
+           "AND r.id > :afterId ORDER BY r.id ASC")
+    List<Route> findMissingSurface(@Param("afterId") UUID afterId, Pageable pageable);
+    
     // Find routes within distance range
     @Query("SELECT r FROM Route r WHERE r.totalDistance BETWEEN :minDistance AND :maxDistance")
     Page<Route> findByDistanceRange(@Param("minDistance") Double minDistance,
@@ -41,47 +72,41 @@ public interface RouteRepository extends JpaRepository<Route, UUID> {
     // Find routes by difficulty
     Page<Route> findByDifficulty(Integer difficulty, Pageable pageable);
     
-    // Find routes with combined filters
-    @Query("SELECT r FROM Route r WHERE " +
-           "(:difficulty IS NULL OR r.difficulty = :difficulty) AND " +
-           "(:routeType IS NULL OR r.routeType = :routeType) AND " +
-           "(:minDistance IS NULL OR r.totalDistance >= :minDistance) AND " +
-           "(:maxDistance IS NULL OR r.totalDistance <= :maxDistance) AND " +
-           "(:surfaceType IS NULL OR r.metadata LIKE %:surfaceType%) AND " +
-           "(:isPublic IS NULL OR r.isPublic = :isPublic)")
-    Page<Route> findWithFilters(
-        @Param("difficulty") Integer difficulty,
-        @Param("routeType") Route.RouteType routeType,
-        @Param("minDistance") Double minDistance,
-        @Param("maxDistance") Double maxDistance,
-        @Param("surfaceType") String surfaceType,
-        @Param("isPublic") Boolean isPublic,
-        Pageable pageable
-    );
-
-    // Find routes near a location using spatial search
-    // This is a simplified implementation using bounding box approximation
-    // For production, consider using PostGIS spatial functions
-    @Query("SELECT DISTINCT r FROM Route r JOIN r.routePoints rp " +
-           "WHERE rp.latitude BETWEEN :minLat AND :maxLat " +
-           "AND rp.longitude BETWEEN :minLon AND :maxLon")
-    Page<Route> findNearbyRoutes(@Param("minLat") Double minLat,
-                                @Param("maxLat") Double maxLat,
-                                @Param("minLon") Double minLon,
-                                @Param("maxLon") Double maxLon,
-                                Pageable pageable);
-
-    // Helper method to find nearby routes with radius calculation
-    default Page<Route> findNearbyRoutes(Double latitude, Double longitude, Double radiusKm, Pageable pageable) {
-        // Convert radius from km to approximate degrees (rough approximation)
-        // 1 degree ≈ 111 km at equator
-        Double radiusDegrees = radiusKm / 111.0;
-
-        Double minLat = latitude - radiusDegrees;
-        Double maxLat = latitude + radiusDegrees;
-        Double minLon = longitude - radiusDegrees;
-        Double maxLon = longitude + radiusDegrees;
-
-        return findNearbyRoutes(minLat, maxLat, minLon, maxLon, pageable);
-    }
-}
\ No newline at end of file
+    // Version of a route for conditional requests, reads a single column
+    @Query("SELECT r.updatedAt FROM Route r WHERE r.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
+    
+    // Summary variants of the list queries above
+    @Query(SUMMARY_SELECT + "WHERE r.id = :id")
+    Optional<RouteSummaryResponse> findSummaryById(@Param("id") UUID id);
+    
+    @Query(value = SUMMARY_SELECT,
+           countQuery = "SELECT COUNT(r) FROM Route r")
+    Page<RouteSummaryResponse> findAllSummaries(Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE r.isPublic = true",
+           countQuery = "SELECT COUNT(r) FROM Route r WHERE r.isPublic = true")
+    Page<RouteSummaryResponse> findPublicSummaries(Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE r.userId = :userId",
+           countQuery = "SELECT COUNT(r) FROM Route r WHERE r.userId = :userId")
+    Page<RouteSummaryResponse> findSummariesByUserId(@Param("userId") String userId, Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE r.difficulty = :difficulty",
+           countQuery = "SELECT COUNT(r) FROM Route r WHERE r.difficulty = :difficulty")
+    Page<RouteSummaryResponse> findSummariesByDifficulty(@Param("difficulty") Integer difficulty, Pageable pageable);
+    
+    // Keyset variants of the summary list queries, see AFTER_CURSOR
+    @Query(SUMMARY_SELECT + "WHERE " + AFTER_CURSOR + NEWEST_FIRST)
+    Slice<RouteSummaryResponse> findSummariesAfter(
+        @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE r.isPublic = true AND " + AFTER_CURSOR + NEWEST_FIRST)
+    Slice<RouteSummaryResponse> findPublicSummariesAfter(
+        @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE r.userId = :userId AND " + AFTER_CURSOR + NEWEST_FIRST)
+    Slice<RouteSummaryResponse> findSummariesByUserIdAfter(
+        @Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+        Pageable pageable);
+}
@@ -0,0 +1,55 @@
+package com.trackoss.trackoss_backend.repository;
+
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.service.PackedTrack;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Spatial queries that depend on the database: PostGIS when available, bounding box columns otherwise.
+ * Also the combined route filter, whose query is built from the filters that are actually given, and the
+ * ranked text search: full-text and trigram indexes when available, a substring match otherwise.
+ */
+public interface RouteRepositoryCustom {
+
+    // Find routes passing within radiusKm of a location, closest first when PostGIS is enabled
+    Page<Route> findNearbyRoutes(Double latitude, Double longitude, Double radiusKm, Pageable pageable);
+
+    // Rewrite the geography column of a route from its points (no-op without PostGIS)
+    void updateRouteGeometry(UUID routeId, List<RoutePoint> points);
+
+    // Same as above for callers that already collected the track line (non-waypoint points) as columns
+    void updateRouteGeometry(UUID routeId, PackedTrack line);
+
+    // Rebuild the geography column from the route_points rows inside the database (no-op without PostGIS)
+    void refreshRouteGeometry(UUID routeId);
+
+    // Find routes with combined filters; null filters are left out of the query, surface is matched
+    // against the surface column after Route.normalizeSurface
+    Page<Route> findWithFilters(Integer difficulty, Route.RouteType routeType, Double minDistance,
+                                Double maxDistance, String surface, Boolean isPublic, Pageable pageable);
+
+    // Summary variant of findWithFilters
+    Page<RouteSummaryResponse> findSummariesWithFilters(Integer difficulty, Route.RouteType routeType,
+                                                        Double minDistance, Double maxDistance, String surface,
+                                                        Boolean isPublic, Pageable pageable);
+
+    // Keyset variant of findSummariesWithFilters, see RouteRepository.AFTER_CURSOR
+    Slice<RouteSummaryResponse> findSummariesWithFiltersAfter(Integer difficulty, Route.RouteType routeType,
+                                                              Double minDistance, Double maxDistance, String surface,
+                                                              Boolean isPublic, LocalDateTime createdAt, UUID id,
+                                                              Pageable pageable);
+
+    // Find routes whose name or description matches the term, best match first, with the filters of
+    // findSummariesWithFilters; the pageable's sort is not applied
+    Page<RouteSummaryResponse> searchSummaries(String term, Integer difficulty, Route.RouteType routeType,
+                                               Double minDistance, Double maxDistance, String surface,
+                                               Boolean isPublic, Pageable pageable);
+}
@@ -0,0 +1,395 @@
+package com.trackoss.trackoss_backend.repository;
+
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.service.PackedTrack;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class RouteRepositoryImpl implements RouteRepositoryCustom {
+
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private static final String SEARCH_POINT = "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography";
+
+    // Full-text match on the generated search_vector (see RouteSearchSchemaInitializer), or a trigram match on
+    // name or description for partial words and typos. Each branch has its own GIN index
+    private static final String TEXT_QUERY = "websearch_to_tsquery('simple', :term)";
+    private static final String TEXT_MATCH = "(r.search_vector @@ " + TEXT_QUERY + " OR :term <% r.name " +
+            "OR r.name ILIKE :pattern ESCAPE '!' OR r.description ILIKE :pattern ESCAPE '!')";
+    private static final String TEXT_RANK = "ts_rank_cd(r.search_vector, " + TEXT_QUERY + ") + word_similarity(:term, r.name)";
+
+    // Without the search column: substring match, routes matching by name before those matching by description
+    private static final String LIKE_MATCH = "(LOWER(r.name) LIKE :pattern ESCAPE '!' " +
+            "OR LOWER(r.description) LIKE :pattern ESCAPE '!')";
+    private static final String LIKE_RANK = "CASE WHEN LOWER(r.name) LIKE :pattern ESCAPE '!' THEN 0 ELSE 1 END";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.spatial.postgis-enabled:false}")
+    private boolean postgisEnabled;
+
+    @Value("${app.search.full-text-enabled:false}")
+    private boolean fullTextEnabled;
+
+    @Override
+    public Page<Route> findNearbyRoutes(Double latitude, Double longitude, Double radiusKm, Pageable pageable) {
+        return postgisEnabled
+                ? findNearbyWithPostgis(latitude, longitude, radiusKm, pageable)
+                : findNearbyWithBoundingBox(latitude, longitude, radiusKm, pageable);
+    }
+
+    @Override
+    public void updateRouteGeometry(UUID routeId, List<RoutePoint> points) {
+        if (!postgisEnabled) {
+            return;
+        }
+
+        List<RoutePoint> line = points.stream()
+                .filter(point -> point.getPointType() != RoutePoint.PointType.WAYPOINT)
+                .toList();
+        if (line.size() < 2) {
+            line = points;
+        }
+        updateRouteGeometry(routeId, PackedTrack.of(line));
+    }
+
+    @Override
+    public void updateRouteGeometry(UUID routeId, PackedTrack line) {
+        if (!postgisEnabled) {
+            return;
+        }
+
+        // The route row has to exist before the native update can touch it
+        entityManager.flush();
+
+        byte[] wkb = toWkb(line);
+        if (wkb == null) {
+            entityManager.createNativeQuery("UPDATE routes SET geog = NULL WHERE id = :id")
+                    .setParameter("id", routeId)
+                    .executeUpdate();
+            return;
+        }
+
+        entityManager.createNativeQuery(
+                        "UPDATE routes SET geog = ST_GeomFromWKB(:wkb, 4326)::geography WHERE id = :id")
+                .setParameter("wkb", wkb)
+                .setParameter("id", routeId)
+                .executeUpdate();
+    }
+
+    @Override
+    public void refreshRouteGeometry(UUID routeId) {
+        if (!postgisEnabled) {
+            return;
+        }
+
+        entityManager.flush();
+
+        // Same line as updateRouteGeometry(List): track points, or all points when fewer than two remain
+        entityManager.createNativeQuery(
+                        "WITH line AS (" +
+                        "  SELECT sequence_order, longitude, latitude FROM route_points WHERE route_id = :id" +
+                        "  AND (point_type <> 'WAYPOINT' OR (SELECT COUNT(*) FROM route_points" +
+                        "       WHERE route_id = :id AND point_type <> 'WAYPOINT') < 2)) " +
+                        "UPDATE routes SET geog = (SELECT CASE COUNT(*)" +
+                        "  WHEN 0 THEN NULL" +
+                        "  WHEN 1 THEN ST_SetSRID(ST_MakePoint(MIN(longitude), MIN(latitude)), 4326)::geography" +
+                        "  ELSE ST_SetSRID(ST_MakeLine(ST_MakePoint(longitude, latitude) ORDER BY sequence_order), 4326)::geography" +
+                        "  END FROM line) WHERE id = :id")
+                .setParameter("id", routeId)
+                .executeUpdate();
+    }
+
+    @Override
+    public Page<Route> findWithFilters(Integer difficulty, Route.RouteType routeType, Double minDistance,
+                                       Double maxDistance, String surface, Boolean isPublic, Pageable pageable) {
+        RouteFilter filter = RouteFilter.properties(difficulty, routeType, minDistance, maxDistance, surface, isPublic);
+        return findFilteredPage("SELECT r FROM Route r ", Route.class, filter, pageable);
+    }
+
+    @Override
+    public Page<RouteSummaryResponse> findSummariesWithFilters(Integer difficulty, Route.RouteType routeType,
+                                                               Double minDistance, Double maxDistance, String surface,
+                                                               Boolean isPublic, Pageable pageable) {
+        RouteFilter filter = RouteFilter.properties(difficulty, routeType, minDistance, maxDistance, surface, isPublic);
+        return findFilteredPage(RouteRepository.SUMMARY_SELECT, RouteSummaryResponse.class, filter, pageable);
+    }
+
+    @Override
+    public Slice<RouteSummaryResponse> findSummariesWithFiltersAfter(Integer difficulty, Route.RouteType routeType,
+                                                                     Double minDistance, Double maxDistance,
+                                                                     String surface, Boolean isPublic,
+                                                                     LocalDateTime createdAt, UUID id,
+                                                                     Pageable pageable) {
+        RouteFilter filter = RouteFilter.properties(difficulty, routeType, minDistance, maxDistance, surface, isPublic)
+                .and(RouteRepository.AFTER_CURSOR.trim())
+                .with("createdAt", createdAt)
+                .with("id", id);
+        TypedQuery<RouteSummaryResponse> query = entityManager.createQuery(
+                RouteRepository.SUMMARY_SELECT + filter.where() + RouteRepository.NEWEST_FIRST,
+                RouteSummaryResponse.class);
+        filter.bind(query);
+
+        // One row beyond the slice tells whether another one follows, without a count
+        List<RouteSummaryResponse> routes = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = routes.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? routes.subList(0, pageable.getPageSize()) : routes, pageable, hasNext);
+    }
+
+    @Override
+    public Page<RouteSummaryResponse> searchSummaries(String term, Integer difficulty, Route.RouteType routeType,
+                                                      Double minDistance, Double maxDistance, String surface,
+                                                      Boolean isPublic, Pageable pageable) {
+        return fullTextEnabled
+                ? searchWithFullText(term, RouteFilter.columns(difficulty, routeType, minDistance, maxDistance,
+                        surface, isPublic), pageable)
+                : searchWithLike(term, RouteFilter.properties(difficulty, routeType, minDistance, maxDistance,
+                        surface, isPublic), pageable);
+    }
+
+    private <T> Page<T> findFilteredPage(String select, Class<T> type, RouteFilter filter, Pageable pageable) {
+        TypedQuery<T> query = entityManager.createQuery(
+                QueryUtils.applySorting(select + filter.where(), pageable.getSort(), "r"), type);
+        filter.bind(query);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(r) FROM Route r " + filter.where(), Long.class);
+            filter.bind(count);
+            return count.getSingleResult();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<RouteSummaryResponse> searchWithFullText(String term, RouteFilter filter, Pageable pageable) {
+        filter.and(TEXT_MATCH).with("term", term).with("pattern", likePattern(term));
+
+        // Rank on ids only, then read the summaries of one page; rows are never loaded with their track data
+        Query query = entityManager.createNativeQuery("SELECT r.id FROM routes r " + filter.where() +
+                "ORDER BY " + TEXT_RANK + " DESC, r.created_at DESC, r.id DESC");
+        filter.bind(query);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<RouteSummaryResponse> routes = findSummariesInOrder(query.getResultList());
+
+        return PageableExecutionUtils.getPage(routes, pageable, () -> {
+            Query count = entityManager.createNativeQuery("SELECT COUNT(*) FROM routes r " + filter.where());
+            filter.bind(count);
+            return ((Number) count.getSingleResult()).longValue();
+        });
+    }
+
+    private Page<RouteSummaryResponse> searchWithLike(String term, RouteFilter filter, Pageable pageable) {
+        filter.and(LIKE_MATCH).with("pattern", likePattern(term));
+
+        TypedQuery<RouteSummaryResponse> query = entityManager.createQuery(RouteRepository.SUMMARY_SELECT +
+                filter.where() + "ORDER BY " + LIKE_RANK + ", r.createdAt DESC, r.id DESC", RouteSummaryResponse.class);
+        filter.bind(query);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(r) FROM Route r " + filter.where(), Long.class);
+            filter.bind(count);
+            return count.getSingleResult();
+        });
+    }
+
+    private List<RouteSummaryResponse> findSummariesInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, RouteSummaryResponse> summaries = entityManager
+                .createQuery(RouteRepository.SUMMARY_SELECT + "WHERE r.id IN :ids", RouteSummaryResponse.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(RouteSummaryResponse::getId, Function.identity()));
+        return ids.stream().map(summaries::get).filter(Objects::nonNull).toList();
+    }
+
+    // Lower case LIKE pattern matching the term anywhere, with '!' escaping the term's own wildcards
+    private static String likePattern(String term) {
+        String escaped = term.toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<Route> findNearbyWithPostgis(Double latitude, Double longitude, Double radiusKm, Pageable pageable) {
+        // ST_DWithin uses the GiST index on geog, ST_Distance orders the candidates by true distance
+        List<Route> routes = entityManager.createNativeQuery(
+                        "SELECT r.* FROM routes r " +
+                        "WHERE ST_DWithin(r.geog, " + SEARCH_POINT + ", :radius) " +
+                        "ORDER BY ST_Distance(r.geog, " + SEARCH_POINT + "), r.id", Route.class)
+                .setParameter("latitude", latitude)
+                .setParameter("longitude", longitude)
+                .setParameter("radius", radiusKm * 1000)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(routes, pageable, () -> ((Number) entityManager.createNativeQuery(
+                        "SELECT COUNT(*) FROM routes r WHERE ST_DWithin(r.geog, " + SEARCH_POINT + ", :radius)")
+                .setParameter("latitude", latitude)
+                .setParameter("longitude", longitude)
+                .setParameter("radius", radiusKm * 1000)
+                .getSingleResult()).longValue());
+    }
+
+    private Page<Route> findNearbyWithBoundingBox(Double latitude, Double longitude, Double radiusKm, Pageable pageable) {
+        double latitudeDelta = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double minLat = latitude - latitudeDelta;
+        double maxLat = latitude + latitudeDelta;
+
+        // A degree of longitude shrinks with cos(latitude); use the edge closest to the pole
+        double widestLatitude = Math.min(90.0, Math.max(Math.abs(minLat), Math.abs(maxLat)));
+        double cosLatitude = Math.cos(Math.toRadians(widestLatitude));
+        double longitudeDelta = cosLatitude > 1e-6
+                ? Math.min(180.0, radiusKm / (KM_PER_DEGREE_LATITUDE * cosLatitude))
+                : 180.0;
+        double minLon = longitude - longitudeDelta;
+        double maxLon = longitude + longitudeDelta;
+
+        String where = "WHERE r.minLatitude <= :maxLat AND r.maxLatitude >= :minLat " +
+                "AND r.minLongitude <= :maxLon AND r.maxLongitude >= :minLon";
+
+        TypedQuery<Route> query = entityManager.createQuery("SELECT r FROM Route r " + where + " ORDER BY r.id", Route.class)
+                .setParameter("minLat", minLat)
+                .setParameter("maxLat", maxLat)
+                .setParameter("minLon", minLon)
+                .setParameter("maxLon", maxLon)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> entityManager
+                .createQuery("SELECT COUNT(r) FROM Route r " + where, Long.class)
+                .setParameter("minLat", minLat)
+                .setParameter("maxLat", maxLat)
+                .setParameter("minLon", minLon)
+                .setParameter("maxLon", maxLon)
+                .getSingleResult());
+    }
+
+    /**
+     * Little endian WKB for the route's track: a LineString over the given points,
+     * or a Point for single-point routes.
+     */
+    private byte[] toWkb(PackedTrack line) {
+        int size = line.size();
+        if (size == 0) {
+            return null;
+        }
+
+        if (size == 1) {
+            return ByteBuffer.allocate(21).order(ByteOrder.LITTLE_ENDIAN)
+                    .put((byte) 1)
+                    .putInt(1) // wkbPoint
+                    .putDouble(line.longitude(0))
+                    .putDouble(line.latitude(0))
+                    .array();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(9 + size * 16).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) 1)
+                .putInt(2) // wkbLineString
+                .putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(line.longitude(i)).putDouble(line.latitude(i));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * WHERE clause of the combined route filter with only the filters that were given. A fixed
+     * "(:filter IS NULL OR ...)" query is planned once for every combination, so PostgreSQL's generic
+     * plan cannot use the index of any single column; this way each predicate is a plain comparison on
+     * an indexed column (see the indexes on Route).
+     */
+    private static final class RouteFilter {
+
+        private final List<String> conditions = new ArrayList<>();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        // Conditions on entity attributes, for JPQL
+        static RouteFilter properties(Integer difficulty, Route.RouteType routeType, Double minDistance,
+                                      Double maxDistance, String surface, Boolean isPublic) {
+            return new RouteFilter(false, difficulty, routeType, minDistance, maxDistance, surface, isPublic);
+        }
+
+        // Conditions on table columns, for native SQL
+        static RouteFilter columns(Integer difficulty, Route.RouteType routeType, Double minDistance,
+                                   Double maxDistance, String surface, Boolean isPublic) {
+            return new RouteFilter(true, difficulty, routeType, minDistance, maxDistance, surface, isPublic);
+        }
+
+        private RouteFilter(boolean columns, Integer difficulty, Route.RouteType routeType, Double minDistance,
+                            Double maxDistance, String surface, Boolean isPublic) {
+            String distance = columns ? "r.total_distance" : "r.totalDistance";
+            add("r.difficulty = :difficulty", "difficulty", difficulty);
+            add(columns ? "r.route_type = :routeType" : "r.routeType = :routeType", "routeType",
+                    columns && routeType != null ? routeType.name() : routeType);
+            add(distance + " >= :minDistance", "minDistance", minDistance);
+            add(distance + " <= :maxDistance", "maxDistance", maxDistance);
+            add("r.surface = :surface", "surface", Route.normalizeSurface(surface));
+            add(columns ? "r.is_public = :isPublic" : "r.isPublic = :isPublic", "isPublic", isPublic);
+        }
+
+        RouteFilter and(String condition) {
+            conditions.add(condition);
+            return this;
+        }
+
+        RouteFilter with(String name, Object value) {
+            parameters.put(name, value);
+            return this;
+        }
+
+        String where() {
+            return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+        }
+
+        void bind(Query query) {
+            parameters.forEach(query::setParameter);
+        }
+
+        private void add(String condition, String name, Object value) {
+            if (value != null) {
+                and(condition).with(name, value);
+            }
+        }
+    }
+}
@@ -1,22 +1,27 @@
 package com.trackoss.trackoss_backend.security;
 
+import com.trackoss.trackoss_backend.config.BulkheadDataSource;
+import com.trackoss.trackoss_backend.config.BulkheadDataSource.DatabaseBusyException;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,7 +29,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final TokenPrincipalResolver principalResolver;
 
     @Override
     protected void doFilterInternal(
@@ -36,10 +41,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getTokenFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // One parse verifies the token and yields the claims the principal is built from
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : Optional.empty();
+            Optional<UserDetails> principal = claims.flatMap(principalResolver::resolve);
+            if (principal.isPresent()) {
+                UserDetails userDetails = principal.get();
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(
                         userDetails, 
@@ -51,6 +57,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception ex) {
+            // Loading the user can be turned away by the database bulkhead; that is no reason to treat the
+            // request as anonymous
+            Optional<DatabaseBusyException> busy = BulkheadDataSource.findDatabaseBusy(ex);
+            if (busy.isPresent()) {
+                log.warn("Rejected request, database busy: {}", busy.get().getMessage());
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, busy.get().getRetryAfterHeader());
+                return;
+            }
             log.error("Could not set user authentication in security context", ex);
         }
         
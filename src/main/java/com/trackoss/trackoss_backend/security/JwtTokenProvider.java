@@ -3,6 +3,7 @@ package com.trackoss.trackoss_backend.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -11,30 +12,66 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
 
+/**
+ * Issues and verifies the HMAC-signed JWTs used for API authentication.
+ *
+ * The signing key is decoded from app.jwt.secret once, together with the parser verifying against it;
+ * JwtParser is immutable and shared by all request threads.
+ */
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    // Claims that let TokenPrincipalResolver build the principal without reading the users table
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+
     @Value("${app.jwt.secret:mySecretKey}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration:86400000}") // 24 hours in milliseconds
     private int jwtExpiration;
 
+    private volatile Verifier verifier;
+
+    private record Verifier(SecretKey signingKey, JwtParser parser) {
+    }
+
+    @PostConstruct
+    void init() {
+        verifier(); // fail at startup on a secret that is not valid base64 or too short
+    }
+
+    private Verifier verifier() {
+        Verifier current = verifier;
+        if (current == null) {
+            // Racing threads build equal instances, so no lock is needed
+            SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+            current = new Verifier(key, Jwts.parser().verifyWith(key).build());
+            verifier = current;
+        }
+        return current;
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return verifier().signingKey();
     }
 
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpiration);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
+                .setExpiration(expiryDate);
+        if (userPrincipal instanceof UserPrincipal principal && principal.getUser().getId() != null) {
+            builder.claim(USER_ID_CLAIM, principal.getUser().getId())
+                    .claim(ROLE_CLAIM, principal.getUser().getRole().name());
+        }
+        return builder
                 .signWith(getSigningKey())
                 .compact();
     }
@@ -50,24 +87,28 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * @throws JwtException if the token is invalid or expired
+     */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return verifier().parser()
                 .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+                .getPayload()
+                .getSubject();
     }
 
     public boolean validateToken(String authToken) {
+        return parseToken(authToken).isPresent();
+    }
+
+    /**
+     * Verify a token and return its claims, or empty if it is invalid or expired.
+     * Parses and checks the signature once, for callers that need both the verdict and the claims.
+     */
+    public Optional<Claims> parseToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
-        } catch (SecurityException ex) {
+            return Optional.of(verifier().parser().parseSignedClaims(token).getPayload());
+        } catch (io.jsonwebtoken.security.SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token");
@@ -78,6 +119,6 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return Optional.empty();
     }
 }
@@ -3,20 +3,27 @@
 package com.trackoss.trackoss_backend.security;
 
 import com.trackoss.trackoss_backend.config.CorsProperties;
+import com.trackoss.trackoss_backend.config.MetricsScrapeProperties;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -28,10 +35,31 @@ import java.util.Arrays;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String SCRAPE_AUTHORITY = "METRICS_SCRAPE";
+
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CorsProperties corsProperties;
+    private final MetricsScrapeProperties metricsScrapeProperties;
+
+    /**
+     * The Prometheus scrape endpoint only accepts the scraper's HTTP Basic credential
+     * (app.metrics.scrape.*), not app user tokens, which expire and would let any user read the meters.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain prometheusScrapeFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/prometheus")
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(authorize -> authorize.anyRequest().hasAuthority(SCRAPE_AUTHORITY))
+                .httpBasic(Customizer.withDefaults())
+                .authenticationManager(new ProviderManager(scrapeAuthenticationProvider()));
+
+        return http.build();
+    }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -68,6 +96,20 @@ public class SecurityConfig {
         return authProvider;
     }
 
+    private DaoAuthenticationProvider scrapeAuthenticationProvider() {
+        InMemoryUserDetailsManager scrapers = new InMemoryUserDetailsManager();
+        if (StringUtils.hasText(metricsScrapeProperties.getPassword())) {
+            scrapers.createUser(User.withUsername(metricsScrapeProperties.getUsername())
+                    .password(passwordEncoder.encode(metricsScrapeProperties.getPassword()))
+                    .authorities(SCRAPE_AUTHORITY)
+                    .build());
+        }
+        DaoAuthenticationProvider scrapeProvider = new DaoAuthenticationProvider();
+        scrapeProvider.setUserDetailsService(scrapers);
+        scrapeProvider.setPasswordEncoder(passwordEncoder);
+        return scrapeProvider;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,84 @@
+package com.trackoss.trackoss_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trackoss.trackoss_backend.entity.User;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Turns verified token claims into the principal of a request.
+ *
+ * By default the user is loaded from the users table on every request. With a user cache TTL the loaded
+ * principal is reused for that long, so disabling or deleting an account takes effect within the TTL. In
+ * stateless mode tokens that carry the user id and role claims are trusted without any lookup until they
+ * expire; older tokens without those claims still go through the users table.
+ */
+@Component
+@Slf4j
+public class TokenPrincipalResolver {
+
+    private final UserDetailsService userDetailsService;
+    private final boolean stateless;
+    private final Cache<String, UserDetails> users;
+
+    public TokenPrincipalResolver(
+            UserDetailsService userDetailsService,
+            @Value("${app.jwt.stateless:false}") boolean stateless,
+            @Value("${app.jwt.user-cache-ttl:0s}") Duration userCacheTtl) {
+        this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
+        this.users = userCacheTtl.isZero() || userCacheTtl.isNegative() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(userCacheTtl)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    /**
+     * Principal for the token subject, or empty when the account is disabled or locked
+     */
+    public Optional<UserDetails> resolve(Claims claims) {
+        if (stateless) {
+            Optional<UserDetails> fromClaims = fromClaims(claims);
+            if (fromClaims.isPresent()) {
+                return fromClaims;
+            }
+        }
+
+        String username = claims.getSubject();
+        UserDetails userDetails = users != null
+                ? users.get(username, userDetailsService::loadUserByUsername)
+                : userDetailsService.loadUserByUsername(username);
+        if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+            log.debug("Rejecting token of disabled or locked user {}", username);
+            return Optional.empty();
+        }
+        return Optional.of(userDetails);
+    }
+
+    private static Optional<UserDetails> fromClaims(Claims claims) {
+        Long userId = claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class);
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return Optional.empty();
+        }
+        try {
+            User user = User.builder()
+                    .id(userId)
+                    .username(claims.getSubject())
+                    .role(User.Role.valueOf(role))
+                    .build();
+            return Optional.of(UserPrincipal.fromToken(user));
+        } catch (IllegalArgumentException e) {
+            log.debug("Unknown role claim {}", role);
+            return Optional.empty();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.trackoss.trackoss_backend.security;
 
 import com.trackoss.trackoss_backend.entity.User;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,15 +12,44 @@ import java.util.Collections;
 public class UserPrincipal implements UserDetails {
     
     private final User user;
+    private final boolean fromToken;
     
     public UserPrincipal(User user) {
+        this(user, false);
+    }
+    
+    private UserPrincipal(User user, boolean fromToken) {
         this.user = user;
+        this.fromToken = fromToken;
+    }
+    
+    /**
+     * Principal rebuilt from token claims; the user only has its id, username and role
+     */
+    public static UserPrincipal fromToken(User user) {
+        return new UserPrincipal(user, true);
+    }
+    
+    /**
+     * Id of the app user behind an authentication, in the form stored on routes; null when there is none
+     */
+    public static String userIdOf(Authentication authentication) {
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getUser().getId() != null) {
+            return principal.getUser().getId().toString();
+        }
+        return null;
     }
     
     public User getUser() {
         return user;
     }
     
+    public boolean isFromToken() {
+        return fromToken;
+    }
+    
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
@@ -37,21 +67,21 @@ public class UserPrincipal implements UserDetails {
     
     @Override
     public boolean isAccountNonExpired() {
-        return true;
+        return user.isAccountNonExpired();
     }
     
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return user.isAccountNonLocked();
     }
     
     @Override
     public boolean isCredentialsNonExpired() {
-        return true;
+        return user.isCredentialsNonExpired();
     }
     
     @Override
     public boolean isEnabled() {
-        return true;
+        return user.isEnabled();
     }
 }
@@ -0,0 +1,170 @@
+package com.trackoss.trackoss_backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Elevation over cumulative distance along a route, stored downsampled in route_stats.elevation_profile.
+ *
+ * Downsampling uses largest-triangle-three-buckets (LTTB): the first and last points are kept and every
+ * bucket in between contributes the point forming the largest triangle with the point kept before it and
+ * the average of the next bucket, so peaks and dips survive where plain striding would drop them.
+ * Layout (version 1): version byte, sample count (varint), then per sample the distance step and the
+ * elevation change in decimetres (varint and zigzag varint).
+ */
+public final class ElevationProfile {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final double SCALE = 10.0; // decimetres
+
+    public static final ElevationProfile EMPTY = new ElevationProfile(new double[0], new double[0]);
+
+    private final double[] distances;
+    private final double[] elevations;
+
+    public ElevationProfile(double[] distances, double[] elevations) {
+        if (distances.length != elevations.length) {
+            throw new IllegalArgumentException("Distances and elevations differ in length");
+        }
+        this.distances = distances;
+        this.elevations = elevations;
+    }
+
+    /**
+     * Downsample the first size entries of a series to at most the given number of samples
+     */
+    public static ElevationProfile of(double[] distances, double[] elevations, int size, int samples) {
+        int[] kept = largestTriangleThreeBuckets(distances, elevations, size, samples);
+        double[] keptDistances = new double[kept.length];
+        double[] keptElevations = new double[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            keptDistances[i] = distances[kept[i]];
+            keptElevations[i] = elevations[kept[i]];
+        }
+        return new ElevationProfile(keptDistances, keptElevations);
+    }
+
+    public int size() {
+        return distances.length;
+    }
+
+    /**
+     * Cumulative distances in metres
+     */
+    public double[] distances() {
+        return distances;
+    }
+
+    /**
+     * Elevations in metres
+     */
+    public double[] elevations() {
+        return elevations;
+    }
+
+    /**
+     * This profile reduced to at most the given number of samples; returns itself when it is small enough
+     */
+    public ElevationProfile downsample(int samples) {
+        return samples >= size() ? this : of(distances, elevations, size(), samples);
+    }
+
+    /**
+     * Positions of the points LTTB keeps out of the first size points, in ascending order.
+     * Keeps everything when there are no more points than samples; fewer than three samples keep the ends.
+     */
+    static int[] largestTriangleThreeBuckets(double[] x, double[] y, int size, int samples) {
+        if (samples >= size || size <= 2) {
+            int[] all = new int[size];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        if (samples < 3) {
+            return samples <= 1 ? new int[]{0} : new int[]{0, size - 1};
+        }
+
+        int[] kept = new int[samples];
+        int next = 0;
+        kept[next++] = 0;
+
+        // Points 1..size-2 are split into samples-2 buckets of equal width
+        double bucketWidth = (double) (size - 2) / (samples - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < samples - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketWidth) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketWidth) + 1;
+
+            // Average of the next bucket, or the last point for the final bucket
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketWidth) + 1, size);
+            if (bucket == samples - 3) {
+                nextStart = size - 1;
+                nextEnd = size;
+            }
+            double averageX = 0.0;
+            double averageY = 0.0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            double maxArea = -1.0;
+            int selected = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; the factor does not change which point wins
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (averageY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+            kept[next++] = selected;
+            previous = selected;
+        }
+
+        kept[next] = size - 1;
+        return kept;
+    }
+
+    public byte[] encode() {
+        TrackCodec.Writer writer = new TrackCodec.Writer(8 + distances.length * 4);
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeVarint(distances.length);
+        long previousDistance = 0;
+        long previousElevation = 0;
+        for (int i = 0; i < distances.length; i++) {
+            long distance = Math.round(distances[i] * SCALE);
+            long elevation = Math.round(elevations[i] * SCALE);
+            writer.writeVarint(Math.max(distance - previousDistance, 0));
+            writer.writeSignedVarint(elevation - previousElevation);
+            previousDistance = Math.max(distance, previousDistance);
+            previousElevation = elevation;
+        }
+        return writer.toByteArray();
+    }
+
+    public static ElevationProfile decode(byte[] data) {
+        TrackCodec.Reader reader = new TrackCodec.Reader(data);
+
+        int version = reader.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported elevation profile version: " + version);
+        }
+        int size = (int) reader.readVarint();
+
+        double[] distances = new double[size];
+        double[] elevations = new double[size];
+        long distance = 0;
+        long elevation = 0;
+        for (int i = 0; i < size; i++) {
+            distance += reader.readVarint();
+            elevation += reader.readSignedVarint();
+            distances[i] = distance / SCALE;
+            elevations[i] = elevation / SCALE;
+        }
+        return new ElevationProfile(distances, elevations);
+    }
+}
@@ -0,0 +1,135 @@
+package com.trackoss.trackoss_backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Streaming elevation gain and loss that ignores sensor jitter.
+ *
+ * Elevations first go through an optional filter, a trailing moving median or a scalar Kalman filter
+ * whose process noise grows with the distance travelled, so sparse and dense tracks are smoothed alike.
+ * Filtered values are then counted with a dead band: a change is only counted once it reaches the
+ * hysteresis threshold from the last counted elevation, and whatever is left at the end is counted when
+ * the smoother finishes. Points without an elevation are skipped. Runs in O(n) with memory bounded by
+ * the median window.
+ */
+public final class ElevationSmoother {
+
+    public enum Filter {
+        NONE,
+        MEDIAN,  // trailing moving median over the last window points
+        KALMAN   // random walk model, process noise per metre travelled
+    }
+
+    /**
+     * Smoothing settings; the threshold is in metres, Kalman noise in square metres
+     */
+    public record Settings(Filter filter, int medianWindow, double hysteresis,
+                           double processNoisePerMetre, double measurementNoise) {
+
+        public static final Settings DEFAULT = new Settings(Filter.NONE, 5, 3.0, 0.05, 9.0);
+    }
+
+    private final Settings settings;
+
+    // Median window as a ring buffer, plus scratch space for sorting it
+    private final double[] window;
+    private final double[] sorted;
+    private int windowSize;
+    private int windowNext;
+
+    private double estimate = Double.NaN;
+    private double variance;
+    private double distanceSinceLast;
+
+    private double reference = Double.NaN;
+    private double last = Double.NaN;
+    private double gain;
+    private double loss;
+    private boolean finished;
+
+    public ElevationSmoother(Settings settings) {
+        this.settings = settings;
+        int size = settings.filter() == Filter.MEDIAN ? Math.max(1, settings.medianWindow()) : 0;
+        this.window = new double[size];
+        this.sorted = new double[size];
+    }
+
+    /**
+     * Add the next point; distance is the length of the segment leading to it in metres
+     */
+    public void add(double elevation, double distance) {
+        distanceSinceLast += distance;
+        if (Double.isNaN(elevation)) {
+            return;
+        }
+        double filtered = filter(elevation, distanceSinceLast);
+        distanceSinceLast = 0.0;
+
+        if (Double.isNaN(reference)) {
+            reference = filtered;
+        } else if (filtered - reference >= settings.hysteresis()) {
+            gain += filtered - reference;
+            reference = filtered;
+        } else if (reference - filtered >= settings.hysteresis()) {
+            loss += reference - filtered;
+            reference = filtered;
+        }
+        last = filtered;
+    }
+
+    /**
+     * Count the change still inside the dead band, so a steady climb is not cut short at the end
+     */
+    public void finish() {
+        if (finished || Double.isNaN(reference)) {
+            return;
+        }
+        finished = true;
+        if (last > reference) {
+            gain += last - reference;
+        } else {
+            loss += reference - last;
+        }
+        reference = last;
+    }
+
+    public double getGain() {
+        return gain;
+    }
+
+    public double getLoss() {
+        return loss;
+    }
+
+    private double filter(double elevation, double distance) {
+        return switch (settings.filter()) {
+            case NONE -> elevation;
+            case MEDIAN -> median(elevation);
+            case KALMAN -> kalman(elevation, distance);
+        };
+    }
+
+    private double median(double elevation) {
+        window[windowNext] = elevation;
+        windowNext = (windowNext + 1) % window.length;
+        windowSize = Math.min(windowSize + 1, window.length);
+
+        System.arraycopy(window, 0, sorted, 0, windowSize);
+        Arrays.sort(sorted, 0, windowSize);
+        int middle = windowSize / 2;
+        return windowSize % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+    private double kalman(double elevation, double distance) {
+        if (Double.isNaN(estimate)) {
+            estimate = elevation;
+            variance = settings.measurementNoise();
+            return estimate;
+        }
+        variance += settings.processNoisePerMetre() * distance;
+        double gainFactor = variance / (variance + settings.measurementNoise());
+        estimate += gainFactor * (elevation - estimate);
+        variance *= 1.0 - gainFactor;
+        return estimate;
+    }
+}
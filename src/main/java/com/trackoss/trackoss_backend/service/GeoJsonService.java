@@ -1,5 +1,7 @@
 package com.trackoss.trackoss_backend.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
@@ -10,8 +12,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -20,8 +24,18 @@ import java.util.Map;
 @Slf4j
 public class GeoJsonService {
     
+    public static final int MAX_PRECISION = 10;
+    
+    private static final double ELEVATION_SCALE = 10.0; // decimetres when precision is reduced
+    
     private final ObjectMapper objectMapper;
+    private final TrackStorageService trackStorageService;
+    private final RouteMeters routeMeters;
     
+    /**
+     * Export a route as a GeoJSON string built from maps.
+     * Kept as the compatibility output of the export endpoint; new code should use {@link #writeGeoJson}.
+     */
     public String exportToGeoJson(Route route) throws IOException {
         log.info("Exporting route {} to GeoJSON", route.getId());
         
@@ -29,9 +43,10 @@ public class GeoJsonService {
         featureCollection.put("type", "FeatureCollection");
         
         List<Map<String, Object>> features = new ArrayList<>();
+        List<RoutePoint> routePoints = trackStorageService.readPoints(route);
         
         // Create LineString feature for the route
-        if (!route.getRoutePoints().isEmpty()) {
+        if (!routePoints.isEmpty()) {
             Map<String, Object> routeFeature = new HashMap<>();
             routeFeature.put("type", "Feature");
             
@@ -50,7 +65,7 @@ public class GeoJsonService {
             geometry.put("type", "LineString");
             
             List<List<Double>> coordinates = new ArrayList<>();
-            for (RoutePoint point : route.getRoutePoints()) {
+            for (RoutePoint point : routePoints) {
                 List<Double> coord = new ArrayList<>();
                 coord.add(point.getLongitude());
                 coord.add(point.getLatitude());
@@ -66,7 +81,7 @@ public class GeoJsonService {
         }
         
         // Add waypoints as Point features
-        for (RoutePoint point : route.getRoutePoints()) {
+        for (RoutePoint point : routePoints) {
             if (point.getPointType() == RoutePoint.PointType.WAYPOINT && point.getName() != null) {
                 Map<String, Object> waypointFeature = new HashMap<>();
                 waypointFeature.put("type", "Feature");
@@ -102,8 +117,112 @@ public class GeoJsonService {
         return geoJson;
     }
     
+    /**
+     * Write a route as a GeoJSON FeatureCollection directly to the given stream: one LineString feature
+     * for the track followed by one Point feature per named waypoint, matching {@link #exportToGeoJson}.
+     * Coordinates are written as primitives while the iterator is consumed.
+     *
+     * @param precision decimal places for longitude/latitude, or null for full precision.
+     *                  Elevations are rounded to one decimal place when set.
+     * @return number of track points written
+     */
+    public int writeGeoJson(Route route, List<RoutePoint> waypoints, Iterator<RoutePoint> trackPoints,
+                            Integer precision, OutputStream outputStream) throws IOException {
+        int written = 0;
+        double coordinateScale = precision != null ? Math.pow(10, precision) : 0;
+        double elevationScale = precision != null ? ELEVATION_SCALE : 0;
+        
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("type", "FeatureCollection");
+            generator.writeArrayFieldStart("features");
+            
+            if (trackPoints.hasNext()) {
+                generator.writeStartObject();
+                generator.writeStringField("type", "Feature");
+                
+                generator.writeObjectFieldStart("properties");
+                generator.writeStringField("name", route.getName());
+                generator.writeStringField("description", route.getDescription());
+                generator.writeStringField("routeType", route.getRouteType() != null ? route.getRouteType().toString() : null);
+                writeNullableNumberField(generator, "totalDistance", route.getTotalDistance());
+                writeNullableNumberField(generator, "totalElevationGain", route.getTotalElevationGain());
+                writeNullableNumberField(generator, "estimatedDuration", route.getEstimatedDuration());
+                generator.writeEndObject();
+                
+                generator.writeObjectFieldStart("geometry");
+                generator.writeStringField("type", "LineString");
+                generator.writeArrayFieldStart("coordinates");
+                while (trackPoints.hasNext()) {
+                    writePosition(generator, trackPoints.next(), coordinateScale, elevationScale);
+                    written++;
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                
+                generator.writeEndObject();
+            }
+            
+            for (RoutePoint point : waypoints) {
+                if (point.getName() == null) {
+                    continue;
+                }
+                generator.writeStartObject();
+                generator.writeStringField("type", "Feature");
+                
+                generator.writeObjectFieldStart("properties");
+                generator.writeStringField("name", point.getName());
+                generator.writeStringField("description", point.getDescription());
+                generator.writeStringField("pointType", "waypoint");
+                generator.writeEndObject();
+                
+                generator.writeObjectFieldStart("geometry");
+                generator.writeStringField("type", "Point");
+                generator.writeFieldName("coordinates");
+                writePosition(generator, point, coordinateScale, elevationScale);
+                generator.writeEndObject();
+                
+                generator.writeEndObject();
+            }
+            
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        outputStream.flush();
+        return written;
+    }
+    
+    private void writePosition(JsonGenerator generator, RoutePoint point, double coordinateScale,
+                               double elevationScale) throws IOException {
+        generator.writeStartArray();
+        generator.writeNumber(round(point.getLongitude(), coordinateScale));
+        generator.writeNumber(round(point.getLatitude(), coordinateScale));
+        if (point.getElevation() != null) {
+            generator.writeNumber(round(point.getElevation(), elevationScale));
+        }
+        generator.writeEndArray();
+    }
+    
+    private void writeNullableNumberField(JsonGenerator generator, String name, Number value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long longValue) {
+            generator.writeNumber(longValue);
+        } else {
+            generator.writeNumber(value.doubleValue());
+        }
+    }
+    
+    // A scale of 0 means full precision
+    private double round(double value, double scale) {
+        return scale > 0 ? Math.round(value * scale) / scale : value;
+    }
+    
     public RouteCreateRequest importFromGeoJson(String geoJsonData, String routeName) throws IOException {
         log.info("Importing route from GeoJSON data ({} characters)", geoJsonData.length());
+        long started = System.nanoTime();
         
         JsonNode rootNode = objectMapper.readTree(geoJsonData);
         RouteCreateRequest request = new RouteCreateRequest();
@@ -133,6 +252,8 @@ public class GeoJsonService {
         }
         
         request.setPoints(points);
+        routeMeters.recordParse(RouteMeters.GEOJSON, System.nanoTime() - started);
+        routeMeters.recordImportedPoints(RouteMeters.GEOJSON, points.size());
         
         log.info("Successfully imported GeoJSON route with {} points", points.size());
         return request;
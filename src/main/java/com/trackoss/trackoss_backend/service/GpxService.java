@@ -4,113 +4,315 @@ import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.entity.RoutePoint;
 import io.jenetics.jpx.*;
-import io.jenetics.jpx.GPX.Version;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class GpxService {
     
+    private static final String GPX_NAMESPACE = "http://www.topografix.com/GPX/1/1";
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+    private static final Map<String, RoutePoint.PointType> POINT_ELEMENTS = Map.of(
+            "wpt", RoutePoint.PointType.WAYPOINT,
+            "rtept", RoutePoint.PointType.ROUTE_POINT,
+            "trkpt", RoutePoint.PointType.TRACK_POINT);
+    
+    private final TrackStorageService trackStorageService;
+    
     /**
      * Export a route to GPX format
      */
     public byte[] exportToGpx(Route route) throws IOException {
         log.info("Exporting route {} to GPX", route.getId());
         
-        GPX.Builder gpxBuilder = GPX.builder()
-                .creator("TrackOSS")
-                .version(Version.V11);
+        List<RoutePoint> routePoints = trackStorageService.readPoints(route);
+        List<RoutePoint> waypoints = routePoints.stream()
+                .filter(point -> point.getPointType() == RoutePoint.PointType.WAYPOINT)
+                .toList();
         
-        // Add metadata
-        if (route.getName() != null || route.getDescription() != null) {
-            Metadata.Builder metadataBuilder = Metadata.builder();
-            if (route.getName() != null) {
-                metadataBuilder.name(route.getName());
-            }
-            if (route.getDescription() != null) {
-                metadataBuilder.desc(route.getDescription());
-            }
-            gpxBuilder.metadata(metadataBuilder.build());
-        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeGpx(route, waypoints, routePoints.iterator(), outputStream);
         
-        // Create track from route points
-        if (!route.getRoutePoints().isEmpty()) {
-            Track.Builder trackBuilder = Track.builder();
+        log.info("Successfully exported route {} to GPX ({} bytes)", route.getId(), outputStream.size());
+        return outputStream.toByteArray();
+    }
+    
+    /**
+     * Write a route as GPX 1.1 directly to the given stream.
+     * Track points are consumed one at a time, so the iterator may be backed by a database cursor.
+     * Waypoints are written first because the GPX schema requires wpt before trk.
+     * The output stream is flushed but not closed.
+     */
+    public int writeGpx(Route route, List<RoutePoint> waypoints, Iterator<RoutePoint> trackPoints,
+                        OutputStream outputStream) throws IOException {
+        int written = 0;
+        try {
+            XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(outputStream, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("gpx");
+            xml.writeDefaultNamespace(GPX_NAMESPACE);
+            xml.writeAttribute("version", "1.1");
+            xml.writeAttribute("creator", "TrackOSS");
             
-            if (route.getName() != null) {
-                trackBuilder.name(route.getName());
-            }
-            if (route.getDescription() != null) {
-                trackBuilder.desc(route.getDescription());
+            if (route.getName() != null || route.getDescription() != null) {
+                xml.writeStartElement("metadata");
+                writeTextElement(xml, "name", route.getName());
+                writeTextElement(xml, "desc", route.getDescription());
+                xml.writeEndElement();
             }
             
-            // Create track segment
-            TrackSegment.Builder segmentBuilder = TrackSegment.builder();
-            
-            for (RoutePoint point : route.getRoutePoints()) {
-                WayPoint.Builder wpBuilder = WayPoint.builder()
-                        .lat(point.getLatitude())
-                        .lon(point.getLongitude());
-                
-                if (point.getElevation() != null) {
-                    wpBuilder.ele(point.getElevation());
-                }
-                
-                if (point.getTimestamp() != null) {
-                    wpBuilder.time(point.getTimestamp().toInstant(ZoneOffset.UTC));
-                }
-                
+            // Add waypoints for named points
+            for (RoutePoint point : waypoints) {
                 if (point.getName() != null) {
-                    wpBuilder.name(point.getName());
+                    writePoint(xml, "wpt", point, false);
                 }
-                
-                if (point.getDescription() != null) {
-                    wpBuilder.desc(point.getDescription());
+            }
+            
+            if (trackPoints.hasNext()) {
+                xml.writeStartElement("trk");
+                writeTextElement(xml, "name", route.getName());
+                writeTextElement(xml, "desc", route.getDescription());
+                xml.writeStartElement("trkseg");
+                while (trackPoints.hasNext()) {
+                    writePoint(xml, "trkpt", trackPoints.next(), true);
+                    written++;
                 }
-                
-                segmentBuilder.addPoint(wpBuilder.build());
+                xml.writeEndElement();
+                xml.writeEndElement();
             }
             
-            trackBuilder.addSegment(segmentBuilder.build());
-            gpxBuilder.addTrack(trackBuilder.build());
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write GPX for route " + route.getId(), e);
+        }
+        outputStream.flush();
+        return written;
+    }
+    
+    private void writePoint(XMLStreamWriter xml, String element, RoutePoint point, boolean includeTime)
+            throws XMLStreamException {
+        xml.writeStartElement(element);
+        xml.writeAttribute("lat", formatDecimal(point.getLatitude()));
+        xml.writeAttribute("lon", formatDecimal(point.getLongitude()));
+        if (point.getElevation() != null) {
+            writeTextElement(xml, "ele", formatDecimal(point.getElevation()));
+        }
+        if (includeTime && point.getTimestamp() != null) {
+            writeTextElement(xml, "time", point.getTimestamp().toInstant(ZoneOffset.UTC).toString());
         }
+        writeTextElement(xml, "name", point.getName());
+        writeTextElement(xml, "desc", point.getDescription());
+        xml.writeEndElement();
+    }
+    
+    private void writeTextElement(XMLStreamWriter xml, String element, String value) throws XMLStreamException {
+        if (value != null) {
+            xml.writeStartElement(element);
+            xml.writeCharacters(value);
+            xml.writeEndElement();
+        }
+    }
+    
+    // xsd:decimal does not allow exponent notation, which Double.toString produces for small values
+    private String formatDecimal(double value) {
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+    
+    /**
+     * Receives GPX content from {@link #readGpx} in document order.
+     */
+    public interface GpxHandler {
         
-        // Add waypoints for named points
-        for (RoutePoint point : route.getRoutePoints()) {
-            if (point.getPointType() == RoutePoint.PointType.WAYPOINT && point.getName() != null) {
-                WayPoint.Builder wpBuilder = WayPoint.builder()
-                        .lat(point.getLatitude())
-                        .lon(point.getLongitude())
-                        .name(point.getName());
-                
-                if (point.getElevation() != null) {
-                    wpBuilder.ele(point.getElevation());
+        default void onMetadataName(String name) {
+        }
+        
+        default void onMetadataDescription(String description) {
+        }
+        
+        default void onTrackName(String name) {
+        }
+        
+        /**
+         * Called once per wpt, rtept and trkpt. The point is transient and owned by the handler.
+         */
+        void onPoint(RoutePoint point) throws IOException;
+    }
+    
+    /**
+     * Pull-parse a GPX 1.0/1.1 document and hand every point to the handler as soon as it has been read,
+     * so memory use does not depend on the size of the file. Unknown elements such as extensions are skipped.
+     */
+    public void readGpx(InputStream inputStream, GpxHandler handler) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            
+            int depth = 0;
+            int metadataDepth = -1;
+            int trackDepth = -1;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == metadataDepth) {
+                        metadataDepth = -1;
+                    } else if (depth == trackDepth) {
+                        trackDepth = -1;
+                    }
+                    depth--;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
                 }
                 
-                if (point.getDescription() != null) {
-                    wpBuilder.desc(point.getDescription());
+                depth++;
+                String element = reader.getLocalName();
+                if (depth == 1) {
+                    if (!"gpx".equals(element)) {
+                        throw new IOException("Not a GPX document, root element is <" + element + ">");
+                    }
+                    continue;
                 }
                 
-                gpxBuilder.addWayPoint(wpBuilder.build());
+                switch (element) {
+                    case "metadata" -> metadataDepth = depth;
+                    case "trk" -> trackDepth = depth;
+                    case "wpt", "rtept", "trkpt" -> {
+                        handler.onPoint(readPoint(reader, POINT_ELEMENTS.get(element)));
+                        depth--;
+                    }
+                    case "name", "desc" -> {
+                        // GPX 1.0 puts name and desc directly under gpx, GPX 1.1 under metadata
+                        boolean metadata = depth == 2 || depth == metadataDepth + 1;
+                        boolean track = depth == trackDepth + 1;
+                        if (metadata || track) {
+                            String text = reader.getElementText().trim();
+                            depth--;
+                            if (metadata && "name".equals(element)) {
+                                handler.onMetadataName(text);
+                            } else if (metadata) {
+                                handler.onMetadataDescription(text);
+                            } else if ("name".equals(element)) {
+                                handler.onTrackName(text);
+                            }
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid GPX document: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    log.debug("Failed to close GPX reader", e);
+                }
             }
         }
+    }
+    
+    private RoutePoint readPoint(XMLStreamReader reader, RoutePoint.PointType pointType)
+            throws XMLStreamException, IOException {
+        RoutePoint point = new RoutePoint();
+        point.setPointType(pointType);
+        point.setLatitude(parseCoordinate(reader, "lat"));
+        point.setLongitude(parseCoordinate(reader, "lon"));
         
-        GPX gpx = gpxBuilder.build();
-        
-        // Write to byte array
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        GPX.Writer.DEFAULT.write(gpx, outputStream);
-        
-        log.info("Successfully exported route {} to GPX ({} bytes)", route.getId(), outputStream.size());
-        return outputStream.toByteArray();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "ele" -> point.setElevation(parseDouble(reader.getElementText()));
+                case "time" -> point.setTimestamp(parseTime(reader.getElementText()));
+                case "name" -> point.setName(reader.getElementText().trim());
+                case "desc" -> point.setDescription(reader.getElementText().trim());
+                default -> skipElement(reader);
+            }
+        }
+        return point;
+    }
+    
+    private double parseCoordinate(XMLStreamReader reader, String attribute) throws IOException {
+        Double value = parseDouble(reader.getAttributeValue(null, attribute));
+        if (value == null) {
+            throw new IOException("GPX point at line " + reader.getLocation().getLineNumber()
+                    + " has no valid " + attribute + " attribute");
+        }
+        return value;
+    }
+    
+    private Double parseDouble(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private LocalDateTime parseTime(String text) {
+        try {
+            return OffsetDateTime.parse(text.trim()).atZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            try {
+                // Some devices omit the offset; GPX times are UTC by definition
+                return LocalDateTime.parse(text.trim());
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+    
+    // Skip the current element including all of its children, leaving the reader on its end tag
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+    
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // GPX never needs a DTD; refusing them rules out external entity attacks
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
     }
     
     /**
@@ -0,0 +1,349 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.dto.ImportJobResponse;
+import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Runs bulk imports in the background. Uploaded files (and ZIP entries) are staged to a temp
+ * directory while the request is still open, then imported one file per task on a small pool of
+ * virtual threads. The pool size bounds how many imports hold a database connection at once.
+ *
+ * Jobs live in memory only; finished jobs are dropped after the retention period. A job belongs to
+ * the user who submitted it: its routes are created for that user and only they can poll it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobService {
+
+    private final RouteImportService routeImportService;
+    private final GeoJsonService geoJsonService;
+    private final RouteService routeService;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.import.max-concurrent-files:4}")
+    private int maxConcurrentFiles = 4;
+
+    @Value("${app.import.max-files-per-job:1000}")
+    private int maxFilesPerJob = 1000;
+
+    @Value("${app.import.max-entry-bytes:104857600}")
+    private long maxEntryBytes = 100L * 1024 * 1024;
+
+    @Value("${app.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes = 60;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newFixedThreadPool(maxConcurrentFiles, Thread.ofVirtual().name("route-import-", 0).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stage the uploaded files and queue them for import. Returns as soon as the files are on disk.
+     * The routes are created for the submitting user, if there is one.
+     *
+     * @throws IllegalArgumentException if there is nothing to import or the job has too many files
+     */
+    public ImportJobResponse submit(List<MultipartFile> files, Authentication authentication) throws IOException {
+        evictExpiredJobs();
+
+        Path directory = Files.createTempDirectory("route-import-");
+        ImportJob job = new ImportJob(UUID.randomUUID(), directory, authentication);
+        try {
+            for (MultipartFile file : files) {
+                if (file.isEmpty()) {
+                    continue;
+                }
+                String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload";
+                try (InputStream inputStream = file.getInputStream()) {
+                    if (name.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                        stageArchive(job, name, inputStream);
+                    } else {
+                        stageFile(job, name, inputStream);
+                    }
+                }
+            }
+            if (job.files.isEmpty()) {
+                throw new IllegalArgumentException("No files to import");
+            }
+        } catch (IOException | RuntimeException e) {
+            job.deleteDirectory();
+            throw e;
+        }
+
+        job.staged();
+        if (job.isFinished()) {
+            job.deleteDirectory();
+        }
+
+        jobs.put(job.id, job);
+        for (ImportFile file : job.files) {
+            if (file.status == ImportJobResponse.FileStatus.PENDING) {
+                executor.execute(() -> process(job, file));
+            }
+        }
+
+        log.info("Queued import job {} with {} files", job.id, job.files.size());
+        return job.toResponse();
+    }
+
+    /**
+     * Progress of a job; empty when it is unknown, expired or was submitted by another user.
+     */
+    public Optional<ImportJobResponse> getJob(UUID id, Authentication authentication) {
+        evictExpiredJobs();
+        String userId = UserPrincipal.userIdOf(authentication);
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> Objects.equals(job.ownerId, userId))
+                .map(ImportJob::toResponse);
+    }
+
+    private void stageArchive(ImportJob job, String archiveName, InputStream inputStream) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(inputStream)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String entryName = entry.getName();
+                String baseName = entryName.substring(entryName.lastIndexOf('/') + 1);
+                // Directories and the resource forks macOS adds to archives are not route files
+                if (entry.isDirectory() || entryName.startsWith("__MACOSX/") || baseName.startsWith(".")) {
+                    continue;
+                }
+                stageFile(job, archiveName + "/" + entryName, zip);
+            }
+        }
+    }
+
+    private void stageFile(ImportJob job, String name, InputStream inputStream) throws IOException {
+        if (job.files.size() >= maxFilesPerJob) {
+            throw new IllegalArgumentException("An import job can contain at most " + maxFilesPerJob + " files");
+        }
+
+        ImportFile file = new ImportFile(name, formatOf(name));
+        job.files.add(file);
+        if (file.format == null) {
+            file.status = ImportJobResponse.FileStatus.FAILED;
+            file.error = "Unsupported file type, expected .gpx, .geojson or .json";
+            return;
+        }
+
+        // Temp names only; entry paths from the archive never reach the file system
+        file.path = Files.createTempFile(job.directory, "file-", file.format == Format.GPX ? ".gpx" : ".json");
+        try (OutputStream outputStream = Files.newOutputStream(file.path)) {
+            copyBounded(inputStream, outputStream, name);
+        }
+    }
+
+    private void copyBounded(InputStream inputStream, OutputStream outputStream, String name) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            total += read;
+            if (total > maxEntryBytes) {
+                throw new IllegalArgumentException(name + " exceeds the maximum size of " + maxEntryBytes + " bytes");
+            }
+            outputStream.write(buffer, 0, read);
+        }
+    }
+
+    private void process(ImportJob job, ImportFile file) {
+        job.started(file);
+        try {
+            UUID routeId = importFile(job, file);
+            job.succeeded(file, routeId);
+        } catch (Exception e) {
+            log.warn("Import job {}: failed to import {}: {}", job.id, file.name, e.getMessage());
+            job.failed(file, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            try {
+                Files.deleteIfExists(file.path);
+            } catch (IOException e) {
+                log.warn("Could not delete staged import file {}", file.path, e);
+            }
+            if (job.isFinished()) {
+                job.deleteDirectory();
+                log.info("Import job {} finished: {} of {} files imported",
+                        job.id, job.succeeded, job.files.size());
+            }
+        }
+    }
+
+    private UUID importFile(ImportJob job, ImportFile file) throws IOException {
+        if (file.format == Format.GPX) {
+            try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file.path))) {
+                return routeImportService.importGpx(inputStream, null, job.ownerId).getId();
+            }
+        }
+
+        RouteCreateRequest request = geoJsonService.importFromGeoJson(Files.readString(file.path), null);
+        if (request.getPoints().isEmpty()) {
+            throw new IllegalArgumentException("GeoJSON file contains no points");
+        }
+        return routeService.createRoute(request, job.submittedBy).getId();
+    }
+
+    private void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMinutes(jobRetentionMinutes));
+        jobs.values().removeIf(job -> job.isFinishedBefore(cutoff));
+    }
+
+    private static Format formatOf(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".gpx")) {
+            return Format.GPX;
+        }
+        if (lower.endsWith(".geojson") || lower.endsWith(".json")) {
+            return Format.GEOJSON;
+        }
+        return null;
+    }
+
+    private enum Format {
+        GPX, GEOJSON
+    }
+
+    private static final class ImportFile {
+        private final String name;
+        private final Format format;
+        private Path path;
+        private ImportJobResponse.FileStatus status = ImportJobResponse.FileStatus.PENDING;
+        private UUID routeId;
+        private String error;
+
+        ImportFile(String name, Format format) {
+            this.name = name;
+            this.format = format;
+        }
+    }
+
+    /**
+     * Mutable job state. Workers update it under the job's monitor; polling takes a snapshot.
+     */
+    private static final class ImportJob {
+        private final UUID id;
+        private final Path directory;
+        private final Authentication submittedBy;
+        private final String ownerId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<ImportFile> files = new ArrayList<>();
+        private LocalDateTime finishedAt;
+        private boolean started;
+        private int processed;
+        private int succeeded;
+        private int failed;
+
+        ImportJob(UUID id, Path directory, Authentication submittedBy) {
+            this.id = id;
+            this.directory = directory;
+            this.submittedBy = submittedBy;
+            this.ownerId = UserPrincipal.userIdOf(submittedBy);
+        }
+
+        // Files rejected while staging count as processed right away
+        synchronized void staged() {
+            for (ImportFile file : files) {
+                if (file.status == ImportJobResponse.FileStatus.FAILED) {
+                    failed++;
+                    finishFile();
+                }
+            }
+        }
+
+        synchronized void started(ImportFile file) {
+            started = true;
+            file.status = ImportJobResponse.FileStatus.RUNNING;
+        }
+
+        synchronized void succeeded(ImportFile file, UUID routeId) {
+            file.status = ImportJobResponse.FileStatus.SUCCEEDED;
+            file.routeId = routeId;
+            succeeded++;
+            finishFile();
+        }
+
+        synchronized void failed(ImportFile file, String error) {
+            file.status = ImportJobResponse.FileStatus.FAILED;
+            file.error = error;
+            failed++;
+            finishFile();
+        }
+
+        synchronized boolean isFinished() {
+            return processed == files.size();
+        }
+
+        synchronized boolean isFinishedBefore(LocalDateTime cutoff) {
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        }
+
+        synchronized ImportJobResponse toResponse() {
+            ImportJobResponse.JobStatus status;
+            if (processed == files.size()) {
+                status = succeeded > 0 ? ImportJobResponse.JobStatus.COMPLETED : ImportJobResponse.JobStatus.FAILED;
+            } else {
+                status = started ? ImportJobResponse.JobStatus.RUNNING : ImportJobResponse.JobStatus.QUEUED;
+            }
+            List<ImportJobResponse.FileResult> results = files.stream()
+                    .map(file -> new ImportJobResponse.FileResult(file.name, file.status, file.routeId, file.error))
+                    .toList();
+            return new ImportJobResponse(id, status, createdAt, finishedAt,
+                    files.size(), processed, succeeded, failed, results);
+        }
+
+        void deleteDirectory() {
+            try (var paths = Files.list(directory)) {
+                for (Path path : paths.toList()) {
+                    Files.deleteIfExists(path);
+                }
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                log.warn("Could not delete import staging directory {}", directory, e);
+            }
+        }
+
+        private void finishFile() {
+            processed++;
+            if (processed == files.size()) {
+                finishedAt = LocalDateTime.now();
+            }
+        }
+    }
+}
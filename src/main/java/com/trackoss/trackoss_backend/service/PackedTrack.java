@@ -0,0 +1,164 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable column store for track points backed by primitive arrays.
+ * Missing elevations are stored as NaN and missing timestamps as {@link #NO_TIMESTAMP}.
+ */
+public final class PackedTrack {
+
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final RoutePoint.PointType[] POINT_TYPES = RoutePoint.PointType.values();
+
+    private int size;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] elevations;
+    private long[] timestamps; // epoch milliseconds, UTC
+    private byte[] pointTypes;
+
+    public PackedTrack() {
+        this(64);
+    }
+
+    public PackedTrack(int capacity) {
+        int initialCapacity = Math.max(capacity, 1);
+        latitudes = new double[initialCapacity];
+        longitudes = new double[initialCapacity];
+        elevations = new double[initialCapacity];
+        timestamps = new long[initialCapacity];
+        pointTypes = new byte[initialCapacity];
+    }
+
+    PackedTrack(int size, double[] latitudes, double[] longitudes, double[] elevations,
+                long[] timestamps, byte[] pointTypes) {
+        this.size = size;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.elevations = elevations;
+        this.timestamps = timestamps;
+        this.pointTypes = pointTypes;
+    }
+
+    public static PackedTrack of(List<RoutePoint> points) {
+        PackedTrack track = new PackedTrack(points.size());
+        points.forEach(track::add);
+        return track;
+    }
+
+    public void add(RoutePoint point) {
+        add(point.getLatitude(),
+            point.getLongitude(),
+            point.getElevation() != null ? point.getElevation() : Double.NaN,
+            epochMillis(point.getTimestamp()),
+            point.getPointType() != null ? point.getPointType() : RoutePoint.PointType.TRACK_POINT);
+    }
+
+    /**
+     * Epoch milliseconds of a UTC timestamp, or {@link #NO_TIMESTAMP}; unlike toInstant it allocates nothing
+     */
+    public static long epochMillis(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000L + timestamp.getNano() / 1_000_000;
+    }
+
+    public void add(double latitude, double longitude, double elevation, long timestamp, RoutePoint.PointType pointType) {
+        ensureCapacity(size + 1);
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        elevations[size] = elevation;
+        timestamps[size] = timestamp;
+        pointTypes[size] = (byte) pointType.ordinal();
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    public double elevation(int index) {
+        return elevations[index];
+    }
+
+    public boolean hasElevation(int index) {
+        return !Double.isNaN(elevations[index]);
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public boolean hasTimestamp(int index) {
+        return timestamps[index] != NO_TIMESTAMP;
+    }
+
+    public RoutePoint.PointType pointType(int index) {
+        return POINT_TYPES[pointTypes[index]];
+    }
+
+    /**
+     * Backing arrays for tight loops. Only the first {@link #size()} entries are valid.
+     */
+    public double[] latitudes() {
+        return latitudes;
+    }
+
+    public double[] longitudes() {
+        return longitudes;
+    }
+
+    public double[] elevations() {
+        return elevations;
+    }
+
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    /**
+     * Materialize a single point as a transient RoutePoint (no id, not attached to a route).
+     */
+    public RoutePoint toRoutePoint(int index) {
+        RoutePoint point = new RoutePoint();
+        point.setLatitude(latitudes[index]);
+        point.setLongitude(longitudes[index]);
+        if (hasElevation(index)) {
+            point.setElevation(elevations[index]);
+        }
+        if (hasTimestamp(index)) {
+            point.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamps[index]), ZoneOffset.UTC));
+        }
+        point.setPointType(pointType(index));
+        return point;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= latitudes.length) {
+            return;
+        }
+        int capacity = Math.max(required, latitudes.length + (latitudes.length >> 1));
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        elevations = Arrays.copyOf(elevations, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        pointTypes = Arrays.copyOf(pointTypes, capacity);
+    }
+}
@@ -0,0 +1,179 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of full route responses and rendered exports.
+ *
+ * Entries are keyed by route id and updated_at, so a write that changes the route row can never be
+ * answered from an older entry, and are weighed by point count against app.routes.cache.max-points.
+ * Routes above app.routes.cache.max-entry-points are not cached at all. Writes through the services
+ * also evict the route's entries, once immediately and again after the transaction completes, so a read
+ * racing the write cannot leave the old version behind. Hit, miss and eviction counts are published
+ * as the cache.* meters of the route-responses and route-exports caches.
+ */
+@Service
+@Slf4j
+public class RouteCache implements MeterBinder {
+
+    public static final String GPX = "gpx";
+
+    private final Cache<Key, RouteResponse> responses;
+    private final Cache<Key, Export> exports;
+    private final long maxPoints;
+    private final int maxEntryPoints;
+
+    record Key(UUID id, LocalDateTime updatedAt, String variant) {
+    }
+
+    private record Export(byte[] bytes, int points) {
+    }
+
+    /**
+     * Writes an export to the given stream; the stream may be captured for the cache
+     */
+    @FunctionalInterface
+    public interface ExportWriter {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    public RouteCache(@Value("${app.routes.cache.max-points:500000}") long maxPoints,
+                      @Value("${app.routes.cache.max-entry-points:100000}") int maxEntryPoints) {
+        this.maxPoints = maxPoints;
+        this.maxEntryPoints = maxEntryPoints;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxPoints)
+                .<Key, RouteResponse>weigher((key, response) -> Math.max(response.getPoints().size(), 1))
+                .recordStats()
+                .build();
+        this.exports = Caffeine.newBuilder()
+                .maximumWeight(maxPoints)
+                .<Key, Export>weigher((key, export) -> Math.max(export.points(), 1))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Variant name of a GeoJSON export, one entry per combination of options
+     */
+    public static String geoJson(Integer precision, Double tolerance, Integer zoom) {
+        return "geojson:" + precision + ":" + tolerance + ":" + zoom;
+    }
+
+    /**
+     * The full response of the route the summary describes, loaded and cached on a miss.
+     * The loader may return null when the route is gone; nothing is cached then.
+     */
+    public RouteResponse getRoute(RouteSummaryResponse summary, Supplier<RouteResponse> loader) {
+        Key key = new Key(summary.getId(), summary.getUpdatedAt(), "json");
+        RouteResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        RouteResponse response = loader.get();
+        if (response != null && isCacheable(response.getPoints().size())) {
+            responses.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Write an export of the route the summary describes, from the cache or by running the writer.
+     * On a miss the writer's output goes to the stream as it is produced and is kept once it completes.
+     *
+     * @return true if the export was served from the cache
+     */
+    public boolean writeExport(RouteSummaryResponse summary, String variant, OutputStream outputStream,
+                               ExportWriter writer) throws IOException {
+        Key key = new Key(summary.getId(), summary.getUpdatedAt(), variant);
+        Export cached = exports.getIfPresent(key);
+        if (cached != null) {
+            outputStream.write(cached.bytes());
+            return true;
+        }
+
+        int points = summary.getPointCount() != null ? summary.getPointCount() : Integer.MAX_VALUE;
+        if (!isCacheable(points)) {
+            writer.write(outputStream);
+            return false;
+        }
+
+        CapturingOutputStream capture = new CapturingOutputStream(outputStream);
+        writer.write(capture);
+        exports.put(key, new Export(capture.captured.toByteArray(), points));
+        return false;
+    }
+
+    /**
+     * Drop every cached response and export of a route, now and when the current transaction completes
+     */
+    public void evict(UUID id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "route-responses");
+        CaffeineCacheMetrics.monitor(registry, exports, "route-exports");
+    }
+
+    private boolean isCacheable(int points) {
+        return maxPoints > 0 && points <= maxEntryPoints;
+    }
+
+    // Linear in the number of entries, which the weight bound keeps small
+    private void invalidate(UUID id) {
+        responses.asMap().keySet().removeIf(key -> key.id().equals(id));
+        exports.asMap().keySet().removeIf(key -> key.id().equals(id));
+        log.debug("Evicted cached responses and exports of route {}", id);
+    }
+
+    // Passes everything through and keeps a copy
+    private static final class CapturingOutputStream extends FilterOutputStream {
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        CapturingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            captured.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            captured.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.repository.RouteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Startup data migrations for existing routes. Each batch runs in its own transaction
+ * so a large table never has to fit into a single persistence context.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RouteDataMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final RouteRepository routeRepository;
+    private final TrackStorageService trackStorageService;
+    private final RouteStatisticsService routeStatisticsService;
+    private final TrackSimplificationService trackSimplificationService;
+    private final RouteMetadataSync routeMetadataSync;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.routes.migrate-to-packed:false}")
+    private boolean migrateToPacked;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfillDerivedData();
+        backfillSurfaces();
+        if (migrateToPacked) {
+            migrateToPackedStorage();
+        }
+    }
+
+    /**
+     * Fill point counts, bounding boxes, track statistics, simplification levels and PostGIS geometries
+     * for routes created before they were maintained.
+     */
+    public void backfillDerivedData() {
+        int updated = 0;
+        UUID lastId = new UUID(0L, 0L);
+        List<UUID> batchIds;
+        do {
+            UUID after = lastId;
+            batchIds = transactionTemplate.execute(status -> {
+                List<Route> batch = routeRepository.findMissingDerivedData(after, PageRequest.of(0, BATCH_SIZE));
+                for (Route route : batch) {
+                    List<RoutePoint> points = trackStorageService.readPoints(route);
+                    route.setPointCount(points.size());
+                    routeStatisticsService.storeStats(route, points);
+                    trackSimplificationService.storeLevels(route, PackedTrack.of(points));
+                    routeRepository.updateRouteGeometry(route.getId(), points);
+                }
+                return batch.stream().map(Route::getId).toList();
+            });
+            if (!batchIds.isEmpty()) {
+                lastId = batchIds.get(batchIds.size() - 1);
+                updated += batchIds.size();
+            }
+        } while (batchIds.size() == BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Backfilled derived data for {} routes", updated);
+        }
+    }
+
+    /**
+     * Fill the surface column from the metadata of routes saved before it was maintained.
+     */
+    public void backfillSurfaces() {
+        int updated = 0;
+        UUID lastId = new UUID(0L, 0L);
+        List<UUID> batchIds;
+        do {
+            UUID after = lastId;
+            batchIds = transactionTemplate.execute(status -> {
+                List<Route> batch = routeRepository.findMissingSurface(after, PageRequest.of(0, BATCH_SIZE));
+                batch.forEach(route -> route.setSurface(routeMetadataSync.surfaceOf(route.getMetadata())));
+                return batch.stream().map(Route::getId).toList();
+            });
+            if (!batchIds.isEmpty()) {
+                lastId = batchIds.get(batchIds.size() - 1);
+                updated += batchIds.size();
+            }
+        } while (batchIds.size() == BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Backfilled surfaces for {} routes", updated);
+        }
+    }
+
+    /**
+     * Convert routes still stored as one route_points row per fix into packed storage.
+     */
+    public void migrateToPackedStorage() {
+        if (trackStorageService.getStorageMode() != Route.StorageMode.PACKED) {
+            log.warn("Skipping packed storage migration, app.routes.storage-mode is {}",
+                    trackStorageService.getStorageMode());
+            return;
+        }
+
+        int migrated = 0;
+        int batchCount;
+        do {
+            batchCount = transactionTemplate.execute(status -> {
+                // Always read the first page: migrated routes drop out of the result
+                List<Route> batch = routeRepository.findByStorageModeIsNullOrStorageModeNot(
+                        Route.StorageMode.PACKED, PageRequest.of(0, BATCH_SIZE));
+                batch.forEach(trackStorageService::storePoints);
+                return batch.size();
+            });
+            migrated += batchCount;
+        } while (batchCount == BATCH_SIZE);
+
+        log.info("Migrated {} routes to packed track storage", migrated);
+    }
+}
@@ -0,0 +1,195 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.entity.TimeOrderedUuid;
+import com.trackoss.trackoss_backend.repository.RoutePointBatchWriter;
+import com.trackoss.trackoss_backend.repository.RouteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Imports GPX files in a single streaming pass. Points go straight from the parser into the
+ * configured storage (row batches or a packed column store) and into the statistics accumulator;
+ * neither the document nor a per-point request object is ever held for the whole file.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteImportService {
+
+    static final int BATCH_SIZE = 500;
+
+    private final RouteRepository routeRepository;
+    private final GpxService gpxService;
+    private final RouteStatisticsService routeStatisticsService;
+    private final TrackStorageService trackStorageService;
+    private final RoutePointBatchWriter routePointBatchWriter;
+    private final TrackSimplificationService trackSimplificationService;
+    private final RouteMeters routeMeters;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public RouteSummaryResponse importGpx(InputStream inputStream, String routeName, String userId) throws IOException {
+        // The route row has to exist before point rows can reference it; name and statistics are filled in at the end
+        Route route = new Route();
+        route.setId(UUID.randomUUID());
+        route.setName("Imported Route");
+        route.setRouteType(Route.RouteType.HIKING); // Default, can be changed by user
+        route.setIsPublic(false);
+        route.setUserId(userId);
+        entityManager.persist(route);
+
+        ImportHandler handler = new ImportHandler(route);
+        long started = System.nanoTime();
+        gpxService.readGpx(inputStream, handler);
+        handler.finish();
+        // Point batches are written while the file is read; their time counts as database time, not parsing
+        routeMeters.recordParse(RouteMeters.GPX, System.nanoTime() - started - handler.writeNanos);
+
+        if (handler.sequence == 0) {
+            throw new IllegalArgumentException("GPX file contains no valid track points, waypoints, or route points");
+        }
+
+        if (routeName != null && !routeName.trim().isEmpty()) {
+            route.setName(routeName.trim());
+        } else if (handler.metadataName != null) {
+            route.setName(handler.metadataName);
+        } else if (handler.trackName != null) {
+            route.setName(handler.trackName);
+        }
+        route.setDescription(handler.metadataDescription);
+        route.setPointCount(handler.sequence);
+        routeStatisticsService.applyStatistics(route, handler.statistics);
+        trackSimplificationService.storeLevels(route, handler.points);
+
+        if (trackStorageService.getStorageMode() == Route.StorageMode.PACKED) {
+            trackStorageService.storePacked(route, handler.packed);
+        } else {
+            route.setStorageMode(Route.StorageMode.ROWS);
+        }
+
+        long geometryStarted = System.nanoTime();
+        routeRepository.updateRouteGeometry(route.getId(), handler.geometry());
+        routeMeters.recordDbWrite(RouteMeters.GPX, route.getRouteType(),
+                handler.writeNanos + System.nanoTime() - geometryStarted);
+        routeMeters.recordImportedPoints(RouteMeters.GPX, handler.sequence);
+
+        log.info("Imported GPX route {} with {} points ({} stored as rows)",
+                route.getId(), handler.sequence, handler.rowCount);
+        return new RouteSummaryResponse(
+                route.getId(),
+                route.getName(),
+                route.getDescription(),
+                route.getCreatedAt(),
+                route.getUpdatedAt(),
+                route.getUserId(),
+                route.getTotalDistance(),
+                route.getTotalElevationGain(),
+                route.getEstimatedDuration(),
+                route.getRouteType(),
+                route.getIsPublic(),
+                route.getDifficulty(),
+                route.getMetadata(),
+                route.getPointCount());
+    }
+
+    private class ImportHandler implements GpxService.GpxHandler {
+        private final Route route;
+        private final RouteStatisticsService.Accumulator statistics;
+        private final PackedTrack packed = new PackedTrack(1024);
+        private final PackedTrack points = new PackedTrack(1024); // every point in sequence order, for geometry and simplification
+        private final List<RoutePoint> batch = new ArrayList<>(BATCH_SIZE);
+        private String metadataName;
+        private String metadataDescription;
+        private String trackName;
+        private int sequence;
+        private int rowCount;
+        private long writeNanos;
+
+        ImportHandler(Route route) {
+            this.route = route;
+            this.statistics = routeStatisticsService.newAccumulator(route);
+        }
+
+        @Override
+        public void onMetadataName(String name) {
+            metadataName = name;
+        }
+
+        @Override
+        public void onMetadataDescription(String description) {
+            metadataDescription = description;
+        }
+
+        @Override
+        public void onTrackName(String name) {
+            if (trackName == null) {
+                trackName = name;
+            }
+        }
+
+        @Override
+        public void onPoint(RoutePoint point) {
+            point.setSequenceOrder(sequence++);
+
+            if (point.getPointType() == RoutePoint.PointType.WAYPOINT) {
+                statistics.addPoint(point.getLatitude(), point.getLongitude());
+            } else {
+                statistics.addTrackPoint(point);
+            }
+            points.add(point);
+
+            if (trackStorageService.storesAsRow(point)) {
+                point.setId(TimeOrderedUuid.next());
+                point.setRoute(route);
+                batch.add(point);
+                if (batch.size() >= BATCH_SIZE) {
+                    flushBatch();
+                }
+            } else {
+                packed.add(point);
+            }
+        }
+
+        void finish() {
+            flushBatch();
+        }
+
+        // Like updateRouteGeometry(List): the non-waypoint line, or all points when there is no line to draw
+        PackedTrack geometry() {
+            PackedTrack line = new PackedTrack(points.size());
+            for (int i = 0; i < points.size(); i++) {
+                if (points.pointType(i) != RoutePoint.PointType.WAYPOINT) {
+                    line.add(points.latitude(i), points.longitude(i), points.elevation(i),
+                            points.timestamp(i), points.pointType(i));
+                }
+            }
+            return line.size() >= 2 ? line : points;
+        }
+
+        private void flushBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            // Written past the persistence context, so only the route stays managed however long the file is
+            long started = System.nanoTime();
+            rowCount += routePointBatchWriter.insert(route.getId(), batch);
+            writeNanos += System.nanoTime() - started;
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.trackoss.trackoss_backend.entity.Route;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a route's difficulty and surface columns consistent with its metadata JSON.
+ *
+ * Only the write paths of RouteService call it, so loading and copying routes never parses metadata.
+ * The JSON is parsed at most once per write, and not at all when it cannot contain either key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RouteMetadataSync {
+
+    static final String DIFFICULTY = "difficulty";
+    static final String SURFACE = "surface";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Set the route's metadata and difficulty. The difficulty and surface stored in the metadata fill the
+     * columns; an explicit difficulty wins over the metadata value and is written back into the metadata.
+     *
+     * @param difficulty explicit difficulty, or null to keep the metadata value (or the current one without it)
+     */
+    public void apply(Route route, String metadata, Integer difficulty) {
+        route.setMetadata(metadata);
+        route.setSurface(null);
+
+        boolean blank = metadata == null || metadata.isEmpty();
+        if (difficulty == null && (blank || !mentions(metadata))) {
+            return;
+        }
+
+        ObjectNode json = blank ? objectMapper.createObjectNode() : parse(metadata);
+        if (json == null) {
+            // Not a JSON object: keep it as given, the columns cannot be derived from it
+            if (difficulty != null) {
+                route.setDifficulty(difficulty);
+            }
+            return;
+        }
+
+        route.setSurface(surfaceOf(json));
+        if (difficulty == null) {
+            if (json.has(DIFFICULTY)) {
+                route.setDifficulty(json.get(DIFFICULTY).asInt());
+            }
+            return;
+        }
+
+        route.setDifficulty(difficulty);
+        json.put(DIFFICULTY, difficulty);
+        try {
+            route.setMetadata(objectMapper.writeValueAsString(json));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to write difficulty into metadata of route {}: {}", route.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Normalized surface named by the metadata, or null if it names none
+     */
+    public String surfaceOf(String metadata) {
+        if (metadata == null || !metadata.contains(SURFACE)) {
+            return null;
+        }
+        ObjectNode json = parse(metadata);
+        return json == null ? null : surfaceOf(json);
+    }
+
+    private static String surfaceOf(ObjectNode json) {
+        JsonNode surface = json.get(SURFACE);
+        return surface != null && surface.isTextual() ? Route.normalizeSurface(surface.asText()) : null;
+    }
+
+    private static boolean mentions(String metadata) {
+        return metadata.contains(DIFFICULTY) || metadata.contains(SURFACE);
+    }
+
+    private ObjectNode parse(String metadata) {
+        try {
+            JsonNode json = objectMapper.readTree(metadata);
+            return json instanceof ObjectNode object ? object : null;
+        } catch (JsonProcessingException e) {
+            log.debug("Route metadata is not valid JSON: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and distribution summaries of the import, export and statistics paths. All meters start with
+ * {@code route.} so one {@code management.metrics.distribution.*.route} property configures their
+ * histograms:
+ * <ul>
+ *   <li>{@code route.import.parse} - time spent parsing an import, without database writes, by format</li>
+ *   <li>{@code route.import.points} - points per import, by format</li>
+ *   <li>{@code route.export.bytes} - bytes per export, by format and whether it came from the route cache</li>
+ *   <li>{@code route.statistics} - time of a full statistics pass, or of finishing a streamed one</li>
+ *   <li>{@code route.db.write} - time spent writing a route and its points, by format and route type</li>
+ * </ul>
+ */
+@Component
+public class RouteMeters {
+
+    public static final String GPX = "gpx";
+    public static final String GEOJSON = "geojson";
+    // Routes written from a RouteCreateRequest body, including GeoJSON that was converted into one
+    public static final String JSON = "json";
+
+    static final String FULL_PASS = "full";
+    static final String STREAMED_PASS = "streamed";
+
+    private final MeterRegistry registry;
+
+    public RouteMeters(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Without a registry, as in slice tests, meters are created but never published
+    @Autowired
+    public RouteMeters(ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable(CompositeMeterRegistry::new));
+    }
+
+    /**
+     * Meters that record into a registry nobody reads, for services created outside the application context
+     */
+    public static RouteMeters none() {
+        return new RouteMeters(new CompositeMeterRegistry());
+    }
+
+    public void recordParse(String format, long nanos) {
+        Timer.builder("route.import.parse")
+                .description("Time spent parsing imported routes")
+                .tag("format", format)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordImportedPoints(String format, int points) {
+        DistributionSummary.builder("route.import.points")
+                .description("Points per imported route")
+                .baseUnit("points")
+                .tag("format", format)
+                .register(registry)
+                .record(points);
+    }
+
+    public void recordExport(String format, boolean cached, long bytes) {
+        DistributionSummary.builder("route.export.bytes")
+                .description("Bytes per route export")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("format", format)
+                .tag("cached", Boolean.toString(cached))
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordStatistics(String pass, long nanos) {
+        Timer.builder("route.statistics")
+                .description("Time spent computing route statistics")
+                .tag("pass", pass)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDbWrite(String format, Route.RouteType routeType, long nanos) {
+        Timer.builder("route.db.write")
+                .description("Time spent writing routes and their points")
+                .tag("format", format)
+                .tag("route_type", routeType != null ? routeType.name() : "none")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stream that counts what is written through it, for export sizes
+     */
+    public static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        public CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
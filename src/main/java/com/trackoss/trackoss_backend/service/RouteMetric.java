@@ -0,0 +1,37 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RouteStats;
+
+/**
+ * One metric of the route statistics pipeline.
+ *
+ * Every metric of a pipeline sees the same single walk over the points, so adding one does not add a
+ * scan of the track. Built-in metrics are in {@link RouteMetrics}; beans implementing this interface are
+ * appended to the pipeline in their {@code @Order}. Metrics without a column of their own write their
+ * result into {@link RouteStats#getMetrics()}.
+ */
+public interface RouteMetric {
+
+    /**
+     * Start measuring a route. The returned stage holds the running state of this one pass.
+     */
+    Stage start(Route route);
+
+    interface Stage {
+
+        /**
+         * Called once before the first point with the number of points the pass expects, 0 when unknown,
+         * for stages that keep per-point data to size it up front
+         */
+        default void expect(int points) {
+        }
+
+        void accept(TrackStep step);
+
+        /**
+         * Write the result. Stages finish in pipeline order, so a stage can read what earlier ones wrote.
+         */
+        void finish(RouteStats stats);
+    }
+}
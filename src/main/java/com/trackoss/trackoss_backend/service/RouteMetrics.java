@@ -0,0 +1,324 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RouteStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Built-in metrics of the route statistics pipeline.
+ *
+ * Elevation changes only count between consecutive points that both have an elevation. Grades are
+ * measured over stretches of at least {@value #GRADE_STRETCH_M} metres, since per-segment grades on dense
+ * tracks are mostly GPS noise, and never across a gap in the elevation data.
+ */
+public final class RouteMetrics {
+
+    static final double GRADE_STRETCH_M = 50.0;
+
+    /**
+     * Upper bounds in percent of the grade histogram bands; the last band takes everything steeper
+     */
+    public static final double[] GRADE_BANDS = {-15, -10, -5, -2, 2, 5, 10, 15};
+
+    public static final String GRADE_HISTOGRAM = "gradeHistogram";
+
+    public static final int DEFAULT_PROFILE_SAMPLES = 500;
+
+    // Segments slower than this, or with a longer gap between timestamps, count as stopped
+    static final double MIN_MOVING_SPEED_MPS = 0.5;
+    static final long MAX_MOVING_GAP_MS = 5 * 60 * 1000L;
+
+    public static final RouteMetric DISTANCE = route -> new RouteMetric.Stage() {
+        private double distance;
+
+        @Override
+        public void accept(TrackStep step) {
+            distance += step.segmentDistance();
+        }
+
+        @Override
+        public void finish(RouteStats stats) {
+            stats.setDistance(distance);
+        }
+    };
+
+    public static final RouteMetric ELEVATION = route -> new RouteMetric.Stage() {
+        private double gain;
+        private double loss;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        @Override
+        public void accept(TrackStep step) {
+            if (!step.isOnTrack() || !step.hasElevation()) {
+                return;
+            }
+            double change = step.elevationChange();
+            if (change > 0) {
+                gain += change;
+            } else if (change < 0) {
+                loss -= change;
+            }
+            min = Math.min(min, step.elevation());
+            max = Math.max(max, step.elevation());
+        }
+
+        @Override
+        public void finish(RouteStats stats) {
+            stats.setElevationGain(gain);
+            stats.setElevationLoss(loss);
+            stats.setMinElevation(max >= min ? min : null);
+            stats.setMaxElevation(max >= min ? max : null);
+        }
+    };
+
+    /**
+     * Elevation gain and loss without sensor jitter, see {@link ElevationSmoother}. The settings are read
+     * when a pass starts, so configuration applied after the pipeline was built is picked up.
+     */
+    public static RouteMetric smoothedElevation(Supplier<ElevationSmoother.Settings> settings) {
+        return route -> new RouteMetric.Stage() {
+            private final ElevationSmoother smoother = new ElevationSmoother(settings.get());
+
+            @Override
+            public void accept(TrackStep step) {
+                if (step.isOnTrack()) {
+                    smoother.add(step.elevation(), step.segmentDistance());
+                }
+            }
+
+            @Override
+            public void finish(RouteStats stats) {
+                smoother.finish();
+                stats.setSmoothedElevationGain(smoother.getGain());
+                stats.setSmoothedElevationLoss(smoother.getLoss());
+            }
+        };
+    }
+
+    /**
+     * Elevation over cumulative distance, downsampled to the configured number of samples. Unlike the other
+     * stages it keeps the on-track points with an elevation until the pass finishes, two doubles per point,
+     * allocated once when the pass knows its point count.
+     */
+    public static RouteMetric elevationProfile(IntSupplier samples) {
+        return route -> new RouteMetric.Stage() {
+            private double[] distances = new double[256];
+            private double[] elevations = new double[256];
+            private int size;
+
+            @Override
+            public void expect(int points) {
+                if (points > distances.length) {
+                    distances = new double[points];
+                    elevations = new double[points];
+                }
+            }
+
+            @Override
+            public void accept(TrackStep step) {
+                if (!step.isOnTrack() || !step.hasElevation()) {
+                    return;
+                }
+                if (size == distances.length) {
+                    distances = Arrays.copyOf(distances, size * 2);
+                    elevations = Arrays.copyOf(elevations, size * 2);
+                }
+                distances[size] = step.distance();
+                elevations[size] = step.elevation();
+                size++;
+            }
+
+            @Override
+            public void finish(RouteStats stats) {
+                stats.setElevationProfile(ElevationProfile.of(distances, elevations, size, samples.getAsInt()).encode());
+            }
+        };
+    }
+
+    /**
+     * Steepest climb and the distance per grade band, from the same stretches
+     */
+    public static final RouteMetric GRADE = route -> new RouteMetric.Stage() {
+        private final double[] histogram = new double[GRADE_BANDS.length + 1];
+        private double maxGrade;
+        private double stretchElevation = Double.NaN;
+        private double stretchDistance;
+
+        @Override
+        public void accept(TrackStep step) {
+            if (!step.isOnTrack()) {
+                return;
+            }
+            if (!step.hasElevation()) {
+                stretchElevation = Double.NaN;
+                return;
+            }
+            if (Double.isNaN(stretchElevation)) {
+                stretchElevation = step.elevation();
+                stretchDistance = 0.0;
+                return;
+            }
+            stretchDistance += step.segmentDistance();
+            if (stretchDistance >= GRADE_STRETCH_M) {
+                double grade = (step.elevation() - stretchElevation) / stretchDistance * 100.0;
+                maxGrade = Math.max(maxGrade, grade);
+                histogram[band(grade)] += stretchDistance;
+                stretchElevation = step.elevation();
+                stretchDistance = 0.0;
+            }
+        }
+
+        @Override
+        public void finish(RouteStats stats) {
+            stats.setMaxGrade(maxGrade);
+            List<Double> bands = new ArrayList<>(histogram.length);
+            for (double distance : histogram) {
+                bands.add(distance);
+            }
+            stats.getMetrics().put(GRADE_HISTOGRAM, bands);
+        }
+    };
+
+    public static final RouteMetric MOVING_TIME = route -> new RouteMetric.Stage() {
+        private long movingMillis;
+
+        @Override
+        public void accept(TrackStep step) {
+            long elapsed = step.elapsedMillis();
+            if (elapsed > 0 && elapsed <= MAX_MOVING_GAP_MS
+                    && step.segmentDistance() * 1000.0 >= MIN_MOVING_SPEED_MPS * elapsed) {
+                movingMillis += elapsed;
+            }
+        }
+
+        @Override
+        public void finish(RouteStats stats) {
+            stats.setMovingTime(Math.round(movingMillis / 1000.0));
+        }
+    };
+
+    /**
+     * Bounding box of all points, including off-track ones
+     */
+    public static final RouteMetric BOUNDING_BOX = route -> new RouteMetric.Stage() {
+        private double minLatitude = Double.POSITIVE_INFINITY;
+        private double maxLatitude = Double.NEGATIVE_INFINITY;
+        private double minLongitude = Double.POSITIVE_INFINITY;
+        private double maxLongitude = Double.NEGATIVE_INFINITY;
+
+        @Override
+        public void accept(TrackStep step) {
+            minLatitude = Math.min(minLatitude, step.latitude());
+            maxLatitude = Math.max(maxLatitude, step.latitude());
+            minLongitude = Math.min(minLongitude, step.longitude());
+            maxLongitude = Math.max(maxLongitude, step.longitude());
+        }
+
+        @Override
+        public void finish(RouteStats stats) {
+            boolean empty = maxLatitude < minLatitude;
+            stats.setMinLatitude(empty ? null : minLatitude);
+            stats.setMaxLatitude(empty ? null : maxLatitude);
+            stats.setMinLongitude(empty ? null : minLongitude);
+            stats.setMaxLongitude(empty ? null : maxLongitude);
+        }
+    };
+
+    /**
+     * Estimated duration from the measured distance and the smoothed elevation gain when there is one,
+     * otherwise the raw gain; needs the distance and elevation metrics before it
+     */
+    public static final RouteMetric DURATION = route -> new RouteMetric.Stage() {
+        @Override
+        public void accept(TrackStep step) {
+        }
+
+        @Override
+        public void finish(RouteStats stats) {
+            Double gain = stats.getSmoothedElevationGain() != null ? stats.getSmoothedElevationGain() : stats.getElevationGain();
+            stats.setEstimatedDuration(estimateDuration(route.getRouteType(), stats.getDistance(), gain));
+        }
+    };
+
+    private RouteMetrics() {
+    }
+
+    /**
+     * The built-in metrics in dependency order, with the default smoothing settings and profile size
+     */
+    public static List<RouteMetric> defaults() {
+        return defaults(() -> ElevationSmoother.Settings.DEFAULT, () -> DEFAULT_PROFILE_SAMPLES);
+    }
+
+    public static List<RouteMetric> defaults(Supplier<ElevationSmoother.Settings> smoothing, IntSupplier profileSamples) {
+        return List.of(DISTANCE, ELEVATION, smoothedElevation(smoothing), elevationProfile(profileSamples),
+                GRADE, MOVING_TIME, BOUNDING_BOX, DURATION);
+    }
+
+    /**
+     * Estimated duration in seconds based on route type, distance and elevation gain in metres
+     */
+    public static long estimateDuration(Route.RouteType routeType, Double distance, Double elevationGain) {
+        if (distance == null) {
+            return 0L;
+        }
+
+        double distanceKm = distance / 1000.0;
+        double elevationGainKm = (elevationGain != null ? elevationGain : 0.0) / 1000.0;
+        Route.RouteType type = routeType != null ? routeType : Route.RouteType.OTHER;
+
+        // Base speed in km/h depending on route type
+        double baseSpeed = switch (type) {
+            case CYCLING -> 25.0;
+            case MOUNTAIN_BIKING -> 15.0;
+            case ROAD_CYCLING -> 35.0;
+            case GRAVEL -> 20.0;
+            case E_BIKE -> 30.0;
+            case HIKING -> 4.0;
+            case RUNNING -> 10.0;
+            case WALKING -> 3.0;
+            default -> 25.0; // Default to cycling
+        };
+
+        // Adjust for elevation gain
+        double adjustedDistance = distanceKm;
+        switch (type) {
+            case HIKING, WALKING -> {
+                // Naismith's rule: Add 1 hour for every 600m of elevation gain
+                adjustedDistance += elevationGainKm * 1000 / 600 * baseSpeed;
+            }
+            case CYCLING, MOUNTAIN_BIKING, GRAVEL -> {
+                // Cycling: Add time for elevation gain (less impact than hiking)
+                adjustedDistance += elevationGainKm * 1000 / 1000 * baseSpeed; // 1 hour per 1000m gain
+            }
+            case ROAD_CYCLING -> {
+                // Road cycling: Minimal elevation impact due to higher speeds
+                adjustedDistance += elevationGainKm * 1000 / 1500 * baseSpeed; // 1 hour per 1500m gain
+            }
+            case E_BIKE -> {
+                // E-bike: Very minimal elevation impact
+                adjustedDistance += elevationGainKm * 1000 / 2000 * baseSpeed; // 1 hour per 2000m gain
+            }
+            default -> {
+                // Running and other types use the flat speed
+            }
+        }
+
+        // Calculate duration in seconds
+        return Math.round((adjustedDistance / baseSpeed) * 3600);
+    }
+
+    private static int band(double grade) {
+        int band = 0;
+        while (band < GRADE_BANDS.length && grade > GRADE_BANDS[band]) {
+            band++;
+        }
+        return band;
+    }
+}
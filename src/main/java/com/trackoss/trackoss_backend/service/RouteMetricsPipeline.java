@@ -0,0 +1,197 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.entity.RouteStats;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Runs a fixed list of metrics over a track in a single pass.
+ *
+ * The inner loop is the primitive single-pass kernel: the values every metric needs are computed once per
+ * point from doubles and longs, the Haversine distance of the segment, keeping each point's latitude in
+ * radians and its cosine for the next one, the elevation change and the time between timestamps. Stages
+ * then only add up what they measure. Nothing is allocated per point; a pass allocates its stages once,
+ * and stages that keep per-point data, like the elevation profile, size it from the expected point count.
+ */
+public final class RouteMetricsPipeline {
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+
+    private final RouteMetric[] metrics;
+
+    public RouteMetricsPipeline(List<RouteMetric> metrics) {
+        this.metrics = metrics.toArray(new RouteMetric[0]);
+    }
+
+    public Pass start(Route route) {
+        return start(route, 0);
+    }
+
+    /**
+     * Start a pass over about the given number of points, 0 when unknown
+     */
+    public Pass start(Route route, int expectedPoints) {
+        RouteMetric.Stage[] stages = new RouteMetric.Stage[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            stages[i] = metrics[i].start(route);
+            stages[i].expect(expectedPoints);
+        }
+        return new Pass(stages);
+    }
+
+    /**
+     * Measure points in sequence order. Waypoints are off the line, as in a streamed import, so a route
+     * measures the same whichever way its points arrived.
+     */
+    public RouteStats run(Route route, List<RoutePoint> points, RouteStats stats) {
+        Pass pass = start(route, points.size());
+        for (RoutePoint point : points) {
+            if (point.getPointType() == RoutePoint.PointType.WAYPOINT) {
+                pass.addOffTrack(point.getLatitude(), point.getLongitude());
+            } else {
+                pass.add(point);
+            }
+        }
+        return pass.finish(stats);
+    }
+
+    public RouteStats run(Route route, PackedTrack track, RouteStats stats) {
+        Pass pass = start(route, track.size());
+        double[] latitudes = track.latitudes();
+        double[] longitudes = track.longitudes();
+        double[] elevations = track.elevations();
+        long[] timestamps = track.timestamps();
+        for (int i = 0; i < track.size(); i++) {
+            if (track.pointType(i) == RoutePoint.PointType.WAYPOINT) {
+                pass.addOffTrack(latitudes[i], longitudes[i]);
+            } else {
+                pass.add(latitudes[i], longitudes[i], elevations[i], timestamps[i]);
+            }
+        }
+        return pass.finish(stats);
+    }
+
+    /**
+     * One walk over a route's points, fed point by point
+     */
+    public static final class Pass {
+        private final RouteMetric.Stage[] stages;
+        private final TrackStep step = new TrackStep();
+        private int pointCount;
+        private int trackPointCount;
+        private double previousLatitude;     // radians
+        private double previousLongitude;    // radians
+        private double previousCosLatitude;
+        private double previousElevation;
+        private long previousTimestamp;
+        private double distance;
+
+        private Pass(RouteMetric.Stage[] stages) {
+            this.stages = stages;
+        }
+
+        public void add(RoutePoint point) {
+            add(point.getLatitude(),
+                point.getLongitude(),
+                point.getElevation() != null ? point.getElevation() : Double.NaN,
+                PackedTrack.epochMillis(point.getTimestamp()));
+        }
+
+        /**
+         * Add the next point of the line, in degrees, metres and epoch milliseconds
+         */
+        public void add(double latitude, double longitude, double elevation, long timestamp) {
+            double latitudeRadians = Math.toRadians(latitude);
+            double longitudeRadians = Math.toRadians(longitude);
+            double cosLatitude = Math.cos(latitudeRadians);
+
+            TrackStep step = this.step;
+            if (trackPointCount == 0) {
+                step.first = true;
+                step.segmentDistance = 0.0;
+                step.elevationChange = Double.NaN;
+                step.elapsedMillis = -1L;
+            } else {
+                double sinHalfLatitude = Math.sin((latitudeRadians - previousLatitude) / 2);
+                double sinHalfLongitude = Math.sin((longitudeRadians - previousLongitude) / 2);
+                double a = sinHalfLatitude * sinHalfLatitude
+                        + previousCosLatitude * cosLatitude * sinHalfLongitude * sinHalfLongitude;
+                double segment = 2 * EARTH_RADIUS_M * Math.asin(Math.sqrt(Math.min(1.0, a)));
+                distance += segment;
+
+                step.first = false;
+                step.segmentDistance = segment;
+                step.elevationChange = elevation - previousElevation; // NaN if either is missing
+                step.elapsedMillis = timestamp != PackedTrack.NO_TIMESTAMP && previousTimestamp != PackedTrack.NO_TIMESTAMP
+                        ? timestamp - previousTimestamp
+                        : -1L;
+            }
+            step.index = pointCount;
+            step.onTrack = true;
+            step.latitude = latitude;
+            step.longitude = longitude;
+            step.elevation = elevation;
+            step.timestamp = timestamp;
+            step.distance = distance;
+            for (RouteMetric.Stage stage : stages) {
+                stage.accept(step);
+            }
+
+            previousLatitude = latitudeRadians;
+            previousLongitude = longitudeRadians;
+            previousCosLatitude = cosLatitude;
+            previousElevation = elevation;
+            previousTimestamp = timestamp;
+            trackPointCount++;
+            pointCount++;
+        }
+
+        /**
+         * Add a point beside the line, such as a waypoint; it has a position but no segment
+         */
+        public void addOffTrack(double latitude, double longitude) {
+            TrackStep step = this.step;
+            step.index = pointCount;
+            step.onTrack = false;
+            step.first = false;
+            step.latitude = latitude;
+            step.longitude = longitude;
+            step.elevation = Double.NaN;
+            step.timestamp = PackedTrack.NO_TIMESTAMP;
+            step.segmentDistance = 0.0;
+            step.distance = distance;
+            step.elevationChange = Double.NaN;
+            step.elapsedMillis = -1L;
+            for (RouteMetric.Stage stage : stages) {
+                stage.accept(step);
+            }
+            pointCount++;
+        }
+
+        public int getPointCount() {
+            return pointCount;
+        }
+
+        public int getTrackPointCount() {
+            return trackPointCount;
+        }
+
+        /**
+         * Let every stage write its result into the given statistics, replacing earlier values
+         */
+        public RouteStats finish(RouteStats stats) {
+            stats.setPointCount(pointCount);
+            if (stats.getMetrics() == null) {
+                stats.setMetrics(new LinkedHashMap<>());
+            }
+            stats.getMetrics().clear();
+            for (RouteMetric.Stage stage : stages) {
+                stage.finish(stats);
+            }
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RoutePointsPatchRequest;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.repository.RoutePointBatchWriter;
+import com.trackoss.trackoss_backend.repository.RoutePointRepository;
+import com.trackoss.trackoss_backend.repository.RouteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Applies range edits to a stored route instead of replacing all of its points.
+ *
+ * Only the rows inside an edited range are deleted and inserted; rows after a range that changes
+ * length get their sequence moved by one UPDATE. Packed routes are rewritten whole: their track blob is a
+ * single value, so it is decoded, spliced and encoded again, and only their named points are rows.
+ *
+ * Statistics are not adjusted by difference. Most of them (smoothed gain, elevation profile, grades,
+ * simplification levels) depend on the whole line, so an edit measures the edited route again in the same
+ * transaction, in one pass over the points' columns, and takes the totals from that pass too.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RoutePointEditService {
+
+    private final RouteRepository routeRepository;
+    private final RoutePointRepository routePointRepository;
+    private final RoutePointBatchWriter routePointBatchWriter;
+    private final RouteStatisticsService routeStatisticsService;
+    private final TrackStorageService trackStorageService;
+    private final TrackSimplificationService trackSimplificationService;
+    private final RouteCache routeCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public RouteSummaryResponse applyEdits(UUID id, RoutePointsPatchRequest request) {
+        Route route = routeRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Route not found"));
+        routeCache.evict(id);
+        boolean packed = trackStorageService.isPacked(route);
+
+        // A packed route has to be decoded anyway; row routes are only counted
+        List<RoutePoint> allPoints = packed
+                ? trackStorageService.readPoints(route, detach(routePointRepository.findByRouteIdOrderBySequenceOrderAsc(id)))
+                : null;
+        int pointCount = packed ? allPoints.size() : countPoints(route);
+
+        List<Edit> edits = normalize(request.getEdits(), pointCount, route);
+        int newPointCount = pointCount;
+        for (Edit edit : edits) {
+            newPointCount += edit.delta();
+        }
+
+        // Highest range first, so the sequence numbers of lower ranges are still the ones in the request
+        for (int i = edits.size() - 1; i >= 0; i--) {
+            Edit edit = edits.get(i);
+            routePointBatchWriter.deleteSequenceRange(id, edit.from(), edit.to());
+            routePointBatchWriter.shiftSequences(id, edit.to(), edit.delta());
+
+            List<RoutePoint> rows = new ArrayList<>();
+            for (int j = 0; j < edit.points().size(); j++) {
+                RoutePoint point = edit.points().get(j);
+                point.setSequenceOrder(edit.from() + j);
+                if (trackStorageService.storesAsRow(route, point)) {
+                    rows.add(point);
+                }
+            }
+            routePointBatchWriter.insert(id, rows);
+        }
+
+        route.setPointCount(newPointCount);
+        PackedTrack line;
+        if (packed) {
+            // The track blob is a single value, so a packed route is encoded again as a whole
+            List<RoutePoint> points = splice(allPoints, edits);
+            PackedTrack track = new PackedTrack(points.size());
+            line = new PackedTrack(points.size());
+            for (RoutePoint point : points) {
+                line.add(point);
+                if (!trackStorageService.storesAsRow(route, point)) {
+                    track.add(point);
+                }
+            }
+            trackStorageService.storePacked(route, track);
+            routeRepository.updateRouteGeometry(id, points);
+        } else {
+            routeRepository.refreshRouteGeometry(id);
+            line = readLine(id, newPointCount);
+        }
+
+        // Every metric, the totals included, comes from one pass over the edited line, so the route and its
+        // stored statistics cannot drift apart over repeated edits
+        trackSimplificationService.storeLevels(route, line);
+        routeStatisticsService.calculateRouteStatistics(route, line);
+
+        routeRepository.save(route);
+        log.info("Applied {} point edits to route {}, now {} points", edits.size(), id, newPointCount);
+
+        return routeRepository.findSummaryById(id)
+                .orElseThrow(() -> new RuntimeException("Route not found"));
+    }
+
+    private static boolean isPointType(String name) {
+        for (RoutePoint.PointType pointType : RoutePoint.PointType.values()) {
+            if (pointType.name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Validate the edits against the current point count, sort them and merge ranges that touch,
+     * so every range is deleted and shifted once.
+     */
+    private List<Edit> normalize(List<RoutePointsPatchRequest.RangeEdit> requested, int pointCount, Route route) {
+        if (requested == null || requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one edit is required");
+        }
+
+        List<Edit> sorted = new ArrayList<>(requested.size());
+        for (RoutePointsPatchRequest.RangeEdit rangeEdit : requested) {
+            Integer from = rangeEdit.getFromSequence();
+            Integer to = rangeEdit.getToSequence();
+            if (from == null || to == null || from < 0 || from > to || to > pointCount) {
+                throw new IllegalArgumentException(
+                        "Edit range [" + from + ", " + to + ") is outside the route's " + pointCount + " points");
+            }
+
+            List<RoutePoint> points = new ArrayList<>();
+            if (rangeEdit.getPoints() != null) {
+                for (RouteCreateRequest.RoutePointRequest pointRequest : rangeEdit.getPoints()) {
+                    if (pointRequest.getLatitude() == null || pointRequest.getLongitude() == null) {
+                        throw new IllegalArgumentException("Points need a latitude and a longitude");
+                    }
+                    if (!isPointType(pointRequest.getPointType())) {
+                        throw new IllegalArgumentException("Unknown point type: " + pointRequest.getPointType());
+                    }
+                    points.add(RouteService.toRoutePoint(pointRequest, from, route));
+                }
+            }
+            sorted.add(new Edit(from, to, points));
+        }
+        // Stable, so inserts at the same position keep their request order
+        sorted.sort(Comparator.comparingInt(Edit::from).thenComparingInt(Edit::to));
+
+        List<Edit> merged = new ArrayList<>(sorted.size());
+        int remaining = pointCount;
+        for (Edit edit : sorted) {
+            remaining += edit.delta();
+            if (merged.isEmpty()) {
+                merged.add(edit);
+                continue;
+            }
+            Edit previous = merged.get(merged.size() - 1);
+            if (edit.from() < previous.to()) {
+                throw new IllegalArgumentException("Edit ranges must not overlap");
+            }
+            if (edit.from() == previous.to()) {
+                List<RoutePoint> points = new ArrayList<>(previous.points());
+                points.addAll(edit.points());
+                merged.set(merged.size() - 1, new Edit(previous.from(), edit.to(), points));
+            } else {
+                merged.add(edit);
+            }
+        }
+
+        if (remaining < 1) {
+            throw new IllegalArgumentException("A route needs at least one point");
+        }
+        return merged;
+    }
+
+    // The route's points after all edits, for packed routes that are rewritten as a whole
+    private List<RoutePoint> splice(List<RoutePoint> points, List<Edit> edits) {
+        List<RoutePoint> result = new ArrayList<>(points.size());
+        int position = 0;
+        for (Edit edit : edits) {
+            result.addAll(points.subList(position, edit.from()));
+            result.addAll(edit.points());
+            position = edit.to();
+        }
+        result.addAll(points.subList(position, points.size()));
+        for (int i = 0; i < result.size(); i++) {
+            result.get(i).setSequenceOrder(i);
+        }
+        return result;
+    }
+
+    private int countPoints(Route route) {
+        return route.getPointCount() != null
+                ? route.getPointCount()
+                : (int) routePointRepository.countByRouteId(route.getId());
+    }
+
+    // All points of a row-stored route in sequence order, read through a cursor into primitive columns
+    private PackedTrack readLine(UUID routeId, int pointCount) {
+        PackedTrack line = new PackedTrack(pointCount);
+        try (Stream<RoutePoint> rows = routePointRepository.streamByRouteId(routeId)) {
+            rows.forEach(point -> {
+                entityManager.detach(point);
+                line.add(point);
+            });
+        }
+        return line;
+    }
+
+    private List<RoutePoint> detach(List<RoutePoint> points) {
+        // The batch writer changes these rows behind the persistence context's back
+        points.forEach(entityManager::detach);
+        return points;
+    }
+
+    private record Edit(int from, int to, List<RoutePoint> points) {
+        int delta() {
+            return points.size() - (to - from);
+        }
+    }
+}
@@ -1,25 +1,48 @@
 
 package com.trackoss.trackoss_backend.service;
 
+import com.trackoss.trackoss_backend.dto.ElevationProfileResponse;
 import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RouteCursor;
+import com.trackoss.trackoss_backend.dto.RoutePatchRequest;
 import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSliceResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.entity.RoutePoint;
-import com.trackoss.trackoss_backend.entity.User;
+import com.trackoss.trackoss_backend.entity.TimeOrderedUuid;
+import com.trackoss.trackoss_backend.repository.RoutePointBatchWriter;
+import com.trackoss.trackoss_backend.repository.RoutePointRepository;
 import com.trackoss.trackoss_backend.repository.RouteRepository;
 import com.trackoss.trackoss_backend.security.UserPrincipal;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,11 +52,26 @@ public class RouteService {
 
     private final RouteRepository routeRepository;
     private final RouteStatisticsService routeStatisticsService;
-
+    private final TrackStorageService trackStorageService;
+    private final RoutePointRepository routePointRepository;
+    private final GpxService gpxService;
+    private final GeoJsonService geoJsonService;
+    private final RoutePointBatchWriter routePointBatchWriter;
+    private final TrackSimplificationService trackSimplificationService;
+    private final RouteCache routeCache;
+    private final RouteMeters routeMeters;
+    private final RouteMetadataSync routeMetadataSync;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Observed(name = "route.create", contextualName = "create-route")
     public RouteResponse createRoute(RouteCreateRequest request) {
         return createRoute(request, null);
     }
 
+    @Observed(name = "route.create", contextualName = "create-route")
     public RouteResponse createRoute(RouteCreateRequest request, Authentication authentication) {
         log.info("Creating new route: {}", request.getName());
 
@@ -43,41 +81,23 @@ public class RouteService {
         route.setDescription(request.getDescription());
         route.setRouteType(request.getRouteType());
         route.setIsPublic(request.getIsPublic());
-        route.setMetadata(request.getMetadata());
 
-        // Set userId from authentication if available
-        if (authentication != null && authentication.isAuthenticated()) {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userPrincipal.getUser();
-            route.setUserId(user.getId().toString());
-            log.info("Setting route userId to: {}", user.getId());
-        }
+        // Difficulty from the request if provided, otherwise the one in the metadata
+        routeMetadataSync.apply(route, request.getMetadata(), request.getDifficulty());
 
-        // Set difficulty from request only if provided, otherwise keep metadata-extracted value
-        Integer requestDifficulty = request.getDifficulty();
-        if (requestDifficulty != null) {
-            route.setDifficulty(requestDifficulty);
+        // Set userId from authentication if available
+        String userId = UserPrincipal.userIdOf(authentication);
+        if (userId != null) {
+            route.setUserId(userId);
+            log.info("Setting route userId to: {}", userId);
         }
 
         // Create route points
         List<RoutePoint> points = IntStream.range(0, request.getPoints().size())
-                .mapToObj(i -> {
-                    RouteCreateRequest.RoutePointRequest pointReq = request.getPoints().get(i);
-                    RoutePoint point = new RoutePoint();
-                    point.setId(UUID.randomUUID()); // Set UUID manually
-                    point.setSequenceOrder(i);
-                    point.setLatitude(pointReq.getLatitude());
-                    point.setLongitude(pointReq.getLongitude());
-                    point.setElevation(pointReq.getElevation());
-                    point.setName(pointReq.getName());
-                    point.setDescription(pointReq.getDescription());
-                    point.setPointType(RoutePoint.PointType.valueOf(pointReq.getPointType()));
-                    point.setRoute(route);
-                    return point;
-                })
+                .mapToObj(i -> toRoutePoint(request.getPoints().get(i), i, route))
                 .toList();
 
-        route.setRoutePoints(points);
+        route.getRoutePoints().addAll(points);
 
         // Set pre-calculated statistics if provided, otherwise calculate them
         if (request.getTotalDistance() != null) {
@@ -90,19 +110,77 @@ public class RouteService {
             route.setEstimatedDuration(request.getEstimatedDuration());
         }
 
-        // Calculate missing statistics
+        // Calculate missing statistics, the stored track statistics and the bounding box
         routeStatisticsService.calculateMissingStatistics(route);
+        route.setPointCount(points.size());
+        trackSimplificationService.storeLevels(route, PackedTrack.of(points));
+
+        // Statistics need the full point list, so pack only afterwards
+        trackStorageService.storePoints(route);
+        List<RoutePoint> rows = takeRows(route);
 
+        long started = System.nanoTime();
         Route savedRoute = routeRepository.save(route);
+        routePointBatchWriter.insert(savedRoute.getId(), rows);
+        routeRepository.updateRouteGeometry(savedRoute.getId(), points);
+        routeMeters.recordDbWrite(RouteMeters.JSON, savedRoute.getRouteType(), System.nanoTime() - started);
         log.info("Route created with ID: {}", savedRoute.getId());
 
-        return convertToResponse(savedRoute);
+        return convertToResponse(savedRoute, rows);
     }
 
+    /**
+     * Get a route with its full track. Only the summary row is read when the response is cached.
+     */
     @Transactional(readOnly = true)
     public Optional<RouteResponse> getRoute(UUID id) {
+        return routeRepository.findSummaryById(id)
+                .map(summary -> routeCache.getRoute(summary, () -> routeRepository.findById(id)
+                        .map(this::convertToResponse)
+                        .orElse(null)));
+    }
+
+    /**
+     * Get a route with its track simplified to a tolerance in meters, or to one pixel at a map zoom level.
+     * Without either the full track is returned. Statistics and pointCount always describe the full track.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RouteResponse> getRoute(UUID id, Double tolerance, Integer zoom) {
+        if (tolerance == null && zoom == null) {
+            return getRoute(id);
+        }
+        return routeRepository.findById(id)
+                .map(route -> {
+                    List<RoutePoint> points = trackStorageService.readPoints(route);
+                    TrackSimplificationService.Simplification simplification = trackSimplificationService.simplify(
+                            route, resolveTolerance(route, tolerance, zoom), () -> PackedTrack.of(points));
+                    if (simplification == null) {
+                        return toResponse(route, points);
+                    }
+
+                    List<RoutePoint> kept = IntStream.range(0, points.size())
+                            .filter(simplification.kept()::get)
+                            .mapToObj(points::get)
+                            .toList();
+                    RouteResponse response = toResponse(route, kept);
+                    response.setPointCount(points.size());
+                    response.setSimplificationTolerance(simplification.tolerance());
+                    return response;
+                });
+    }
+
+    /**
+     * Elevation over cumulative distance with at most the given number of samples, for elevation charts.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ElevationProfileResponse> getElevationProfile(UUID id, int samples) {
         return routeRepository.findById(id)
-                .map(this::convertToResponse);
+                .map(route -> {
+                    ElevationProfile profile = routeStatisticsService.elevationProfile(
+                            route, samples, () -> trackStorageService.readPoints(route));
+                    return new ElevationProfileResponse(route.getId(), route.getTotalDistance(),
+                            profile.size(), profile.distances(), profile.elevations());
+                });
     }
 
     @Transactional(readOnly = true)
@@ -117,43 +195,134 @@ public class RouteService {
     }
 
     @Transactional(readOnly = true)
-    public Page<RouteResponse> getAllRoutes(Pageable pageable) {
-        return routeRepository.findAll(pageable)
-                .map(this::convertToResponse);
+    public Optional<RouteSummaryResponse> getRouteSummary(UUID id) {
+        return routeRepository.findSummaryById(id);
     }
 
+    /**
+     * When the route was last changed, without reading anything but its updated_at column
+     */
     @Transactional(readOnly = true)
-    public Page<RouteResponse> getPublicRoutes(Pageable pageable) {
-        return routeRepository.findByIsPublicTrue(pageable)
-                .map(this::convertToResponse);
+    public Optional<LocalDateTime> getLastModified(UUID id) {
+        return routeRepository.findUpdatedAtById(id);
+    }
+
+    /**
+     * Stream a route as GPX. The points are read in a short transaction of their own, as compact columns,
+     * so no connection is held while the document goes out to a slow client.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeGpx(UUID id, OutputStream outputStream) throws IOException {
+        RouteSummaryResponse summary = routeRepository.findSummaryById(id)
+                .orElseThrow(() -> new RuntimeException("Route not found"));
+
+        RouteMeters.CountingOutputStream counted = new RouteMeters.CountingOutputStream(outputStream);
+        boolean cached = routeCache.writeExport(summary, RouteCache.GPX, counted, out -> {
+            ExportTrack export = readExportTrack(id);
+
+            int written = gpxService.writeGpx(export.route(), export.waypoints(), exportPoints(export), out);
+            log.info("Streamed route {} as GPX ({} track points)", id, written);
+        });
+        if (cached) {
+            log.debug("Served GPX of route {} from cache", id);
+        }
+        routeMeters.recordExport(RouteMeters.GPX, cached, counted.getCount());
+    }
+
+    /**
+     * Stream a route as GeoJSON, reading its points as in {@link #writeGpx(UUID, OutputStream)}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeGeoJson(UUID id, Integer precision, OutputStream outputStream) throws IOException {
+        writeGeoJson(id, precision, null, null, outputStream);
+    }
+
+    /**
+     * Stream a route as GeoJSON with the track simplified as in {@link #getRoute(UUID, Double, Integer)}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeGeoJson(UUID id, Integer precision, Double tolerance, Integer zoom, OutputStream outputStream)
+            throws IOException {
+        RouteSummaryResponse summary = routeRepository.findSummaryById(id)
+                .orElseThrow(() -> new RuntimeException("Route not found"));
+
+        String variant = RouteCache.geoJson(precision, tolerance, zoom);
+        RouteMeters.CountingOutputStream counted = new RouteMeters.CountingOutputStream(outputStream);
+        boolean cached = routeCache.writeExport(summary, variant, counted, out -> {
+            ExportTrack export = readExportTrack(id);
+            Route route = export.route();
+
+            TrackSimplificationService.Simplification simplification = tolerance == null && zoom == null
+                    ? null
+                    : trackSimplificationService.simplify(route, resolveTolerance(route, tolerance, zoom),
+                            () -> allPoints(export));
+
+            Iterator<RoutePoint> points = exportPoints(export);
+            int written = geoJsonService.writeGeoJson(route, export.waypoints(),
+                    simplification != null ? keepPositions(points, simplification.kept()) : points, precision, out);
+            log.info("Streamed route {} as GeoJSON ({} track points)", id, written);
+        });
+        if (cached) {
+            log.debug("Served GeoJSON of route {} from cache", id);
+        }
+        routeMeters.recordExport(RouteMeters.GEOJSON, cached, counted.getCount());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<RouteSummaryResponse> getAllRoutes(Pageable pageable) {
+        return routeRepository.findAllSummaries(pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<RouteResponse> getUserRoutes(String userId, Pageable pageable) {
-        return routeRepository.findByUserId(userId, pageable)
-                .map(this::convertToResponse);
+    public Page<RouteSummaryResponse> getPublicRoutes(Pageable pageable) {
+        return routeRepository.findPublicSummaries(pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<RouteResponse> searchRoutes(String name, Pageable pageable) {
-        return routeRepository.findByNameContainingIgnoreCase(name, pageable)
-                .map(this::convertToResponse);
+    public Page<RouteSummaryResponse> getUserRoutes(String userId, Pageable pageable) {
+        return routeRepository.findSummariesByUserId(userId, pageable);
     }
 
+    /**
+     * Routes whose name or description matches the search term, best match first, narrowed by the same
+     * filters as getRoutesWithFilters
+     */
     @Transactional(readOnly = true)
-    public Page<RouteResponse> findNearbyRoutes(Double latitude, Double longitude, Double radiusKm, Pageable pageable) {
+    public Page<RouteSummaryResponse> searchRoutes(
+            String search,
+            Integer difficulty,
+            Route.RouteType routeType,
+            Double minDistance,
+            Double maxDistance,
+            String surfaceType,
+            Boolean isPublic,
+            Pageable pageable) {
+
+        return routeRepository.searchSummaries(
+            search,
+            difficulty,
+            routeType,
+            minDistance,
+            maxDistance,
+            surfaceType,
+            isPublic,
+            pageable
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public Page<RouteSummaryResponse> findNearbyRoutes(Double latitude, Double longitude, Double radiusKm, Pageable pageable) {
         return routeRepository.findNearbyRoutes(latitude, longitude, radiusKm, pageable)
-                .map(this::convertToResponse);
+                .map(this::convertToSummary);
     }
 
     @Transactional(readOnly = true)
-    public Page<RouteResponse> findByDifficulty(Integer difficulty, Pageable pageable) {
-        return routeRepository.findByDifficulty(difficulty, pageable)
-                .map(this::convertToResponse);
+    public Page<RouteSummaryResponse> findByDifficulty(Integer difficulty, Pageable pageable) {
+        return routeRepository.findSummariesByDifficulty(difficulty, pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<RouteResponse> getRoutesWithFilters(
+    public Page<RouteSummaryResponse> getRoutesWithFilters(
             Integer difficulty,
             Route.RouteType routeType,
             Double minDistance,
@@ -162,72 +331,148 @@ public class RouteService {
             Boolean isPublic,
             Pageable pageable) {
 
-        // Convert surfaceType string to proper format for LIKE query if needed
-        String surfaceTypeParam = null;
-        if (surfaceType != null && !surfaceType.isEmpty()) {
-            surfaceTypeParam = "\"surface\":\"" + surfaceType + "\"";
-        }
-
-        Page<Route> routes = routeRepository.findWithFilters(
+        return routeRepository.findSummariesWithFilters(
             difficulty,
             routeType,
             minDistance,
             maxDistance,
-            surfaceTypeParam,
+            surfaceType,
             isPublic,
             pageable
         );
+    }
+
+    /**
+     * Newest routes created before the cursor, without a count or an offset scan
+     */
+    @Transactional(readOnly = true)
+    public RouteSliceResponse getAllRoutesAfter(RouteCursor cursor, int size) {
+        return toSliceResponse(routeRepository.findSummariesAfter(cursor.createdAt(), cursor.id(),
+                PageRequest.of(0, size)));
+    }
+
+    @Transactional(readOnly = true)
+    public RouteSliceResponse getPublicRoutesAfter(RouteCursor cursor, int size) {
+        return toSliceResponse(routeRepository.findPublicSummariesAfter(cursor.createdAt(), cursor.id(),
+                PageRequest.of(0, size)));
+    }
 
-        return routes.map(this::convertToResponse);
+    @Transactional(readOnly = true)
+    public RouteSliceResponse getUserRoutesAfter(String userId, RouteCursor cursor, int size) {
+        return toSliceResponse(routeRepository.findSummariesByUserIdAfter(userId, cursor.createdAt(), cursor.id(),
+                PageRequest.of(0, size)));
+    }
+
+    @Transactional(readOnly = true)
+    public RouteSliceResponse getRoutesWithFiltersAfter(
+            Integer difficulty,
+            Route.RouteType routeType,
+            Double minDistance,
+            Double maxDistance,
+            String surfaceType,
+            Boolean isPublic,
+            RouteCursor cursor,
+            int size) {
+
+        return toSliceResponse(routeRepository.findSummariesWithFiltersAfter(
+            difficulty,
+            routeType,
+            minDistance,
+            maxDistance,
+            surfaceType,
+            isPublic,
+            cursor.createdAt(),
+            cursor.id(),
+            PageRequest.of(0, size)
+        ));
     }
 
+    private static RouteSliceResponse toSliceResponse(Slice<RouteSummaryResponse> slice) {
+        List<RouteSummaryResponse> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? RouteCursor.after(content.get(content.size() - 1)).encode()
+                : null;
+        return new RouteSliceResponse(content, slice.getSize(), slice.hasNext(), nextCursor);
+    }
+
+    @Observed(name = "route.update", contextualName = "update-route")
     public RouteResponse updateRoute(UUID id, RouteCreateRequest request) {
         Route route = routeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Route not found"));
+        routeCache.evict(id);
 
         route.setName(request.getName());
         route.setDescription(request.getDescription());
         route.setRouteType(request.getRouteType());
         route.setIsPublic(request.getIsPublic());
 
-        // Set metadata first to allow difficulty extraction from metadata
-        route.setMetadata(request.getMetadata());
+        // Difficulty from the request if provided, otherwise the one in the metadata
+        routeMetadataSync.apply(route, request.getMetadata(), request.getDifficulty());
 
-        // Set difficulty from request only if provided, otherwise keep metadata-extracted value
-        Integer requestDifficulty = request.getDifficulty();
-        if (requestDifficulty != null) {
-            route.setDifficulty(requestDifficulty);
+        // Clear existing points and add new ones. While the collection is still unloaded the old rows
+        // go with one DELETE; clearing a loaded collection deletes them one by one through orphan removal
+        if (!Hibernate.isInitialized(route.getRoutePoints())) {
+            routePointBatchWriter.deleteByRouteId(id);
         }
-
-        // Clear existing points and add new ones
         route.getRoutePoints().clear();
 
         List<RoutePoint> points = IntStream.range(0, request.getPoints().size())
-                .mapToObj(i -> {
-                    RouteCreateRequest.RoutePointRequest pointReq = request.getPoints().get(i);
-                    RoutePoint point = new RoutePoint();
-                    point.setId(UUID.randomUUID()); // Set UUID manually
-                    point.setSequenceOrder(i);
-                    point.setLatitude(pointReq.getLatitude());
-                    point.setLongitude(pointReq.getLongitude());
-                    point.setElevation(pointReq.getElevation());
-                    point.setName(pointReq.getName());
-                    point.setDescription(pointReq.getDescription());
-                    point.setPointType(RoutePoint.PointType.valueOf(pointReq.getPointType()));
-                    point.setRoute(route);
-                    return point;
-                })
+                .mapToObj(i -> toRoutePoint(request.getPoints().get(i), i, route))
                 .toList();
 
         route.getRoutePoints().addAll(points);
 
-        // Recalculate route statistics
+        // Recalculate route statistics and bounding box
         routeStatisticsService.calculateRouteStatistics(route);
+        route.setPointCount(points.size());
+        trackSimplificationService.storeLevels(route, PackedTrack.of(points));
 
+        trackStorageService.storePoints(route);
+        List<RoutePoint> rows = takeRows(route);
+
+        long started = System.nanoTime();
         Route savedRoute = routeRepository.save(route);
+        routePointBatchWriter.insert(savedRoute.getId(), rows);
+        routeRepository.updateRouteGeometry(savedRoute.getId(), points);
+        routeMeters.recordDbWrite(RouteMeters.JSON, savedRoute.getRouteType(), System.nanoTime() - started);
         log.info("Route updated: {}", savedRoute.getId());
 
-        return convertToResponse(savedRoute);
+        return convertToResponse(savedRoute, rows);
+    }
+
+    /**
+     * Update route fields without touching its points. Fields left null in the request keep their value.
+     */
+    public RouteSummaryResponse patchRoute(UUID id, RoutePatchRequest request) {
+        Route route = routeRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Route not found"));
+        routeCache.evict(id);
+
+        if (request.getName() != null) {
+            route.setName(request.getName());
+        }
+        if (request.getDescription() != null) {
+            route.setDescription(request.getDescription());
+        }
+        if (request.getIsPublic() != null) {
+            route.setIsPublic(request.getIsPublic());
+        }
+        if (request.getRouteType() != null && request.getRouteType() != route.getRouteType()) {
+            route.setRouteType(request.getRouteType());
+            // The speed model depends on the route type; distance and gain stay valid
+            routeStatisticsService.recalculateEstimatedDuration(route);
+        }
+
+        // As in updateRoute an explicit difficulty wins over the metadata value
+        if (request.getMetadata() != null || request.getDifficulty() != null) {
+            String metadata = request.getMetadata() != null ? request.getMetadata() : route.getMetadata();
+            routeMetadataSync.apply(route, metadata, request.getDifficulty());
+        }
+
+        Route savedRoute = routeRepository.save(route);
+        log.info("Route patched: {}", savedRoute.getId());
+
+        return convertToSummary(savedRoute);
     }
 
     public void deleteRoute(UUID id) {
@@ -235,10 +480,140 @@ public class RouteService {
             throw new RuntimeException("Route not found");
         }
         routeRepository.deleteById(id);
+        routeCache.evict(id);
         log.info("Route deleted: {}", id);
     }
 
+    static RoutePoint toRoutePoint(RouteCreateRequest.RoutePointRequest request, int sequence, Route route) {
+        RoutePoint point = new RoutePoint();
+        point.setId(TimeOrderedUuid.next()); // Time ordered, keeps the primary key index append-only
+        point.setSequenceOrder(sequence);
+        point.setLatitude(request.getLatitude());
+        point.setLongitude(request.getLongitude());
+        point.setElevation(request.getElevation());
+        point.setName(request.getName());
+        point.setDescription(request.getDescription());
+        point.setPointType(RoutePoint.PointType.valueOf(request.getPointType()));
+        point.setRoute(route);
+        return point;
+    }
+
+    /**
+     * Take the points that stay rows after packing out of the route's collection, so they are written
+     * in JDBC batches by {@link RoutePointBatchWriter} instead of being cascaded one INSERT at a time.
+     */
+    private List<RoutePoint> takeRows(Route route) {
+        List<RoutePoint> rows = new ArrayList<>(route.getRoutePoints());
+        route.getRoutePoints().clear();
+        return rows;
+    }
+
+    private List<RoutePoint> findWaypoints(UUID routeId) {
+        // Waypoints are always rows, in both storage modes
+        return routePointRepository.findByRouteIdAndPointTypeOrderBySequenceOrderAsc(
+                routeId, RoutePoint.PointType.WAYPOINT);
+    }
+
+    /**
+     * Read everything an export writes in one short transaction. Packed routes are decoded, row-stored
+     * routes are read through a database cursor into primitive columns; only named points stay entities.
+     */
+    private ExportTrack readExportTrack(UUID id) {
+        return transactionTemplate.execute(status -> {
+            Route route = routeRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Route not found"));
+            List<RoutePoint> waypoints = findWaypoints(id);
+            List<RoutePoint> rows = new ArrayList<>();
+
+            if (trackStorageService.isPacked(route)) {
+                rows.addAll(route.getRoutePoints());
+                return new ExportTrack(route, waypoints, TrackCodec.decode(route.getTrackData()), rows);
+            }
+            try (Stream<RoutePoint> points = routePointRepository.streamByRouteId(id)) {
+                PackedTrack track = trackStorageService.packRows(points
+                        .map(point -> {
+                            // Keep the persistence context from growing with the track
+                            entityManager.detach(point);
+                            return point;
+                        })
+                        .iterator(), rows);
+                return new ExportTrack(route, waypoints, track, rows);
+            }
+        });
+    }
+
+    // All points of an export in sequence order, materialized one at a time
+    private Iterator<RoutePoint> exportPoints(ExportTrack export) {
+        return trackStorageService.iteratePoints(export.route(), export.track(), export.rows());
+    }
+
+    private PackedTrack allPoints(ExportTrack export) {
+        if (export.rows().isEmpty()) {
+            return export.track();
+        }
+        PackedTrack track = new PackedTrack(export.track().size() + export.rows().size());
+        exportPoints(export).forEachRemaining(track::add);
+        return track;
+    }
+
+    private double resolveTolerance(Route route, Double tolerance, Integer zoom) {
+        return tolerance != null ? tolerance : trackSimplificationService.toleranceForZoom(route, zoom);
+    }
+
+    // Skip points whose position in the sequence is not in the set
+    private static Iterator<RoutePoint> keepPositions(Iterator<RoutePoint> points, BitSet kept) {
+        return new Iterator<>() {
+            private int position;
+            private RoutePoint next = advance();
+
+            private RoutePoint advance() {
+                while (points.hasNext()) {
+                    RoutePoint point = points.next();
+                    if (kept.get(position++)) {
+                        return point;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public RoutePoint next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                RoutePoint point = next;
+                next = advance();
+                return point;
+            }
+        };
+    }
+
+    /**
+     * A route with its waypoints and all of its points, detached from the persistence context.
+     * Track points are held as columns, named points as rows by sequence slot.
+     */
+    private record ExportTrack(Route route, List<RoutePoint> waypoints, PackedTrack track, List<RoutePoint> rows) {
+    }
+
     private RouteResponse convertToResponse(Route route) {
+        return convertToResponse(trackStorageService, route, route.getRoutePoints());
+    }
+
+    private RouteResponse convertToResponse(Route route, List<RoutePoint> rows) {
+        return convertToResponse(trackStorageService, route, rows);
+    }
+
+    // Static and package-private so RouteResponseBenchmark needs nothing but the storage service
+    static RouteResponse convertToResponse(TrackStorageService trackStorageService, Route route, List<RoutePoint> rows) {
+        return toResponse(route, trackStorageService.readPoints(route, rows));
+    }
+
+    private static RouteResponse toResponse(Route route, List<RoutePoint> routePoints) {
         RouteResponse response = new RouteResponse();
         response.setId(route.getId());
         response.setName(route.getName());
@@ -248,14 +623,15 @@ public class RouteService {
         response.setUserId(route.getUserId());
         response.setTotalDistance(route.getTotalDistance());
         response.setTotalElevationGain(route.getTotalElevationGain());
+        response.setSmoothedElevationGain(route.getSmoothedElevationGain());
         response.setEstimatedDuration(route.getEstimatedDuration());
         response.setRouteType(route.getRouteType());
         response.setIsPublic(route.getIsPublic());
         response.setDifficulty(route.getDifficulty());
         response.setMetadata(route.getMetadata());
-        response.setPointCount(route.getRoutePoints().size());
+        response.setPointCount(routePoints.size());
 
-        List<RouteResponse.RoutePointResponse> pointResponses = route.getRoutePoints().stream()
+        List<RouteResponse.RoutePointResponse> pointResponses = routePoints.stream()
                 .map(point -> {
                     RouteResponse.RoutePointResponse pointResponse = new RouteResponse.RoutePointResponse();
                     pointResponse.setId(point.getId());
@@ -274,4 +650,22 @@ public class RouteService {
         response.setPoints(pointResponses);
         return response;
     }
+
+    private RouteSummaryResponse convertToSummary(Route route) {
+        return new RouteSummaryResponse(
+                route.getId(),
+                route.getName(),
+                route.getDescription(),
+                route.getCreatedAt(),
+                route.getUpdatedAt(),
+                route.getUserId(),
+                route.getTotalDistance(),
+                route.getTotalElevationGain(),
+                route.getEstimatedDuration(),
+                route.getRouteType(),
+                route.getIsPublic(),
+                route.getDifficulty(),
+                route.getMetadata(),
+                route.getPointCount());
+    }
 }
@@ -2,68 +2,96 @@ package com.trackoss.trackoss_backend.service;
 
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.entity.RouteStats;
+import com.trackoss.trackoss_backend.entity.TimeOrderedUuid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
+/**
+ * Route statistics. Every metric is a stage of one {@link RouteMetricsPipeline}, run in a single pass over
+ * the points; the full result is stored as the route's {@link RouteStats}, and distance, elevation gain,
+ * estimated duration and bounding box are also kept on the route itself for listing and filtering.
+ * Metrics beyond the built-in ones are added by declaring {@link RouteMetric} beans.
+ */
 @Service
 @Slf4j
 public class RouteStatisticsService {
     
     private static final double EARTH_RADIUS_KM = 6371.0;
     
+    private final RouteMetricsPipeline pipeline;
+    private final RouteMeters routeMeters;
+    
+    @Value("${app.routes.elevation.filter:NONE}")
+    private ElevationSmoother.Filter elevationFilter = ElevationSmoother.Filter.NONE;
+    
+    @Value("${app.routes.elevation.median-window:5}")
+    private int elevationMedianWindow = 5;
+    
+    @Value("${app.routes.elevation.hysteresis:3.0}")
+    private double elevationHysteresis = 3.0;
+    
+    @Value("${app.routes.elevation.kalman.process-noise:0.05}")
+    private double kalmanProcessNoise = 0.05;
+    
+    @Value("${app.routes.elevation.kalman.measurement-noise:9.0}")
+    private double kalmanMeasurementNoise = 9.0;
+    
+    @Value("${app.routes.profile.samples:500}")
+    private int profileSamples = RouteMetrics.DEFAULT_PROFILE_SAMPLES;
+    
+    public RouteStatisticsService() {
+        this(List.of());
+    }
+    
+    public RouteStatisticsService(List<RouteMetric> additionalMetrics) {
+        this(additionalMetrics, RouteMeters.none());
+    }
+    
+    public RouteStatisticsService(List<RouteMetric> additionalMetrics, RouteMeters routeMeters) {
+        List<RouteMetric> metrics = new ArrayList<>(RouteMetrics.defaults(this::elevationSmoothing, () -> profileSamples));
+        metrics.addAll(additionalMetrics);
+        this.pipeline = new RouteMetricsPipeline(metrics);
+        this.routeMeters = routeMeters;
+    }
+    
+    @Autowired
+    public RouteStatisticsService(ObjectProvider<RouteMetric> additionalMetrics, RouteMeters routeMeters) {
+        this(additionalMetrics.orderedStream().toList(), routeMeters);
+    }
+    
     /**
      * Calculate route statistics including total distance and elevation gain
      */
     public void calculateRouteStatistics(Route route) {
-        List<RoutePoint> points = route.getRoutePoints();
-        
-        if (points.size() < 2) {
-            route.setTotalDistance(0.0);
-            route.setTotalElevationGain(0.0);
-            route.setEstimatedDuration(0L);
-            return;
-        }
-        
-        double totalDistance = 0.0;
-        double totalElevationGain = 0.0;
-        
-        for (int i = 1; i < points.size(); i++) {
-            RoutePoint prev = points.get(i - 1);
-            RoutePoint curr = points.get(i);
-            
-            // Calculate distance between consecutive points
-            double segmentDistance = calculateDistance(
-                prev.getLatitude(), prev.getLongitude(),
-                curr.getLatitude(), curr.getLongitude()
-            );
-            totalDistance += segmentDistance;
-            
-            // Calculate elevation gain
-            if (prev.getElevation() != null && curr.getElevation() != null) {
-                double elevationDiff = curr.getElevation() - prev.getElevation();
-                if (elevationDiff > 0) {
-                    totalElevationGain += elevationDiff;
-                }
-            }
-        }
-        
-        route.setTotalDistance(totalDistance);
-        route.setTotalElevationGain(totalElevationGain);
-        route.setEstimatedDuration(calculateEstimatedDuration(route));
-        
-        log.debug("Calculated route statistics - Distance: {}m, Elevation gain: {}m, Duration: {}s", 
-                totalDistance, totalElevationGain, route.getEstimatedDuration());
+        applyTotals(route, storeStats(route, route.getRoutePoints()));
     }
     
     /**
-     * Calculate only missing statistics (those that are null)
+     * Like {@link #calculateRouteStatistics(Route)}, over the points' primitive columns
+     */
+    public void calculateRouteStatistics(Route route, PackedTrack points) {
+        applyTotals(route, storeStats(route, points));
+    }
+    
+    /**
+     * Calculate only missing statistics (those that are null). The stored track statistics are always
+     * measured, since they describe the points rather than the values a client sent.
      */
     public void calculateMissingStatistics(Route route) {
-        List<RoutePoint> points = route.getRoutePoints();
+        List<RoutePoint> points = route.getRoutePoints() != null ? route.getRoutePoints() : List.of();
+        boolean elevationGainProvided = route.getTotalElevationGain() != null;
+        RouteStats stats = storeStats(route, points);
         
-        if (points == null || points.size() < 2) {
+        if (points.size() < 2) {
             // Set defaults for routes with insufficient points
             if (route.getTotalDistance() == null) {
                 route.setTotalDistance(0.0);
@@ -79,43 +107,22 @@ public class RouteStatisticsService {
         
         boolean needsCalculation = false;
         
-        // Calculate total distance if missing
         if (route.getTotalDistance() == null) {
-            double totalDistance = 0.0;
-            for (int i = 1; i < points.size(); i++) {
-                RoutePoint prev = points.get(i - 1);
-                RoutePoint curr = points.get(i);
-                totalDistance += calculateDistance(
-                    prev.getLatitude(), prev.getLongitude(),
-                    curr.getLatitude(), curr.getLongitude()
-                );
-            }
-            route.setTotalDistance(totalDistance);
+            route.setTotalDistance(stats.getDistance());
             needsCalculation = true;
-            log.debug("Calculated missing distance for route: {}m", totalDistance);
+            log.debug("Calculated missing distance for route: {}m", stats.getDistance());
         }
         
-        // Calculate elevation gain if missing
         if (route.getTotalElevationGain() == null) {
-            double totalElevationGain = 0.0;
-            for (int i = 1; i < points.size(); i++) {
-                RoutePoint prev = points.get(i - 1);
-                RoutePoint curr = points.get(i);
-                if (prev.getElevation() != null && curr.getElevation() != null) {
-                    double elevationDiff = curr.getElevation() - prev.getElevation();
-                    if (elevationDiff > 0) {
-                        totalElevationGain += elevationDiff;
-                    }
-                }
-            }
-            route.setTotalElevationGain(totalElevationGain);
+            route.setTotalElevationGain(stats.getElevationGain());
             needsCalculation = true;
-            log.debug("Calculated missing elevation gain for route: {}m", totalElevationGain);
+            log.debug("Calculated missing elevation gain for route: {}m", stats.getElevationGain());
         }
         
-        // Calculate estimated duration if missing
+        // Calculate estimated duration if missing; a provided gain is used as is, a measured one without jitter
         if (route.getEstimatedDuration() == null) {
-            route.setEstimatedDuration(calculateEstimatedDuration(route));
+            route.setEstimatedDuration(RouteMetrics.estimateDuration(route.getRouteType(), route.getTotalDistance(),
+                    elevationGainProvided ? route.getTotalElevationGain() : stats.getSmoothedElevationGain()));
             needsCalculation = true;
             log.debug("Calculated missing duration for route: {}s", route.getEstimatedDuration());
         }
@@ -128,6 +135,112 @@ public class RouteStatisticsService {
         }
     }
     
+    /**
+     * Run every metric over the route's points in sequence order, store the result on the route, reusing
+     * its existing statistics row, and set the route's smoothed elevation gain and bounding box. Route totals
+     * are left alone.
+     */
+    public RouteStats storeStats(Route route, List<RoutePoint> points) {
+        return storeFullPass(route, stats -> pipeline.run(route, points, stats));
+    }
+    
+    /**
+     * Like {@link #storeStats(Route, List)}, over the points' primitive columns
+     */
+    public RouteStats storeStats(Route route, PackedTrack points) {
+        return storeFullPass(route, stats -> pipeline.run(route, points, stats));
+    }
+    
+    /**
+     * Calculate the bounding box of the given points, or clear it when there are none
+     */
+    public void calculateBoundingBox(Route route, List<RoutePoint> points) {
+        if (points == null || points.isEmpty()) {
+            route.setMinLatitude(null);
+            route.setMaxLatitude(null);
+            route.setMinLongitude(null);
+            route.setMaxLongitude(null);
+            return;
+        }
+        
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        
+        for (RoutePoint point : points) {
+            minLat = Math.min(minLat, point.getLatitude());
+            maxLat = Math.max(maxLat, point.getLatitude());
+            minLon = Math.min(minLon, point.getLongitude());
+            maxLon = Math.max(maxLon, point.getLongitude());
+        }
+        
+        route.setMinLatitude(minLat);
+        route.setMaxLatitude(maxLat);
+        route.setMinLongitude(minLon);
+        route.setMaxLongitude(maxLon);
+    }
+    
+    /**
+     * Recalculate only the estimated duration, e.g. after the route type changed
+     */
+    public void recalculateEstimatedDuration(Route route) {
+        route.setEstimatedDuration(calculateEstimatedDuration(route));
+        RouteStats stats = route.getStats();
+        if (stats != null) {
+            Double elevationGain = stats.getSmoothedElevationGain() != null
+                    ? stats.getSmoothedElevationGain()
+                    : stats.getElevationGain();
+            stats.setEstimatedDuration(RouteMetrics.estimateDuration(
+                    route.getRouteType(), stats.getDistance(), elevationGain));
+        }
+    }
+    
+    /**
+     * Elevation profile of a route with at most the given number of samples, from the profile stored with its
+     * statistics. Requests above the stored size get the stored profile. Routes saved before statistics were
+     * stored are measured from their points, which are only requested then.
+     */
+    public ElevationProfile elevationProfile(Route route, int samples, Supplier<List<RoutePoint>> points) {
+        RouteStats stats = route.getStats();
+        if (stats != null && stats.getElevationProfile() != null) {
+            return ElevationProfile.decode(stats.getElevationProfile()).downsample(samples);
+        }
+        
+        RouteMetricsPipeline profilePipeline = new RouteMetricsPipeline(
+                List.of(RouteMetrics.elevationProfile(() -> Math.min(samples, profileSamples))));
+        RouteStats measured = profilePipeline.run(route, points.get(), new RouteStats());
+        log.debug("Measured elevation profile of route {} on the fly", route.getId());
+        return ElevationProfile.decode(measured.getElevationProfile());
+    }
+    
+    /**
+     * Start incremental statistics for callers that see points one at a time, such as streaming imports
+     */
+    public Accumulator newAccumulator(Route route) {
+        return new Accumulator(pipeline.start(route));
+    }
+    
+    /**
+     * Store the accumulated statistics and set distance, elevation gain, estimated duration and bounding box from them
+     */
+    public void applyStatistics(Route route, Accumulator accumulator) {
+        // The points were measured while they streamed in; only the final stages are timed here
+        long started = System.nanoTime();
+        RouteStats stats = accumulator.pass.finish(route.getStats() != null ? route.getStats() : newStats());
+        routeMeters.recordStatistics(RouteMeters.STREAMED_PASS, System.nanoTime() - started);
+        route.setStats(stats);
+        
+        route.setTotalDistance(stats.getDistance());
+        route.setTotalElevationGain(stats.getElevationGain());
+        route.setSmoothedElevationGain(stats.getSmoothedElevationGain());
+        route.setEstimatedDuration(stats.getEstimatedDuration());
+        applyBoundingBox(route, stats);
+        
+        log.debug("Applied accumulated route statistics - Distance: {}m, Elevation gain: {}m, Duration: {}s",
+                route.getTotalDistance(), route.getTotalElevationGain(), route.getEstimatedDuration());
+    }
+    
     /**
      * Calculate distance between two points using Haversine formula
      */
@@ -148,50 +261,78 @@ public class RouteStatisticsService {
      * Calculate estimated duration based on route type and characteristics
      */
     private long calculateEstimatedDuration(Route route) {
-        if (route.getTotalDistance() == null) {
-            return 0L;
+        Double elevationGain = route.getSmoothedElevationGain() != null
+                ? route.getSmoothedElevationGain()
+                : route.getTotalElevationGain();
+        return RouteMetrics.estimateDuration(route.getRouteType(), route.getTotalDistance(), elevationGain);
+    }
+    
+    private ElevationSmoother.Settings elevationSmoothing() {
+        return new ElevationSmoother.Settings(elevationFilter, elevationMedianWindow, elevationHysteresis,
+                kalmanProcessNoise, kalmanMeasurementNoise);
+    }
+    
+    private void applyTotals(Route route, RouteStats stats) {
+        route.setTotalDistance(stats.getDistance());
+        route.setTotalElevationGain(stats.getElevationGain());
+        route.setEstimatedDuration(stats.getEstimatedDuration());
+        
+        log.debug("Calculated route statistics - Distance: {}m, Elevation gain: {}m, loss: {}m, max grade: {}%, Duration: {}s", 
+                stats.getDistance(), stats.getElevationGain(), stats.getElevationLoss(), stats.getMaxGrade(),
+                route.getEstimatedDuration());
+    }
+    
+    private RouteStats storeFullPass(Route route, UnaryOperator<RouteStats> fullPass) {
+        RouteStats stats = route.getStats() != null ? route.getStats() : newStats();
+        long started = System.nanoTime();
+        fullPass.apply(stats);
+        routeMeters.recordStatistics(RouteMeters.FULL_PASS, System.nanoTime() - started);
+        route.setStats(stats);
+        route.setSmoothedElevationGain(stats.getSmoothedElevationGain());
+        applyBoundingBox(route, stats);
+        return stats;
+    }
+    
+    private RouteStats newStats() {
+        RouteStats stats = new RouteStats();
+        stats.setId(TimeOrderedUuid.next());
+        return stats;
+    }
+    
+    private void applyBoundingBox(Route route, RouteStats stats) {
+        route.setMinLatitude(stats.getMinLatitude());
+        route.setMaxLatitude(stats.getMaxLatitude());
+        route.setMinLongitude(stats.getMinLongitude());
+        route.setMaxLongitude(stats.getMaxLongitude());
+    }
+    
+    /**
+     * A pipeline pass for callers that see points one at a time: points on the route line count towards
+     * every metric, waypoints off the line only towards the bounding box.
+     */
+    public static class Accumulator {
+        private final RouteMetricsPipeline.Pass pass;
+        
+        private Accumulator(RouteMetricsPipeline.Pass pass) {
+            this.pass = pass;
         }
         
-        double distanceKm = route.getTotalDistance() / 1000.0;
-        double elevationGainKm = (route.getTotalElevationGain() != null ? route.getTotalElevationGain() : 0.0) / 1000.0;
-        
-        // Base speed in km/h depending on route type
-        double baseSpeed = switch (route.getRouteType()) {
-            case CYCLING -> 25.0;
-            case MOUNTAIN_BIKING -> 15.0;
-            case ROAD_CYCLING -> 35.0;
-            case GRAVEL -> 20.0;
-            case E_BIKE -> 30.0;
-            case HIKING -> 4.0;
-            case RUNNING -> 10.0;
-            case WALKING -> 3.0;
-            default -> 25.0; // Default to cycling
-        };
-        
-        // Adjust for elevation gain
-        double adjustedDistance = distanceKm;
-        switch (route.getRouteType()) {
-            case HIKING, WALKING -> {
-                // Naismith's rule: Add 1 hour for every 600m of elevation gain
-                adjustedDistance += elevationGainKm * 1000 / 600 * baseSpeed;
-            }
-            case CYCLING, MOUNTAIN_BIKING, GRAVEL -> {
-                // Cycling: Add time for elevation gain (less impact than hiking)
-                adjustedDistance += elevationGainKm * 1000 / 1000 * baseSpeed; // 1 hour per 1000m gain
-            }
-            case ROAD_CYCLING -> {
-                // Road cycling: Minimal elevation impact due to higher speeds
-                adjustedDistance += elevationGainKm * 1000 / 1500 * baseSpeed; // 1 hour per 1500m gain
-            }
-            case E_BIKE -> {
-                // E-bike: Very minimal elevation impact
-                adjustedDistance += elevationGainKm * 1000 / 2000 * baseSpeed; // 1 hour per 2000m gain
-            }
+        /**
+         * Add a point on the route line
+         */
+        public void addTrackPoint(RoutePoint point) {
+            pass.add(point);
+        }
+        
+        /**
+         * Add a point that only extends the bounding box, such as a waypoint off the route line
+         */
+        public void addPoint(double latitude, double longitude) {
+            pass.addOffTrack(latitude, longitude);
         }
         
-        // Calculate duration in seconds
-        return Math.round((adjustedDistance / baseSpeed) * 3600);
+        public int getPointCount() {
+            return pass.getPointCount();
+        }
     }
-    
-
-}
\ No newline at end of file
+}
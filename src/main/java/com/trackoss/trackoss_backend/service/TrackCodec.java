@@ -0,0 +1,282 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+
+import java.util.Arrays;
+
+/**
+ * Binary format for {@link PackedTrack}, stored in routes.track_data.
+ *
+ * Layout (version 1): version byte, point count (varint), flags byte, then one column per field.
+ * Coordinates are fixed point 1e-7 degrees, elevations centimetres and timestamps epoch milliseconds;
+ * each column is delta encoded and written as zigzag varints. Optional columns carry a presence
+ * bitmap when some points have no value. Point types are run-length encoded.
+ */
+public final class TrackCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final double COORDINATE_SCALE = 1e7; // ~1 cm at the equator
+    private static final double ELEVATION_SCALE = 100.0; // centimetres
+
+    private static final int FLAG_ELEVATION = 1;
+    private static final int FLAG_ELEVATION_GAPS = 1 << 1;
+    private static final int FLAG_TIMESTAMP = 1 << 2;
+    private static final int FLAG_TIMESTAMP_GAPS = 1 << 3;
+
+    private static final RoutePoint.PointType[] POINT_TYPES = RoutePoint.PointType.values();
+
+    private TrackCodec() {
+    }
+
+    public static byte[] encode(PackedTrack track) {
+        int size = track.size();
+        Writer writer = new Writer(size * 6 + 16);
+
+        int elevationCount = 0;
+        int timestampCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (track.hasElevation(i)) {
+                elevationCount++;
+            }
+            if (track.hasTimestamp(i)) {
+                timestampCount++;
+            }
+        }
+
+        int flags = 0;
+        if (elevationCount > 0) {
+            flags |= FLAG_ELEVATION;
+            if (elevationCount < size) {
+                flags |= FLAG_ELEVATION_GAPS;
+            }
+        }
+        if (timestampCount > 0) {
+            flags |= FLAG_TIMESTAMP;
+            if (timestampCount < size) {
+                flags |= FLAG_TIMESTAMP_GAPS;
+            }
+        }
+
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeVarint(size);
+        writer.writeByte(flags);
+
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(track.latitude(i) * COORDINATE_SCALE);
+            writer.writeSignedVarint(value - previous);
+            previous = value;
+        }
+
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(track.longitude(i) * COORDINATE_SCALE);
+            writer.writeSignedVarint(value - previous);
+            previous = value;
+        }
+
+        if ((flags & FLAG_ELEVATION) != 0) {
+            if ((flags & FLAG_ELEVATION_GAPS) != 0) {
+                byte[] presence = new byte[(size + 7) / 8];
+                for (int i = 0; i < size; i++) {
+                    if (track.hasElevation(i)) {
+                        presence[i >> 3] |= (byte) (1 << (i & 7));
+                    }
+                }
+                writer.writeBytes(presence);
+            }
+            previous = 0;
+            for (int i = 0; i < size; i++) {
+                if (track.hasElevation(i)) {
+                    long value = Math.round(track.elevation(i) * ELEVATION_SCALE);
+                    writer.writeSignedVarint(value - previous);
+                    previous = value;
+                }
+            }
+        }
+
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            if ((flags & FLAG_TIMESTAMP_GAPS) != 0) {
+                byte[] presence = new byte[(size + 7) / 8];
+                for (int i = 0; i < size; i++) {
+                    if (track.hasTimestamp(i)) {
+                        presence[i >> 3] |= (byte) (1 << (i & 7));
+                    }
+                }
+                writer.writeBytes(presence);
+            }
+            previous = 0;
+            for (int i = 0; i < size; i++) {
+                if (track.hasTimestamp(i)) {
+                    long value = track.timestamp(i);
+                    writer.writeSignedVarint(value - previous);
+                    previous = value;
+                }
+            }
+        }
+
+        int i = 0;
+        while (i < size) {
+            RoutePoint.PointType type = track.pointType(i);
+            int run = 1;
+            while (i + run < size && track.pointType(i + run) == type) {
+                run++;
+            }
+            writer.writeVarint(type.ordinal());
+            writer.writeVarint(run);
+            i += run;
+        }
+
+        return writer.toByteArray();
+    }
+
+    public static PackedTrack decode(byte[] data) {
+        Reader reader = new Reader(data);
+
+        int version = reader.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported track encoding version: " + version);
+        }
+        int size = (int) reader.readVarint();
+        int flags = reader.readByte();
+
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        double[] elevations = new double[size];
+        long[] timestamps = new long[size];
+
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value += reader.readSignedVarint();
+            latitudes[i] = value / COORDINATE_SCALE;
+        }
+
+        value = 0;
+        for (int i = 0; i < size; i++) {
+            value += reader.readSignedVarint();
+            longitudes[i] = value / COORDINATE_SCALE;
+        }
+
+        Arrays.fill(elevations, Double.NaN);
+        if ((flags & FLAG_ELEVATION) != 0) {
+            byte[] presence = (flags & FLAG_ELEVATION_GAPS) != 0 ? reader.readBytes((size + 7) / 8) : null;
+            value = 0;
+            for (int i = 0; i < size; i++) {
+                if (presence == null || (presence[i >> 3] & (1 << (i & 7))) != 0) {
+                    value += reader.readSignedVarint();
+                    elevations[i] = value / ELEVATION_SCALE;
+                }
+            }
+        }
+
+        Arrays.fill(timestamps, PackedTrack.NO_TIMESTAMP);
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            byte[] presence = (flags & FLAG_TIMESTAMP_GAPS) != 0 ? reader.readBytes((size + 7) / 8) : null;
+            value = 0;
+            for (int i = 0; i < size; i++) {
+                if (presence == null || (presence[i >> 3] & (1 << (i & 7))) != 0) {
+                    value += reader.readSignedVarint();
+                    timestamps[i] = value;
+                }
+            }
+        }
+
+        byte[] pointTypes = new byte[size];
+        int index = 0;
+        while (index < size) {
+            int ordinal = (int) reader.readVarint();
+            if (ordinal >= POINT_TYPES.length) {
+                throw new IllegalArgumentException("Unknown point type in track data: " + ordinal);
+            }
+            int run = (int) reader.readVarint();
+            Arrays.fill(pointTypes, index, Math.min(index + run, size), (byte) ordinal);
+            index += run;
+        }
+
+        return new PackedTrack(size, latitudes, longitudes, elevations, timestamps, pointTypes);
+    }
+
+    static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeSignedVarint(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(position + additional, buffer.length * 2));
+            }
+        }
+    }
+
+    static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        long readSignedVarint() {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        long readVarint() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed varint in track data");
+                }
+            }
+        }
+    }
+}
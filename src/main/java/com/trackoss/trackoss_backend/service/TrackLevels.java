@@ -0,0 +1,106 @@
+package com.trackoss.trackoss_backend.service;
+
+import java.util.BitSet;
+
+/**
+ * Precomputed simplification levels of a route, stored in routes.track_levels.
+ *
+ * Each level is a tolerance in metres and the sequence positions of the points kept at that tolerance.
+ * Layout (version 1): version byte, point count the levels were built for (varint), level count (varint),
+ * then per level the tolerance in centimetres (varint), the number of kept points (varint) and the
+ * kept positions as delta varints. Levels are ordered by ascending tolerance.
+ */
+public final class TrackLevels {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private final int pointCount;
+    private final double[] tolerances;
+    private final int[][] positions;
+
+    public TrackLevels(int pointCount, double[] tolerances, int[][] positions) {
+        this.pointCount = pointCount;
+        this.tolerances = tolerances;
+        this.positions = positions;
+    }
+
+    public int pointCount() {
+        return pointCount;
+    }
+
+    public int levelCount() {
+        return tolerances.length;
+    }
+
+    public double tolerance(int level) {
+        return tolerances[level];
+    }
+
+    public int[] positions(int level) {
+        return positions[level];
+    }
+
+    /**
+     * The coarsest level whose tolerance does not exceed the requested one, or -1 when the request
+     * is finer than every level and needs the full track.
+     */
+    public int levelFor(double tolerance) {
+        int level = -1;
+        for (int i = 0; i < tolerances.length; i++) {
+            if (tolerances[i] <= tolerance) {
+                level = i;
+            }
+        }
+        return level;
+    }
+
+    public BitSet toBitSet(int level) {
+        BitSet kept = new BitSet(pointCount);
+        for (int position : positions[level]) {
+            kept.set(position);
+        }
+        return kept;
+    }
+
+    public byte[] encode() {
+        TrackCodec.Writer writer = new TrackCodec.Writer(16 + tolerances.length * 8);
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeVarint(pointCount);
+        writer.writeVarint(tolerances.length);
+        for (int level = 0; level < tolerances.length; level++) {
+            writer.writeVarint(Math.round(tolerances[level] * 100.0));
+            writer.writeVarint(positions[level].length);
+            int previous = 0;
+            for (int position : positions[level]) {
+                writer.writeVarint(position - previous);
+                previous = position;
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static TrackLevels decode(byte[] data) {
+        TrackCodec.Reader reader = new TrackCodec.Reader(data);
+
+        int version = reader.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported track levels version: " + version);
+        }
+        int pointCount = (int) reader.readVarint();
+        int levelCount = (int) reader.readVarint();
+
+        double[] tolerances = new double[levelCount];
+        int[][] positions = new int[levelCount][];
+        for (int level = 0; level < levelCount; level++) {
+            tolerances[level] = reader.readVarint() / 100.0;
+            int[] kept = new int[(int) reader.readVarint()];
+            int position = 0;
+            for (int i = 0; i < kept.length; i++) {
+                position += (int) reader.readVarint();
+                kept[i] = position;
+            }
+            positions[level] = kept;
+        }
+        return new TrackLevels(pointCount, tolerances, positions);
+    }
+}
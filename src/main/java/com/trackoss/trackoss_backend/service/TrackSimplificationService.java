@@ -0,0 +1,142 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Supplier;
+
+/**
+ * Builds and serves simplified versions of a route's track for map display.
+ *
+ * Levels for the configured tolerances are computed when points are written and stored with the route.
+ * Reads pick the coarsest stored level within the requested tolerance; routes without usable levels
+ * are simplified on the fly. Waypoints are always kept and are not part of the simplified line.
+ * Statistics never see simplified points, they are calculated from the full track.
+ */
+@Service
+@Slf4j
+public class TrackSimplificationService {
+
+    // Web Mercator metres per pixel at zoom 0 on the equator, for 256 pixel tiles
+    private static final double METRES_PER_PIXEL_AT_ZOOM_0 = 156_543.03392;
+
+    public static final int MAX_ZOOM = 24;
+
+    @Value("${app.routes.simplification.algorithm:DOUGLAS_PEUCKER}")
+    private TrackSimplifier.Algorithm algorithm = TrackSimplifier.Algorithm.DOUGLAS_PEUCKER;
+
+    @Value("${app.routes.simplification.levels:2,10,50,250}")
+    private double[] levelTolerances = {2, 10, 50, 250};
+
+    /**
+     * Points kept at a tolerance, as a set of sequence positions
+     */
+    public record Simplification(double tolerance, BitSet kept) {
+    }
+
+    /**
+     * Compute the configured levels from the route's points in sequence order and store them on the route.
+     */
+    public void storeLevels(Route route, PackedTrack points) {
+        double[] tolerances = levelTolerances.clone();
+        Arrays.sort(tolerances);
+
+        double[] ranks = rank(points);
+        int[][] positions = new int[tolerances.length][];
+        for (int level = 0; level < tolerances.length; level++) {
+            positions[level] = TrackSimplifier.select(ranks, points.size(), tolerances[level]);
+        }
+
+        TrackLevels levels = new TrackLevels(points.size(), tolerances, positions);
+        route.setTrackLevels(levels.encode());
+        log.debug("Stored {} simplification levels for {} points, coarsest keeps {}",
+                tolerances.length, points.size(), positions.length > 0 ? positions[positions.length - 1].length : 0);
+    }
+
+    /**
+     * Select the points to return for a tolerance in metres. Returns null when the full track is needed.
+     * The points are only requested when the route has no usable stored levels.
+     */
+    public Simplification simplify(Route route, double tolerance, Supplier<PackedTrack> points) {
+        TrackLevels levels = storedLevels(route);
+        if (levels != null) {
+            int level = levels.levelFor(tolerance);
+            return level >= 0 ? new Simplification(levels.tolerance(level), levels.toBitSet(level)) : null;
+        }
+
+        PackedTrack track = points.get();
+        int[] kept = TrackSimplifier.select(rank(track), track.size(), tolerance);
+        log.debug("Simplified route {} on the fly: {} of {} points at {}m", route.getId(), kept.length, track.size(), tolerance);
+
+        BitSet positions = new BitSet(track.size());
+        for (int position : kept) {
+            positions.set(position);
+        }
+        return new Simplification(tolerance, positions);
+    }
+
+    /**
+     * Tolerance of one screen pixel at a Web Mercator zoom level, at the latitude of the route's centre.
+     */
+    public double toleranceForZoom(Route route, int zoom) {
+        double latitude = route.getMinLatitude() != null && route.getMaxLatitude() != null
+                ? (route.getMinLatitude() + route.getMaxLatitude()) / 2.0
+                : 0.0;
+        return METRES_PER_PIXEL_AT_ZOOM_0 * Math.cos(Math.toRadians(latitude)) / Math.pow(2, zoom);
+    }
+
+    private TrackLevels storedLevels(Route route) {
+        if (route.getTrackLevels() == null) {
+            return null;
+        }
+        TrackLevels levels = TrackLevels.decode(route.getTrackLevels());
+        // Levels written before the points last changed are ignored until they are rebuilt
+        if (route.getPointCount() != null && levels.pointCount() != route.getPointCount()) {
+            return null;
+        }
+        return levels;
+    }
+
+    /**
+     * Rank the line formed by all non-waypoint points; waypoints rank infinite so every level keeps them.
+     */
+    private double[] rank(PackedTrack points) {
+        int size = points.size();
+        int lineSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (points.pointType(i) != RoutePoint.PointType.WAYPOINT) {
+                lineSize++;
+            }
+        }
+
+        if (lineSize == size) {
+            return TrackSimplifier.rank(algorithm, points.latitudes(), points.longitudes(), size);
+        }
+
+        int[] lineIndices = new int[lineSize];
+        double[] latitudes = new double[lineSize];
+        double[] longitudes = new double[lineSize];
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (points.pointType(i) != RoutePoint.PointType.WAYPOINT) {
+                lineIndices[next] = i;
+                latitudes[next] = points.latitude(i);
+                longitudes[next] = points.longitude(i);
+                next++;
+            }
+        }
+
+        double[] lineRanks = TrackSimplifier.rank(algorithm, latitudes, longitudes, lineSize);
+        double[] ranks = new double[size];
+        Arrays.fill(ranks, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < lineSize; i++) {
+            ranks[lineIndices[i]] = lineRanks[i];
+        }
+        return ranks;
+    }
+}
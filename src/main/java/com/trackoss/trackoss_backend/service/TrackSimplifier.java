@@ -0,0 +1,262 @@
+package com.trackoss.trackoss_backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Line simplification over primitive coordinate arrays.
+ *
+ * Instead of simplifying for a single tolerance, both algorithms rank every point once: the
+ * simplified line for tolerance t is the points whose rank is greater than t, so any number of
+ * levels can be cut from one run. Ranks are in metres and the first and last point rank infinite.
+ * Coordinates are projected onto a local equirectangular plane, which is accurate enough over the
+ * extent of a single route.
+ */
+public final class TrackSimplifier {
+
+    public enum Algorithm {
+        DOUGLAS_PEUCKER,  // rank = maximum deviation from the simplified line
+        VISVALINGAM       // rank = square root of the effective triangle area
+    }
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+
+    private TrackSimplifier() {
+    }
+
+    public static double[] rank(Algorithm algorithm, double[] latitudes, double[] longitudes, int size) {
+        return algorithm == Algorithm.VISVALINGAM
+                ? visvalingamRanks(latitudes, longitudes, size)
+                : douglasPeuckerRanks(latitudes, longitudes, size);
+    }
+
+    /**
+     * Douglas–Peucker ranks. A point's rank is its distance to the chord it split, capped by the rank
+     * of the split above it; keeping the points ranked above t gives exactly the Douglas–Peucker line for t.
+     */
+    public static double[] douglasPeuckerRanks(double[] latitudes, double[] longitudes, int size) {
+        double[] ranks = new double[size];
+        if (size == 0) {
+            return ranks;
+        }
+        double[] x = new double[size];
+        double[] y = new double[size];
+        project(latitudes, longitudes, size, x, y);
+
+        ranks[0] = Double.POSITIVE_INFINITY;
+        ranks[size - 1] = Double.POSITIVE_INFINITY;
+
+        // Explicit stack of (first, last, parent rank), so long tracks cannot overflow the call stack
+        int[] firsts = new int[size];
+        int[] lasts = new int[size];
+        double[] parents = new double[size];
+        int top = 0;
+        firsts[0] = 0;
+        lasts[0] = size - 1;
+        parents[0] = Double.POSITIVE_INFINITY;
+        top++;
+
+        while (top > 0) {
+            top--;
+            int first = firsts[top];
+            int last = lasts[top];
+            double parent = parents[top];
+            if (last - first < 2) {
+                continue;
+            }
+
+            int split = -1;
+            double maxDistance = -1.0;
+            for (int i = first + 1; i < last; i++) {
+                double distance = segmentDistanceSquared(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    split = i;
+                }
+            }
+
+            double rank = Math.min(Math.sqrt(maxDistance), parent);
+            ranks[split] = rank;
+
+            firsts[top] = first;
+            lasts[top] = split;
+            parents[top] = rank;
+            top++;
+            firsts[top] = split;
+            lasts[top] = last;
+            parents[top] = rank;
+            top++;
+        }
+        return ranks;
+    }
+
+    /**
+     * Visvalingam–Whyatt ranks. Points are removed smallest effective area first; a point's rank never
+     * drops below the one removed before it, so thresholds stay consistent with the removal order.
+     */
+    public static double[] visvalingamRanks(double[] latitudes, double[] longitudes, int size) {
+        double[] ranks = new double[size];
+        if (size == 0) {
+            return ranks;
+        }
+        double[] x = new double[size];
+        double[] y = new double[size];
+        project(latitudes, longitudes, size, x, y);
+
+        ranks[0] = Double.POSITIVE_INFINITY;
+        ranks[size - 1] = Double.POSITIVE_INFINITY;
+        if (size < 3) {
+            return ranks;
+        }
+
+        int[] previous = new int[size];
+        int[] next = new int[size];
+        double[] areas = new double[size];
+        for (int i = 0; i < size; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+        }
+
+        AreaHeap heap = new AreaHeap(size, areas);
+        for (int i = 1; i < size - 1; i++) {
+            areas[i] = triangleArea(x, y, i - 1, i, i + 1);
+            heap.add(i);
+        }
+
+        double removedArea = 0.0;
+        while (!heap.isEmpty()) {
+            int index = heap.poll();
+            removedArea = Math.max(removedArea, areas[index]);
+            ranks[index] = Math.sqrt(removedArea);
+
+            int before = previous[index];
+            int after = next[index];
+            next[before] = after;
+            previous[after] = before;
+
+            if (before > 0) {
+                areas[before] = triangleArea(x, y, previous[before], before, after);
+                heap.update(before);
+            }
+            if (after < size - 1) {
+                areas[after] = triangleArea(x, y, before, after, next[after]);
+                heap.update(after);
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Indices of the points that remain at the given tolerance, in order.
+     */
+    public static int[] select(double[] ranks, int size, double tolerance) {
+        int[] selected = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (ranks[i] > tolerance) {
+                selected[count++] = i;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private static void project(double[] latitudes, double[] longitudes, int size, double[] x, double[] y) {
+        double cosLatitude = Math.cos(Math.toRadians(latitudes[0]));
+        for (int i = 0; i < size; i++) {
+            x[i] = Math.toRadians(longitudes[i]) * cosLatitude * EARTH_RADIUS_M;
+            y[i] = Math.toRadians(latitudes[i]) * EARTH_RADIUS_M;
+        }
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0.0;
+        t = Math.max(0.0, Math.min(1.0, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+
+    private static double triangleArea(double[] x, double[] y, int a, int b, int c) {
+        return Math.abs((x[b] - x[a]) * (y[c] - y[a]) - (x[c] - x[a]) * (y[b] - y[a])) / 2.0;
+    }
+
+    /**
+     * Binary min-heap of point indices keyed by their current area, with positions tracked so an
+     * index can be moved when its area changes.
+     */
+    private static final class AreaHeap {
+        private final int[] heap;
+        private final int[] positions;
+        private final double[] areas;
+        private int size;
+
+        AreaHeap(int capacity, double[] areas) {
+            this.heap = new int[capacity];
+            this.positions = new int[capacity];
+            this.areas = areas;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int index) {
+            heap[size] = index;
+            positions[index] = size;
+            siftUp(size++);
+        }
+
+        int poll() {
+            int top = heap[0];
+            size--;
+            if (size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
+            }
+            return top;
+        }
+
+        void update(int index) {
+            int position = positions[index];
+            siftUp(position);
+            siftDown(positions[index]);
+        }
+
+        private void siftUp(int position) {
+            int index = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (areas[heap[parent]] <= areas[index]) {
+                    break;
+                }
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(index, position);
+        }
+
+        private void siftDown(int position) {
+            int index = heap[position];
+            int half = size >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                if (child + 1 < size && areas[heap[child + 1]] < areas[heap[child]]) {
+                    child++;
+                }
+                if (areas[index] <= areas[heap[child]]) {
+                    break;
+                }
+                move(heap[child], position);
+                position = child;
+            }
+            move(index, position);
+        }
+
+        private void move(int index, int position) {
+            heap[position] = index;
+            positions[index] = position;
+        }
+    }
+}
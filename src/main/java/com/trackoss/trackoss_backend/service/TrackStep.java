@@ -0,0 +1,98 @@
+package com.trackoss.trackoss_backend.service;
+
+/**
+ * The point a metrics pass is at, together with the segment that led to it. The pipeline computes the
+ * segment values once per point and hands the same instance to every stage, so stages must not keep it.
+ *
+ * Off-track points, such as waypoints beside the line, only have a position; they have no segment and
+ * do not move the line forward.
+ */
+public final class TrackStep {
+
+    int index;
+    boolean onTrack;
+    boolean first;
+    double latitude;
+    double longitude;
+    double elevation;
+    long timestamp;
+    double segmentDistance;
+    double distance;
+    double elevationChange;
+    long elapsedMillis;
+
+    TrackStep() {
+    }
+
+    /**
+     * Position of the point among all points of the pass
+     */
+    public int index() {
+        return index;
+    }
+
+    public boolean isOnTrack() {
+        return onTrack;
+    }
+
+    /**
+     * True for the first point of the line, which has no segment before it
+     */
+    public boolean isFirst() {
+        return first;
+    }
+
+    public double latitude() {
+        return latitude;
+    }
+
+    public double longitude() {
+        return longitude;
+    }
+
+    /**
+     * Elevation in metres, NaN when the point has none
+     */
+    public double elevation() {
+        return elevation;
+    }
+
+    public boolean hasElevation() {
+        return !Double.isNaN(elevation);
+    }
+
+    /**
+     * Epoch milliseconds, {@link PackedTrack#NO_TIMESTAMP} when the point has none
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Metres from the previous point of the line
+     */
+    public double segmentDistance() {
+        return segmentDistance;
+    }
+
+    /**
+     * Metres along the line up to this point
+     */
+    public double distance() {
+        return distance;
+    }
+
+    /**
+     * Elevation difference to the previous point of the line, NaN unless both have an elevation
+     */
+    public double elevationChange() {
+        return elevationChange;
+    }
+
+    /**
+     * Milliseconds since the previous point of the line, -1 unless both have a timestamp
+     */
+    public long elapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,205 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Decides how a route's points are persisted and reassembles them on read.
+ *
+ * ROWS, the default, keeps every point as a route_points row. In the opt-in PACKED mode plain track points
+ * are encoded into {@link Route#getTrackData()}, and named points remain rows: every waypoint, and any
+ * other point carrying a name or description, since the encoding only has position, elevation, time and
+ * type columns. Rows keep their position in the overall sequence; packed points fill the remaining sequence
+ * slots in order.
+ */
+@Service
+@Slf4j
+public class TrackStorageService {
+
+    @Value("${app.routes.storage-mode:ROWS}")
+    private Route.StorageMode storageMode = Route.StorageMode.ROWS;
+
+    public Route.StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    public boolean isPacked(Route route) {
+        return route.getStorageMode() == Route.StorageMode.PACKED && route.getTrackData() != null;
+    }
+
+    /**
+     * Move the points currently attached to the route into the configured storage mode.
+     * Call after statistics have been calculated and before the route is saved.
+     */
+    public void storePoints(Route route) {
+        List<RoutePoint> points = new ArrayList<>(route.getRoutePoints());
+
+        if (storageMode != Route.StorageMode.PACKED) {
+            route.setStorageMode(Route.StorageMode.ROWS);
+            route.setTrackData(null);
+            return;
+        }
+
+        PackedTrack track = new PackedTrack(points.size());
+        List<RoutePoint> rows = new ArrayList<>();
+        for (RoutePoint point : points) {
+            if (keepsRow(point)) {
+                rows.add(point);
+            } else {
+                track.add(point);
+            }
+        }
+
+        route.setTrackData(TrackCodec.encode(track));
+        route.setStorageMode(Route.StorageMode.PACKED);
+
+        // Mutate in place so Hibernate's orphan removal sees the packed points disappear
+        route.getRoutePoints().clear();
+        route.getRoutePoints().addAll(rows);
+
+        log.debug("Packed {} track points into {} bytes, {} points kept as rows",
+                track.size(), route.getTrackData().length, rows.size());
+    }
+
+    /**
+     * Whether the point has to be persisted as a route_points row in the configured mode.
+     * For writers that store points incrementally instead of through {@link #storePoints(Route)}.
+     */
+    public boolean storesAsRow(RoutePoint point) {
+        return storageMode != Route.StorageMode.PACKED || keepsRow(point);
+    }
+
+    /**
+     * Whether the point has to be a row of this particular route, whose mode may differ from the configured one.
+     */
+    public boolean storesAsRow(Route route, RoutePoint point) {
+        return !isPacked(route) || keepsRow(point);
+    }
+
+    /**
+     * Attach track points collected by an incremental writer. Their rows, if any, must already be persisted.
+     */
+    public void storePacked(Route route, PackedTrack track) {
+        route.setTrackData(TrackCodec.encode(track));
+        route.setStorageMode(Route.StorageMode.PACKED);
+        log.debug("Packed {} track points into {} bytes", track.size(), route.getTrackData().length);
+    }
+
+    /**
+     * All points of the route in sequence order, regardless of storage mode.
+     * Points decoded from packed storage are transient and have no id.
+     */
+    public List<RoutePoint> readPoints(Route route) {
+        return readPoints(route, route.getRoutePoints());
+    }
+
+    /**
+     * Like {@link #readPoints(Route)}, with the route's rows supplied by the caller, e.g. rows that were
+     * written without going through the route's collection.
+     */
+    public List<RoutePoint> readPoints(Route route, List<RoutePoint> rows) {
+        if (!isPacked(route)) {
+            return rows;
+        }
+
+        PackedPointIterator iterator = new PackedPointIterator(route, TrackCodec.decode(route.getTrackData()), rows);
+        List<RoutePoint> points = new ArrayList<>(iterator.total);
+        iterator.forEachRemaining(points::add);
+        return points;
+    }
+
+    /**
+     * Iterate the points of a packed route without materializing them all at once.
+     * Only the decoded primitive columns are held in memory; each RoutePoint is created on demand.
+     */
+    public Iterator<RoutePoint> iteratePackedPoints(Route route) {
+        if (!isPacked(route)) {
+            throw new IllegalArgumentException("Route " + route.getId() + " is not stored in packed mode");
+        }
+        return new PackedPointIterator(route, TrackCodec.decode(route.getTrackData()), route.getRoutePoints());
+    }
+
+    /**
+     * Collect a route's route_points rows the way packed storage holds them: plain track points into the
+     * returned track, named points into namedRows. Lets a reader copy a row-stored route into memory compactly
+     * and end its transaction before the points are written out, see {@link #iteratePoints}.
+     */
+    public PackedTrack packRows(Iterator<RoutePoint> rows, List<RoutePoint> namedRows) {
+        PackedTrack track = new PackedTrack();
+        while (rows.hasNext()) {
+            RoutePoint point = rows.next();
+            if (keepsRow(point)) {
+                namedRows.add(point);
+            } else {
+                track.add(point);
+            }
+        }
+        return track;
+    }
+
+    /**
+     * Iterate points held as a packed track plus the rows of named points, by sequence slot, like the points
+     * of a packed route. Nothing is read from the database.
+     */
+    public Iterator<RoutePoint> iteratePoints(Route route, PackedTrack track, List<RoutePoint> namedRows) {
+        return new PackedPointIterator(route, track, namedRows);
+    }
+
+    // Waypoints are always rows, so they can be listed without decoding the track; text cannot be packed
+    private boolean keepsRow(RoutePoint point) {
+        return point.getPointType() == RoutePoint.PointType.WAYPOINT
+                || point.getName() != null
+                || point.getDescription() != null;
+    }
+
+    /**
+     * Merges packed points with the rows kept for named points, by sequence slot.
+     */
+    private static final class PackedPointIterator implements Iterator<RoutePoint> {
+        private final Route route;
+        private final PackedTrack track;
+        private final List<RoutePoint> rows;
+        private final int total;
+        private int sequence;
+        private int packedIndex;
+        private int rowIndex;
+
+        PackedPointIterator(Route route, PackedTrack track, List<RoutePoint> rows) {
+            this.route = route;
+            this.track = track;
+            this.rows = rows;
+            this.total = track.size() + rows.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return sequence < total;
+        }
+
+        @Override
+        public RoutePoint next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RoutePoint point;
+            if (rowIndex < rows.size()
+                    && (rows.get(rowIndex).getSequenceOrder() == sequence || packedIndex >= track.size())) {
+                point = rows.get(rowIndex++);
+            } else {
+                point = track.toRoutePoint(packedIndex++);
+                point.setSequenceOrder(sequence);
+                point.setRoute(route);
+            }
+            sequence++;
+            return point;
+        }
+    }
+}
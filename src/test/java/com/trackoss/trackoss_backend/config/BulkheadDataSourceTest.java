@@ -0,0 +1,92 @@
+package com.trackoss.trackoss_backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BulkheadDataSourceTest {
+
+    private DataSource target;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    void getConnection_ReleasesPermitOnceWhenClosed() throws Exception {
+        // Arrange
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 2, 10, Duration.ofSeconds(1));
+
+        // Act
+        Connection connection = dataSource.getConnection();
+        int whileOpen = dataSource.getAvailablePermits();
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(1, whileOpen);
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void getConnection_WhenAllPermitsHeld_TimesOutWithDatabaseBusy() throws Exception {
+        // Arrange
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, 10, Duration.ofMillis(50));
+        Connection held = dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(BulkheadDataSource.DatabaseBusyException.class, dataSource::getConnection);
+        verify(target, times(1)).getConnection();
+
+        held.close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_WhenQueueIsFull_RejectsImmediately() throws Exception {
+        // Arrange
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, 1, Duration.ofSeconds(10));
+        Connection held = dataSource.getConnection();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        long started = System.nanoTime();
+        assertThrows(BulkheadDataSource.DatabaseBusyException.class, dataSource::getConnection);
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+
+        // The queued caller gets the connection once it is handed back
+        held.close();
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void getConnection_WhenTargetFails_ReturnsPermit() throws Exception {
+        // Arrange
+        when(target.getConnection()).thenThrow(new SQLException("pool down"));
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, 1, 10, Duration.ofSeconds(1));
+
+        // Act & Assert
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
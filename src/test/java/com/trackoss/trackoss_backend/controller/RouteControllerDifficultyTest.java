@@ -4,6 +4,7 @@ package com.trackoss.trackoss_backend.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
 import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.service.GeoJsonService;
 import com.trackoss.trackoss_backend.service.GpxService;
@@ -55,6 +56,7 @@ class RouteControllerDifficultyTest {
 
     private RouteCreateRequest validRouteRequest;
     private RouteResponse mockRouteResponse;
+    private RouteSummaryResponse mockRouteSummary;
     private UUID testRouteId;
 
     @BeforeEach
@@ -123,6 +125,16 @@ class RouteControllerDifficultyTest {
         pointResponses.add(pointResponse2);
 
         mockRouteResponse.setPoints(pointResponses);
+
+        mockRouteSummary = new RouteSummaryResponse();
+        mockRouteSummary.setId(testRouteId);
+        mockRouteSummary.setName("Test Route");
+        mockRouteSummary.setDescription("A test cycling route");
+        mockRouteSummary.setRouteType(Route.RouteType.CYCLING);
+        mockRouteSummary.setIsPublic(true);
+        mockRouteSummary.setDifficulty(3);
+        mockRouteSummary.setTotalDistance(1000.0);
+        mockRouteSummary.setPointCount(2);
     }
 
     @Test
@@ -130,8 +142,8 @@ class RouteControllerDifficultyTest {
         // Arrange
         Integer difficulty = 3;
         Pageable pageable = PageRequest.of(0, 20);
-        List<RouteResponse> routes = Collections.singletonList(mockRouteResponse);
-        Page<RouteResponse> routePage = new PageImpl<>(routes, pageable, 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(mockRouteSummary);
+        Page<RouteSummaryResponse> routePage = new PageImpl<>(routes, pageable, 1);
 
         when(routeService.getRoutesWithFilters(
                 eq(difficulty), isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
@@ -162,8 +174,8 @@ class RouteControllerDifficultyTest {
         Boolean publicOnly = true;
         Pageable pageable = PageRequest.of(0, 20);
 
-        List<RouteResponse> routes = Collections.singletonList(mockRouteResponse);
-        Page<RouteResponse> routePage = new PageImpl<>(routes, pageable, 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(mockRouteSummary);
+        Page<RouteSummaryResponse> routePage = new PageImpl<>(routes, pageable, 1);
 
         when(routeService.getRoutesWithFilters(
                 eq(difficulty), eq(routeType), eq(minDistance), eq(maxDistance),
@@ -1,11 +1,22 @@
 package com.trackoss.trackoss_backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trackoss.trackoss_backend.config.BulkheadDataSource;
+import com.trackoss.trackoss_backend.dto.ElevationProfileResponse;
+import com.trackoss.trackoss_backend.dto.ImportJobResponse;
 import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RouteCursor;
+import com.trackoss.trackoss_backend.dto.RoutePatchRequest;
+import com.trackoss.trackoss_backend.dto.RoutePointsPatchRequest;
 import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSliceResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.service.GeoJsonService;
 import com.trackoss.trackoss_backend.service.GpxService;
+import com.trackoss.trackoss_backend.service.ImportJobService;
+import com.trackoss.trackoss_backend.service.RouteImportService;
+import com.trackoss.trackoss_backend.service.RoutePointEditService;
 import com.trackoss.trackoss_backend.service.RouteService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,13 +33,20 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import static org.junit.jupiter.api.Assertions.*;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.security.core.Authentication;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 
 import static org.hamcrest.Matchers.containsString;
@@ -61,14 +79,24 @@ class RouteControllerTest {
     @MockBean
     private GpxService gpxService;
 
+    @MockBean
+    private RouteImportService routeImportService;
+
     @MockBean
     private GeoJsonService geoJsonService;
 
+    @MockBean
+    private ImportJobService importJobService;
+
+    @MockBean
+    private RoutePointEditService routePointEditService;
+
     @Autowired
     private RouteController routeController;
 
     private RouteCreateRequest validRouteRequest;
     private RouteResponse mockRouteResponse;
+    private RouteSummaryResponse mockRouteSummary;
     private UUID testRouteId;
 
     @BeforeEach
@@ -111,6 +139,15 @@ class RouteControllerTest {
         mockRouteResponse.setTotalElevationGain(100.0);
         mockRouteResponse.setEstimatedDuration(3600L);
         mockRouteResponse.setPointCount(2);
+
+        mockRouteSummary = new RouteSummaryResponse();
+        mockRouteSummary.setId(testRouteId);
+        mockRouteSummary.setName("Test Route");
+        mockRouteSummary.setDescription("A test cycling route");
+        mockRouteSummary.setRouteType(Route.RouteType.CYCLING);
+        mockRouteSummary.setIsPublic(true);
+        mockRouteSummary.setTotalDistance(1000.0);
+        mockRouteSummary.setPointCount(2);
     }
 
     @Test
@@ -183,6 +220,51 @@ class RouteControllerTest {
         verify(routeService).getRoute(testRouteId);
     }
 
+    @Test
+    void getRouteById_ExistingRoute_SendsVersionHeaders() throws Exception {
+        when(routeService.getRoute(testRouteId)).thenReturn(Optional.of(mockRouteResponse));
+
+        mockMvc.perform(get("/api/routes/{id}", testRouteId)
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag",
+                        RouteController.routeEtag(testRouteId, mockRouteResponse.getUpdatedAt(), "json")))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", containsString("no-cache")));
+    }
+
+    @Test
+    void getRouteById_MatchingIfNoneMatch_ReturnsNotModifiedWithoutLoading() throws Exception {
+        LocalDateTime updatedAt = mockRouteResponse.getUpdatedAt();
+        when(routeService.getLastModified(testRouteId)).thenReturn(Optional.of(updatedAt));
+        String etag = RouteController.routeEtag(testRouteId, updatedAt, "json");
+
+        mockMvc.perform(get("/api/routes/{id}", testRouteId)
+                .header("If-None-Match", etag)
+                .with(user("testuser")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        verify(routeService, never()).getRoute(any());
+    }
+
+    @Test
+    void getRouteById_EtagOfOtherRepresentation_ReturnsRoute() throws Exception {
+        LocalDateTime updatedAt = mockRouteResponse.getUpdatedAt();
+        when(routeService.getLastModified(testRouteId)).thenReturn(Optional.of(updatedAt));
+        mockRouteResponse.setSimplificationTolerance(10.0);
+        when(routeService.getRoute(testRouteId, 10.0, null)).thenReturn(Optional.of(mockRouteResponse));
+
+        mockMvc.perform(get("/api/routes/{id}", testRouteId)
+                .param("tolerance", "10")
+                .header("If-None-Match", RouteController.routeEtag(testRouteId, updatedAt, "json"))
+                .with(user("testuser")))
+                .andExpect(status().isOk());
+
+        verify(routeService).getRoute(testRouteId, 10.0, null);
+    }
+
     @Test
     void getRouteById_NonExistentRoute_ReturnsNotFound() throws Exception {
         when(routeService.getRoute(testRouteId)).thenReturn(Optional.empty());
@@ -194,10 +276,36 @@ class RouteControllerTest {
         verify(routeService).getRoute(testRouteId);
     }
 
+    @Test
+    void getElevationProfile_ExistingRoute_ReturnsSeries() throws Exception {
+        ElevationProfileResponse profile = new ElevationProfileResponse(testRouteId, 1000.0, 3,
+                new double[]{0.0, 500.0, 1000.0}, new double[]{400.0, 450.0, 420.0});
+        when(routeService.getElevationProfile(testRouteId, 300)).thenReturn(Optional.of(profile));
+
+        mockMvc.perform(get("/api/routes/{id}/profile", testRouteId)
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.samples").value(3))
+                .andExpect(jsonPath("$.distances[1]").value(500.0))
+                .andExpect(jsonPath("$.elevations[2]").value(420.0));
+
+        verify(routeService).getElevationProfile(testRouteId, 300);
+    }
+
+    @Test
+    void getElevationProfile_TooFewSamples_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/routes/{id}/profile", testRouteId)
+                .param("samples", "1")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+
+        verify(routeService, never()).getElevationProfile(any(), anyInt());
+    }
+
     @Test
     void getAllRoutes_DefaultPagination_ReturnsPagedRoutes() throws Exception {
-        List<RouteResponse> routes = Collections.singletonList(mockRouteResponse);
-        Page<RouteResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(mockRouteSummary);
+        Page<RouteSummaryResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
         
         when(routeService.getAllRoutes(any())).thenReturn(page);
 
@@ -212,12 +320,64 @@ class RouteControllerTest {
         verify(routeService).getAllRoutes(any());
     }
 
+    @Test
+    void getRoutesByCursor_EmptyCursor_ReturnsFirstSliceWithoutCount() throws Exception {
+        String nextCursor = new RouteCursor(LocalDateTime.of(2025, 5, 1, 12, 0), testRouteId).encode();
+        RouteSliceResponse slice = new RouteSliceResponse(List.of(mockRouteSummary), 1, true, nextCursor);
+
+        when(routeService.getAllRoutesAfter(RouteCursor.FIRST, 1)).thenReturn(slice);
+
+        mockMvc.perform(get("/api/routes")
+                .param("cursor", "")
+                .param("size", "1")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(testRouteId.toString()))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(routeService, never()).getAllRoutes(any());
+    }
+
+    @Test
+    void getPublicRoutesByCursor_NextCursor_SeeksPastLastRoute() throws Exception {
+        RouteCursor cursor = new RouteCursor(LocalDateTime.of(2025, 5, 1, 12, 0, 0, 123_456_000), testRouteId);
+        RouteSliceResponse slice = new RouteSliceResponse(List.of(), 20, false, null);
+
+        when(routeService.getPublicRoutesAfter(cursor, 20)).thenReturn(slice);
+
+        mockMvc.perform(get("/api/routes/public")
+                .param("cursor", cursor.encode())
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(routeService).getPublicRoutesAfter(cursor, 20);
+    }
+
+    @Test
+    void getRoutesByCursor_InvalidCursorOrSearch_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/routes")
+                .param("cursor", "not-a-cursor!")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/routes")
+                .param("cursor", "")
+                .param("search", "alps")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(routeService);
+    }
+
     @Test
     void getAllRoutes_WithSearch_ReturnsFilteredRoutes() throws Exception {
-        List<RouteResponse> routes = Collections.singletonList(mockRouteResponse);
-        Page<RouteResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(mockRouteSummary);
+        Page<RouteSummaryResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
         
-        when(routeService.searchRoutes(eq("test"), any())).thenReturn(page);
+        when(routeService.searchRoutes(eq("test"), any(), any(), any(), any(), any(), any(), any())).thenReturn(page);
 
         mockMvc.perform(get("/api/routes")
                 .param("search", "test")
@@ -226,13 +386,34 @@ class RouteControllerTest {
                 .andExpect(jsonPath("$.content").isArray())
                 .andExpect(jsonPath("$.totalElements").value(1));
 
-        verify(routeService).searchRoutes(eq("test"), any());
+        verify(routeService).searchRoutes(eq("test"), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), any());
+    }
+
+    @Test
+    void getAllRoutes_WithSearchAndFilters_SearchesWithinFilters() throws Exception {
+        List<RouteSummaryResponse> routes = Collections.singletonList(mockRouteSummary);
+        Page<RouteSummaryResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
+
+        when(routeService.searchRoutes(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(page);
+
+        mockMvc.perform(get("/api/routes")
+                .param("search", " alps ")
+                .param("difficulty", "3")
+                .param("routeType", "HIKING")
+                .param("publicOnly", "true")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(routeService).searchRoutes(eq("alps"), eq(3), eq(Route.RouteType.HIKING), isNull(), isNull(),
+                isNull(), eq(true), any());
+        verify(routeService, never()).getRoutesWithFilters(any(), any(), any(), any(), any(), any(), any());
     }
 
     @Test
     void getAllRoutes_PublicOnly_ReturnsPublicRoutes() throws Exception {
-        List<RouteResponse> routes = Collections.singletonList(mockRouteResponse);
-        Page<RouteResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(mockRouteSummary);
+        Page<RouteSummaryResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
         
         when(routeService.getPublicRoutes(any())).thenReturn(page);
 
@@ -247,8 +428,8 @@ class RouteControllerTest {
 
     @Test
     void getAllRoutes_WithUserId_ReturnsUserRoutes() throws Exception {
-        List<RouteResponse> routes = Collections.singletonList(mockRouteResponse);
-        Page<RouteResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(mockRouteSummary);
+        Page<RouteSummaryResponse> page = new PageImpl<>(routes, PageRequest.of(0, 20), 1);
         
         when(routeService.getUserRoutes(eq("user123"), any())).thenReturn(page);
 
@@ -261,6 +442,37 @@ class RouteControllerTest {
         verify(routeService).getUserRoutes(eq("user123"), any());
     }
 
+    @Test
+    void getRoute_WithTolerance_ReturnsSimplifiedRoute() throws Exception {
+        mockRouteResponse.setSimplificationTolerance(10.0);
+        when(routeService.getRoute(testRouteId, 25.0, null)).thenReturn(Optional.of(mockRouteResponse));
+
+        mockMvc.perform(get("/api/routes/{id}", testRouteId)
+                .param("tolerance", "25")
+                .with(user("testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.simplificationTolerance").value(10.0));
+
+        verify(routeService).getRoute(testRouteId, 25.0, null);
+        verify(routeService, never()).getRoute(testRouteId);
+    }
+
+    @Test
+    void getRoute_ToleranceAndZoom_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/routes/{id}", testRouteId)
+                .param("tolerance", "25")
+                .param("zoom", "12")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/routes/{id}", testRouteId)
+                .param("zoom", "30")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(routeService);
+    }
+
     @Test
     void updateRoute_ValidRequest_ReturnsUpdatedRoute() throws Exception {
         RouteResponse updatedResponse = new RouteResponse();
@@ -296,6 +508,127 @@ class RouteControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateRoute_DatabaseBusy_ReturnsServiceUnavailable() throws Exception {
+        when(routeService.updateRoute(eq(testRouteId), any(RouteCreateRequest.class)))
+                .thenThrow(databaseBusy());
+
+        mockMvc.perform(put("/api/routes/{id}", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRouteRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    void patchRoute_NameOnly_ReturnsSummary() throws Exception {
+        mockRouteSummary.setName("Renamed Route");
+        when(routeService.patchRoute(eq(testRouteId), any(RoutePatchRequest.class)))
+                .thenReturn(mockRouteSummary);
+
+        mockMvc.perform(patch("/api/routes/{id}", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Renamed Route\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed Route"))
+                .andExpect(jsonPath("$.points").doesNotExist());
+
+        verify(routeService).patchRoute(eq(testRouteId), argThat(request ->
+                "Renamed Route".equals(request.getName()) && request.getDescription() == null));
+    }
+
+    @Test
+    void patchRoute_NonExistentRoute_ReturnsNotFound() throws Exception {
+        when(routeService.patchRoute(eq(testRouteId), any(RoutePatchRequest.class)))
+                .thenThrow(new RuntimeException("Route not found"));
+
+        mockMvc.perform(patch("/api/routes/{id}", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"isPublic\":false}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchRoute_DatabaseBusy_ReturnsServiceUnavailable() throws Exception {
+        when(routeService.patchRoute(eq(testRouteId), any(RoutePatchRequest.class)))
+                .thenThrow(databaseBusy());
+
+        mockMvc.perform(patch("/api/routes/{id}", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"isPublic\":false}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    void patchRoutePoints_ValidEdit_ReturnsSummary() throws Exception {
+        RoutePointsPatchRequest.RangeEdit edit = new RoutePointsPatchRequest.RangeEdit();
+        edit.setFromSequence(1);
+        edit.setToSequence(1);
+        edit.setPoints(List.of(validRouteRequest.getPoints().get(1)));
+        RoutePointsPatchRequest request = new RoutePointsPatchRequest();
+        request.setEdits(List.of(edit));
+
+        mockRouteSummary.setPointCount(3);
+        when(routePointEditService.applyEdits(eq(testRouteId), any(RoutePointsPatchRequest.class)))
+                .thenReturn(mockRouteSummary);
+
+        mockMvc.perform(patch("/api/routes/{id}/points", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pointCount").value(3));
+    }
+
+    @Test
+    void patchRoutePoints_OverlappingEdits_ReturnsBadRequest() throws Exception {
+        when(routePointEditService.applyEdits(eq(testRouteId), any(RoutePointsPatchRequest.class)))
+                .thenThrow(new IllegalArgumentException("Edit ranges must not overlap"));
+
+        mockMvc.perform(patch("/api/routes/{id}/points", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"edits\":[{\"fromSequence\":0,\"toSequence\":2,\"points\":[]}," +
+                        "{\"fromSequence\":1,\"toSequence\":3,\"points\":[]}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patchRoutePoints_NoEdits_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/routes/{id}/points", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"edits\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(routePointEditService);
+    }
+
+    @Test
+    void patchRoutePoints_DatabaseBusy_ReturnsServiceUnavailable() throws Exception {
+        when(routePointEditService.applyEdits(eq(testRouteId), any(RoutePointsPatchRequest.class)))
+                .thenThrow(databaseBusy());
+
+        mockMvc.perform(patch("/api/routes/{id}/points", testRouteId)
+                .with(csrf())
+                .with(user("testuser"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"edits\":[{\"fromSequence\":0,\"toSequence\":0,\"points\":[]}]}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void deleteRoute_ExistingRoute_ReturnsNoContent() throws Exception {
         doNothing().when(routeService).deleteRoute(testRouteId);
@@ -320,39 +653,94 @@ class RouteControllerTest {
 
     @Test
     void exportToGpx_ExistingRoute_ReturnsGpxFile() throws Exception {
-        when(routeService.getRouteEntityForExport(testRouteId)).thenReturn(Optional.of(new Route()));
-        when(gpxService.exportToGpx(any(Route.class))).thenReturn("<?xml version=\"1.0\"?><gpx></gpx>".getBytes());
-
-        mockMvc.perform(get("/api/routes/{id}/export/gpx", testRouteId)
+        when(routeService.getRouteSummary(testRouteId)).thenReturn(Optional.of(mockRouteSummary));
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("<?xml version=\"1.0\"?><gpx></gpx>".getBytes());
+            return null;
+        }).when(routeService).writeGpx(eq(testRouteId), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/routes/{id}/export/gpx", testRouteId)
                 .with(user("testuser")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", "application/xml"))
-                .andExpect(header().exists("Content-Disposition"))
+                .andExpect(header().string("Content-Disposition", containsString("Test_Route.gpx")))
                 .andExpect(content().bytes("<?xml version=\"1.0\"?><gpx></gpx>".getBytes()));
 
-        verify(routeService).getRouteEntityForExport(testRouteId);
-        verify(gpxService).exportToGpx(any(Route.class));
+        verify(routeService).getRouteSummary(testRouteId);
+        verify(routeService).writeGpx(eq(testRouteId), any(OutputStream.class));
+    }
+
+    @Test
+    void exportToGpx_NotModifiedSince_ReturnsNotModifiedWithoutWriting() throws Exception {
+        mockRouteSummary.setUpdatedAt(LocalDateTime.of(2025, 5, 1, 12, 0, 30, 500_000_000));
+        when(routeService.getRouteSummary(testRouteId)).thenReturn(Optional.of(mockRouteSummary));
+        long ifModifiedSince = mockRouteSummary.getUpdatedAt().atZone(ZoneId.systemDefault())
+                .toInstant().getEpochSecond() * 1000;
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfModifiedSince(ifModifiedSince);
+
+        mockMvc.perform(get("/api/routes/{id}/export/gpx", testRouteId)
+                .headers(conditional)
+                .with(user("testuser")))
+                .andExpect(status().isNotModified());
+
+        verify(routeService, never()).writeGpx(any(), any());
     }
 
     @Test
     void exportToGpx_NonExistentRoute_ReturnsNotFound() throws Exception {
-        when(routeService.getRouteEntityForExport(testRouteId)).thenReturn(Optional.empty());
+        when(routeService.getRouteSummary(testRouteId)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/routes/{id}/export/gpx", testRouteId)
                 .with(user("testuser")))
                 .andExpect(status().isNotFound());
 
-        verify(routeService).getRouteEntityForExport(testRouteId);
-        verify(gpxService, never()).exportToGpx(any());
+        verify(routeService).getRouteSummary(testRouteId);
+        verify(routeService, never()).writeGpx(any(), any());
     }
 
     @Test
     void exportToGeoJson_ExistingRoute_ReturnsGeoJsonFile() throws Exception {
+        when(routeService.getRouteSummary(testRouteId)).thenReturn(Optional.of(mockRouteSummary));
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("{\"type\":\"FeatureCollection\"}".getBytes());
+            return null;
+        }).when(routeService).writeGeoJson(eq(testRouteId), eq(5), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/routes/{id}/export/geojson", testRouteId)
+                .param("precision", "5")
+                .with(user("testuser")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/json"))
+                .andExpect(header().exists("Content-Disposition"))
+                .andExpect(content().string(containsString("FeatureCollection")));
+
+        verify(routeService).writeGeoJson(eq(testRouteId), eq(5), any(OutputStream.class));
+        verify(geoJsonService, never()).exportToGeoJson(any());
+    }
+
+    @Test
+    void exportToGeoJson_CompatMode_ReturnsLegacyOutput() throws Exception {
         when(routeService.getRouteEntityForExport(testRouteId)).thenReturn(Optional.of(new Route()));
         when(geoJsonService.exportToGeoJson(any(Route.class))).thenReturn("{\"type\":\"FeatureCollection\"}");
 
-        mockMvc.perform(get("/api/routes/{id}/export/geojson", testRouteId)
+        MvcResult result = mockMvc.perform(get("/api/routes/{id}/export/geojson", testRouteId)
+                .param("compat", "true")
                 .with(user("testuser")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", "application/json"))
                 .andExpect(header().exists("Content-Disposition"))
@@ -362,6 +750,16 @@ class RouteControllerTest {
         verify(geoJsonService).exportToGeoJson(any(Route.class));
     }
 
+    @Test
+    void exportToGeoJson_InvalidPrecision_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/routes/{id}/export/geojson", testRouteId)
+                .param("precision", "11")
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+
+        verify(routeService, never()).writeGeoJson(any(), any(), any());
+    }
+
     @Test
     void importFromGpx_ValidFile_ReturnsCreatedRoute() throws Exception {
         MockMultipartFile gpxFile = new MockMultipartFile(
@@ -371,8 +769,7 @@ class RouteControllerTest {
                 "<?xml version=\"1.0\"?><gpx></gpx>".getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), anyString())).thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class))).thenReturn(mockRouteResponse);
+        when(routeImportService.importGpx(any(InputStream.class), anyString(), isNull())).thenReturn(mockRouteSummary);
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
                 .file(gpxFile)
@@ -382,8 +779,7 @@ class RouteControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(testRouteId.toString()));
 
-        verify(gpxService).importFromGpx(any(byte[].class), eq("Imported Route"));
-        verify(routeService).createRoute(any(RouteCreateRequest.class));
+        verify(routeImportService).importGpx(any(InputStream.class), eq("Imported Route"), isNull());
     }
 
     @Test
@@ -396,10 +792,46 @@ class RouteControllerTest {
                 .with(user("testuser")))
                 .andExpect(status().isBadRequest());
 
-        verify(gpxService, never()).importFromGpx(any(), any());
+        verify(routeImportService, never()).importGpx(any(), any(), any());
         verify(routeService, never()).createRoute(any());
     }
 
+    @Test
+    void importBatch_ValidFiles_ReturnsAcceptedJob() throws Exception {
+        MockMultipartFile first = new MockMultipartFile("files", "first.gpx", "application/gpx+xml", "<gpx/>".getBytes());
+        MockMultipartFile second = new MockMultipartFile("files", "rides.zip", "application/zip", new byte[]{1, 2, 3});
+        UUID jobId = UUID.randomUUID();
+        ImportJobResponse job = new ImportJobResponse(jobId, ImportJobResponse.JobStatus.QUEUED, LocalDateTime.now(),
+                null, 2, 0, 0, 0, List.of());
+
+        when(importJobService.submit(anyList(), isNull())).thenReturn(job);
+
+        mockMvc.perform(multipart("/api/routes/import/batch")
+                .file(first)
+                .file(second)
+                .with(csrf())
+                .with(user("testuser")))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/import-jobs/" + jobId))
+                .andExpect(jsonPath("$.id").value(jobId.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(importJobService).submit(argThat(files -> files.size() == 2), isNull());
+    }
+
+    @Test
+    void importBatch_EmptyFiles_ReturnsBadRequest() throws Exception {
+        MockMultipartFile emptyFile = new MockMultipartFile("files", "empty.gpx", "application/gpx+xml", new byte[0]);
+
+        mockMvc.perform(multipart("/api/routes/import/batch")
+                .file(emptyFile)
+                .with(csrf())
+                .with(user("testuser")))
+                .andExpect(status().isBadRequest());
+
+        verify(importJobService, never()).submit(any(), any());
+    }
+
     @Test
     void importFromGeoJson_ValidData_ReturnsCreatedRoute() throws Exception {
         String geoJsonData = "{\"type\":\"FeatureCollection\",\"features\":[]}";
@@ -411,7 +843,7 @@ class RouteControllerTest {
         );
 
         when(geoJsonService.importFromGeoJson(anyString(), eq("GeoJSON Route"))).thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class))).thenReturn(mockRouteResponse);
+        when(routeService.createRoute(any(RouteCreateRequest.class), isNull())).thenReturn(mockRouteResponse);
 
         mockMvc.perform(multipart("/api/routes/import/geojson")
                 .file(geoJsonFile)
@@ -422,7 +854,7 @@ class RouteControllerTest {
                 .andExpect(jsonPath("$.id").value(testRouteId.toString()));
 
         verify(geoJsonService).importFromGeoJson(anyString(), eq("GeoJSON Route"));
-        verify(routeService).createRoute(any(RouteCreateRequest.class));
+        verify(routeService).createRoute(any(RouteCreateRequest.class), isNull());
     }
 
 
@@ -498,10 +930,8 @@ class RouteControllerTest {
                 gpxContent.getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), eq("Test GPX Import")))
-                .thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class)))
-                .thenReturn(mockRouteResponse);
+        when(routeImportService.importGpx(any(InputStream.class), eq("Test GPX Import"), isNull()))
+                .thenReturn(mockRouteSummary);
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
                 .file(gpxFile)
@@ -512,8 +942,7 @@ class RouteControllerTest {
                 .andExpect(jsonPath("$.id").value(testRouteId.toString()))
                 .andExpect(jsonPath("$.name").value("Test Route"));
 
-        verify(gpxService).importFromGpx(any(byte[].class), eq("Test GPX Import"));
-        verify(routeService).createRoute(any(RouteCreateRequest.class));
+        verify(routeImportService).importGpx(any(InputStream.class), eq("Test GPX Import"), isNull());
     }
 
     @Test
@@ -539,10 +968,8 @@ class RouteControllerTest {
                 gpxContent.getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), isNull()))
-                .thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class)))
-                .thenReturn(mockRouteResponse);
+        when(routeImportService.importGpx(any(InputStream.class), isNull(), isNull()))
+                .thenReturn(mockRouteSummary);
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
                 .file(gpxFile)
@@ -550,7 +977,7 @@ class RouteControllerTest {
                 .with(user("testuser")))
                 .andExpect(status().isCreated());
 
-        verify(gpxService).importFromGpx(any(byte[].class), isNull());
+        verify(routeImportService).importGpx(any(InputStream.class), isNull(), isNull());
     }
 
     @Test
@@ -564,7 +991,7 @@ class RouteControllerTest {
                 invalidGpxContent.getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), anyString()))
+        when(routeImportService.importGpx(any(InputStream.class), anyString(), isNull()))
                 .thenThrow(new RuntimeException("Invalid GPX format"));
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
@@ -574,7 +1001,7 @@ class RouteControllerTest {
                 .with(user("testuser")))
                 .andExpect(status().isInternalServerError());
 
-        verify(gpxService).importFromGpx(any(byte[].class), eq("Invalid GPX"));
+        verify(routeImportService).importGpx(any(InputStream.class), eq("Invalid GPX"), isNull());
         verify(routeService, never()).createRoute(any());
     }
 
@@ -614,10 +1041,8 @@ class RouteControllerTest {
                 largeGpxContent.toString().getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), eq("Large Route")))
-                .thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class)))
-                .thenReturn(mockRouteResponse);
+        when(routeImportService.importGpx(any(InputStream.class), eq("Large Route"), isNull()))
+                .thenReturn(mockRouteSummary);
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
                 .file(largeGpxFile)
@@ -626,7 +1051,7 @@ class RouteControllerTest {
                 .with(user("testuser")))
                 .andExpect(status().isCreated());
 
-        verify(gpxService).importFromGpx(any(byte[].class), eq("Large Route"));
+        verify(routeImportService).importGpx(any(InputStream.class), eq("Large Route"), isNull());
     }
 
     @Test
@@ -640,7 +1065,7 @@ class RouteControllerTest {
                 textContent.getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), anyString()))
+        when(routeImportService.importGpx(any(InputStream.class), anyString(), isNull()))
                 .thenThrow(new RuntimeException("Not a valid GPX file"));
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
@@ -666,7 +1091,7 @@ class RouteControllerTest {
                 emptyGpxContent.getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), anyString()))
+        when(routeImportService.importGpx(any(InputStream.class), anyString(), isNull()))
                 .thenThrow(new RuntimeException("GPX file contains no track data"));
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
@@ -700,10 +1125,8 @@ class RouteControllerTest {
                 waypointsOnlyGpx.getBytes()
         );
 
-        when(gpxService.importFromGpx(any(byte[].class), eq("Waypoints Route")))
-                .thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class)))
-                .thenReturn(mockRouteResponse);
+        when(routeImportService.importGpx(any(InputStream.class), eq("Waypoints Route"), isNull()))
+                .thenReturn(mockRouteSummary);
 
         mockMvc.perform(multipart("/api/routes/import/gpx")
                 .file(waypointsFile)
@@ -712,7 +1135,7 @@ class RouteControllerTest {
                 .with(user("testuser")))
                 .andExpect(status().isCreated());
 
-        verify(gpxService).importFromGpx(any(byte[].class), eq("Waypoints Route"));
+        verify(routeImportService).importGpx(any(InputStream.class), eq("Waypoints Route"), isNull());
     }
 
     // Tests for new endpoints added for Swagger documentation improvements
@@ -758,8 +1181,8 @@ class RouteControllerTest {
 
     @Test
     void getPublicRoutes_ReturnsOnlyPublicRoutes() throws Exception {
-        List<RouteResponse> publicRoutes = Arrays.asList(mockRouteResponse);
-        Page<RouteResponse> page = new PageImpl<>(publicRoutes, PageRequest.of(0, 20), 1);
+        List<RouteSummaryResponse> publicRoutes = Arrays.asList(mockRouteSummary);
+        Page<RouteSummaryResponse> page = new PageImpl<>(publicRoutes, PageRequest.of(0, 20), 1);
 
         when(routeService.getPublicRoutes(any())).thenReturn(page);
 
@@ -775,8 +1198,8 @@ class RouteControllerTest {
 
     @Test
     void getPublicRoutes_WithPagination_ReturnsCorrectPage() throws Exception {
-        List<RouteResponse> publicRoutes = Arrays.asList(mockRouteResponse);
-        Page<RouteResponse> page = new PageImpl<>(publicRoutes, PageRequest.of(1, 5), 10);
+        List<RouteSummaryResponse> publicRoutes = Arrays.asList(mockRouteSummary);
+        Page<RouteSummaryResponse> page = new PageImpl<>(publicRoutes, PageRequest.of(1, 5), 10);
 
         when(routeService.getPublicRoutes(any())).thenReturn(page);
 
@@ -816,7 +1239,7 @@ class RouteControllerTest {
 
         when(geoJsonService.importFromGeoJson(eq(geoJsonData), eq("Raw Import Route")))
                 .thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class)))
+        when(routeService.createRoute(any(RouteCreateRequest.class), isNull()))
                 .thenReturn(mockRouteResponse);
 
         mockMvc.perform(post("/api/routes/import/geojson/raw")
@@ -829,7 +1252,7 @@ class RouteControllerTest {
                 .andExpect(jsonPath("$.id").value(testRouteId.toString()));
 
         verify(geoJsonService).importFromGeoJson(eq(geoJsonData), eq("Raw Import Route"));
-        verify(routeService).createRoute(any(RouteCreateRequest.class));
+        verify(routeService).createRoute(any(RouteCreateRequest.class), isNull());
     }
 
     @Test
@@ -843,7 +1266,7 @@ class RouteControllerTest {
 
         when(geoJsonService.importFromGeoJson(eq(geoJsonData), isNull()))
                 .thenReturn(validRouteRequest);
-        when(routeService.createRoute(any(RouteCreateRequest.class)))
+        when(routeService.createRoute(any(RouteCreateRequest.class), isNull()))
                 .thenReturn(mockRouteResponse);
 
         mockMvc.perform(post("/api/routes/import/geojson/raw")
@@ -872,6 +1295,13 @@ class RouteControllerTest {
                 .andExpect(status().isBadRequest());
 
         verify(geoJsonService).importFromGeoJson(eq(invalidGeoJson), eq("Invalid Route"));
-        verify(routeService, never()).createRoute(any());
+        verify(routeService, never()).createRoute(any(), any());
+    }
+
+    // What a service call turned away by the bulkhead throws: Spring's wrapper around the rejection
+    private static CannotCreateTransactionException databaseBusy() {
+        return new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                new BulkheadDataSource.DatabaseBusyException("No database connection within 20000 ms",
+                        Duration.ofSeconds(2)));
     }
 }
@@ -1,15 +1,11 @@
 package com.trackoss.trackoss_backend.entity;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class RouteEntityTest {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
     @Test
     void testSetDifficulty_ShouldUpdateDifficultyField() {
         // Arrange
@@ -24,124 +20,26 @@ class RouteEntityTest {
     }
     
     @Test
-    void testSetDifficulty_ShouldUpdateMetadataField() throws Exception {
-        // Arrange
-        Route route = new Route();
-        Integer difficulty = 4;
-        
-        // Act
-        route.setDifficulty(difficulty);
-        
-        // Assert
-        assertNotNull(route.getMetadata());
-        JsonNode metadataJson = objectMapper.readTree(route.getMetadata());
-        assertTrue(metadataJson.has("difficulty"));
-        assertEquals(difficulty, metadataJson.get("difficulty").asInt());
-    }
-    
-    @Test
-    void testSetDifficulty_WithExistingMetadata_ShouldUpdateDifficultyInMetadata() throws Exception {
-        // Arrange
-        Route route = new Route();
-        String initialMetadata = "{\"surface\":\"asphalt\",\"traffic\":\"low\"}";
-        route.setMetadata(initialMetadata);
-        Integer difficulty = 5;
-        
-        // Act
-        route.setDifficulty(difficulty);
-        
-        // Assert
-        JsonNode metadataJson = objectMapper.readTree(route.getMetadata());
-        assertTrue(metadataJson.has("surface"));
-        assertEquals("asphalt", metadataJson.get("surface").asText());
-        assertTrue(metadataJson.has("traffic"));
-        assertEquals("low", metadataJson.get("traffic").asText());
-        assertTrue(metadataJson.has("difficulty"));
-        assertEquals(difficulty, metadataJson.get("difficulty").asInt());
-    }
-    
-    @Test
-    void testSetMetadata_WithDifficulty_ShouldUpdateDifficultyField() throws Exception {
+    void testSetters_ShouldNotSynchronizeMetadata() {
         // Arrange
         Route route = new Route();
         String metadata = "{\"difficulty\":3,\"surface\":\"gravel\"}";
         
-        // Act
-        route.setMetadata(metadata);
-        
-        // Assert
-        assertEquals(3, route.getDifficulty());
-    }
-    
-    @Test
-    void testSetMetadata_WithoutDifficulty_ShouldNotUpdateDifficultyField() {
-        // Arrange
-        Route route = new Route();
-        route.setDifficulty(4); // Set initial difficulty
-        String metadata = "{\"surface\":\"asphalt\",\"traffic\":\"medium\"}";
-        
-        // Act
+        // Act - synchronization is left to RouteMetadataSync on the write paths
         route.setMetadata(metadata);
+        route.setDifficulty(5);
         
         // Assert
-        assertEquals(4, route.getDifficulty()); // Difficulty should remain unchanged
+        assertEquals(metadata, route.getMetadata());
+        assertEquals(5, route.getDifficulty());
+        assertNull(route.getSurface());
     }
     
     @Test
-    void testSetMetadata_WithInvalidJson_ShouldNotThrowException() {
-        // Arrange
-        Route route = new Route();
-        String invalidMetadata = "not a valid json";
-        
+    void testNormalizeSurface_ShouldTrimAndLowerCase() {
         // Act & Assert
-        assertDoesNotThrow(() -> route.setMetadata(invalidMetadata));
-    }
-    
-    @Test
-    void testSetDifficulty_WithNull_ShouldHandleNullValue() {
-        // Arrange
-        Route route = new Route();
-        route.setDifficulty(3); // Set initial value
-        
-        // Act
-        route.setDifficulty(null);
-        
-        // Assert
-        assertNull(route.getDifficulty());
-        
-        // Metadata should still contain null difficulty
-        assertDoesNotThrow(() -> {
-            JsonNode metadataJson = objectMapper.readTree(route.getMetadata());
-            assertTrue(metadataJson.has("difficulty"));
-            assertTrue(metadataJson.get("difficulty").isNull());
-        });
-    }
-    
-    @Test
-    void testSetMetadata_WithNullValue_ShouldHandleNullValue() {
-        // Arrange
-        Route route = new Route();
-        route.setDifficulty(3); // Set initial difficulty
-        
-        // Act
-        route.setMetadata(null);
-        
-        // Assert
-        assertEquals(3, route.getDifficulty()); // Difficulty should remain unchanged
-        assertNull(route.getMetadata());
-    }
-    
-    @Test
-    void testSetMetadata_WithEmptyString_ShouldHandleEmptyString() {
-        // Arrange
-        Route route = new Route();
-        route.setDifficulty(3); // Set initial difficulty
-        
-        // Act
-        route.setMetadata("");
-        
-        // Assert
-        assertEquals(3, route.getDifficulty()); // Difficulty should remain unchanged
-        assertEquals("", route.getMetadata());
+        assertEquals("gravel", Route.normalizeSurface(" Gravel "));
+        assertNull(Route.normalizeSurface("  "));
+        assertNull(Route.normalizeSurface(null));
     }
-}
\ No newline at end of file
+}
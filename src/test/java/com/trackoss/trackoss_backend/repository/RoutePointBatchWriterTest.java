@@ -0,0 +1,121 @@
+package com.trackoss.trackoss_backend.repository;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.entity.TimeOrderedUuid;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(RoutePointBatchWriter.class)
+class RoutePointBatchWriterTest {
+
+    @Autowired
+    private RoutePointBatchWriter routePointBatchWriter;
+
+    @Autowired
+    private RoutePointRepository routePointRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void insert_MoreThanOneBatch_WritesAllRowsInOrder() {
+        // Arrange
+        Route route = createRoute();
+        entityManager.persist(route); // flushed by the writer
+        int count = RoutePointBatchWriter.BATCH_SIZE * 2 + 17;
+        List<RoutePoint> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RoutePoint point = new RoutePoint();
+            point.setId(TimeOrderedUuid.next());
+            point.setSequenceOrder(i);
+            point.setLatitude(47.0 + i * 0.0001);
+            point.setLongitude(8.0 + i * 0.0001);
+            point.setElevation(i % 2 == 0 ? 400.0 + i : null);
+            point.setTimestamp(i == 0 ? LocalDateTime.of(2024, 8, 8, 12, 0) : null);
+            point.setPointType(i == 10 ? RoutePoint.PointType.WAYPOINT : RoutePoint.PointType.TRACK_POINT);
+            point.setName(i == 10 ? "Summit" : null);
+            points.add(point);
+        }
+
+        // Act
+        int written = routePointBatchWriter.insert(route.getId(), points);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(count, written);
+        List<RoutePoint> stored = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(route.getId());
+        assertEquals(count, stored.size());
+        assertEquals(points.get(0).getId(), stored.get(0).getId());
+        assertEquals(LocalDateTime.of(2024, 8, 8, 12, 0), stored.get(0).getTimestamp());
+        assertEquals(400.0, stored.get(0).getElevation());
+        assertNull(stored.get(1).getElevation());
+        assertEquals("Summit", stored.get(10).getName());
+        assertEquals(RoutePoint.PointType.WAYPOINT, stored.get(10).getPointType());
+        assertEquals(47.0 + (count - 1) * 0.0001, stored.get(count - 1).getLatitude(), 1e-9);
+    }
+
+    @Test
+    void deleteByRouteId_RemovesOnlyThatRoutesRows() {
+        // Arrange
+        Route route = createRoute();
+        Route other = createRoute();
+        entityManager.persist(route);
+        entityManager.persist(other);
+        routePointBatchWriter.insert(route.getId(), List.of(createPoint(0), createPoint(1)));
+        routePointBatchWriter.insert(other.getId(), List.of(createPoint(0)));
+
+        // Act
+        int deleted = routePointBatchWriter.deleteByRouteId(route.getId());
+
+        // Assert
+        assertEquals(2, deleted);
+        assertEquals(0, routePointRepository.countByRouteId(route.getId()));
+        assertEquals(1, routePointRepository.countByRouteId(other.getId()));
+    }
+
+    @Test
+    void timeOrderedUuid_IdsSortInCreationOrder() {
+        UUID previous = TimeOrderedUuid.next();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = TimeOrderedUuid.next();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            // UUID.compareTo compares signed longs, the database compares bytes
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = next;
+        }
+    }
+
+    private Route createRoute() {
+        Route route = new Route();
+        route.setId(UUID.randomUUID());
+        route.setName("Batch Route");
+        route.setRouteType(Route.RouteType.CYCLING);
+        route.setIsPublic(false);
+        return route;
+    }
+
+    private RoutePoint createPoint(int sequence) {
+        RoutePoint point = new RoutePoint();
+        point.setId(TimeOrderedUuid.next());
+        point.setSequenceOrder(sequence);
+        point.setLatitude(47.0);
+        point.setLongitude(8.0);
+        point.setPointType(RoutePoint.PointType.TRACK_POINT);
+        return point;
+    }
+}
@@ -1,7 +1,11 @@
 package com.trackoss.trackoss_backend.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trackoss.trackoss_backend.dto.RouteCursor;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.service.RouteMetadataSync;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,11 +13,16 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,6 +36,11 @@ class RouteRepositoryTest {
     @Autowired
     private RoutePointRepository routePointRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final RouteMetadataSync routeMetadataSync = new RouteMetadataSync(new ObjectMapper());
+
     private List<Route> testRoutes;
     private final Pageable pageable = PageRequest.of(0, 10);
 
@@ -68,8 +82,11 @@ class RouteRepositoryTest {
         route.setTotalDistance(distance);
         route.setTotalElevationGain(100.0);
         route.setEstimatedDuration(3600L);
-        route.setMetadata(metadata);
-        route.setDifficulty(difficulty);
+        routeMetadataSync.apply(route, metadata, difficulty);
+        route.setMinLatitude(47.6062);
+        route.setMaxLatitude(47.6062);
+        route.setMinLongitude(-122.3321);
+        route.setMaxLongitude(-122.3321);
         
         // Add a sample route point
         RoutePoint point = new RoutePoint();
@@ -88,6 +105,46 @@ class RouteRepositoryTest {
         return route;
     }
 
+    @Test
+    void findPublicSummariesAfter_WalksAllPublicRoutesNewestFirst() {
+        // Act
+        Slice<RouteSummaryResponse> first = routeRepository.findPublicSummariesAfter(
+            RouteCursor.FIRST.createdAt(), RouteCursor.FIRST.id(), PageRequest.of(0, 2));
+        RouteCursor cursor = RouteCursor.decode(RouteCursor.after(first.getContent().get(1)).encode());
+        Slice<RouteSummaryResponse> second = routeRepository.findPublicSummariesAfter(
+            cursor.createdAt(), cursor.id(), PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(2, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+        assertEquals(1, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+
+        List<RouteSummaryResponse> walked = new ArrayList<>(first.getContent());
+        walked.addAll(second.getContent());
+        for (int i = 1; i < walked.size(); i++) {
+            assertFalse(walked.get(i).getCreatedAt().isAfter(walked.get(i - 1).getCreatedAt()));
+        }
+        Set<UUID> expected = testRoutes.stream()
+            .filter(Route::getIsPublic)
+            .map(Route::getId)
+            .collect(Collectors.toSet());
+        assertEquals(expected, walked.stream().map(RouteSummaryResponse::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void findSummariesWithFiltersAfter_AppliesFiltersAndCursor() {
+        // Act
+        Slice<RouteSummaryResponse> result = routeRepository.findSummariesWithFiltersAfter(
+            null, null, 9000.0, null, null, null,
+            RouteCursor.FIRST.createdAt(), RouteCursor.FIRST.id(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(3, result.getNumberOfElements());
+        assertFalse(result.hasNext());
+        assertTrue(result.getContent().stream().allMatch(route -> route.getTotalDistance() >= 9000.0));
+    }
+
     @Test
     void findByDifficulty_ShouldReturnMatchingRoutes() {
         // Act
@@ -149,7 +206,7 @@ class RouteRepositoryTest {
     void findWithFilters_SurfaceTypeOnly_ShouldReturnMatchingRoutes() {
         // Act
         Page<Route> result = routeRepository.findWithFilters(
-            null, null, null, null, "\"surface\":\"asphalt\"", null, pageable
+            null, null, null, null, "Asphalt", null, pageable
         );
 
         // Assert
@@ -174,7 +231,7 @@ class RouteRepositoryTest {
     void findWithFilters_CombinedFilters_ShouldReturnMatchingRoutes() {
         // Act
         Page<Route> result = routeRepository.findWithFilters(
-            null, Route.RouteType.MOUNTAIN_BIKING, 10000.0, 20000.0, "\"surface\":\"gravel\"", true, pageable
+            null, Route.RouteType.MOUNTAIN_BIKING, 10000.0, 20000.0, "gravel", true, pageable
         );
 
         // Assert
@@ -203,4 +260,118 @@ class RouteRepositoryTest {
         // Assert
         assertEquals(5, result.getTotalElements());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchSummaries_MatchesNameBeforeDescription() {
+        // Arrange
+        Route hardRoute = testRoutes.get(2);
+        hardRoute.setDescription("Not EASY at all");
+        routeRepository.saveAndFlush(hardRoute);
+
+        // Act
+        Page<RouteSummaryResponse> result = routeRepository.searchSummaries(
+            "Easy", null, null, null, null, null, null, pageable);
+
+        // Assert
+        assertEquals(3, result.getTotalElements());
+        assertEquals(Set.of("Easy Route", "Easy Road Route"), Set.of(
+            result.getContent().get(0).getName(), result.getContent().get(1).getName()));
+        assertEquals("Hard Route", result.getContent().get(2).getName());
+    }
+
+    @Test
+    void searchSummaries_WithFilters_ShouldNarrowMatches() {
+        // Act
+        Page<RouteSummaryResponse> result = routeRepository.searchSummaries(
+            "easy", 2, Route.RouteType.ROAD_CYCLING, 9000.0, null, "asphalt", true, pageable);
+
+        // Assert
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Easy Road Route", result.getContent().get(0).getName());
+    }
+
+    @Test
+    void searchSummaries_WildcardsInTerm_ShouldMatchLiterally() {
+        // Act
+        Page<RouteSummaryResponse> percent = routeRepository.searchSummaries(
+            "%", null, null, null, null, null, null, pageable);
+        Page<RouteSummaryResponse> underscore = routeRepository.searchSummaries(
+            "Easy_Route", null, null, null, null, null, null, pageable);
+
+        // Assert
+        assertEquals(0, percent.getTotalElements());
+        assertEquals(0, underscore.getTotalElements());
+    }
+
+    @Test
+    void findWithFilters_EveryFilterCanUseAnIndex() {
+        // Arrange - enough rows that a scan costs more than an index lookup
+        routeRepository.flush();
+        String[] surfaces = {"asphalt", "gravel", "dirt", "trail", "cobblestone"};
+        Route.RouteType[] routeTypes = Route.RouteType.values();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[] {UUID.randomUUID(), "Seeded " + i, LocalDateTime.now().minusMinutes(i),
+                i % 5 + 1, routeTypes[i % routeTypes.length].name(), 1000.0 + i * 37.0, surfaces[i % surfaces.length],
+                i % 3 == 0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO routes (id, name, created_at, updated_at, difficulty, route_type, " +
+            "total_distance, surface, is_public) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            rows.stream().map(row -> new Object[] {row[0], row[1], row[2], row[2], row[3], row[4], row[5], row[6], row[7]})
+                .toList());
+
+        // Act & Assert - each predicate the filter query can contain, as RouteRepositoryImpl writes it
+        assertPlanUses("idx_routes_difficulty", "difficulty = ?", 3);
+        assertPlanUses("idx_routes_route_type", "route_type = ?", "HIKING");
+        assertPlanUses("idx_routes_total_distance", "total_distance >= ?", 30000.0);
+        assertPlanUses("idx_routes_total_distance", "total_distance <= ?", 5000.0);
+        assertPlanUses("idx_routes_surface", "surface = ?", "gravel");
+        assertPlanUses("idx_routes_public_created_at_id", "is_public = ?", true);
+
+        // The metadata pattern match the surface column replaces had to read every row
+        assertTrue(explain("metadata LIKE ?", "%\"surface\":\"gravel\"%").contains("tableScan"));
+
+        Page<Route> result = routeRepository.findWithFilters(null, null, null, null, "gravel", null, pageable);
+        assertEquals(201, result.getTotalElements());
+    }
+
+    private void assertPlanUses(String index, String condition, Object value) {
+        String plan = explain(condition, value);
+        assertTrue(plan.toLowerCase().contains(index), () -> condition + " does not use " + index + ": " + plan);
+    }
+
+    private String explain(String condition, Object value) {
+        return jdbcTemplate.queryForObject("EXPLAIN SELECT id FROM routes WHERE " + condition, String.class, value);
+    }
+
+    @Test
+    void findNearbyRoutes_WithinRadius_ShouldReturnRoutes() {
+        // Act - about 1.3 km away from the stored point
+        Page<Route> result = routeRepository.findNearbyRoutes(47.6150, -122.3200, 2.0, pageable);
+
+        // Assert
+        assertEquals(5, result.getTotalElements());
+    }
+
+    @Test
+    void findNearbyRoutes_LongitudeShrinksWithLatitude_ShouldIncludeRoutesWithinRadius() {
+        // Act - 0.022 degrees of longitude is only ~1.65 km at this latitude, inside a 2 km radius
+        Page<Route> inside = routeRepository.findNearbyRoutes(47.6062, -122.3101, 2.0, pageable);
+        // 0.03 degrees of longitude is ~2.25 km, outside
+        Page<Route> outside = routeRepository.findNearbyRoutes(47.6062, -122.3021, 2.0, pageable);
+
+        // Assert
+        assertEquals(5, inside.getTotalElements());
+        assertEquals(0, outside.getTotalElements());
+    }
+
+    @Test
+    void findNearbyRoutes_FarAway_ShouldReturnEmptyPage() {
+        // Act
+        Page<Route> result = routeRepository.findNearbyRoutes(52.5200, 13.4050, 10.0, pageable);
+
+        // Assert
+        assertEquals(0, result.getTotalElements());
+        assertTrue(result.getContent().isEmpty());
+    }
+}
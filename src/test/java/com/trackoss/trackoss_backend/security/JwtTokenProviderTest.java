@@ -24,6 +24,7 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -91,6 +92,41 @@ public class JwtTokenProviderTest {
         assertThat(username).isEqualTo("testuser");
     }
 
+    @Test
+    @DisplayName("Should return claims of a valid token from one parse")
+    void testParseToken_ValidToken() {
+        String token = jwtTokenProvider.generateToken(mockAuthentication);
+
+        Optional<Claims> claims = jwtTokenProvider.parseToken(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("testuser");
+    }
+
+    @Test
+    @DisplayName("Should put user id and role claims into tokens of a UserPrincipal")
+    void testGenerateToken_CarriesUserIdAndRole() {
+        String token = jwtTokenProvider.generateToken(mockAuthentication);
+
+        Claims claims = jwtTokenProvider.parseToken(token).orElseThrow();
+
+        assertThat(claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class)).isEqualTo(1L);
+        assertThat(claims.get(JwtTokenProvider.ROLE_CLAIM, String.class)).isEqualTo("USER");
+    }
+
+    @Test
+    @DisplayName("Should return no claims for a token signed with another key")
+    void testParseToken_WrongSignature() {
+        JwtTokenProvider otherProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(otherProvider, "jwtSecret",
+                Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded()));
+        ReflectionTestUtils.setField(otherProvider, "jwtExpiration", jwtExpiration);
+
+        String token = otherProvider.generateToken(mockAuthentication);
+
+        assertThat(jwtTokenProvider.parseToken(token)).isEmpty();
+    }
+
     @Test
     @DisplayName("Should validate valid token")
     void testValidateToken_ValidToken() {
@@ -0,0 +1,132 @@
+package com.trackoss.trackoss_backend.security;
+
+import com.trackoss.trackoss_backend.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenPrincipalResolverTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .id(7L)
+                .username("rider")
+                .email("rider@example.com")
+                .password("encodedPassword")
+                .role(User.Role.ADMIN)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should load the user on every request by default")
+    void testResolve_DefaultMode_LoadsUserEachTime() {
+        // Arrange
+        TokenPrincipalResolver resolver = new TokenPrincipalResolver(userDetailsService, false, Duration.ZERO);
+        when(userDetailsService.loadUserByUsername("rider")).thenReturn(new UserPrincipal(user));
+
+        // Act
+        resolver.resolve(claims(true));
+        Optional<UserDetails> principal = resolver.resolve(claims(true));
+
+        // Assert
+        assertThat(principal).isPresent();
+        assertThat(((UserPrincipal) principal.get()).isFromToken()).isFalse();
+        verify(userDetailsService, times(2)).loadUserByUsername("rider");
+    }
+
+    @Test
+    @DisplayName("Should build the principal from claims without a lookup in stateless mode")
+    void testResolve_Stateless_UsesClaims() {
+        // Arrange
+        TokenPrincipalResolver resolver = new TokenPrincipalResolver(userDetailsService, true, Duration.ZERO);
+
+        // Act
+        Optional<UserDetails> principal = resolver.resolve(claims(true));
+
+        // Assert
+        assertThat(principal).isPresent();
+        UserPrincipal userPrincipal = (UserPrincipal) principal.get();
+        assertThat(userPrincipal.isFromToken()).isTrue();
+        assertThat(userPrincipal.getUser().getId()).isEqualTo(7L);
+        assertThat(userPrincipal.getUsername()).isEqualTo("rider");
+        assertThat(userPrincipal.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Should fall back to a lookup for tokens without user id and role in stateless mode")
+    void testResolve_StatelessWithoutClaims_LoadsUser() {
+        // Arrange
+        TokenPrincipalResolver resolver = new TokenPrincipalResolver(userDetailsService, true, Duration.ZERO);
+        when(userDetailsService.loadUserByUsername("rider")).thenReturn(new UserPrincipal(user));
+
+        // Act
+        Optional<UserDetails> principal = resolver.resolve(claims(false));
+
+        // Assert
+        assertThat(principal).isPresent();
+        assertThat(((UserPrincipal) principal.get()).isFromToken()).isFalse();
+        verify(userDetailsService).loadUserByUsername("rider");
+    }
+
+    @Test
+    @DisplayName("Should load a user once within the cache TTL")
+    void testResolve_WithUserCache_LoadsOnce() {
+        // Arrange
+        TokenPrincipalResolver resolver = new TokenPrincipalResolver(userDetailsService, false, Duration.ofSeconds(30));
+        when(userDetailsService.loadUserByUsername("rider")).thenReturn(new UserPrincipal(user));
+
+        // Act
+        resolver.resolve(claims(true));
+        resolver.resolve(claims(true));
+        Optional<UserDetails> principal = resolver.resolve(claims(true));
+
+        // Assert
+        assertThat(principal).isPresent();
+        verify(userDetailsService, times(1)).loadUserByUsername("rider");
+    }
+
+    @Test
+    @DisplayName("Should reject disabled users loaded from the users table")
+    void testResolve_DisabledUser_Empty() {
+        // Arrange
+        TokenPrincipalResolver resolver = new TokenPrincipalResolver(userDetailsService, false, Duration.ZERO);
+        user.setEnabled(false);
+        when(userDetailsService.loadUserByUsername("rider")).thenReturn(new UserPrincipal(user));
+
+        // Act
+        Optional<UserDetails> principal = resolver.resolve(claims(true));
+
+        // Assert
+        assertThat(principal).isEmpty();
+    }
+
+    private static Claims claims(boolean withUserClaims) {
+        var builder = Jwts.claims().subject("rider");
+        if (withUserClaims) {
+            builder.add(JwtTokenProvider.USER_ID_CLAIM, 7L)
+                    .add(JwtTokenProvider.ROLE_CLAIM, "ADMIN");
+        }
+        return builder.build();
+    }
+}
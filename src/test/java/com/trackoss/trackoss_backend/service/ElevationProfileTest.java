@@ -0,0 +1,75 @@
+package com.trackoss.trackoss_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElevationProfileTest {
+
+    @Test
+    void of_LongSeries_KeepsEndsAndPeakWithinSampleCount() {
+        // Arrange: 10 km of gently rolling terrain with a single 80 m spike at 6.2 km
+        int size = 10_001;
+        double[] distances = new double[size];
+        double[] elevations = new double[size];
+        for (int i = 0; i < size; i++) {
+            distances[i] = i;
+            elevations[i] = 300.0 + 5.0 * Math.sin(i / 500.0);
+        }
+        elevations[6_200] = 380.0;
+
+        // Act
+        ElevationProfile profile = ElevationProfile.of(distances, elevations, size, 200);
+
+        // Assert
+        assertEquals(200, profile.size());
+        assertEquals(0.0, profile.distances()[0]);
+        assertEquals(10_000.0, profile.distances()[199]);
+        double highest = 0.0;
+        for (int i = 0; i < profile.size(); i++) {
+            highest = Math.max(highest, profile.elevations()[i]);
+            if (i > 0) {
+                assertTrue(profile.distances()[i] > profile.distances()[i - 1]);
+            }
+        }
+        assertEquals(380.0, highest);
+    }
+
+    @Test
+    void downsample_MoreSamplesThanPoints_ReturnsProfileUnchanged() {
+        // Arrange
+        ElevationProfile profile = new ElevationProfile(new double[]{0, 10, 20}, new double[]{100, 110, 105});
+
+        // Act & Assert
+        assertSame(profile, profile.downsample(300));
+        assertEquals(2, profile.downsample(2).size());
+    }
+
+    @Test
+    void encode_RoundTripsToDecimetres() {
+        // Arrange
+        Random random = new Random(3);
+        double[] distances = new double[500];
+        double[] elevations = new double[500];
+        double distance = 0.0;
+        for (int i = 0; i < distances.length; i++) {
+            distance += random.nextDouble() * 30;
+            distances[i] = distance;
+            elevations[i] = -20 + random.nextDouble() * 3_000;
+        }
+        ElevationProfile profile = new ElevationProfile(distances, elevations);
+
+        // Act
+        ElevationProfile decoded = ElevationProfile.decode(profile.encode());
+
+        // Assert
+        assertEquals(profile.size(), decoded.size());
+        for (int i = 0; i < distances.length; i++) {
+            assertEquals(distances[i], decoded.distances()[i], 0.051);
+            assertEquals(elevations[i], decoded.elevations()[i], 0.051);
+        }
+        assertEquals(0, ElevationProfile.decode(ElevationProfile.EMPTY.encode()).size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.trackoss.trackoss_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElevationSmootherTest {
+
+    private static final ElevationSmoother.Settings THRESHOLD_ONLY = ElevationSmoother.Settings.DEFAULT;
+
+    @Test
+    void add_JitterOnFlatGround_CountsNoGain() {
+        // Arrange: barometer jitter of +-1 m around 500 m
+        ElevationSmoother smoother = new ElevationSmoother(THRESHOLD_ONLY);
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            smoother.add(i % 2 == 0 ? 499.0 : 501.0, 10.0);
+        }
+        smoother.finish();
+
+        // Assert: at most the final half swing, counted by finish
+        assertTrue(smoother.getGain() + smoother.getLoss() <= 2.0);
+    }
+
+    @Test
+    void finish_SteadyClimbInSmallSteps_CountsTheWholeClimb() {
+        // Arrange: 0.5 m per point, below the threshold on every single step
+        ElevationSmoother smoother = new ElevationSmoother(THRESHOLD_ONLY);
+
+        // Act
+        for (int i = 0; i <= 201; i++) {
+            smoother.add(100.0 + i * 0.5, 5.0);
+        }
+        smoother.finish();
+
+        // Assert
+        assertEquals(100.5, smoother.getGain(), 1e-9);
+        assertEquals(0.0, smoother.getLoss());
+    }
+
+    @Test
+    void add_MedianFilter_IgnoresSingleSpikes() {
+        // Arrange
+        ElevationSmoother.Settings settings = new ElevationSmoother.Settings(
+                ElevationSmoother.Filter.MEDIAN, 5, 3.0, 0.05, 9.0);
+        ElevationSmoother smoother = new ElevationSmoother(settings);
+
+        // Act: flat track with a 40 m outlier every 20 points
+        for (int i = 0; i < 200; i++) {
+            smoother.add(i % 20 == 10 ? 540.0 : 500.0, 10.0);
+        }
+        smoother.finish();
+
+        // Assert
+        assertEquals(0.0, smoother.getGain());
+        assertEquals(0.0, smoother.getLoss());
+    }
+
+    @Test
+    void add_KalmanFilter_ReducesNoiseButKeepsTheClimb() {
+        // Arrange: 100 m climb over 2 km sampled every 5 m with 3 m Gaussian noise
+        Random random = new Random(7);
+        ElevationSmoother.Settings settings = new ElevationSmoother.Settings(
+                ElevationSmoother.Filter.KALMAN, 5, 3.0, 0.05, 9.0);
+        ElevationSmoother kalman = new ElevationSmoother(settings);
+        ElevationSmoother unfiltered = new ElevationSmoother(THRESHOLD_ONLY);
+
+        // Act
+        for (int i = 0; i <= 400; i++) {
+            double elevation = 200.0 + i * 0.25 + random.nextGaussian() * 3.0;
+            kalman.add(elevation, 5.0);
+            unfiltered.add(elevation, 5.0);
+        }
+        kalman.finish();
+        unfiltered.finish();
+
+        // Assert
+        assertEquals(100.0, kalman.getGain() - kalman.getLoss(), 10.0);
+        assertTrue(kalman.getGain() < unfiltered.getGain());
+        assertTrue(kalman.getGain() < 130.0, "gain was " + kalman.getGain());
+    }
+
+    @Test
+    void add_MissingElevations_AreSkipped() {
+        // Arrange
+        ElevationSmoother smoother = new ElevationSmoother(THRESHOLD_ONLY);
+
+        // Act
+        smoother.add(Double.NaN, 0.0);
+        smoother.add(100.0, 10.0);
+        smoother.add(Double.NaN, 10.0);
+        smoother.add(110.0, 10.0);
+        smoother.finish();
+
+        // Assert
+        assertEquals(10.0, smoother.getGain());
+    }
+}
@@ -0,0 +1,88 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoJsonServiceTest {
+
+    private ObjectMapper objectMapper;
+    private GeoJsonService geoJsonService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        geoJsonService = new GeoJsonService(objectMapper, new TrackStorageService(), RouteMeters.none());
+    }
+
+    @Test
+    void writeGeoJson_MatchesCompatibilityOutput() throws Exception {
+        // Arrange
+        Route route = createRoute();
+        List<RoutePoint> points = route.getRoutePoints();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        geoJsonService.writeGeoJson(route, List.of(points.get(1)), points.iterator(), null, outputStream);
+
+        // Assert
+        JsonNode streamed = objectMapper.readTree(outputStream.toByteArray());
+        JsonNode legacy = objectMapper.readTree(geoJsonService.exportToGeoJson(route));
+        assertEquals(legacy, streamed);
+    }
+
+    @Test
+    void writeGeoJson_WithPrecision_RoundsCoordinates() throws Exception {
+        // Arrange
+        Route route = createRoute();
+        List<RoutePoint> points = route.getRoutePoints();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        int written = geoJsonService.writeGeoJson(route, List.of(), points.iterator(), 5, outputStream);
+
+        // Assert
+        assertEquals(3, written);
+        JsonNode coordinates = objectMapper.readTree(outputStream.toByteArray())
+                .at("/features/0/geometry/coordinates");
+        assertEquals(3, coordinates.size());
+        assertEquals("-122.33212", coordinates.get(0).get(0).asText());
+        assertEquals("47.60623", coordinates.get(0).get(1).asText());
+        assertEquals("56.4", coordinates.get(0).get(2).asText());
+        assertEquals(2, coordinates.get(2).size());
+    }
+
+    private Route createRoute() {
+        Route route = new Route();
+        route.setName("Lake Loop");
+        route.setDescription("Around the lake");
+        route.setRouteType(Route.RouteType.CYCLING);
+        route.setTotalDistance(1234.5);
+        route.setEstimatedDuration(600L);
+
+        route.addRoutePoint(createPoint(0, 47.606234567, -122.332123456, 56.42, RoutePoint.PointType.START_POINT, null));
+        route.addRoutePoint(createPoint(1, 47.6200, -122.3200, 180.0, RoutePoint.PointType.WAYPOINT, "Summit"));
+        route.addRoutePoint(createPoint(2, 47.6262, -122.3121, null, RoutePoint.PointType.END_POINT, null));
+        return route;
+    }
+
+    private RoutePoint createPoint(int sequence, double latitude, double longitude, Double elevation,
+                                   RoutePoint.PointType pointType, String name) {
+        RoutePoint point = new RoutePoint();
+        point.setSequenceOrder(sequence);
+        point.setLatitude(latitude);
+        point.setLongitude(longitude);
+        point.setElevation(elevation);
+        point.setPointType(pointType);
+        point.setName(name);
+        return point;
+    }
+}
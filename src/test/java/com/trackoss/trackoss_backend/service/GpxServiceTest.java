@@ -0,0 +1,164 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import io.jenetics.jpx.GPX;
+import io.jenetics.jpx.WayPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GpxServiceTest {
+
+    private TrackStorageService trackStorageService;
+    private GpxService gpxService;
+
+    @BeforeEach
+    void setUp() {
+        trackStorageService = new TrackStorageService();
+        gpxService = new GpxService(trackStorageService);
+    }
+
+    @Test
+    void writeGpx_ProducesDocumentReadableByJpx() throws Exception {
+        // Arrange
+        Route route = createRoute();
+        List<RoutePoint> points = route.getRoutePoints();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        int written = gpxService.writeGpx(route, List.of(points.get(1)), points.iterator(), outputStream);
+        GPX gpx = GPX.Reader.DEFAULT.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        // Assert
+        assertEquals(3, written);
+        assertEquals("Harbour <Loop> & Back", gpx.getMetadata().orElseThrow().getName().orElseThrow());
+
+        assertEquals(1, gpx.getWayPoints().size());
+        assertEquals("Summit", gpx.getWayPoints().get(0).getName().orElseThrow());
+
+        List<WayPoint> trackPoints = gpx.getTracks().get(0).getSegments().get(0).getPoints();
+        assertEquals(3, trackPoints.size());
+        assertEquals(0.00001, trackPoints.get(0).getLatitude().doubleValue(), 1e-9);
+        assertEquals(12.5, trackPoints.get(0).getElevation().orElseThrow().doubleValue(), 1e-9);
+        assertEquals(LocalDateTime.of(2024, 8, 8, 12, 0).toInstant(ZoneOffset.UTC),
+                trackPoints.get(0).getTime().orElseThrow());
+        assertTrue(trackPoints.get(2).getElevation().isEmpty());
+    }
+
+    @Test
+    void exportToGpx_PackedRoute_WritesAllPointsInSequence() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", Route.StorageMode.PACKED);
+        Route route = createRoute();
+        trackStorageService.storePoints(route);
+
+        // Act
+        byte[] gpxData = gpxService.exportToGpx(route);
+        GPX gpx = GPX.Reader.DEFAULT.read(new ByteArrayInputStream(gpxData));
+
+        // Assert
+        List<WayPoint> trackPoints = gpx.getTracks().get(0).getSegments().get(0).getPoints();
+        assertEquals(3, trackPoints.size());
+        assertEquals("Summit", trackPoints.get(1).getName().orElseThrow());
+        assertEquals(47.6262, trackPoints.get(2).getLatitude().doubleValue(), 1e-7);
+        assertEquals(1, gpx.getWayPoints().size());
+    }
+
+    @Test
+    void readGpx_ReportsPointsInDocumentOrder() throws Exception {
+        // Arrange
+        String gpx = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <gpx version="1.0" creator="Test" xmlns="http://www.topografix.com/GPX/1/0">
+              <name>Old Style</name>
+              <rte>
+                <name>Not the route name</name>
+                <rtept lat="47.1" lon="8.1"><ele>400</ele><desc>Bridge</desc></rtept>
+              </rte>
+              <trk>
+                <name>Morning</name>
+                <trkseg>
+                  <trkpt lat="47.2" lon="8.2">
+                    <time>2024-08-08T14:00:00+02:00</time>
+                    <extensions><speed>4.2</speed><name>ignored</name></extensions>
+                  </trkpt>
+                </trkseg>
+              </trk>
+            </gpx>
+            """;
+        List<RoutePoint> points = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        // Act
+        gpxService.readGpx(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)), new GpxService.GpxHandler() {
+            @Override
+            public void onMetadataName(String name) {
+                names.add("metadata:" + name);
+            }
+
+            @Override
+            public void onTrackName(String name) {
+                names.add("track:" + name);
+            }
+
+            @Override
+            public void onPoint(RoutePoint point) {
+                points.add(point);
+            }
+        });
+
+        // Assert
+        assertEquals(List.of("metadata:Old Style", "track:Morning"), names);
+        assertEquals(2, points.size());
+        assertEquals(RoutePoint.PointType.ROUTE_POINT, points.get(0).getPointType());
+        assertEquals(400.0, points.get(0).getElevation());
+        assertEquals("Bridge", points.get(0).getDescription());
+        assertEquals(RoutePoint.PointType.TRACK_POINT, points.get(1).getPointType());
+        assertNull(points.get(1).getName());
+        assertEquals(LocalDateTime.of(2024, 8, 8, 12, 0), points.get(1).getTimestamp());
+    }
+
+    @Test
+    void readGpx_NotGpx_ThrowsIOException() {
+        assertThrows(IOException.class, () -> gpxService.readGpx(
+                new ByteArrayInputStream("This is not valid GPX content".getBytes(StandardCharsets.UTF_8)),
+                point -> { }));
+    }
+
+    private Route createRoute() {
+        Route route = new Route();
+        route.setName("Harbour <Loop> & Back");
+        route.setRouteType(Route.RouteType.CYCLING);
+
+        RoutePoint start = createPoint(0, 0.00001, -122.3321, 12.5, RoutePoint.PointType.START_POINT, null);
+        start.setTimestamp(LocalDateTime.of(2024, 8, 8, 12, 0));
+        route.addRoutePoint(start);
+        route.addRoutePoint(createPoint(1, 47.6200, -122.3200, 180.0, RoutePoint.PointType.WAYPOINT, "Summit"));
+        route.addRoutePoint(createPoint(2, 47.6262, -122.3121, null, RoutePoint.PointType.END_POINT, null));
+        return route;
+    }
+
+    private RoutePoint createPoint(int sequence, double latitude, double longitude, Double elevation,
+                                   RoutePoint.PointType pointType, String name) {
+        RoutePoint point = new RoutePoint();
+        point.setSequenceOrder(sequence);
+        point.setLatitude(latitude);
+        point.setLongitude(longitude);
+        point.setElevation(elevation);
+        point.setPointType(pointType);
+        point.setName(name);
+        return point;
+    }
+}
@@ -0,0 +1,190 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.dto.ImportJobResponse;
+import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import com.trackoss.trackoss_backend.entity.User;
+import com.trackoss.trackoss_backend.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private RouteImportService routeImportService;
+
+    @Mock
+    private GeoJsonService geoJsonService;
+
+    @Mock
+    private RouteService routeService;
+
+    @InjectMocks
+    private ImportJobService importJobService;
+
+    private final Authentication owner = authenticate(1L, "owner");
+
+    @BeforeEach
+    void setUp() {
+        importJobService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importJobService.stop();
+    }
+
+    @Test
+    void submit_ZipArchive_ImportsEachEntryWithPerFileStatus() throws Exception {
+        // Arrange
+        UUID gpxRouteId = UUID.randomUUID();
+        UUID geoJsonRouteId = UUID.randomUUID();
+        RouteSummaryResponse summary = new RouteSummaryResponse();
+        summary.setId(gpxRouteId);
+        when(routeImportService.importGpx(any(InputStream.class), isNull(), eq("1"))).thenReturn(summary);
+
+        RouteCreateRequest request = new RouteCreateRequest();
+        request.setPoints(List.of(new RouteCreateRequest.RoutePointRequest()));
+        when(geoJsonService.importFromGeoJson(eq("{\"type\":\"LineString\"}"), isNull())).thenReturn(request);
+        RouteResponse created = new RouteResponse();
+        created.setId(geoJsonRouteId);
+        when(routeService.createRoute(request, owner)).thenReturn(created);
+
+        MockMultipartFile archive = new MockMultipartFile("files", "export.zip", "application/zip", zip(
+                "rides/morning.gpx", "<gpx/>",
+                "rides/evening.geojson", "{\"type\":\"LineString\"}",
+                "README.txt", "not a route",
+                "__MACOSX/rides/._morning.gpx", "resource fork"));
+
+        // Act
+        ImportJobResponse submitted = importJobService.submit(List.of(archive), owner);
+        ImportJobResponse job = awaitCompletion(submitted.getId());
+
+        // Assert
+        assertEquals(ImportJobResponse.JobStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getTotalFiles());
+        assertEquals(3, job.getProcessedFiles());
+        assertEquals(2, job.getSucceededFiles());
+        assertEquals(1, job.getFailedFiles());
+        assertNotNull(job.getFinishedAt());
+
+        assertEquals("export.zip/rides/morning.gpx", job.getFiles().get(0).getFileName());
+        assertEquals(gpxRouteId, job.getFiles().get(0).getRouteId());
+        assertEquals(geoJsonRouteId, job.getFiles().get(1).getRouteId());
+        assertEquals(ImportJobResponse.FileStatus.FAILED, job.getFiles().get(2).getStatus());
+        assertNotNull(job.getFiles().get(2).getError());
+    }
+
+    @Test
+    void submit_FailingFile_DoesNotStopOtherFiles() throws Exception {
+        // Arrange
+        RouteSummaryResponse summary = new RouteSummaryResponse();
+        summary.setId(UUID.randomUUID());
+        when(routeImportService.importGpx(any(InputStream.class), isNull(), eq("1")))
+                .thenThrow(new IllegalArgumentException("GPX file contains no valid track points"))
+                .thenReturn(summary);
+
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "broken.gpx", "application/gpx+xml", "<gpx/>".getBytes()),
+                new MockMultipartFile("files", "good.gpx", "application/gpx+xml", "<gpx/>".getBytes()));
+
+        // Act
+        ImportJobResponse job = awaitCompletion(importJobService.submit(files, owner).getId());
+
+        // Assert
+        assertEquals(ImportJobResponse.JobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getSucceededFiles());
+        assertEquals(1, job.getFailedFiles());
+        verify(routeImportService, times(2)).importGpx(any(InputStream.class), isNull(), eq("1"));
+    }
+
+    @Test
+    void submit_TooManyFiles_ThrowsIllegalArgumentException() {
+        // Arrange
+        ReflectionTestUtils.setField(importJobService, "maxFilesPerJob", 1);
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "a.gpx", "application/gpx+xml", "<gpx/>".getBytes()),
+                new MockMultipartFile("files", "b.gpx", "application/gpx+xml", "<gpx/>".getBytes()));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> importJobService.submit(files, owner));
+        verifyNoInteractions(routeImportService);
+    }
+
+    @Test
+    void getJob_UnknownId_ReturnsEmpty() {
+        assertTrue(importJobService.getJob(UUID.randomUUID(), owner).isEmpty());
+    }
+
+    @Test
+    void getJob_OtherUser_ReturnsEmpty() throws Exception {
+        // Arrange
+        RouteSummaryResponse summary = new RouteSummaryResponse();
+        summary.setId(UUID.randomUUID());
+        when(routeImportService.importGpx(any(InputStream.class), isNull(), eq("1"))).thenReturn(summary);
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "ride.gpx", "application/gpx+xml", "<gpx/>".getBytes()));
+
+        // Act
+        UUID jobId = awaitCompletion(importJobService.submit(files, owner).getId()).getId();
+
+        // Assert
+        assertTrue(importJobService.getJob(jobId, authenticate(2L, "other")).isEmpty());
+        assertTrue(importJobService.getJob(jobId, null).isEmpty());
+        assertTrue(importJobService.getJob(jobId, owner).isPresent());
+    }
+
+    private ImportJobResponse awaitCompletion(UUID jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ImportJobResponse job = importJobService.getJob(jobId, owner).orElseThrow();
+            if (job.getProcessedFiles() == job.getTotalFiles()) {
+                return job;
+            }
+            Thread.sleep(25);
+        }
+        fail("Import job did not finish in time");
+        return null;
+    }
+
+    private static Authentication authenticate(long userId, String username) {
+        UserPrincipal principal = new UserPrincipal(User.builder().id(userId).username(username).build());
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private byte[] zip(String... namesAndContents) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
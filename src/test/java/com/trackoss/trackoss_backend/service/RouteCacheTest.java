@@ -0,0 +1,82 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCacheTest {
+
+    private final RouteCache routeCache = new RouteCache(10_000, 1_000);
+
+    @Test
+    void writeExport_SecondRequest_ServedFromCapturedBytes() throws Exception {
+        // Arrange
+        RouteSummaryResponse summary = summary(UUID.randomUUID(), 100);
+        AtomicInteger renders = new AtomicInteger();
+        RouteCache.ExportWriter writer = out -> {
+            renders.incrementAndGet();
+            out.write("<gpx/>".getBytes(StandardCharsets.UTF_8));
+        };
+
+        // Act
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        boolean firstCached = routeCache.writeExport(summary, RouteCache.GPX, first, writer);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        boolean secondCached = routeCache.writeExport(summary, RouteCache.GPX, second, writer);
+
+        // Assert
+        assertFalse(firstCached);
+        assertTrue(secondCached);
+        assertEquals(1, renders.get());
+        assertEquals("<gpx/>", second.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeExport_AfterEvictOrNewUpdatedAt_RendersAgain() throws Exception {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        RouteSummaryResponse summary = summary(id, 100);
+        AtomicInteger renders = new AtomicInteger();
+        RouteCache.ExportWriter writer = out -> renders.incrementAndGet();
+        String variant = RouteCache.geoJson(5, null, null);
+        routeCache.writeExport(summary, variant, new ByteArrayOutputStream(), writer);
+
+        // Act
+        routeCache.evict(id);
+        routeCache.writeExport(summary, variant, new ByteArrayOutputStream(), writer);
+        summary.setUpdatedAt(summary.getUpdatedAt().plusSeconds(1));
+        routeCache.writeExport(summary, variant, new ByteArrayOutputStream(), writer);
+
+        // Assert
+        assertEquals(3, renders.get());
+    }
+
+    @Test
+    void writeExport_RouteAboveEntryLimit_NeverCached() throws Exception {
+        // Arrange
+        RouteSummaryResponse summary = summary(UUID.randomUUID(), 5_000);
+        AtomicInteger renders = new AtomicInteger();
+
+        // Act
+        routeCache.writeExport(summary, RouteCache.GPX, new ByteArrayOutputStream(), out -> renders.incrementAndGet());
+        routeCache.writeExport(summary, RouteCache.GPX, new ByteArrayOutputStream(), out -> renders.incrementAndGet());
+
+        // Assert
+        assertEquals(2, renders.get());
+    }
+
+    private static RouteSummaryResponse summary(UUID id, int pointCount) {
+        RouteSummaryResponse summary = new RouteSummaryResponse();
+        summary.setId(id);
+        summary.setUpdatedAt(LocalDateTime.of(2025, 5, 1, 12, 0));
+        summary.setPointCount(pointCount);
+        return summary;
+    }
+}
@@ -0,0 +1,192 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RoutePointsPatchRequest;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.repository.RoutePointBatchWriter;
+import com.trackoss.trackoss_backend.repository.RoutePointRepository;
+import com.trackoss.trackoss_backend.repository.RouteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({RouteImportService.class, GpxService.class, RouteStatisticsService.class, TrackStorageService.class,
+        TrackSimplificationService.class, RoutePointBatchWriter.class, RouteMeters.class,
+        RoutePointEditService.class, RouteCache.class})
+class RouteImportServiceTest {
+
+    private static final int TRACK_POINTS = RouteImportService.BATCH_SIZE * 2 + 100;
+
+    @Autowired
+    private RouteImportService routeImportService;
+
+    @Autowired
+    private RoutePointEditService routePointEditService;
+
+    @Autowired
+    private TrackStorageService trackStorageService;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private RoutePointRepository routePointRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @AfterEach
+    void resetStorageMode() {
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", Route.StorageMode.ROWS);
+    }
+
+    @Test
+    void importGpx_RowsMode_PersistsAllPointsInBatches() throws IOException {
+        // Act
+        RouteSummaryResponse summary = routeImportService.importGpx(createGpx(), null, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        Route route = routeRepository.findById(summary.getId()).orElseThrow();
+        assertEquals("Alpine Tour", route.getName());
+        assertEquals("Three days across the pass", route.getDescription());
+        assertEquals(Route.StorageMode.ROWS, route.getStorageMode());
+        assertEquals(TRACK_POINTS + 1, route.getPointCount());
+        assertEquals(TRACK_POINTS + 1, routePointRepository.countByRouteId(route.getId()));
+        assertEquals(TRACK_POINTS + 1, TrackLevels.decode(route.getTrackLevels()).pointCount());
+
+        List<RoutePoint> points = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(route.getId());
+        assertEquals(RoutePoint.PointType.WAYPOINT, points.get(0).getPointType());
+        assertEquals("Hut", points.get(0).getName());
+        assertEquals(RoutePoint.PointType.TRACK_POINT, points.get(1).getPointType());
+        assertNotNull(points.get(1).getTimestamp());
+
+        assertExpectedStatistics(route);
+    }
+
+    @Test
+    void importGpx_PackedMode_KeepsOnlyNamedPointsAsRows() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", Route.StorageMode.PACKED);
+
+        // Act
+        RouteSummaryResponse summary = routeImportService.importGpx(createGpx(), "Custom Name", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        Route route = routeRepository.findById(summary.getId()).orElseThrow();
+        assertEquals("Custom Name", route.getName());
+        assertEquals(Route.StorageMode.PACKED, route.getStorageMode());
+        assertEquals(1, routePointRepository.countByRouteId(route.getId()));
+
+        List<RoutePoint> points = trackStorageService.readPoints(route);
+        assertEquals(TRACK_POINTS + 1, points.size());
+        assertEquals("Hut", points.get(0).getName());
+        assertEquals(46.0 + (TRACK_POINTS - 1) * 0.0001, points.get(TRACK_POINTS).getLatitude(), 1e-7);
+
+        assertExpectedStatistics(route);
+    }
+
+    @Test
+    void importGpx_WithWaypoint_KeepsTotalsAfterPointEdit() throws IOException {
+        // Arrange
+        RouteSummaryResponse summary = routeImportService.importGpx(createGpx(), null, null);
+        entityManager.flush();
+        entityManager.clear();
+        Route imported = routeRepository.findById(summary.getId()).orElseThrow();
+        double distance = imported.getTotalDistance();
+        double elevationGain = imported.getTotalElevationGain();
+        long estimatedDuration = imported.getEstimatedDuration();
+
+        // Act: put the last track point back where it was, which re-measures the whole route
+        RoutePoint last = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(summary.getId()).get(TRACK_POINTS);
+        RouteCreateRequest.RoutePointRequest same = new RouteCreateRequest.RoutePointRequest();
+        same.setLatitude(last.getLatitude());
+        same.setLongitude(last.getLongitude());
+        same.setElevation(last.getElevation());
+        RoutePointsPatchRequest.RangeEdit edit = new RoutePointsPatchRequest.RangeEdit();
+        edit.setFromSequence(TRACK_POINTS);
+        edit.setToSequence(TRACK_POINTS + 1);
+        edit.setPoints(List.of(same));
+        RoutePointsPatchRequest request = new RoutePointsPatchRequest();
+        request.setEdits(List.of(edit));
+        entityManager.clear();
+        routePointEditService.applyEdits(summary.getId(), request);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert: the waypoint stays off the line in the full pass, as it was in the streamed one
+        Route edited = routeRepository.findById(summary.getId()).orElseThrow();
+        assertEquals(distance, edited.getTotalDistance(), 1e-6);
+        assertEquals(elevationGain, edited.getTotalElevationGain(), 1e-6);
+        assertEquals(estimatedDuration, edited.getEstimatedDuration());
+        assertExpectedStatistics(edited);
+    }
+
+    @Test
+    void importGpx_NoPoints_ThrowsException() {
+        String gpx = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <gpx version="1.1" creator="Test"></gpx>
+            """;
+
+        assertThrows(IllegalArgumentException.class, () -> routeImportService.importGpx(
+                new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)), null, null));
+    }
+
+    private void assertExpectedStatistics(Route route) {
+        // Track points climb 0.5 m each, the waypoint is not part of the line
+        assertEquals((TRACK_POINTS - 1) * 0.5, route.getTotalElevationGain(), 1e-6);
+        assertTrue(route.getTotalDistance() > 0);
+        assertTrue(route.getEstimatedDuration() > 0);
+        assertEquals(46.0, route.getMinLatitude(), 1e-9);
+        assertEquals(7.5, route.getMaxLongitude(), 1e-9);
+        // Stored statistics come out of the same pass
+        assertEquals(TRACK_POINTS + 1, route.getStats().getPointCount());
+        assertEquals(route.getTotalDistance(), route.getStats().getDistance(), 1e-9);
+        assertEquals(0.0, route.getStats().getElevationLoss(), 1e-9);
+    }
+
+    private ByteArrayInputStream createGpx() {
+        StringBuilder gpx = new StringBuilder("""
+            <?xml version="1.0" encoding="UTF-8"?>
+            <gpx version="1.1" creator="Test" xmlns="http://www.topografix.com/GPX/1/1">
+              <metadata>
+                <name>Alpine Tour</name>
+                <desc>Three days across the pass</desc>
+                <author><name>Someone Else</name></author>
+              </metadata>
+              <wpt lat="46.01" lon="7.5"><ele>2100</ele><name>Hut</name></wpt>
+              <trk>
+                <name>Day 1</name>
+                <trkseg>
+            """);
+        for (int i = 0; i < TRACK_POINTS; i++) {
+            gpx.append(String.format(Locale.ROOT,
+                    "<trkpt lat=\"%.4f\" lon=\"%.4f\"><ele>%.1f</ele><time>2024-07-01T08:%02d:%02dZ</time>"
+                            + "<extensions><hr>120</hr></extensions></trkpt>%n",
+                    46.0 + i * 0.0001, 7.4 + i * 0.00001, 1500.0 + i * 0.5, (i / 60) % 60, i % 60));
+        }
+        gpx.append("</trkseg></trk></gpx>");
+        return new ByteArrayInputStream(gpx.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trackoss.trackoss_backend.entity.Route;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteMetadataSyncTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RouteMetadataSync routeMetadataSync = new RouteMetadataSync(objectMapper);
+
+    @Test
+    void apply_WithDifficultyAndNoMetadata_ShouldCreateMetadata() throws Exception {
+        // Arrange
+        Route route = new Route();
+
+        // Act
+        routeMetadataSync.apply(route, null, 4);
+
+        // Assert
+        assertEquals(4, route.getDifficulty());
+        JsonNode metadataJson = objectMapper.readTree(route.getMetadata());
+        assertEquals(4, metadataJson.get("difficulty").asInt());
+    }
+
+    @Test
+    void apply_WithDifficultyAndExistingMetadata_ShouldUpdateDifficultyInMetadata() throws Exception {
+        // Arrange
+        Route route = new Route();
+
+        // Act
+        routeMetadataSync.apply(route, "{\"surface\":\"asphalt\",\"traffic\":\"low\",\"difficulty\":2}", 5);
+
+        // Assert
+        assertEquals(5, route.getDifficulty());
+        JsonNode metadataJson = objectMapper.readTree(route.getMetadata());
+        assertEquals("asphalt", metadataJson.get("surface").asText());
+        assertEquals("low", metadataJson.get("traffic").asText());
+        assertEquals(5, metadataJson.get("difficulty").asInt());
+    }
+
+    @Test
+    void apply_WithoutDifficulty_ShouldTakeDifficultyFromMetadata() {
+        // Arrange
+        Route route = new Route();
+        route.setDifficulty(1);
+
+        // Act
+        routeMetadataSync.apply(route, "{\"difficulty\":3,\"surface\":\"gravel\"}", null);
+
+        // Assert
+        assertEquals(3, route.getDifficulty());
+        assertEquals("{\"difficulty\":3,\"surface\":\"gravel\"}", route.getMetadata());
+    }
+
+    @Test
+    void apply_WithoutDifficultyInMetadata_ShouldKeepDifficulty() {
+        // Arrange
+        Route route = new Route();
+        route.setDifficulty(4);
+
+        // Act
+        routeMetadataSync.apply(route, "{\"surface\":\"asphalt\",\"traffic\":\"medium\"}", null);
+
+        // Assert
+        assertEquals(4, route.getDifficulty());
+    }
+
+    @Test
+    void apply_WithNullOrEmptyMetadata_ShouldKeepDifficulty() {
+        // Arrange
+        Route route = new Route();
+        route.setDifficulty(3);
+
+        // Act & Assert
+        routeMetadataSync.apply(route, null, null);
+        assertEquals(3, route.getDifficulty());
+        assertNull(route.getMetadata());
+
+        routeMetadataSync.apply(route, "", null);
+        assertEquals(3, route.getDifficulty());
+        assertEquals("", route.getMetadata());
+    }
+
+    @Test
+    void apply_WithSurface_ShouldSetNormalizedSurface() {
+        // Arrange
+        Route route = new Route();
+
+        // Act
+        routeMetadataSync.apply(route, "{\"surface\":\" Gravel \",\"traffic\":\"low\"}", null);
+
+        // Assert
+        assertEquals("gravel", route.getSurface());
+
+        // A later metadata without a surface clears it
+        routeMetadataSync.apply(route, "{\"traffic\":\"low\"}", null);
+        assertNull(route.getSurface());
+    }
+
+    @Test
+    void apply_WithInvalidJson_ShouldKeepMetadataAsGiven() {
+        // Arrange
+        Route route = new Route();
+
+        // Act
+        assertDoesNotThrow(() -> routeMetadataSync.apply(route, "not a valid json with difficulty", 2));
+
+        // Assert
+        assertEquals("not a valid json with difficulty", route.getMetadata());
+        assertEquals(2, route.getDifficulty());
+        assertNull(route.getSurface());
+    }
+
+    @Test
+    void surfaceOf_ShouldReadSurfaceFromMetadata() {
+        // Act & Assert
+        assertEquals("dirt", routeMetadataSync.surfaceOf("{\"surface\":\"Dirt\"}"));
+        assertNull(routeMetadataSync.surfaceOf("{\"traffic\":\"low\"}"));
+        assertNull(routeMetadataSync.surfaceOf("[\"surface\"]"));
+        assertNull(routeMetadataSync.surfaceOf(null));
+    }
+}
@@ -0,0 +1,50 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteMetersTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RouteMeters routeMeters = new RouteMeters(registry);
+
+    @Test
+    void recordDbWrite_TaggedByFormatAndRouteType() {
+        // Act
+        routeMeters.recordDbWrite(RouteMeters.GPX, Route.RouteType.CYCLING, 2_000_000);
+        routeMeters.recordDbWrite(RouteMeters.GPX, Route.RouteType.CYCLING, 4_000_000);
+        routeMeters.recordDbWrite(RouteMeters.JSON, null, 1_000_000);
+
+        // Assert
+        var cycling = registry.get("route.db.write").tag("format", "gpx").tag("route_type", "CYCLING").timer();
+        assertEquals(2, cycling.count());
+        assertEquals(6.0, cycling.totalTime(TimeUnit.MILLISECONDS), 1e-9);
+        assertEquals(1, registry.get("route.db.write").tag("route_type", "none").timer().count());
+    }
+
+    @Test
+    void countingOutputStream_CountsEveryWrite() throws Exception {
+        // Arrange
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        RouteMeters.CountingOutputStream counted = new RouteMeters.CountingOutputStream(target);
+
+        // Act
+        counted.write('{');
+        counted.write("\"type\":\"Feature\"".getBytes(StandardCharsets.UTF_8));
+        counted.write("}xx".getBytes(StandardCharsets.UTF_8), 0, 1);
+        routeMeters.recordExport(RouteMeters.GEOJSON, false, counted.getCount());
+
+        // Assert
+        assertEquals("{\"type\":\"Feature\"}", target.toString(StandardCharsets.UTF_8));
+        assertEquals(target.size(), counted.getCount());
+        assertEquals(target.size(), registry.get("route.export.bytes")
+                .tag("format", "geojson").tag("cached", "false").summary().totalAmount(), 1e-9);
+    }
+}
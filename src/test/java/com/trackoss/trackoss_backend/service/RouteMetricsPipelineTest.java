@@ -0,0 +1,186 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.entity.RouteStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteMetricsPipelineTest {
+
+    private final RouteStatisticsService routeStatisticsService = new RouteStatisticsService();
+
+    private final RouteMetricsPipeline pipeline = new RouteMetricsPipeline(RouteMetrics.defaults());
+
+    @Test
+    void run_MatchesPairwiseHaversineAndElevationRules() {
+        // Arrange
+        Random random = new Random(11);
+        PackedTrack track = new PackedTrack();
+        double latitude = 47.0;
+        double longitude = 8.0;
+        for (int i = 0; i < 5_000; i++) {
+            latitude += (random.nextDouble() - 0.4) * 0.0002;
+            longitude += (random.nextDouble() - 0.5) * 0.0003;
+            double elevation = i % 97 == 0 ? Double.NaN : 500 + random.nextGaussian() * 20;
+            track.add(latitude, longitude, elevation, PackedTrack.NO_TIMESTAMP, RoutePoint.PointType.TRACK_POINT);
+        }
+
+        double expectedDistance = 0.0;
+        double expectedGain = 0.0;
+        double expectedLoss = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < track.size(); i++) {
+            if (track.hasElevation(i)) {
+                min = Math.min(min, track.elevation(i));
+                max = Math.max(max, track.elevation(i));
+            }
+            if (i == 0) {
+                continue;
+            }
+            expectedDistance += routeStatisticsService.calculateDistance(
+                    track.latitude(i - 1), track.longitude(i - 1), track.latitude(i), track.longitude(i));
+            if (track.hasElevation(i - 1) && track.hasElevation(i)) {
+                double diff = track.elevation(i) - track.elevation(i - 1);
+                expectedGain += Math.max(diff, 0.0);
+                expectedLoss += Math.max(-diff, 0.0);
+            }
+        }
+
+        // Act
+        RouteStats stats = pipeline.run(hikingRoute(), track, new RouteStats());
+
+        // Assert
+        assertEquals(5_000, stats.getPointCount());
+        assertEquals(expectedDistance, stats.getDistance(), 1e-6);
+        assertEquals(expectedGain, stats.getElevationGain(), 1e-6);
+        assertEquals(expectedLoss, stats.getElevationLoss(), 1e-6);
+        assertEquals(min, stats.getMinElevation());
+        assertEquals(max, stats.getMaxElevation());
+        assertTrue(stats.getSmoothedElevationGain() < expectedGain);
+        assertEquals((double) RouteMetrics.estimateDuration(Route.RouteType.HIKING, expectedDistance,
+                        stats.getSmoothedElevationGain()),
+                (double) stats.getEstimatedDuration(), 1.0);
+    }
+
+    @Test
+    void pass_MeasuresGradeOverStretchesAndSkipsPausesInMovingTime() {
+        // Arrange: 20 m steps north, every step 0.8 m up and 10 s apart, with a 10 minute stop in the middle
+        RouteMetricsPipeline.Pass pass = pipeline.start(hikingRoute());
+        double step = Math.toDegrees(20.0 / 6_371_000.0);
+        long timestamp = 1_700_000_000_000L;
+
+        // Act
+        for (int i = 0; i <= 20; i++) {
+            pass.add(47.0 + i * step, 8.0, 100.0 + i * 0.8, timestamp);
+            timestamp += i == 10 ? 600_000L : 10_000L;
+        }
+        pass.add(47.0 + 20 * step, 8.0, 116.0, timestamp);
+        pass.addOffTrack(46.0, 8.0);
+        RouteStats stats = pass.finish(new RouteStats());
+
+        // Assert
+        assertEquals(400.0, stats.getDistance(), 1e-6);
+        assertEquals(16.0, stats.getElevationGain(), 1e-9);
+        assertEquals(0.0, stats.getElevationLoss());
+        assertEquals(4.0, stats.getMaxGrade(), 1e-6);
+        assertEquals(190L, stats.getMovingTime());
+        assertEquals(46.0, stats.getMinLatitude());
+        ElevationProfile profile = ElevationProfile.decode(stats.getElevationProfile());
+        assertEquals(22, profile.size()); // the off-track point has no elevation
+        assertEquals(400.0, profile.distances()[21], 0.1);
+        assertEquals(116.0, profile.elevations()[21], 0.1);
+        @SuppressWarnings("unchecked")
+        List<Double> histogram = (List<Double>) stats.getMetrics().get(RouteMetrics.GRADE_HISTOGRAM);
+        assertEquals(RouteMetrics.GRADE_BANDS.length + 1, histogram.size());
+        assertEquals(360.0, histogram.get(5), 1e-6); // 2 to 5 %, six 60 m stretches
+    }
+
+    @Test
+    void pass_RestartsGradeAfterElevationGapAndSkipsStandingInMovingTime() {
+        // Arrange: 20 m steps north 10 s apart, a point without elevation before a 39 m jump, then a 10 s stand
+        RouteMetricsPipeline.Pass pass = pipeline.start(hikingRoute());
+        double step = Math.toDegrees(20.0 / 6_371_000.0);
+        double[] elevations = {100.0, 101.0, Double.NaN, 140.0, 141.0, 142.0, 143.0};
+        long timestamp = 1_700_000_000_000L;
+
+        // Act
+        for (int i = 0; i < elevations.length; i++) {
+            pass.add(47.0 + i * step, 8.0, elevations[i], timestamp);
+            timestamp += 10_000L;
+        }
+        pass.add(47.0 + 6 * step, 8.0, 143.0, timestamp);
+        RouteStats stats = pass.finish(new RouteStats());
+
+        // Assert
+        assertEquals(120.0, stats.getDistance(), 1e-6);
+        assertEquals(4.0, stats.getElevationGain(), 1e-9);
+        // Measured from 140 m after the gap; across it the stretch from 100 m would be 66 %
+        assertEquals(5.0, stats.getMaxGrade(), 1e-6);
+        assertEquals(60L, stats.getMovingTime());
+    }
+
+    @Test
+    void run_WithoutElevations_ReportsNoElevationRange() {
+        PackedTrack track = new PackedTrack();
+        track.add(47.0, 8.0, Double.NaN, PackedTrack.NO_TIMESTAMP, RoutePoint.PointType.TRACK_POINT);
+        track.add(47.1, 8.0, Double.NaN, PackedTrack.NO_TIMESTAMP, RoutePoint.PointType.TRACK_POINT);
+
+        RouteStats stats = pipeline.run(hikingRoute(), track, new RouteStats());
+
+        assertNull(stats.getMinElevation());
+        assertNull(stats.getMaxElevation());
+        assertEquals(0.0, stats.getMaxGrade());
+        assertEquals(0L, stats.getMovingTime());
+    }
+
+    @Test
+    void additionalMetric_RunsInTheSamePassAndFinishesAfterTheBuiltInOnes() {
+        // Arrange: a metric counting points above 1000 m that also reads the distance written before it
+        RouteMetric highPoints = route -> new RouteMetric.Stage() {
+            private int count;
+
+            @Override
+            public void accept(TrackStep step) {
+                if (step.hasElevation() && step.elevation() > 1000) {
+                    count++;
+                }
+            }
+
+            @Override
+            public void finish(RouteStats stats) {
+                stats.getMetrics().put("highPoints", count);
+                stats.getMetrics().put("distanceSeen", stats.getDistance());
+            }
+        };
+        RouteStatisticsService service = new RouteStatisticsService(List.of(highPoints));
+        Route route = hikingRoute();
+        for (double elevation : new double[]{900, 1100, 1200}) {
+            RoutePoint point = new RoutePoint();
+            point.setLatitude(47.0 + elevation / 100_000);
+            point.setLongitude(8.0);
+            point.setElevation(elevation);
+            route.addRoutePoint(point);
+        }
+
+        // Act
+        service.calculateRouteStatistics(route);
+
+        // Assert
+        RouteStats stats = route.getStats();
+        assertEquals(2, stats.getMetrics().get("highPoints"));
+        assertEquals(route.getTotalDistance(), stats.getMetrics().get("distanceSeen"));
+        assertTrue(stats.getMetrics().containsKey(RouteMetrics.GRADE_HISTOGRAM));
+    }
+
+    private Route hikingRoute() {
+        Route route = new Route();
+        route.setRouteType(Route.RouteType.HIKING);
+        return route;
+    }
+}
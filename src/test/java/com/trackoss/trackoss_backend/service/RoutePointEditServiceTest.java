@@ -0,0 +1,312 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RoutePointsPatchRequest;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import com.trackoss.trackoss_backend.entity.TimeOrderedUuid;
+import com.trackoss.trackoss_backend.repository.RoutePointBatchWriter;
+import com.trackoss.trackoss_backend.repository.RoutePointRepository;
+import com.trackoss.trackoss_backend.repository.RouteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({RoutePointEditService.class, RouteStatisticsService.class, TrackStorageService.class,
+        TrackSimplificationService.class, RoutePointBatchWriter.class, RouteCache.class, RouteMeters.class})
+class RoutePointEditServiceTest {
+
+    private static final int POINTS = 20;
+
+    @Autowired
+    private RoutePointEditService routePointEditService;
+
+    @Autowired
+    private RouteStatisticsService routeStatisticsService;
+
+    @Autowired
+    private TrackStorageService trackStorageService;
+
+    @Autowired
+    private RoutePointBatchWriter routePointBatchWriter;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private RoutePointRepository routePointRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @AfterEach
+    void resetStorageMode() {
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", Route.StorageMode.ROWS);
+    }
+
+    @Test
+    void applyEdits_RowsMode_StatisticsMatchFullRecalculation() {
+        // Arrange
+        UUID routeId = createRowsRoute();
+        RoutePointsPatchRequest request = edits(
+                edit(3, 3, point(47.05, 8.05, 900.0), point(47.06, 8.06, 950.0)), // insert
+                edit(10, 12),                                                     // delete
+                edit(15, 16, point(46.9, 7.9, 300.0)));                           // move
+
+        // Act
+        RouteSummaryResponse summary = routePointEditService.applyEdits(routeId, request);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        List<RoutePoint> points = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(routeId);
+        assertEquals(POINTS + 2 - 2, points.size());
+        assertEquals(points.size(), summary.getPointCount());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(i, points.get(i).getSequenceOrder());
+        }
+        assertEquals(47.05, points.get(3).getLatitude());
+        assertEquals(47.06, points.get(4).getLatitude());
+        assertEquals(46.9, points.get(15).getLatitude());
+
+        Route route = routeRepository.findById(routeId).orElseThrow();
+        assertMatchesFullRecalculation(route, points);
+        // The moved point extends the bounding box
+        assertEquals(46.9, route.getMinLatitude());
+        assertEquals(7.9, route.getMinLongitude());
+        // Whole-line data is rebuilt with the edit, not left to the startup backfill
+        assertEquals(points.size(), route.getStats().getPointCount());
+        assertEquals(route.getTotalDistance(), route.getStats().getDistance(), 1e-6);
+        assertEquals(route.getStats().getSmoothedElevationGain(), route.getSmoothedElevationGain());
+        assertEquals(points.size(), TrackLevels.decode(route.getTrackLevels()).pointCount());
+    }
+
+    @Test
+    void applyEdits_RemovesBoundingBoxCorner_RecomputesBounds() {
+        // Arrange
+        UUID routeId = createRowsRoute();
+
+        // Act
+        routePointEditService.applyEdits(routeId, edits(edit(POINTS - 2, POINTS)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        Route route = routeRepository.findById(routeId).orElseThrow();
+        List<RoutePoint> points = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(routeId);
+        assertEquals(POINTS - 2, points.size());
+        assertEquals(points.get(points.size() - 1).getLatitude(), route.getMaxLatitude());
+        assertMatchesFullRecalculation(route, points);
+    }
+
+    @Test
+    void applyEdits_AdjacentRanges_AreMerged() {
+        // Arrange
+        UUID routeId = createRowsRoute();
+
+        // Act
+        routePointEditService.applyEdits(routeId, edits(
+                edit(5, 6, point(47.2, 8.2, 500.0)),
+                edit(6, 7, point(47.3, 8.3, 600.0))));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        Route route = routeRepository.findById(routeId).orElseThrow();
+        List<RoutePoint> points = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(routeId);
+        assertEquals(POINTS, points.size());
+        assertEquals(47.2, points.get(5).getLatitude());
+        assertEquals(47.3, points.get(6).getLatitude());
+        assertMatchesFullRecalculation(route, points);
+    }
+
+    @Test
+    void applyEdits_PackedMode_RewritesTrackAndKeepsNamedRows() {
+        // Arrange
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", Route.StorageMode.PACKED);
+        Route route = newRoute();
+        for (int i = 0; i < POINTS; i++) {
+            RoutePoint point = newPoint(i);
+            if (i == 8) {
+                point.setName("Summit");
+                point.setPointType(RoutePoint.PointType.WAYPOINT);
+            }
+            route.addRoutePoint(point);
+        }
+        routeStatisticsService.calculateRouteStatistics(route);
+        routeStatisticsService.calculateBoundingBox(route, route.getRoutePoints());
+        route.setPointCount(POINTS);
+        trackStorageService.storePoints(route);
+        entityManager.persist(route);
+        entityManager.flush();
+        entityManager.clear();
+
+        RouteCreateRequest.RoutePointRequest named = point(47.5, 8.5, 700.0);
+        named.setName("Viewpoint");
+
+        // Act
+        routePointEditService.applyEdits(route.getId(), edits(
+                edit(2, 4),
+                edit(12, 12, named, point(47.51, 8.51, 710.0))));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        Route stored = routeRepository.findById(route.getId()).orElseThrow();
+        List<RoutePoint> rows = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(route.getId());
+        assertEquals(2, rows.size());
+        assertEquals("Summit", rows.get(0).getName());
+        assertEquals(6, rows.get(0).getSequenceOrder());
+        assertEquals("Viewpoint", rows.get(1).getName());
+        assertEquals(10, rows.get(1).getSequenceOrder());
+
+        List<RoutePoint> points = trackStorageService.readPoints(stored, rows);
+        assertEquals(POINTS, points.size());
+        assertEquals(POINTS, stored.getPointCount());
+        assertEquals(47.51, points.get(11).getLatitude());
+        assertMatchesFullRecalculation(stored, points);
+        // Packed routes are decoded anyway, so their stored statistics are recalculated
+        assertEquals(POINTS, stored.getStats().getPointCount());
+        assertEquals(stored.getTotalDistance(), stored.getStats().getDistance(), 1e-6);
+    }
+
+    @Test
+    void applyEdits_OverlappingRanges_ThrowsIllegalArgumentException() {
+        // Arrange
+        UUID routeId = createRowsRoute();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> routePointEditService.applyEdits(routeId, edits(edit(2, 6), edit(5, 8))));
+        assertEquals(POINTS, routePointRepository.countByRouteId(routeId));
+    }
+
+    @Test
+    void applyEdits_RangePastLastPoint_ThrowsIllegalArgumentException() {
+        // Arrange
+        UUID routeId = createRowsRoute();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> routePointEditService.applyEdits(routeId, edits(edit(POINTS - 1, POINTS + 1))));
+    }
+
+    @Test
+    void applyEdits_RemovesEveryPoint_ThrowsIllegalArgumentException() {
+        // Arrange
+        UUID routeId = createRowsRoute();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> routePointEditService.applyEdits(routeId, edits(edit(0, POINTS))));
+    }
+
+    @Test
+    void applyEdits_MissingOrUnknownPointType_ThrowsIllegalArgumentException() {
+        // Arrange
+        UUID routeId = createRowsRoute();
+        RouteCreateRequest.RoutePointRequest untyped = point(47.5, 8.5, 700.0);
+        untyped.setPointType(null);
+        RouteCreateRequest.RoutePointRequest unknown = point(47.5, 8.5, 700.0);
+        unknown.setPointType("SUMMIT");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> routePointEditService.applyEdits(routeId, edits(edit(2, 3, untyped))));
+        assertThrows(IllegalArgumentException.class,
+                () -> routePointEditService.applyEdits(routeId, edits(edit(2, 3, unknown))));
+        assertEquals(POINTS, routePointRepository.countByRouteId(routeId));
+    }
+
+    private void assertMatchesFullRecalculation(Route route, List<RoutePoint> points) {
+        Route expected = newRoute();
+        expected.setRouteType(route.getRouteType());
+        expected.setRoutePoints(new ArrayList<>(points));
+        routeStatisticsService.calculateRouteStatistics(expected);
+        routeStatisticsService.calculateBoundingBox(expected, points);
+
+        assertEquals(expected.getTotalDistance(), route.getTotalDistance(), 1e-6);
+        assertEquals(expected.getTotalElevationGain(), route.getTotalElevationGain(), 1e-6);
+        assertEquals(expected.getEstimatedDuration().doubleValue(), route.getEstimatedDuration().doubleValue(), 1.0);
+        assertEquals(expected.getMinLatitude(), route.getMinLatitude());
+        assertEquals(expected.getMaxLatitude(), route.getMaxLatitude());
+        assertEquals(expected.getMinLongitude(), route.getMinLongitude());
+        assertEquals(expected.getMaxLongitude(), route.getMaxLongitude());
+    }
+
+    private UUID createRowsRoute() {
+        Route route = newRoute();
+        List<RoutePoint> points = new ArrayList<>();
+        for (int i = 0; i < POINTS; i++) {
+            points.add(newPoint(i));
+        }
+        route.setRoutePoints(new ArrayList<>(points));
+        routeStatisticsService.calculateRouteStatistics(route);
+        routeStatisticsService.calculateBoundingBox(route, points);
+        route.setPointCount(POINTS);
+        route.setRoutePoints(new ArrayList<>());
+
+        entityManager.persist(route);
+        routePointBatchWriter.insert(route.getId(), points);
+        entityManager.flush();
+        entityManager.clear();
+        return route.getId();
+    }
+
+    private Route newRoute() {
+        Route route = new Route();
+        route.setId(UUID.randomUUID());
+        route.setName("Edited Route");
+        route.setRouteType(Route.RouteType.CYCLING);
+        route.setIsPublic(false);
+        return route;
+    }
+
+    private RoutePoint newPoint(int sequence) {
+        RoutePoint point = new RoutePoint();
+        point.setId(TimeOrderedUuid.next());
+        point.setSequenceOrder(sequence);
+        point.setLatitude(47.0 + sequence * 0.01);
+        point.setLongitude(8.0 + sequence * 0.01);
+        // Up and down so both the gain and the skipped descents are exercised
+        point.setElevation(400.0 + (sequence % 4) * 25.0);
+        point.setPointType(RoutePoint.PointType.TRACK_POINT);
+        return point;
+    }
+
+    private RouteCreateRequest.RoutePointRequest point(double latitude, double longitude, Double elevation) {
+        RouteCreateRequest.RoutePointRequest point = new RouteCreateRequest.RoutePointRequest();
+        point.setLatitude(latitude);
+        point.setLongitude(longitude);
+        point.setElevation(elevation);
+        return point;
+    }
+
+    private RoutePointsPatchRequest.RangeEdit edit(int from, int to, RouteCreateRequest.RoutePointRequest... points) {
+        RoutePointsPatchRequest.RangeEdit edit = new RoutePointsPatchRequest.RangeEdit();
+        edit.setFromSequence(from);
+        edit.setToSequence(to);
+        edit.setPoints(List.of(points));
+        return edit;
+    }
+
+    private RoutePointsPatchRequest edits(RoutePointsPatchRequest.RangeEdit... edits) {
+        RoutePointsPatchRequest request = new RoutePointsPatchRequest();
+        request.setEdits(List.of(edits));
+        return request;
+    }
+}
@@ -1,14 +1,18 @@
 package com.trackoss.trackoss_backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
 import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.repository.RoutePointBatchWriter;
 import com.trackoss.trackoss_backend.repository.RouteRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -30,6 +34,24 @@ class RouteServiceDifficultyTest {
     @Mock
     private RouteStatisticsService routeStatisticsService;
 
+    @Mock
+    private RoutePointBatchWriter routePointBatchWriter;
+
+    @Spy
+    private TrackStorageService trackStorageService = new TrackStorageService();
+
+    @Spy
+    private TrackSimplificationService trackSimplificationService = new TrackSimplificationService();
+
+    @Spy
+    private RouteCache routeCache = new RouteCache(10_000, 1_000);
+
+    @Spy
+    private RouteMeters routeMeters = RouteMeters.none();
+
+    @Spy
+    private RouteMetadataSync routeMetadataSync = new RouteMetadataSync(new ObjectMapper());
+
     @InjectMocks
     private RouteService routeService;
 
@@ -72,21 +94,21 @@ class RouteServiceDifficultyTest {
     void findByDifficulty_ShouldReturnMatchingRoutes() {
         // Arrange
         Integer difficulty = 3;
-        List<Route> routes = Collections.singletonList(testRoute);
-        Page<Route> routePage = new PageImpl<>(routes, pageable, 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(createSummary(testRoute));
+        Page<RouteSummaryResponse> routePage = new PageImpl<>(routes, pageable, 1);
         
-        when(routeRepository.findByDifficulty(eq(difficulty), eq(pageable)))
+        when(routeRepository.findSummariesByDifficulty(eq(difficulty), eq(pageable)))
                 .thenReturn(routePage);
 
         // Act
-        Page<RouteResponse> result = routeService.findByDifficulty(difficulty, pageable);
+        Page<RouteSummaryResponse> result = routeService.findByDifficulty(difficulty, pageable);
 
         // Assert
         assertEquals(1, result.getTotalElements());
         assertEquals(testRoute.getName(), result.getContent().get(0).getName());
         assertEquals(testRoute.getDifficulty(), result.getContent().get(0).getDifficulty());
         
-        verify(routeRepository).findByDifficulty(difficulty, pageable);
+        verify(routeRepository).findSummariesByDifficulty(difficulty, pageable);
     }
 
     @Test
@@ -99,21 +121,21 @@ class RouteServiceDifficultyTest {
         String surfaceType = "asphalt";
         Boolean isPublic = true;
         
-        List<Route> routes = Collections.singletonList(testRoute);
-        Page<Route> routePage = new PageImpl<>(routes, pageable, 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(createSummary(testRoute));
+        Page<RouteSummaryResponse> routePage = new PageImpl<>(routes, pageable, 1);
         
-        when(routeRepository.findWithFilters(
+        when(routeRepository.findSummariesWithFilters(
                 eq(difficulty),
                 eq(routeType),
                 eq(minDistance),
                 eq(maxDistance),
-                contains(surfaceType),
+                eq(surfaceType),
                 eq(isPublic),
                 eq(pageable)
         )).thenReturn(routePage);
 
         // Act
-        Page<RouteResponse> result = routeService.getRoutesWithFilters(
+        Page<RouteSummaryResponse> result = routeService.getRoutesWithFilters(
                 difficulty,
                 routeType,
                 minDistance,
@@ -128,12 +150,12 @@ class RouteServiceDifficultyTest {
         assertEquals(testRoute.getName(), result.getContent().get(0).getName());
         assertEquals(testRoute.getDifficulty(), result.getContent().get(0).getDifficulty());
         
-        verify(routeRepository).findWithFilters(
+        verify(routeRepository).findSummariesWithFilters(
                 difficulty,
                 routeType,
                 minDistance,
                 maxDistance,
-                "\"surface\":\"" + surfaceType + "\"",
+                surfaceType,
                 isPublic,
                 pageable
         );
@@ -155,6 +177,9 @@ class RouteServiceDifficultyTest {
             route.getDifficulty() != null && 
             route.getDifficulty().equals(testRequest.getDifficulty())
         ));
+        // Point rows are batch inserted, not cascaded with the route
+        verify(routePointBatchWriter).insert(eq(testRouteId),
+                argThat(rows -> rows.size() == testRequest.getPoints().size()));
     }
 
     @Test
@@ -181,10 +206,10 @@ class RouteServiceDifficultyTest {
     @Test
     void getRoutesWithFilters_NullParameters_ShouldHandleNullValues() {
         // Arrange
-        List<Route> routes = Collections.singletonList(testRoute);
-        Page<Route> routePage = new PageImpl<>(routes, pageable, 1);
+        List<RouteSummaryResponse> routes = Collections.singletonList(createSummary(testRoute));
+        Page<RouteSummaryResponse> routePage = new PageImpl<>(routes, pageable, 1);
         
-        when(routeRepository.findWithFilters(
+        when(routeRepository.findSummariesWithFilters(
                 isNull(),
                 isNull(),
                 isNull(),
@@ -195,7 +220,7 @@ class RouteServiceDifficultyTest {
         )).thenReturn(routePage);
 
         // Act
-        Page<RouteResponse> result = routeService.getRoutesWithFilters(
+        Page<RouteSummaryResponse> result = routeService.getRoutesWithFilters(
                 null,
                 null,
                 null,
@@ -208,7 +233,7 @@ class RouteServiceDifficultyTest {
         // Assert
         assertEquals(1, result.getTotalElements());
         
-        verify(routeRepository).findWithFilters(
+        verify(routeRepository).findSummariesWithFilters(
                 null,
                 null,
                 null,
@@ -218,4 +243,11 @@ class RouteServiceDifficultyTest {
                 pageable
         );
     }
-}
\ No newline at end of file
+
+    private RouteSummaryResponse createSummary(Route route) {
+        return new RouteSummaryResponse(route.getId(), route.getName(), route.getDescription(),
+                route.getCreatedAt(), route.getUpdatedAt(), route.getUserId(), route.getTotalDistance(),
+                route.getTotalElevationGain(), route.getEstimatedDuration(), route.getRouteType(),
+                route.getIsPublic(), route.getDifficulty(), route.getMetadata(), route.getPointCount());
+    }
+}
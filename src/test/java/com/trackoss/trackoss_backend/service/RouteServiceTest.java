@@ -1,7 +1,10 @@
 package com.trackoss.trackoss_backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trackoss.trackoss_backend.dto.RouteCreateRequest;
+import com.trackoss.trackoss_backend.dto.RoutePatchRequest;
 import com.trackoss.trackoss_backend.dto.RouteResponse;
+import com.trackoss.trackoss_backend.dto.RouteSummaryResponse;
 import com.trackoss.trackoss_backend.entity.Route;
 import com.trackoss.trackoss_backend.entity.RoutePoint;
 import com.trackoss.trackoss_backend.repository.RouteRepository;
@@ -10,12 +13,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +33,21 @@ class RouteServiceTest {
     @Mock
     private RouteRepository routeRepository;
 
+    @Spy
+    private TrackStorageService trackStorageService = new TrackStorageService();
+
+    @Spy
+    private RouteStatisticsService routeStatisticsService = new RouteStatisticsService();
+
+    @Spy
+    private RouteCache routeCache = new RouteCache(10_000, 1_000);
+
+    @Spy
+    private RouteMeters routeMeters = RouteMeters.none();
+
+    @Spy
+    private RouteMetadataSync routeMetadataSync = new RouteMetadataSync(new ObjectMapper());
+
     @InjectMocks
     private RouteService routeService;
 
@@ -110,14 +130,14 @@ class RouteServiceTest {
                 .thenReturn(routePage);
 
         // Act
-        Page<RouteResponse> result = routeService.findNearbyRoutes(latitude, longitude, radiusKm, pageable);
+        Page<RouteSummaryResponse> result = routeService.findNearbyRoutes(latitude, longitude, radiusKm, pageable);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(1, result.getContent().size());
         
-        RouteResponse routeResponse = result.getContent().get(0);
+        RouteSummaryResponse routeResponse = result.getContent().get(0);
         assertEquals(testRoute.getId(), routeResponse.getId());
         assertEquals(testRoute.getName(), routeResponse.getName());
         assertEquals(testRoute.getIsPublic(), routeResponse.getIsPublic());
@@ -139,7 +159,7 @@ class RouteServiceTest {
                 .thenReturn(emptyPage);
 
         // Act
-        Page<RouteResponse> result = routeService.findNearbyRoutes(latitude, longitude, radiusKm, pageable);
+        Page<RouteSummaryResponse> result = routeService.findNearbyRoutes(latitude, longitude, radiusKm, pageable);
 
         // Assert
         assertNotNull(result);
@@ -153,28 +173,29 @@ class RouteServiceTest {
     void getPublicRoutes_ReturnsOnlyPublicRoutes() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 20);
-        List<Route> publicRoutes = Collections.singletonList(testRoute);
-        Page<Route> routePage = new PageImpl<>(publicRoutes, pageable, 1);
+        List<RouteSummaryResponse> publicRoutes = Collections.singletonList(createSummary(testRoute));
+        Page<RouteSummaryResponse> routePage = new PageImpl<>(publicRoutes, pageable, 1);
         
-        when(routeRepository.findByIsPublicTrue(eq(pageable))).thenReturn(routePage);
+        when(routeRepository.findPublicSummaries(eq(pageable))).thenReturn(routePage);
 
         // Act
-        Page<RouteResponse> result = routeService.getPublicRoutes(pageable);
+        Page<RouteSummaryResponse> result = routeService.getPublicRoutes(pageable);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(1, result.getContent().size());
         
-        RouteResponse routeResponse = result.getContent().get(0);
+        RouteSummaryResponse routeResponse = result.getContent().get(0);
         assertTrue(routeResponse.getIsPublic());
 
-        verify(routeRepository).findByIsPublicTrue(eq(pageable));
+        verify(routeRepository).findPublicSummaries(eq(pageable));
     }
 
     @Test
     void getRoute_ExistingRoute_ReturnsRouteResponse() {
         // Arrange
+        when(routeRepository.findSummaryById(testRouteId)).thenReturn(Optional.of(createSummary(testRoute)));
         when(routeRepository.findById(testRouteId)).thenReturn(Optional.of(testRoute));
 
         // Act
@@ -193,7 +214,7 @@ class RouteServiceTest {
     @Test
     void getRoute_NonExistentRoute_ReturnsEmpty() {
         // Arrange
-        when(routeRepository.findById(testRouteId)).thenReturn(Optional.empty());
+        when(routeRepository.findSummaryById(testRouteId)).thenReturn(Optional.empty());
 
         // Act
         Optional<RouteResponse> result = routeService.getRoute(testRouteId);
@@ -201,7 +222,28 @@ class RouteServiceTest {
         // Assert
         assertFalse(result.isPresent());
 
-        verify(routeRepository).findById(testRouteId);
+        verify(routeRepository).findSummaryById(testRouteId);
+        verify(routeRepository, never()).findById(any());
+    }
+
+    @Test
+    void getRoute_Unchanged_ServedFromCacheUntilUpdated() {
+        // Arrange
+        testRoute.setUpdatedAt(LocalDateTime.of(2025, 5, 1, 12, 0));
+        when(routeRepository.findSummaryById(testRouteId)).thenReturn(Optional.of(createSummary(testRoute)));
+        when(routeRepository.findById(testRouteId)).thenReturn(Optional.of(testRoute));
+
+        // Act
+        RouteResponse first = routeService.getRoute(testRouteId).orElseThrow();
+        RouteResponse second = routeService.getRoute(testRouteId).orElseThrow();
+        testRoute.setUpdatedAt(testRoute.getUpdatedAt().plusSeconds(1));
+        when(routeRepository.findSummaryById(testRouteId)).thenReturn(Optional.of(createSummary(testRoute)));
+        RouteResponse afterUpdate = routeService.getRoute(testRouteId).orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, afterUpdate);
+        verify(routeRepository, times(2)).findById(testRouteId);
     }
 
     @Test
@@ -215,6 +257,7 @@ class RouteServiceTest {
         // Assert
         verify(routeRepository).existsById(testRouteId);
         verify(routeRepository).deleteById(testRouteId);
+        verify(routeCache).evict(testRouteId);
     }
 
     @Test
@@ -230,4 +273,63 @@ class RouteServiceTest {
         verify(routeRepository).existsById(testRouteId);
         verify(routeRepository, never()).deleteById(any());
     }
+
+    @Test
+    void patchRoute_OnlyGivenFields_KeepsOthersAndPoints() {
+        // Arrange
+        when(routeRepository.findById(testRouteId)).thenReturn(Optional.of(testRoute));
+        when(routeRepository.save(testRoute)).thenReturn(testRoute);
+        RoutePatchRequest request = new RoutePatchRequest();
+        request.setName("Renamed Route");
+        request.setIsPublic(false);
+
+        // Act
+        RouteSummaryResponse result = routeService.patchRoute(testRouteId, request);
+
+        // Assert
+        assertEquals("Renamed Route", result.getName());
+        assertFalse(result.getIsPublic());
+        assertEquals("Test Description", result.getDescription());
+        assertEquals(3, result.getDifficulty());
+        assertEquals(10000.0, result.getTotalDistance());
+        assertEquals(3600L, result.getEstimatedDuration());
+        assertEquals(2, testRoute.getRoutePoints().size());
+        verifyNoInteractions(routeStatisticsService);
+    }
+
+    @Test
+    void patchRoute_NewRouteType_RecalculatesDurationOnly() {
+        // Arrange
+        when(routeRepository.findById(testRouteId)).thenReturn(Optional.of(testRoute));
+        when(routeRepository.save(testRoute)).thenReturn(testRoute);
+        RoutePatchRequest request = new RoutePatchRequest();
+        request.setRouteType(Route.RouteType.HIKING);
+
+        // Act
+        RouteSummaryResponse result = routeService.patchRoute(testRouteId, request);
+
+        // Assert
+        assertEquals(Route.RouteType.HIKING, result.getRouteType());
+        assertEquals(10000.0, result.getTotalDistance());
+        assertNotEquals(3600L, result.getEstimatedDuration());
+        verify(routeStatisticsService).recalculateEstimatedDuration(testRoute);
+        verify(routeStatisticsService, never()).calculateRouteStatistics(any());
+    }
+
+    @Test
+    void patchRoute_NonExistentRoute_ThrowsException() {
+        // Arrange
+        when(routeRepository.findById(testRouteId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> routeService.patchRoute(testRouteId, new RoutePatchRequest()));
+        verify(routeRepository, never()).save(any());
+    }
+
+    private RouteSummaryResponse createSummary(Route route) {
+        return new RouteSummaryResponse(route.getId(), route.getName(), route.getDescription(),
+                route.getCreatedAt(), route.getUpdatedAt(), route.getUserId(), route.getTotalDistance(),
+                route.getTotalElevationGain(), route.getEstimatedDuration(), route.getRouteType(),
+                route.getIsPublic(), route.getDifficulty(), route.getMetadata(), route.getPointCount());
+    }
 }
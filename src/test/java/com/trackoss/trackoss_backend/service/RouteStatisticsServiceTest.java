@@ -59,6 +59,7 @@ class RouteStatisticsServiceTest {
         
         assertNotNull(route.getTotalElevationGain());
         assertEquals(50.0, route.getTotalElevationGain(), 0.1); // 150 - 100 = 50m gain
+        assertEquals(50.0, route.getSmoothedElevationGain(), 0.1); // well above the hysteresis
         
         assertNotNull(route.getEstimatedDuration());
         assertTrue(route.getEstimatedDuration() > 0);
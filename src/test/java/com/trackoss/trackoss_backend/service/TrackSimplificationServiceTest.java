@@ -0,0 +1,205 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackSimplificationServiceTest {
+
+    private static final int POINTS = 2_000;
+
+    private TrackSimplificationService trackSimplificationService;
+
+    @BeforeEach
+    void setUp() {
+        trackSimplificationService = new TrackSimplificationService();
+    }
+
+    @Test
+    void douglasPeuckerRanks_MatchRecursiveDouglasPeuckerAtEveryTolerance() {
+        // Arrange
+        PackedTrack track = randomWalk(POINTS, 42);
+        double[] ranks = TrackSimplifier.douglasPeuckerRanks(track.latitudes(), track.longitudes(), POINTS);
+
+        for (double tolerance : new double[]{0.5, 2, 10, 50, 250}) {
+            // Act
+            int[] selected = TrackSimplifier.select(ranks, POINTS, tolerance);
+
+            // Assert
+            assertArrayEquals(referenceDouglasPeucker(track, tolerance), selected, "tolerance " + tolerance);
+        }
+    }
+
+    @Test
+    void visvalingamRanks_DropSmallDetoursBeforeLargeOnes() {
+        // Arrange: straight line along a meridian with a 5 m and a 500 m detour
+        PackedTrack track = new PackedTrack();
+        for (int i = 0; i < 20; i++) {
+            double offset = i == 5 ? 0.00005 : i == 15 ? 0.005 : 0.0;
+            track.add(47.0 + i * 0.001, 8.0 + offset, Double.NaN, PackedTrack.NO_TIMESTAMP, RoutePoint.PointType.TRACK_POINT);
+        }
+
+        // Act
+        double[] ranks = TrackSimplifier.visvalingamRanks(track.latitudes(), track.longitudes(), track.size());
+
+        // Assert
+        assertArrayEquals(new int[]{0, 4, 5, 6, 14, 15, 16, 19}, TrackSimplifier.select(ranks, track.size(), 1.0));
+        assertArrayEquals(new int[]{0, 14, 15, 16, 19}, TrackSimplifier.select(ranks, track.size(), 100.0));
+        assertArrayEquals(new int[]{0, 19}, TrackSimplifier.select(ranks, track.size(), 10_000.0));
+    }
+
+    @Test
+    void storeLevels_KeepsWaypointsAndRoundTrips() {
+        // Arrange
+        PackedTrack track = randomWalk(POINTS, 7);
+        PackedTrack withWaypoint = new PackedTrack(POINTS + 1);
+        for (int i = 0; i < POINTS; i++) {
+            if (i == 100) {
+                withWaypoint.add(46.0, 7.0, Double.NaN, PackedTrack.NO_TIMESTAMP, RoutePoint.PointType.WAYPOINT);
+            }
+            withWaypoint.add(track.latitude(i), track.longitude(i), Double.NaN, PackedTrack.NO_TIMESTAMP,
+                    RoutePoint.PointType.TRACK_POINT);
+        }
+        Route route = new Route();
+        route.setPointCount(withWaypoint.size());
+
+        // Act
+        trackSimplificationService.storeLevels(route, withWaypoint);
+        TrackLevels levels = TrackLevels.decode(route.getTrackLevels());
+
+        // Assert
+        assertEquals(POINTS + 1, levels.pointCount());
+        assertEquals(4, levels.levelCount());
+        int previousSize = Integer.MAX_VALUE;
+        for (int level = 0; level < levels.levelCount(); level++) {
+            int[] positions = levels.positions(level);
+            assertTrue(positions.length < previousSize, "coarser levels keep fewer points");
+            assertEquals(0, positions[0]);
+            assertEquals(POINTS, positions[positions.length - 1]);
+            assertTrue(levels.toBitSet(level).get(100), "waypoint kept");
+            previousSize = positions.length;
+        }
+    }
+
+    @Test
+    void simplify_PicksCoarsestLevelWithinTolerance() {
+        // Arrange
+        PackedTrack track = randomWalk(POINTS, 3);
+        Route route = new Route();
+        route.setPointCount(POINTS);
+        trackSimplificationService.storeLevels(route, track);
+
+        // Act
+        TrackSimplificationService.Simplification simplification =
+                trackSimplificationService.simplify(route, 30.0, () -> fail("levels should be used"));
+        TrackSimplificationService.Simplification full =
+                trackSimplificationService.simplify(route, 1.0, () -> fail("levels should be used"));
+
+        // Assert
+        assertEquals(10.0, simplification.tolerance());
+        assertNull(full);
+    }
+
+    @Test
+    void simplify_StaleLevels_SimplifiesOnTheFly() {
+        // Arrange
+        PackedTrack track = randomWalk(POINTS, 5);
+        Route route = new Route();
+        trackSimplificationService.storeLevels(route, randomWalk(10, 5));
+        route.setPointCount(POINTS);
+
+        // Act
+        TrackSimplificationService.Simplification simplification =
+                trackSimplificationService.simplify(route, 30.0, () -> track);
+
+        // Assert
+        BitSet expected = new BitSet();
+        for (int position : referenceDouglasPeucker(track, 30.0)) {
+            expected.set(position);
+        }
+        assertEquals(30.0, simplification.tolerance());
+        assertEquals(expected, simplification.kept());
+    }
+
+    @Test
+    void toleranceForZoom_HalvesWithEachZoomLevel() {
+        Route route = new Route();
+        route.setMinLatitude(0.0);
+        route.setMaxLatitude(0.0);
+
+        assertEquals(156_543.03392, trackSimplificationService.toleranceForZoom(route, 0), 1e-6);
+        assertEquals(156_543.03392 / 4096, trackSimplificationService.toleranceForZoom(route, 12), 1e-6);
+    }
+
+    private PackedTrack randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        PackedTrack track = new PackedTrack(size);
+        double latitude = 47.0;
+        double longitude = 8.0;
+        for (int i = 0; i < size; i++) {
+            latitude += (random.nextDouble() - 0.3) * 0.0002;
+            longitude += (random.nextDouble() - 0.5) * 0.0003;
+            track.add(latitude, longitude, Double.NaN, PackedTrack.NO_TIMESTAMP, RoutePoint.PointType.TRACK_POINT);
+        }
+        return track;
+    }
+
+    // Textbook recursive Douglas–Peucker on the same projection
+    private int[] referenceDouglasPeucker(PackedTrack track, double tolerance) {
+        int size = track.size();
+        double cosLatitude = Math.cos(Math.toRadians(track.latitude(0)));
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = Math.toRadians(track.longitude(i)) * cosLatitude * 6_371_000.0;
+            y[i] = Math.toRadians(track.latitude(i)) * 6_371_000.0;
+        }
+        boolean[] keep = new boolean[size];
+        keep[0] = true;
+        keep[size - 1] = true;
+        simplify(x, y, 0, size - 1, tolerance, keep);
+
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (keep[i]) {
+                kept.add(i);
+            }
+        }
+        return kept.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void simplify(double[] x, double[] y, int first, int last, double tolerance, boolean[] keep) {
+        if (last - first < 2) {
+            return;
+        }
+        int split = -1;
+        double maxDistance = -1;
+        for (int i = first + 1; i < last; i++) {
+            double dx = x[last] - x[first];
+            double dy = y[last] - y[first];
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared > 0 ? ((x[i] - x[first]) * dx + (y[i] - y[first]) * dy) / lengthSquared : 0.0;
+            t = Math.max(0.0, Math.min(1.0, t));
+            double ex = x[i] - (x[first] + t * dx);
+            double ey = y[i] - (y[first] + t * dy);
+            double distance = ex * ex + ey * ey;
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                split = i;
+            }
+        }
+        if (Math.sqrt(maxDistance) > tolerance) {
+            keep[split] = true;
+            simplify(x, y, first, split, tolerance, keep);
+            simplify(x, y, split, last, tolerance, keep);
+        }
+    }
+}
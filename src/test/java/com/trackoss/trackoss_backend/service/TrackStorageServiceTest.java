@@ -0,0 +1,190 @@
+package com.trackoss.trackoss_backend.service;
+
+import com.trackoss.trackoss_backend.entity.Route;
+import com.trackoss.trackoss_backend.entity.RoutePoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackStorageServiceTest {
+
+    private TrackStorageService trackStorageService;
+
+    @BeforeEach
+    void setUp() {
+        trackStorageService = new TrackStorageService();
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", Route.StorageMode.PACKED);
+    }
+
+    @Test
+    void storePoints_PackedMode_KeepsOnlyNamedPointsAsRows() {
+        // Arrange
+        Route route = createRoute();
+
+        // Act
+        trackStorageService.storePoints(route);
+
+        // Assert
+        assertEquals(Route.StorageMode.PACKED, route.getStorageMode());
+        assertNotNull(route.getTrackData());
+        assertEquals(1, route.getRoutePoints().size());
+        assertEquals("Summit", route.getRoutePoints().get(0).getName());
+    }
+
+    @Test
+    void storePoints_PackedMode_KeepsUnnamedWaypointAndDescribedPointAsRows() {
+        // Arrange
+        Route route = createRoute();
+        route.getRoutePoints().get(2).setName(null);
+        route.getRoutePoints().get(1).setDescription("Water fountain");
+
+        // Act
+        trackStorageService.storePoints(route);
+
+        // Assert
+        assertEquals(2, route.getRoutePoints().size());
+        assertEquals("Water fountain", route.getRoutePoints().get(0).getDescription());
+        assertEquals(RoutePoint.PointType.WAYPOINT, route.getRoutePoints().get(1).getPointType());
+        assertEquals(4, trackStorageService.readPoints(route).size());
+    }
+
+    @Test
+    void readPoints_PackedRoute_RestoresSequenceAndValues() {
+        // Arrange
+        Route route = createRoute();
+        trackStorageService.storePoints(route);
+
+        // Act
+        List<RoutePoint> points = trackStorageService.readPoints(route);
+
+        // Assert
+        assertEquals(4, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(i, points.get(i).getSequenceOrder());
+        }
+
+        assertEquals(RoutePoint.PointType.START_POINT, points.get(0).getPointType());
+        assertEquals(47.6062, points.get(0).getLatitude());
+        assertEquals(-122.3321, points.get(0).getLongitude());
+        assertEquals(100.0, points.get(0).getElevation());
+        assertEquals(LocalDateTime.of(2024, 8, 8, 12, 0), points.get(0).getTimestamp());
+
+        assertNull(points.get(1).getElevation());
+        assertNull(points.get(1).getTimestamp());
+
+        assertEquals("Summit", points.get(2).getName());
+        assertEquals(RoutePoint.PointType.WAYPOINT, points.get(2).getPointType());
+
+        assertEquals(RoutePoint.PointType.END_POINT, points.get(3).getPointType());
+        assertEquals(47.6262, points.get(3).getLatitude());
+        assertEquals(151.25, points.get(3).getElevation());
+    }
+
+    @Test
+    void storePoints_RowsMode_LeavesPointsUntouched() {
+        // Arrange
+        ReflectionTestUtils.setField(trackStorageService, "storageMode", Route.StorageMode.ROWS);
+        Route route = createRoute();
+
+        // Act
+        trackStorageService.storePoints(route);
+
+        // Assert
+        assertEquals(Route.StorageMode.ROWS, route.getStorageMode());
+        assertNull(route.getTrackData());
+        assertEquals(4, route.getRoutePoints().size());
+        assertSame(route.getRoutePoints(), trackStorageService.readPoints(route));
+    }
+
+    @Test
+    void packRows_RowStoredRoute_IteratesSamePointsInOrder() {
+        // Arrange
+        Route route = createRoute();
+        List<RoutePoint> rows = List.copyOf(route.getRoutePoints());
+        List<RoutePoint> namedRows = new ArrayList<>();
+
+        // Act
+        PackedTrack track = trackStorageService.packRows(rows.iterator(), namedRows);
+        List<RoutePoint> points = new ArrayList<>();
+        trackStorageService.iteratePoints(route, track, namedRows).forEachRemaining(points::add);
+
+        // Assert
+        assertEquals(3, track.size());
+        assertEquals(List.of(rows.get(2)), namedRows);
+        assertEquals(4, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(i, points.get(i).getSequenceOrder());
+            assertEquals(rows.get(i).getLatitude(), points.get(i).getLatitude());
+            assertEquals(rows.get(i).getPointType(), points.get(i).getPointType());
+        }
+        assertSame(rows.get(2), points.get(2));
+        assertEquals(LocalDateTime.of(2024, 8, 8, 12, 0), points.get(0).getTimestamp());
+        assertNull(points.get(1).getElevation());
+    }
+
+    @Test
+    void epochMillis_MatchesInstantConversion() {
+        LocalDateTime afterEpoch = LocalDateTime.of(2024, 8, 8, 12, 0, 1, 987_654_321);
+        LocalDateTime beforeEpoch = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000);
+
+        assertEquals(afterEpoch.toInstant(ZoneOffset.UTC).toEpochMilli(), PackedTrack.epochMillis(afterEpoch));
+        assertEquals(-500L, PackedTrack.epochMillis(beforeEpoch));
+        assertEquals(PackedTrack.NO_TIMESTAMP, PackedTrack.epochMillis(null));
+    }
+
+    @Test
+    void codec_RoundTripsLargeTrackWithinPrecision() {
+        // Arrange
+        PackedTrack track = new PackedTrack();
+        for (int i = 0; i < 10_000; i++) {
+            track.add(47.0 + i * 0.0000137, 8.0 - i * 0.0000291, 400.0 + Math.sin(i / 50.0) * 30.0,
+                    1_700_000_000_000L + i * 1000L, RoutePoint.PointType.TRACK_POINT);
+        }
+
+        // Act
+        byte[] encoded = TrackCodec.encode(track);
+        PackedTrack decoded = TrackCodec.decode(encoded);
+
+        // Assert
+        assertEquals(track.size(), decoded.size());
+        assertTrue(encoded.length < track.size() * 12,
+                "Packed track should be far smaller than raw doubles, was " + encoded.length + " bytes");
+        for (int i = 0; i < track.size(); i++) {
+            assertEquals(track.latitude(i), decoded.latitude(i), 1e-7);
+            assertEquals(track.longitude(i), decoded.longitude(i), 1e-7);
+            assertEquals(track.elevation(i), decoded.elevation(i), 0.01);
+            assertEquals(track.timestamp(i), decoded.timestamp(i));
+        }
+    }
+
+    private Route createRoute() {
+        Route route = new Route();
+        route.setRouteType(Route.RouteType.CYCLING);
+
+        route.addRoutePoint(createPoint(0, 47.6062, -122.3321, 100.0, RoutePoint.PointType.START_POINT, null));
+        route.getRoutePoints().get(0).setTimestamp(LocalDateTime.of(2024, 8, 8, 12, 0));
+        route.addRoutePoint(createPoint(1, 47.6162, -122.3221, null, RoutePoint.PointType.TRACK_POINT, null));
+        route.addRoutePoint(createPoint(2, 47.6200, -122.3200, 180.0, RoutePoint.PointType.WAYPOINT, "Summit"));
+        route.addRoutePoint(createPoint(3, 47.6262, -122.3121, 151.25, RoutePoint.PointType.END_POINT, null));
+        return route;
+    }
+
+    private RoutePoint createPoint(int sequence, double latitude, double longitude, Double elevation,
+                                   RoutePoint.PointType pointType, String name) {
+        RoutePoint point = new RoutePoint();
+        point.setSequenceOrder(sequence);
+        point.setLatitude(latitude);
+        point.setLongitude(longitude);
+        point.setElevation(elevation);
+        point.setPointType(pointType);
+        point.setName(name);
+        return point;
+    }
+}